@@ -0,0 +1,187 @@
+package com.mygdx.snakegame;
+
+/**
+ * Builds boards for the benchmarks: snakes of a given length laid on closed loops, so they can
+ * move forever without eating or hitting anything, and filler segments that cover the rest of
+ * the board up to a given fill ratio.
+ * <p>
+ * The board is a square. Player {@code p} owns the band of rows {@code [p * rows, (p + 1) * rows)},
+ * covered by a Hamiltonian cycle: along the first row, back and forth over the other columns,
+ * and back along the first column. Rows above the bands hold the filler and the items.
+ */
+final class BenchmarkBoard {
+    private static final int MIN_SIDE = 16;
+    private static final int FILLER_ID = 1000; // Owner id of the filler segments
+    private static final int FAST_SPEED_LEVEL = 240; // Speed level at which a snake moves on every tick
+    private static final double FILLABLE_BAND_SHARE = 0.01; // Band share that lets every benchmarked fill ratio be reached
+
+    final int side; // Width and height of the board
+    final int rows; // Height of the band of each player, even
+    final int bandCells; // Number of cells covered by the bands
+    final int[][] cycles; // Cells of the loop of each player, in travel order
+    final int[] nextDirection; // Direction to follow from each cell of a loop
+
+    /**
+     * Sizes a board for snakes of a given length, large enough for fill ratios up to 0.99.
+     * The size only depends on the length and the player count, so results at different fill
+     * ratios compare the same board.
+     *
+     * @param length  Length of each snake.
+     * @param players Number of snakes.
+     */
+    BenchmarkBoard(int length, int players) {
+        this(length, players, FILLABLE_BAND_SHARE);
+    }
+
+    /**
+     * Sizes a board for snakes of a given length.
+     *
+     * @param length       Length of each snake.
+     * @param players      Number of snakes.
+     * @param maxBandShare Largest share of the board the bands may cover, which bounds the highest fill ratio
+     *                     that can be reached exactly.
+     */
+    BenchmarkBoard(int length, int players, double maxBandShare) {
+        int s = MIN_SIDE;
+        while (players * bandRows(length, s) + 2 > s || players * bandRows(length, s) * s > maxBandShare * s * s) {
+            s += 2;
+        }
+        side = s;
+        rows = bandRows(length, s);
+        bandCells = players * rows * side;
+        cycles = new int[players][];
+        nextDirection = new int[side * side];
+        for (int p = 0; p < players; p++) {
+            cycles[p] = buildCycle(p * rows);
+        }
+    }
+
+    /**
+     * Gets the number of rows of a band that holds a loop longer than the snake.
+     *
+     * @param length Length of the snake.
+     * @param side   Width of the board.
+     * @return Even number of rows, at least 2.
+     */
+    private static int bandRows(int length, int side) {
+        return Math.max(2, ((length + side) / side + 1) & ~1);
+    }
+
+    /**
+     * Builds the loop of a band and records the direction to follow from each of its cells.
+     *
+     * @param top First row of the band.
+     * @return Cells of the loop in travel order.
+     */
+    private int[] buildCycle(int top) {
+        int[] cycle = new int[side * rows];
+        int n = 0;
+        for (int x = 0; x < side; x++) {
+            cycle[n++] = top * side + x;
+        }
+        for (int r = 1; r < rows; r++) {
+            int y = top + r;
+            if (r % 2 == 1) {
+                for (int x = side - 1; x >= 1; x--) {
+                    cycle[n++] = y * side + x;
+                }
+            } else {
+                for (int x = 1; x < side; x++) {
+                    cycle[n++] = y * side + x;
+                }
+            }
+        }
+        for (int y = top + rows - 1; y > top; y--) {
+            cycle[n++] = y * side;
+        }
+        for (int i = 0; i < n; i++) {
+            int from = cycle[i];
+            int to = cycle[(i + 1) % n];
+            nextDirection[from] = Direction.of(to % side - from % side, to / side - from / side);
+        }
+        return cycle;
+    }
+
+    /**
+     * Lays a snake on the loop of a player, moving one cell every tick.
+     *
+     * @param snake  Snake to lay out, its body is replaced.
+     * @param player Player index.
+     * @param length Number of segments.
+     */
+    void layOut(Snake snake, int player, int length) {
+        int[] cycle = cycles[player];
+        snake.clear();
+        for (int i = length - 1; i >= 0; i--) {
+            snake.appendSegment(cycle[i] % side, cycle[i] / side);
+        }
+        int head = cycle[length - 1];
+        int tail = cycle[cycle.length - 1];
+        snake.restoreMotion(nextDirection[head], FAST_SPEED_LEVEL, 0, false, tail % side, tail / side);
+    }
+
+    /**
+     * Lays every snake of a simulation on its loop, puts the food above the bands and stops
+     * the bonus item from spawning, so the simulation can step forever without eating or dying.
+     *
+     * @param simulation Simulation on a board of this size, with as many players as bands.
+     * @param length     Number of segments of each snake.
+     */
+    void layOut(GameSimulation simulation, int length) {
+        for (int p = 0; p < cycles.length; p++) {
+            Snake snake = simulation.getSnake(p + 1);
+            layOut(snake, p, length);
+            simulation.restorePlayer(p + 1, snake.getDirection(), 0, 0, true);
+        }
+        simulation.restoreItem(ItemComponent.BONUS, false, 0, 0);
+        int cell = freeCellAboveBands(simulation.getGrid());
+        simulation.restoreItem(ItemComponent.FOOD, true, cell % side, cell / side);
+        simulation.restoreTimers(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the direction a snake must take to stay on its loop.
+     *
+     * @param snake Snake laid out with {@link #layOut(Snake, int, int)}.
+     * @return Direction to follow from the head.
+     */
+    int directionFor(Snake snake) {
+        SnakeBody body = snake.getSegments();
+        return nextDirection[body.getHeadY() * side + body.getHeadX()];
+    }
+
+    /**
+     * Covers free cells above the bands until a fill ratio is reached.
+     * The ratio counts every covered or reserved cell, snakes included.
+     *
+     * @param grid  Grid of the board.
+     * @param ratio Target share of covered or reserved cells, below 1.
+     * @return Filler snake holding the covered cells.
+     */
+    Snake fill(OccupancyGrid grid, double ratio) {
+        Snake filler = new Snake(grid, FILLER_ID, side - 1, side - 1, Direction.RIGHT);
+        int cellCount = side * side;
+        int target = (int) (cellCount * ratio);
+        for (int cell = cellCount - 2; cell >= bandCells && cellCount - grid.getFreeCellCount() < target; cell--) {
+            if (grid.isFree(cell % side, cell / side)) {
+                filler.appendSegment(cell % side, cell / side);
+            }
+        }
+        return filler;
+    }
+
+    /**
+     * Gets the first free cell above the bands, for placing items out of the way of the snakes.
+     *
+     * @param grid Grid of the board.
+     * @return Index of a free cell.
+     */
+    int freeCellAboveBands(OccupancyGrid grid) {
+        for (int cell = bandCells; cell < side * side; cell++) {
+            if (grid.isFree(cell % side, cell / side)) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("No free cell above the bands");
+    }
+}
@@ -0,0 +1,74 @@
+package com.mygdx.snakegame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the planning time of a bot against the size of the board, with the food in the far
+ * corner so the food seeker searches as far as the board allows. With the default budget the
+ * time stops growing once the board holds more cells than a search may visit; with an unlimited
+ * budget it grows with the board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotBenchmark {
+    @Param({"32", "128", "512", "2048"})
+    public int side;
+
+    @Param({"4096", "2147483647"})
+    public int budget;
+
+    private GameSimulation simulation;
+    private Snake snake;
+    private FoodSeekerBot foodSeeker;
+    private SurvivalBot survival;
+
+    /**
+     * Creates a two-player match on an empty board and moves the food to the corner farthest
+     * from the first snake.
+     */
+    @Setup
+    public void setUp() {
+        simulation = new GameSimulation(side, side, GameSimulation.DEFAULT_PLAYER_COUNT, 42);
+        snake = simulation.getSnake(1);
+        simulation.restoreItem(ItemComponent.FOOD, true, side - 1, side - 1);
+        GridSearch search = new GridSearch();
+        foodSeeker = new FoodSeekerBot(search, budget);
+        survival = new SurvivalBot(search, budget);
+    }
+
+    /**
+     * Plans the next move of a food seeker: a path to the food, then a check of the room left.
+     *
+     * @return Chosen direction.
+     */
+    @Benchmark
+    public int foodSeekerPlan() {
+        return foodSeeker.plan(simulation, snake);
+    }
+
+    /**
+     * Plans the next move of a survival bot: one flood fill per possible direction.
+     *
+     * @return Chosen direction.
+     */
+    @Benchmark
+    public int survivalPlan() {
+        return survival.plan(simulation, snake);
+    }
+}
@@ -0,0 +1,82 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the item operations: respawning the food on a board at a given fill ratio, which must
+ * stay fast even when few cells are free, and looking up the item under a snake's head.
+ * Items are pooled entities, so a respawn frees one entity and reuses it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemBenchmark {
+    @Param({"1", "100", "1000", "10000"})
+    public int length;
+
+    @Param({"0.1", "0.5", "0.9", "0.99"})
+    public double fill;
+
+    private Snake snake;
+    private ItemIndex items;
+    private Random random;
+    private Entity food;
+
+    /**
+     * Lays the snake on its loop, places the items above it and fills the rest of the board.
+     */
+    @Setup
+    public void setUp() {
+        BenchmarkBoard board = new BenchmarkBoard(length, 1);
+        OccupancyGrid grid = new OccupancyGrid(board.side, board.side);
+        random = new Random(42);
+        snake = new Snake(grid, 1, 0, 0, Direction.RIGHT);
+        board.layOut(snake, 0, length);
+        items = new ItemIndex(new PooledEngine(), grid, GameRules.DEFAULT, new TimerWheel(GameSimulation.TIMER_SLOTS));
+        food = items.spawnRandom(ItemComponent.FOOD, random);
+        int cell = board.freeCellAboveBands(grid);
+        items.spawn(ItemComponent.BONUS, cell % board.side, cell / board.side);
+        board.fill(grid, fill);
+    }
+
+    /**
+     * Moves the food to another random free cell.
+     *
+     * @return True if the food was placed.
+     */
+    @Benchmark
+    public boolean foodSpawn() {
+        items.remove(food);
+        food = items.spawnRandom(ItemComponent.FOOD, random);
+        return food != null;
+    }
+
+    /**
+     * Looks up the item under the snake's head, as each snake that moved does once per tick.
+     *
+     * @return Always null, the items are out of the snake's way.
+     */
+    @Benchmark
+    public Entity pickupLookup() {
+        SnakeBody body = snake.getSegments();
+        return items.get(body.getHeadX(), body.getHeadY());
+    }
+}
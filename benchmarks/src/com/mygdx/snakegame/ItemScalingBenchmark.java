@@ -0,0 +1,75 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the cost of a tick grows with the number of item entities on the grid.
+ * Pickups look up the cell under each head, so they do not depend on the number of items.
+ * Every item here also has a lifetime, the worst case: the lifetimes are longer than a turn of
+ * the timer wheel and spread over its slots, so each tick passes over a thousandth of them
+ * instead of counting every one down.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemScalingBenchmark {
+    private static final int LENGTH = 100; // Length of every snake
+
+    @Param({"0", "100", "1000", "10000"})
+    public int items;
+
+    private BenchmarkBoard board;
+    private GameSimulation simulation;
+    private int[] inputs;
+
+    /**
+     * Lays both snakes on their loops and adds bonus items above them that never expire
+     * during the benchmark, each due on a different tick.
+     */
+    @Setup
+    public void setUp() {
+        int players = GameSimulation.DEFAULT_PLAYER_COUNT;
+        board = new BenchmarkBoard(LENGTH, players);
+        simulation = new GameSimulation(board.side, board.side, players, 42);
+        board.layOut(simulation, LENGTH);
+        OccupancyGrid grid = simulation.getGrid();
+        ItemIndex index = simulation.getItemIndex();
+        for (int cell = board.bandCells, placed = 0; placed < items; cell++) {
+            if (grid.isFree(cell % board.side, cell / board.side)) {
+                Entity item = index.spawn(ItemComponent.BONUS, cell % board.side, cell / board.side);
+                index.setLifetime(item, Integer.MAX_VALUE - placed);
+                placed++;
+            }
+        }
+        inputs = new int[players];
+    }
+
+    /**
+     * Steps the simulation by one tick, steering every snake along its loop.
+     *
+     * @return Events of the tick.
+     */
+    @Benchmark
+    public GameEvents tick() {
+        for (int p = 0; p < inputs.length; p++) {
+            inputs[p] = board.directionFor(simulation.getSnake(p + 1));
+        }
+        return simulation.step(inputs);
+    }
+}
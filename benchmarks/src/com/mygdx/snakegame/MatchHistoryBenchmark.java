@@ -0,0 +1,95 @@
+package com.mygdx.snakegame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Opens and closes a {@link MatchHistory} of a thousand and of a million matches, to show that
+ * startup reads the saved index instead of the records. Closing saves the index, so each
+ * operation also writes it once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchHistoryBenchmark {
+    private static final String[] NAMES = {"Player 1", "Player 2", "FoodSeekerBot", "SurvivalBot"};
+
+    @Param({"1000", "1000000"})
+    public int matches;
+
+    private Path directory;
+
+    /**
+     * Fills a history in a temporary folder with matches of random scores between random players.
+     *
+     * @throws IOException If the history cannot be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history");
+        GameSimulation simulation = new GameSimulation(20, 20, GameSimulation.DEFAULT_PLAYER_COUNT, 42);
+        MatchRecord record = new MatchRecord();
+        Random random = new Random(42);
+        try (MatchHistory history = new MatchHistory(directory)) {
+            for (int i = 0; i < matches; i++) {
+                record.begin(simulation);
+                for (int player = 1; player <= record.getPlayerCount(); player++) {
+                    record.setName(player, NAMES[random.nextInt(NAMES.length)]);
+                }
+                record.end(simulation, 1 + random.nextInt(record.getPlayerCount()), random.nextInt(10_000), i);
+                for (int player = 1; player <= record.getPlayerCount(); player++) {
+                    record.setScore(player, random.nextInt(1000));
+                }
+                history.append(record);
+            }
+        }
+    }
+
+    /**
+     * Deletes the history.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Opens the history, reads the best score and closes it.
+     *
+     * @return Best score.
+     * @throws IOException If the history cannot be opened or saved.
+     */
+    @Benchmark
+    public int open() throws IOException {
+        try (MatchHistory history = new MatchHistory(directory)) {
+            return history.getTopScore(0);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.mygdx.snakegame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the cost of a tick grows with the number of players. Head checks only look at
+ * the cell of each head, so the cost should grow linearly with the player count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerScalingBenchmark {
+    private static final int LENGTH = 16; // Length of every snake
+
+    @Param({"2", "16", "64", "256"})
+    public int players;
+
+    private BenchmarkBoard board;
+    private GameSimulation simulation;
+    private int[] inputs;
+
+    /**
+     * Lays every snake on its loop.
+     */
+    @Setup
+    public void setUp() {
+        board = new BenchmarkBoard(LENGTH, players, 0.5);
+        simulation = new GameSimulation(board.side, board.side, players, 42);
+        board.layOut(simulation, LENGTH);
+        inputs = new int[players];
+    }
+
+    /**
+     * Steps the simulation by one tick, steering every snake along its loop.
+     *
+     * @return Events of the tick.
+     */
+    @Benchmark
+    public GameEvents tick() {
+        for (int p = 0; p < players; p++) {
+            inputs[p] = board.directionFor(simulation.getSnake(p + 1));
+        }
+        return simulation.step(inputs);
+    }
+}
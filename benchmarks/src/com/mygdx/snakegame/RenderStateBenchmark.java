@@ -0,0 +1,116 @@
+package com.mygdx.snakegame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands render states from a thread stepping a two-player match to a thread reading them, as
+ * fast as both can go, and measures each side. Doubles as a stress test of the
+ * {@link RenderStateBuffer}: the reader checks every state it gets and the benchmark fails with
+ * an exception on a torn state, one mixing two ticks. The snakes move on every tick and never
+ * grow, so in a whole state the cell each head moved from is a segment of its snake, the head
+ * is not, the snake has its length in segments, and ticks never go back.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderStateBenchmark {
+    @Param({"100", "10000"})
+    public int length;
+
+    private BenchmarkBoard board;
+    private GameSimulation simulation;
+    private int[] inputs;
+    private final RenderStateBuffer states = new RenderStateBuffer();
+    private long lastTick; // Tick of the last state read, only used by the reader
+
+    /**
+     * Lays both snakes on their loops and publishes the first state.
+     */
+    @Setup
+    public void setUp() {
+        int players = GameSimulation.DEFAULT_PLAYER_COUNT;
+        board = new BenchmarkBoard(length, players);
+        simulation = new GameSimulation(board.side, board.side, players, 42);
+        board.layOut(simulation, length);
+        inputs = new int[players];
+        publish();
+    }
+
+    /**
+     * Steps the match by one tick and publishes its state.
+     */
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public void publish() {
+        for (int p = 0; p < inputs.length; p++) {
+            inputs[p] = board.directionFor(simulation.getSnake(p + 1));
+        }
+        simulation.step(inputs);
+        states.getBack().update(simulation, true, System.nanoTime());
+        states.publish();
+    }
+
+    /**
+     * Takes the latest state and checks that it is whole.
+     *
+     * @return Tick of the state.
+     */
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public long acquire() {
+        RenderState state = states.acquire();
+        long tick = state.getTick();
+        if (tick < lastTick) {
+            throw new IllegalStateException("State of tick " + tick + " read after tick " + lastTick);
+        }
+        lastTick = tick;
+        for (int player = 1; player <= state.getPlayerCount(); player++) {
+            if (state.getSize(player) != length
+                    || !hasSegment(state, player, state.getFromX(player), state.getFromY(player))
+                    || hasSegment(state, player, state.getHeadX(player), state.getHeadY(player))) {
+                throw new IllegalStateException("Torn state at tick " + tick + " for snake " + player);
+            }
+        }
+        return tick;
+    }
+
+    /**
+     * Looks for a segment of a snake behind its head, in the chunk of the cell.
+     *
+     * @param state  State to search.
+     * @param player Id of the snake's player.
+     * @param x      X coordinate of the cell.
+     * @param y      Y coordinate of the cell.
+     * @return True if the snake has a segment other than its head on the cell.
+     */
+    private static boolean hasSegment(RenderState state, int player, int x, int y) {
+        int column = ChunkIndex.chunkOf(x);
+        int row = ChunkIndex.chunkOf(y);
+        int end = state.getChunkEnd(column, row);
+        for (int i = state.getChunkStart(column, row); i < end; i++) {
+            if (state.getCellX(i) == x && state.getCellY(i) == y && state.getCellOwner(i) == player) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
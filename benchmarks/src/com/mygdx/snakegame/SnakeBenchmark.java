@@ -0,0 +1,111 @@
+package com.mygdx.snakegame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-tick operations of a single snake: moving, collision queries against a cell
+ * and the self-collision check of its head.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeBenchmark {
+    private static final int PROBES = 1024; // Number of precomputed cells for the collision queries, a power of two
+
+    @Param({"1", "100", "1000", "10000"})
+    public int length;
+
+    @Param({"0.1", "0.5", "0.9", "0.99"})
+    public double fill;
+
+    private BenchmarkBoard board;
+    private Snake snake;
+    private Snake crossed; // Snake whose head shares its cell with another snake
+    private final int[] probeX = new int[PROBES];
+    private final int[] probeY = new int[PROBES];
+    private int probe;
+
+    /**
+     * Lays the snake on its loop and fills the rest of the board.
+     */
+    @Setup
+    public void setUp() {
+        board = new BenchmarkBoard(length, 1);
+        OccupancyGrid grid = new OccupancyGrid(board.side, board.side);
+        snake = new Snake(grid, 1, 0, 0, Direction.RIGHT);
+        board.layOut(snake, 0, length);
+        board.fill(grid, fill);
+
+        // The head of the second snake is crossed by the first one, so the self-collision check
+        // cannot stop at the cell count and must look through the body
+        OccupancyGrid crossedGrid = new OccupancyGrid(board.side, board.side);
+        crossed = new Snake(crossedGrid, 1, 0, 0, Direction.RIGHT);
+        board.layOut(crossed, 0, length);
+        SnakeBody body = crossed.getSegments();
+        new Snake(crossedGrid, 2, body.getHeadX(), body.getHeadY(), Direction.RIGHT);
+        board.fill(crossedGrid, fill);
+
+        Random random = new Random(42);
+        for (int i = 0; i < PROBES; i++) {
+            probeX[i] = random.nextInt(board.side);
+            probeY[i] = random.nextInt(board.side);
+        }
+    }
+
+    /**
+     * Moves the snake one cell along its loop.
+     *
+     * @return True if the snake moved.
+     */
+    @Benchmark
+    public boolean update() {
+        return snake.update(board.directionFor(snake));
+    }
+
+    /**
+     * Checks a random cell of the board against the snake.
+     *
+     * @return True if the snake covers the cell.
+     */
+    @Benchmark
+    public boolean checkCollision() {
+        int i = probe++ & (PROBES - 1);
+        return snake.checkCollision(probeX[i], probeY[i]);
+    }
+
+    /**
+     * Checks whether the head overlaps the body when its cell holds no other segment, the common case.
+     *
+     * @return Always false.
+     */
+    @Benchmark
+    public boolean hasHitItself() {
+        return snake.hasHitItself();
+    }
+
+    /**
+     * Checks whether the head overlaps the body when another snake crosses the head's cell, the worst case.
+     *
+     * @return Always false.
+     */
+    @Benchmark
+    public boolean hasHitItselfCrossed() {
+        return crossed.hasHitItself();
+    }
+}
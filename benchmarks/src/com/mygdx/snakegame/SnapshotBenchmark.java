@@ -0,0 +1,88 @@
+package com.mygdx.snakegame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding the state of a match after every tick as a {@link SnapshotEncoder} delta
+ * and as a full {@link GameStateCodec} dump. Both include the cost of the tick itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+    @Param({"1", "100", "1000", "10000"})
+    public int length;
+
+    private BenchmarkBoard board;
+    private GameSimulation simulation;
+    private SnapshotEncoder encoder;
+    private ByteBuffer buffer;
+    private int[] inputs;
+
+    /**
+     * Lays both snakes on their loops and writes the first keyframe.
+     */
+    @Setup
+    public void setUp() {
+        int players = GameSimulation.DEFAULT_PLAYER_COUNT;
+        board = new BenchmarkBoard(length, players, 0.5);
+        simulation = new GameSimulation(board.side, board.side, players, 42);
+        board.layOut(simulation, length);
+        inputs = new int[players];
+        buffer = ByteBuffer.allocate(2 * GameStateCodec.getMaxSize(board.side, board.side, players));
+        encoder = new SnapshotEncoder(players);
+        encoder.writeKeyframe(simulation, buffer);
+    }
+
+    /**
+     * Steps the simulation and encodes the changes since the previous tick.
+     *
+     * @return Size of the snapshot in bytes.
+     */
+    @Benchmark
+    public int delta() {
+        step();
+        buffer.clear();
+        encoder.writeDelta(simulation, buffer);
+        return buffer.position();
+    }
+
+    /**
+     * Steps the simulation and encodes the whole state.
+     *
+     * @return Size of the snapshot in bytes.
+     */
+    @Benchmark
+    public int fullDump() {
+        step();
+        buffer.clear();
+        GameStateCodec.write(simulation, buffer);
+        return buffer.position();
+    }
+
+    /**
+     * Steps the simulation by one tick, steering every snake along its loop.
+     */
+    private void step() {
+        for (int p = 0; p < inputs.length; p++) {
+            inputs[p] = board.directionFor(simulation.getSnake(p + 1));
+        }
+        simulation.step(inputs);
+    }
+}
@@ -0,0 +1,63 @@
+package com.mygdx.snakegame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full tick of a two-player match, the work the game does on every frame step:
+ * steering, moving, eating checks, head collisions and timers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+    @Param({"1", "100", "1000", "10000"})
+    public int length;
+
+    @Param({"0.1", "0.5", "0.9", "0.99"})
+    public double fill;
+
+    private BenchmarkBoard board;
+    private GameSimulation simulation;
+    private int[] inputs;
+
+    /**
+     * Lays both snakes on their loops and fills the rest of the board.
+     */
+    @Setup
+    public void setUp() {
+        int players = GameSimulation.DEFAULT_PLAYER_COUNT;
+        board = new BenchmarkBoard(length, players);
+        simulation = new GameSimulation(board.side, board.side, players, 42);
+        board.layOut(simulation, length);
+        board.fill(simulation.getGrid(), fill);
+        inputs = new int[players];
+    }
+
+    /**
+     * Steps the simulation by one tick, steering every snake along its loop.
+     *
+     * @return Events of the tick.
+     */
+    @Benchmark
+    public GameEvents tick() {
+        for (int p = 0; p < inputs.length; p++) {
+            inputs[p] = board.directionFor(simulation.getSnake(p + 1));
+        }
+        return simulation.step(inputs);
+    }
+}
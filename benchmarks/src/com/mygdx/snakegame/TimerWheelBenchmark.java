@@ -0,0 +1,101 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a tick of timers against the number of timers waiting. Each timer starts again as
+ * soon as it fires, with a random duration of up to ten seconds, so the same share of them fires
+ * on every tick. The wheel only looks at the timers firing, while counting every timer down, as
+ * the timer system did before the wheel, costs one step per timer and per tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerWheelBenchmark implements TimerWheel.Handler {
+    private static final int MAX_DURATION = 10 * GameSimulation.TICKS_PER_SECOND; // Longest timer
+
+    @Param({"100", "10000", "1000000"})
+    public int timers;
+
+    private final Random random = new Random(42);
+    private final Entity target = new Entity();
+    private TimerWheel wheel;
+    private int[] countdowns; // Ticks left of each timer, counted down one by one
+
+    /**
+     * Starts every timer, on the wheel and in the countdown array.
+     */
+    @Setup
+    public void setUp() {
+        wheel = new TimerWheel(GameSimulation.TIMER_SLOTS);
+        countdowns = new int[timers];
+        for (int i = 0; i < timers; i++) {
+            wheel.schedule(0, target, duration());
+            countdowns[i] = duration();
+        }
+    }
+
+    /**
+     * Picks the duration of a timer.
+     *
+     * @return Duration in ticks.
+     */
+    private int duration() {
+        return 1 + random.nextInt(MAX_DURATION);
+    }
+
+    /**
+     * Starts a timer again as it fires.
+     *
+     * @param type   Type of the timer.
+     * @param target Entity of the timer.
+     */
+    @Override
+    public void onTimer(int type, Entity target) {
+        wheel.schedule(type, target, duration());
+    }
+
+    /**
+     * Advances the wheel by one tick.
+     *
+     * @return Number of timers fired.
+     */
+    @Benchmark
+    public int wheel() {
+        return wheel.advance(this);
+    }
+
+    /**
+     * Counts every timer down by one tick.
+     *
+     * @return Number of timers fired.
+     */
+    @Benchmark
+    public int countdown() {
+        int fired = 0;
+        for (int i = 0; i < countdowns.length; i++) {
+            if (--countdowns[i] <= 0) {
+                countdowns[i] = duration();
+                fired++;
+            }
+        }
+        return fired;
+    }
+}
@@ -0,0 +1,60 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the boards of the benchmarks hold the steady state the benchmarks measure: snakes
+ * that loop forever without eating, hitting anything or ending the match, on a board filled to
+ * the requested ratio.
+ */
+public class BenchmarkBoardTest {
+    private static final int[] LENGTHS = { 1, 100, 1000 };
+    private static final double[] FILLS = { 0.1, 0.5, 0.9, 0.99 };
+
+    /**
+     * Steps filled boards for two full laps of the loops and checks that nothing happens.
+     */
+    @Test
+    public void snakesLoopForever() {
+        for (int length : LENGTHS) {
+            for (int players = 1; players <= 4; players++) {
+                for (double fill : FILLS) {
+                    String board = length + " segments, " + players + " players, fill " + fill;
+                    BenchmarkBoard benchmarkBoard = new BenchmarkBoard(length, players);
+                    GameSimulation simulation = new GameSimulation(benchmarkBoard.side, benchmarkBoard.side, players, 42);
+                    benchmarkBoard.layOut(simulation, length);
+                    benchmarkBoard.fill(simulation.getGrid(), fill);
+                    assertFill(board, simulation.getGrid(), fill);
+
+                    int[] inputs = new int[players];
+                    int ticks = 2 * benchmarkBoard.cycles[0].length;
+                    for (int tick = 0; tick < ticks; tick++) {
+                        for (int p = 0; p < players; p++) {
+                            inputs[p] = benchmarkBoard.directionFor(simulation.getSnake(p + 1));
+                        }
+                        assertEquals(board + ", events at tick " + tick, 0, simulation.step(inputs).size());
+                    }
+                    for (int p = 1; p <= players; p++) {
+                        assertEquals(board, length, simulation.getSnake(p).getSegments().size());
+                        assertEquals(board, 0, simulation.getScore(p));
+                    }
+                    assertEquals(board, players, simulation.getAliveCount());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a board is covered up to a fill ratio.
+     *
+     * @param board Description of the board.
+     * @param grid  Grid of the board.
+     * @param fill  Requested fill ratio.
+     */
+    private static void assertFill(String board, OccupancyGrid grid, double fill) {
+        int cells = grid.getWidth() * grid.getHeight();
+        assertEquals(board + ", covered cells", (int) (cells * fill), cells - grid.getFreeCellCount());
+    }
+}
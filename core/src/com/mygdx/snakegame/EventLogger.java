@@ -0,0 +1,89 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.utils.Logger;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logs the eliminations and the end of each match from its own thread, draining a
+ * {@link GameEventBus} subscription a few times per second, so the messages are formatted and
+ * written away from the simulation.
+ */
+public class EventLogger implements Runnable, GameEventHandler {
+    private static final long DRAIN_INTERVAL = 100_000_000L; // Time between two drains, in nanoseconds
+
+    private final GameEventBus.Subscription events;
+    private final Logger logger = new Logger("SnakeGame", Logger.INFO);
+    private final Thread thread = new Thread(this, "event-log");
+    private volatile boolean running = true; // Cleared by stop()
+
+    /**
+     * Creates the logger, not started yet, subscribed to a bus.
+     *
+     * @param bus Bus the simulation publishes its events to.
+     */
+    public EventLogger(GameEventBus bus) {
+        events = bus.subscribe();
+        thread.setDaemon(true); // Never keeps the application alive
+    }
+
+    /**
+     * Starts the thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops the thread once it has logged every event published so far.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Drains the events in batches until stopped, then drains what is left.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            events.drain(this);
+            LockSupport.parkNanos(this, DRAIN_INTERVAL);
+        }
+        events.drain(this);
+    }
+
+    /**
+     * Logs an event, if it is worth a message.
+     *
+     * @param type   One of the {@link GameEvents} types.
+     * @param player Player concerned by the event, 0 if none.
+     * @param tick   Tick of the step that produced the event.
+     */
+    @Override
+    public void onEvent(int type, int player, long tick) {
+        switch (type) {
+            case GameEvents.BOARD_FULL:
+                logger.info("Game Over! The board is full. (tick " + tick + ")");
+                break;
+            case GameEvents.SNAKES_COLLIDED:
+                logger.info("Snake " + player + " hit another snake. (tick " + tick + ")");
+                break;
+            case GameEvents.WALL_HIT:
+                logger.info("Snake " + player + " hit the wall. (tick " + tick + ")");
+                break;
+            case GameEvents.SELF_HIT:
+                logger.info("Snake " + player + " hit itself. (tick " + tick + ")");
+                break;
+            case GameEvents.GAME_OVER:
+                logger.info("Game Over! " + (player == 0 ? "Draw" : "Snake " + player) + " won! (tick " + tick + ")");
+                break;
+        }
+    }
+}
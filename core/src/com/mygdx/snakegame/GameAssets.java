@@ -0,0 +1,261 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Loads the assets of the game through an {@link AssetManager}, in two groups, so the first
+ * frame is shown at once and the game becomes playable as soon as possible.
+ * <ul>
+ * <li>The first group holds what a match cannot be drawn without: the snake and food sprites
+ * and the font. It is queued on creation and loaded by {@link #update(int)}, a time slice per
+ * frame while a loading screen is shown. The images are decoded and the font description is
+ * parsed on the loader thread; {@link #createGraphics()} then packs them into the
+ * {@link GameAtlas} on the rendering thread and releases the decoded images.</li>
+ * <li>The second group holds what can arrive a few frames late: the bonus sprite, which is
+ * packed into the same atlas page once decoded, and the sounds, which are only loaded in the
+ * modes that play them. It is loaded by {@link #updateDeferred()} while the game runs.</li>
+ * </ul>
+ * The manager counts the references to each asset: the decoded images are unloaded as soon as
+ * they are packed, and everything else when the assets are disposed. Nothing here touches the
+ * graphics until {@link #createGraphics()}, and the files are found through a
+ * {@link FileHandleResolver}, so the pipeline also runs in a headless application.
+ */
+public class GameAssets implements Disposable {
+    static final String CLASSPATH_PREFIX = "classpath:"; // Marks the files read from the classpath instead of the assets
+    /** Image of the snake segments. */
+    public static final String SNAKE_IMAGE = "snake.png";
+    /** Image of the food. */
+    public static final String FOOD_IMAGE = "food.png";
+    /** Image of the bonus item, loaded after the game is playable. */
+    public static final String BONUS_IMAGE = "bonus.png";
+    /** Glyphs of the default font. */
+    public static final String FONT_IMAGE = CLASSPATH_PREFIX + GameAtlas.FONT_PATH + ".png";
+    /** Description of the default font. */
+    public static final String FONT_DATA = CLASSPATH_PREFIX + GameAtlas.FONT_PATH + ".fnt";
+    /** Sound played when a snake eats, loaded after the game is playable. */
+    public static final String EAT_SOUND = "crunch.wav";
+
+    private final AssetManager manager;
+    private final boolean sounds; // Indicates whether the sounds are loaded
+    private PixmapPacker packer; // Holds the atlas page until the bonus sprite is packed
+    private TextureAtlas atlas;
+    private BitmapFont font;
+    private boolean deferredLoaded; // Indicates whether the second group is loaded and packed
+
+    /**
+     * Creates the manager and queues the assets needed to draw a match.
+     *
+     * @param resolver Resolver of the file names, such as {@link #createResolver()}.
+     * @param sounds   True to load the sounds, false in a mode that plays none.
+     */
+    public GameAssets(FileHandleResolver resolver, boolean sounds) {
+        this.sounds = sounds;
+        manager = new AssetManager(resolver);
+        manager.setLoader(BitmapFont.BitmapFontData.class, new FontDataLoader(resolver));
+        manager.load(SNAKE_IMAGE, Pixmap.class);
+        manager.load(FOOD_IMAGE, Pixmap.class);
+        manager.load(FONT_IMAGE, Pixmap.class);
+        manager.load(FONT_DATA, BitmapFont.BitmapFontData.class);
+    }
+
+    /**
+     * Creates the resolver of the game: names starting with {@link #CLASSPATH_PREFIX} are read
+     * from the classpath, the others from the internal assets.
+     *
+     * @return Resolver.
+     */
+    public static FileHandleResolver createResolver() {
+        return fileName -> fileName.startsWith(CLASSPATH_PREFIX)
+                ? Gdx.files.classpath(fileName.substring(CLASSPATH_PREFIX.length()))
+                : Gdx.files.internal(fileName);
+    }
+
+    /**
+     * Loads the first group for at most a time slice.
+     *
+     * @param millis Longest time to block the calling thread, in milliseconds.
+     * @return True once every asset of the group is loaded.
+     */
+    public boolean update(int millis) {
+        return manager.update(millis);
+    }
+
+    /**
+     * Gets the progress of the first group.
+     *
+     * @return Fraction of its assets loaded, from 0 to 1.
+     */
+    public float getProgress() {
+        return manager.getProgress();
+    }
+
+    /**
+     * Packs the sprites and the font of the first group into the atlas, releases the decoded
+     * images and queues the second group. Rendering thread only, once {@link #update(int)}
+     * returned true.
+     */
+    public void createGraphics() {
+        packer = GameAtlas.createPacker();
+        packImage(GameAtlas.SNAKE, SNAKE_IMAGE);
+        packImage(GameAtlas.FOOD, FOOD_IMAGE);
+        packImage(GameAtlas.FONT, FONT_IMAGE);
+        atlas = GameAtlas.createAtlas(packer);
+        font = GameAtlas.createFont(manager.get(FONT_DATA, BitmapFont.BitmapFontData.class), atlas);
+
+        manager.load(BONUS_IMAGE, Pixmap.class);
+        if (sounds) {
+            manager.load(EAT_SOUND, Sound.class);
+        }
+    }
+
+    /**
+     * Packs a loaded image under a name, then unloads it.
+     *
+     * @param name     Name of the region.
+     * @param fileName Name of the image file.
+     */
+    private void packImage(String name, String fileName) {
+        GameAtlas.pack(packer, name, manager.get(fileName, Pixmap.class));
+        manager.unload(fileName); // Last reference, the pixels now live in the packer
+    }
+
+    /**
+     * Loads the second group by one step, and packs the bonus sprite into the atlas once every
+     * asset of the group is loaded. Rendering thread only, after {@link #createGraphics()}.
+     *
+     * @return True once the group is loaded and packed, from the call that packed it on.
+     */
+    public boolean updateDeferred() {
+        if (deferredLoaded || !manager.update()) {
+            return deferredLoaded;
+        }
+        packImage(GameAtlas.BONUS, BONUS_IMAGE);
+        GameAtlas.updateAtlas(packer, atlas);
+        packer.dispose(); // Every sprite is packed, the page pixels are no longer needed
+        packer = null;
+        deferredLoaded = true;
+        return true;
+    }
+
+    /**
+     * Gets the atlas of the sprites and of the font glyphs.
+     *
+     * @return Atlas, null before {@link #createGraphics()}; the bonus region is missing until
+     * {@link #updateDeferred()} returns true.
+     */
+    public TextureAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * Gets the default font.
+     *
+     * @return Font drawing from the atlas, null before {@link #createGraphics()}.
+     */
+    public BitmapFont getFont() {
+        return font;
+    }
+
+    /**
+     * Gets the sound played when a snake eats.
+     *
+     * @return Sound, null until {@link #updateDeferred()} returns true or if sounds are not loaded.
+     */
+    public Sound getEatSound() {
+        return deferredLoaded && sounds ? manager.get(EAT_SOUND, Sound.class) : null;
+    }
+
+    /**
+     * Releases the font, the atlas and every asset still loaded.
+     */
+    @Override
+    public void dispose() {
+        if (font != null) {
+            font.dispose();
+            atlas.dispose();
+        }
+        if (packer != null) {
+            packer.dispose();
+        }
+        manager.dispose();
+    }
+
+    /**
+     * Parses the description of a bitmap font on the loader thread, without loading its pages,
+     * which are packed into the atlas instead.
+     */
+    static class FontDataLoader extends AsynchronousAssetLoader<BitmapFont.BitmapFontData, FontDataLoader.Parameters> {
+        private BitmapFont.BitmapFontData data; // Parsed by loadAsync, handed over by loadSync
+
+        /**
+         * Creates the loader.
+         *
+         * @param resolver Resolver of the file names.
+         */
+        FontDataLoader(FileHandleResolver resolver) {
+            super(resolver);
+        }
+
+        /**
+         * Gets the assets the font description depends on.
+         *
+         * @param fileName   Name of the font description.
+         * @param file       Resolved file.
+         * @param parameters Unused.
+         * @return Null, the pages are not loaded.
+         */
+        @Override
+        @SuppressWarnings("rawtypes") // Raw in the signature of AssetLoader
+        public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, Parameters parameters) {
+            return null;
+        }
+
+        /**
+         * Parses the font description.
+         *
+         * @param manager    Manager loading the font.
+         * @param fileName   Name of the font description.
+         * @param file       Resolved file.
+         * @param parameters Unused.
+         */
+        @Override
+        public void loadAsync(AssetManager manager, String fileName, FileHandle file, Parameters parameters) {
+            data = new BitmapFont.BitmapFontData(file, false);
+        }
+
+        /**
+         * Hands the parsed description over.
+         *
+         * @param manager    Manager loading the font.
+         * @param fileName   Name of the font description.
+         * @param file       Resolved file.
+         * @param parameters Unused.
+         * @return Parsed description.
+         */
+        @Override
+        public BitmapFont.BitmapFontData loadSync(AssetManager manager, String fileName, FileHandle file, Parameters parameters) {
+            BitmapFont.BitmapFontData loaded = data;
+            data = null;
+            return loaded;
+        }
+
+        /**
+         * Parameters of the loader, none.
+         */
+        static class Parameters extends AssetLoaderParameters<BitmapFont.BitmapFontData> {
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+
+/**
+ * Packs the game sprites and the glyphs of the default font into a single texture, so a whole
+ * frame can be drawn without switching textures, which would flush the batch. The images are
+ * decoded beforehand by {@link GameAssets}; only the packing and the upload happen here.
+ */
+public final class GameAtlas {
+    /** Name of the snake segment region. */
+    public static final String SNAKE = "snake";
+    /** Name of the food region. */
+    public static final String FOOD = "food";
+    /** Name of the bonus item region. */
+    public static final String BONUS = "bonus";
+    /** Name of the region holding the glyphs of the default font. */
+    public static final String FONT = "font";
+
+    static final String FONT_PATH = "com/badlogic/gdx/utils/lsans-15"; // Default font shipped with LibGDX, on the classpath
+    private static final int PAGE_WIDTH = 512;
+    private static final int PAGE_HEIGHT = 256;
+    private static final int PADDING = 2; // Pixels between two regions
+    private static final Texture.TextureFilter FILTER = Texture.TextureFilter.Nearest;
+
+    /**
+     * Prevents instantiation.
+     */
+    private GameAtlas() {
+    }
+
+    /**
+     * Creates an empty packer with a page large enough for every sprite and the font.
+     *
+     * @return Packer, to be disposed by the caller once no image will be added.
+     */
+    public static PixmapPacker createPacker() {
+        return new PixmapPacker(PAGE_WIDTH, PAGE_HEIGHT, Pixmap.Format.RGBA8888, PADDING, false);
+    }
+
+    /**
+     * Packs an image under a name. The image is copied and can be disposed afterwards.
+     *
+     * @param packer Packer to add the image to.
+     * @param name   Name of the region.
+     * @param image  Decoded image.
+     */
+    public static void pack(PixmapPacker packer, String name, Pixmap image) {
+        packer.pack(name, image);
+        if (packer.getPages().size > 1) {
+            throw new IllegalStateException("Sprites do not fit in a single atlas page");
+        }
+    }
+
+    /**
+     * Uploads the packed images as the texture of a new atlas.
+     *
+     * @param packer Packer holding the images.
+     * @return Atlas holding every region packed so far, to be disposed by the caller.
+     */
+    public static TextureAtlas createAtlas(PixmapPacker packer) {
+        return packer.generateTextureAtlas(FILTER, FILTER, false);
+    }
+
+    /**
+     * Adds the images packed since the atlas was created to it, uploading its texture again.
+     *
+     * @param packer Packer the atlas was created from.
+     * @param atlas  Atlas to update.
+     */
+    public static void updateAtlas(PixmapPacker packer, TextureAtlas atlas) {
+        packer.updateTextureAtlas(atlas, FILTER, FILTER, false);
+    }
+
+    /**
+     * Creates the default font drawing its glyphs from the atlas.
+     *
+     * @param data  Parsed description of the font.
+     * @param atlas Atlas holding the {@link #FONT} region.
+     * @return Font sharing the texture of the sprites. Disposing it leaves the atlas untouched.
+     */
+    public static BitmapFont createFont(BitmapFont.BitmapFontData data, TextureAtlas atlas) {
+        return new BitmapFont(data, atlas.findRegion(FONT), true);
+    }
+}
@@ -1,98 +1,332 @@
 package com.mygdx.snakegame;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
+import com.badlogic.gdx.math.Matrix4;
 
 /**
  * Renders the game graphics and UI elements.
+ * Sprites and text come from a single {@link GameAtlas} texture, so a frame is drawn in one
+ * batch flush as long as it holds fewer sprites than the batch can buffer.
+ * <p>
+ * A grid that fits the screen is drawn whole. A larger grid is drawn through one camera per
+ * followed player, side by side, and only the chunks of the grid inside a camera are looked at,
+ * so the cost of a frame depends on what is visible and not on the size of the grid or the
+ * length of the snakes. Each view is one more flush.
+ * <p>
+ * Everything is drawn from a {@link RenderState}, never from the simulation itself, so the
+ * simulation can run on another thread.
  */
 public class GameRenderer {
+    /** Tint turning the green snake sprite purple while the snake is invulnerable. */
+    public static final Color INVULNERABLE_TINT = new Color(0.75f, 0.02f, 1f, 1f);
+
     private SpriteBatch batch;
-    private Texture snakeTexture;
-    private Texture foodTexture;
-    private Texture bonusTexture;
-    private BitmapFont font;
-    private Texture invulnerableSnakeTexture;
+    private TextureRegion snakeRegion;
+    private final TextureRegion[] itemRegions = new TextureRegion[ItemComponent.KIND_COUNT]; // Sprite of each item kind
+    private Hud hud; // Scores and start message
+    private MetricsOverlay metricsOverlay; // Performance statistics, null if metrics are disabled
+    private int renderCalls; // Draw calls issued by the batch for the last frame
+
+    private int[] followedPlayers = {1}; // Player followed by each view of a large grid
+    private OrthographicCamera[] cameras = {new OrthographicCamera()}; // Camera of each view
+    private final Matrix4 screenProjection = new Matrix4(); // One unit per pixel over the whole screen
+    private int screenWidth;
+    private int screenHeight;
+
+    // Cells visible in the current view, inclusive
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
 
     /**
      * Constructs a GameRenderer.
      *
-     * @param batch                    SpriteBatch instance for rendering.
-     * @param snakeTexture             Texture for rendering the snake.
-     * @param foodTexture              Texture for rendering the food.
-     * @param bonusTexture             Texture for rendering the bonus item.
-     * @param font                     BitmapFont for rendering text.
-     * @param invulnerableSnakeTexture Texture for rendering the invulnerable snake.
+     * @param batch SpriteBatch instance for rendering.
+     * @param atlas Atlas built by {@link GameAssets#createGraphics()}. Until it holds the bonus
+     *              sprite, bonus items are drawn with the food sprite.
+     * @param font  BitmapFont for rendering text, drawing its glyphs from the atlas.
      */
-    public GameRenderer(SpriteBatch batch, Texture snakeTexture, Texture foodTexture, Texture bonusTexture, BitmapFont font, Texture invulnerableSnakeTexture) {
+    public GameRenderer(SpriteBatch batch, TextureAtlas atlas, BitmapFont font) {
         this.batch = batch;
-        this.snakeTexture = snakeTexture;
-        this.foodTexture = foodTexture;
-        this.bonusTexture = bonusTexture;
-        this.font = font;
-        this.invulnerableSnakeTexture = invulnerableSnakeTexture;
-
-        // Increase font size for score
-        //this.font.getData().setScale(1.2f);
+        this.snakeRegion = atlas.findRegion(GameAtlas.SNAKE);
+        itemRegions[ItemComponent.FOOD] = atlas.findRegion(GameAtlas.FOOD);
+        setItemRegion(ItemComponent.BONUS, atlas.findRegion(GameAtlas.BONUS));
+        this.hud = new Hud(font, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        hud.setMessage("Press any key to start");
+        screenWidth = Gdx.graphics.getWidth();
+        screenHeight = Gdx.graphics.getHeight();
+        screenProjection.setToOrtho2D(0, 0, screenWidth, screenHeight);
+    }
+
+    /**
+     * Sets the message shown while the game has not started.
+     *
+     * @param startMessage Message to show.
+     */
+    public void setStartMessage(String startMessage) {
+        hud.setMessage(startMessage);
+    }
+
+    /**
+     * Sets the sprite of an item kind, for a sprite loaded after the renderer was created.
+     *
+     * @param kind   One of the {@link ItemComponent} kinds.
+     * @param region Sprite, or null to draw the kind with the food sprite.
+     */
+    public void setItemRegion(int kind, TextureRegion region) {
+        itemRegions[kind] = region != null ? region : itemRegions[ItemComponent.FOOD];
+    }
+
+    /**
+     * Sets the overlay drawn over the HUD when performance metrics are enabled.
+     *
+     * @param metricsOverlay Overlay to draw, or null for none.
+     */
+    public void setMetricsOverlay(MetricsOverlay metricsOverlay) {
+        this.metricsOverlay = metricsOverlay;
+    }
+
+    /**
+     * Sets the players the cameras follow when the grid does not fit the screen.
+     * The screen is split into one view per player, from left to right.
+     *
+     * @param players Ids of the followed players, at least one.
+     */
+    public void setFollowedPlayers(int... players) {
+        followedPlayers = players.clone();
+        cameras = new OrthographicCamera[players.length];
+        for (int i = 0; i < players.length; i++) {
+            cameras[i] = new OrthographicCamera();
+        }
+    }
+
+    /**
+     * Keeps one unit per pixel after the screen is resized and moves the UI elements to fit.
+     *
+     * @param width  Width of the screen.
+     * @param height Height of the screen.
+     */
+    public void resize(int width, int height) {
+        screenWidth = width;
+        screenHeight = height;
+        screenProjection.setToOrtho2D(0, 0, width, height);
+        hud.resize(width, height);
     }
 
     /**
      * Renders the game graphics and UI elements.
      *
-     * @param snake1        First snake instance.
-     * @param snake2        Second snake instance.
-     * @param food          Food instance.
-     * @param bonusItem     BonusItem instance.
-     * @param score1        Score of player 1.
-     * @param score2        Score of player 2.
-     * @param gameStarted   Indicates whether the game has started.
-     * @param invulnerable1 Indicates whether player 1 is invulnerable.
-     * @param invulnerable2 Indicates whether player 2 is invulnerable.
+     * @param state State of the game; the start message is shown while it is not running.
+     * @param alpha Fraction of the current simulation tick that has elapsed, used to interpolate movement.
      */
-    public void render(Snake snake1, Snake snake2, Food food, BonusItem bonusItem, int score1, int score2, boolean gameStarted, boolean invulnerable1, boolean invulnerable2) {
-        batch.begin();
+    public void render(RenderState state, float alpha) {
+        boolean fits = state.getGridWidth() * Snake.CELL_SIZE <= screenWidth && state.getGridHeight() * Snake.CELL_SIZE <= screenHeight;
+        int views = fits ? 1 : cameras.length;
+        int viewWidth = screenWidth / views;
+        renderCalls = 0;
 
-        // Render the first snake
-        for (int[] part : snake1.getBody()) {
-            if (invulnerable1) {
-                batch.draw(invulnerableSnakeTexture, part[0] * Snake.CELL_SIZE, part[1] * Snake.CELL_SIZE);
+        for (int v = 0; v < views; v++) {
+            OrthographicCamera camera = cameras[v];
+            camera.viewportWidth = viewWidth;
+            camera.viewportHeight = screenHeight;
+            if (fits) {
+                // The grid sits in the bottom left corner, one unit per pixel
+                camera.position.set(screenWidth / 2f, screenHeight / 2f, 0);
             } else {
-                batch.draw(snakeTexture, part[0] * Snake.CELL_SIZE, part[1] * Snake.CELL_SIZE);
+                follow(camera, state, followedPlayers[v], alpha);
+            }
+            camera.update();
+            if (views > 1) {
+                HdpiUtils.glViewport(v * viewWidth, 0, viewWidth, screenHeight);
+            }
+
+            batch.setProjectionMatrix(camera.combined);
+            batch.begin();
+            drawWorld(state, camera, alpha);
+            if (views == 1) {
+                // Shift the HUD with the camera so it is drawn in the same flush
+                float x = camera.position.x - viewWidth / 2f;
+                float y = camera.position.y - screenHeight / 2f;
+                hud.draw(batch, state, x, y);
+                if (metricsOverlay != null) {
+                    metricsOverlay.draw(batch, x, y);
+                }
             }
+            batch.end();
+            renderCalls += batch.renderCalls;
         }
 
-        // Render the second snake
-        for (int[] part : snake2.getBody()) {
-            if (invulnerable2) {
-                batch.draw(invulnerableSnakeTexture, part[0] * Snake.CELL_SIZE, part[1] * Snake.CELL_SIZE);
-            } else {
-                batch.draw(snakeTexture, part[0] * Snake.CELL_SIZE, part[1] * Snake.CELL_SIZE);
+        if (views > 1) {
+            // Render the scores and the start message over every view
+            HdpiUtils.glViewport(0, 0, screenWidth, screenHeight);
+            batch.setProjectionMatrix(screenProjection);
+            batch.begin();
+            hud.draw(batch, state, 0, 0);
+            if (metricsOverlay != null) {
+                metricsOverlay.draw(batch, 0, 0);
             }
+            batch.end();
+            renderCalls += batch.renderCalls;
         }
+    }
 
-        // Render the food
-        int[] foodPosition = food.getPosition();
-        batch.draw(foodTexture, foodPosition[0] * Snake.CELL_SIZE, foodPosition[1] * Snake.CELL_SIZE);
+    /**
+     * Centers a camera on the interpolated head of a player, without showing what lies beyond the grid.
+     * The camera stays where it is while the player has no snake on the grid.
+     *
+     * @param camera Camera to move.
+     * @param state  State holding the snakes.
+     * @param player Id of the followed player.
+     * @param alpha  Fraction of the current simulation tick that has elapsed.
+     */
+    private void follow(OrthographicCamera camera, RenderState state, int player, float alpha) {
+        if (state.getSize(player) > 0) {
+            float progress = state.getMoveProgress(player, alpha);
+            int fromX = state.getFromX(player);
+            int fromY = state.getFromY(player);
+            camera.position.x = (fromX + (state.getHeadX(player) - fromX) * progress + 0.5f) * Snake.CELL_SIZE;
+            camera.position.y = (fromY + (state.getHeadY(player) - fromY) * progress + 0.5f) * Snake.CELL_SIZE;
+        }
+        camera.position.x = clamp(camera.position.x, camera.viewportWidth, state.getGridWidth() * Snake.CELL_SIZE);
+        camera.position.y = clamp(camera.position.y, camera.viewportHeight, state.getGridHeight() * Snake.CELL_SIZE);
+    }
 
-        // Render the bonus item if active
-        if (bonusItem.isActive()) {
-            int[] bonusPosition = bonusItem.getPosition();
-            batch.draw(bonusTexture, bonusPosition[0] * Snake.CELL_SIZE, bonusPosition[1] * Snake.CELL_SIZE);
+    /**
+     * Keeps a view inside the grid on one axis, or centers the grid if it is smaller than the view.
+     *
+     * @param center Requested center of the view.
+     * @param view   Size of the view.
+     * @param world  Size of the grid.
+     * @return Center of the view.
+     */
+    private static float clamp(float center, float view, float world) {
+        if (world <= view) {
+            return world / 2;
+        }
+        return Math.max(view / 2, Math.min(world - view / 2, center));
+    }
+
+    /**
+     * Draws the part of the grid seen by a camera: the segments of the visible chunks,
+     * then the moving heads and tails of the snakes, then the items.
+     *
+     * @param state  State of the game.
+     * @param camera Camera of the view.
+     * @param alpha  Fraction of the current simulation tick that has elapsed.
+     */
+    private void drawWorld(RenderState state, OrthographicCamera camera, float alpha) {
+        // Cells partly visible, plus one on each side for the segments sliding in
+        minX = Math.max(0, (int) Math.floor((camera.position.x - camera.viewportWidth / 2) / Snake.CELL_SIZE) - 1);
+        minY = Math.max(0, (int) Math.floor((camera.position.y - camera.viewportHeight / 2) / Snake.CELL_SIZE) - 1);
+        maxX = Math.min(state.getGridWidth() - 1, (int) ((camera.position.x + camera.viewportWidth / 2) / Snake.CELL_SIZE) + 1);
+        maxY = Math.min(state.getGridHeight() - 1, (int) ((camera.position.y + camera.viewportHeight / 2) / Snake.CELL_SIZE) + 1);
+
+        // Render the bodies chunk by chunk, skipping the chunks out of view
+        for (int row = ChunkIndex.chunkOf(minY); row <= ChunkIndex.chunkOf(maxY); row++) {
+            for (int column = ChunkIndex.chunkOf(minX); column <= ChunkIndex.chunkOf(maxX); column++) {
+                drawChunk(state, column, row);
+            }
+        }
+
+        // Render the heads and tails of the snakes still in the match, which slide between cells
+        for (int player = 1; player <= state.getPlayerCount(); player++) {
+            if (state.isAlive(player)) {
+                // Changing the color does not flush the batch, unlike changing the texture
+                batch.setColor(state.isInvulnerable(player) ? INVULNERABLE_TINT : Color.WHITE);
+                drawEnds(state, player, alpha);
+            }
+        }
+        batch.setColor(Color.WHITE);
+
+        // Render the items, each with the sprite of its kind
+        for (int i = 0; i < state.getItemCount(); i++) {
+            int x = state.getItemX(i);
+            int y = state.getItemY(i);
+            if (isVisible(x, y)) {
+                batch.draw(itemRegions[state.getItemKind(i)], x * Snake.CELL_SIZE, y * Snake.CELL_SIZE);
+            }
         }
+    }
 
-        // Render player 1 score
-        font.draw(batch, "Player 1: " + score1, 10, Gdx.graphics.getHeight() - 10);
+    /**
+     * Draws the visible segments of a chunk, except the heads of the snakes.
+     *
+     * @param state  State of the game.
+     * @param column Chunk index on the X-axis.
+     * @param row    Chunk index on the Y-axis.
+     */
+    private void drawChunk(RenderState state, int column, int row) {
+        int end = state.getChunkEnd(column, row);
+        for (int i = state.getChunkStart(column, row); i < end; i++) {
+            int x = state.getCellX(i);
+            int y = state.getCellY(i);
+            if (isVisible(x, y)) {
+                batch.setColor(state.isInvulnerable(state.getCellOwner(i)) ? INVULNERABLE_TINT : Color.WHITE);
+                batch.draw(snakeRegion, x * Snake.CELL_SIZE, y * Snake.CELL_SIZE);
+            }
+        }
+    }
 
-        // Render player 2 score
-        font.draw(batch, "Player 2: " + score2, Gdx.graphics.getWidth() - 100, Gdx.graphics.getHeight() - 10);
+    /**
+     * Draws the head of a snake sliding from the cell it moved from, and the tail sliding out of
+     * the cell it left. With the cells drawn by drawChunk, the snake looks the same as if every
+     * segment were interpolated between grid steps.
+     *
+     * @param state  State of the game.
+     * @param player Id of the snake's player.
+     * @param alpha  Fraction of the current simulation tick that has elapsed.
+     */
+    private void drawEnds(RenderState state, int player, float alpha) {
+        if (state.getSize(player) == 0) {
+            return;
+        }
+        float progress = state.getMoveProgress(player, alpha);
+        drawSliding(state.getFromX(player), state.getFromY(player), state.getHeadX(player), state.getHeadY(player), progress);
+        if (state.getSize(player) > 1) {
+            drawSliding(state.getPrevTailX(player), state.getPrevTailY(player), state.getTailX(player), state.getTailY(player), progress);
+        }
+    }
 
-        // Render initial message if the game has not started
-        if (!gameStarted) {
-            font.draw(batch, "Press any key to start", Gdx.graphics.getWidth() / 2 - 50, Gdx.graphics.getHeight() / 2);
+    /**
+     * Draws a segment between two cells, if either is visible.
+     *
+     * @param fromX    X coordinate of the cell the segment moved from.
+     * @param fromY    Y coordinate of the cell the segment moved from.
+     * @param x        X coordinate of the cell the segment moved to.
+     * @param y        Y coordinate of the cell the segment moved to.
+     * @param progress Progress of the move, between 0 and 1.
+     */
+    private void drawSliding(int fromX, int fromY, int x, int y, float progress) {
+        if (isVisible(x, y) || isVisible(fromX, fromY)) {
+            batch.draw(snakeRegion, (fromX + (x - fromX) * progress) * Snake.CELL_SIZE, (fromY + (y - fromY) * progress) * Snake.CELL_SIZE);
         }
+    }
+
+    /**
+     * Checks if a cell lies in the visible part of the grid of the current view.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     * @return True if the cell is visible.
+     */
+    private boolean isVisible(int x, int y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
 
-        batch.end();
+    /**
+     * Gets the number of draw calls of the last frame. Each one is a flush of the batch.
+     *
+     * @return Draw calls issued by the last call to {@link #render(RenderState, float)}.
+     */
+    public int getRenderCalls() {
+        return renderCalls;
     }
 }
@@ -0,0 +1,139 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+
+/**
+ * Draws the scores of every player and the start message.
+ * The text of each player is laid out once and laid out again only when that player's score
+ * changes; the glyphs of the whole HUD are kept in a font cache that is rebuilt only when some
+ * text or the screen size changes, so a steady frame draws the HUD without allocating.
+ */
+public class Hud {
+    private static final float MARGIN = 10; // Distance from the screen edges, in pixels
+    private static final float RIGHT_COLUMN_WIDTH = 100; // Width kept for the scores on the right
+
+    private final BitmapFont font;
+    private final BitmapFontCache cache; // Glyphs of every text of the HUD
+    private final StringBuilder text = new StringBuilder(32); // Reused to build the score texts
+    private GlyphLayout[] scoreLayouts = new GlyphLayout[0]; // Laid out score text of each player
+    private int[] shownScores = new int[0]; // Score in each layout
+    private final GlyphLayout messageLayout = new GlyphLayout();
+    private boolean messageVisible; // Indicates whether the message is in the cache
+    private float width; // Width of the screen
+    private float height; // Height of the screen
+    private boolean dirty = true; // Indicates whether the cache must be rebuilt
+    private float offsetX; // Position of the screen in the coordinates of the batch
+    private float offsetY;
+
+    /**
+     * Creates a HUD.
+     *
+     * @param font   Font to draw with.
+     * @param width  Width of the screen.
+     * @param height Height of the screen.
+     */
+    public Hud(BitmapFont font, int width, int height) {
+        this.font = font;
+        cache = font.newFontCache();
+        resize(width, height);
+    }
+
+    /**
+     * Sets the message shown while the game has not started.
+     *
+     * @param message Message to show.
+     */
+    public void setMessage(String message) {
+        messageLayout.setText(font, message);
+        dirty = true;
+    }
+
+    /**
+     * Moves the texts to fit a new screen size.
+     *
+     * @param width  Width of the screen.
+     * @param height Height of the screen.
+     */
+    public void resize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        dirty = true;
+    }
+
+    /**
+     * Brings the texts up to date with the state of the game and draws them.
+     *
+     * @param batch Batch to draw with, between begin and end.
+     * @param state State holding the scores; the message is shown while it is not running.
+     * @param x     X coordinate of the bottom left corner of the screen in the coordinates of the batch.
+     * @param y     Y coordinate of the bottom left corner of the screen in the coordinates of the batch.
+     */
+    public void draw(Batch batch, RenderState state, float x, float y) {
+        int playerCount = state.getPlayerCount();
+        boolean gameStarted = state.isRunning();
+        if (scoreLayouts.length != playerCount) {
+            scoreLayouts = new GlyphLayout[playerCount];
+            shownScores = new int[playerCount];
+            for (int p = 0; p < playerCount; p++) {
+                scoreLayouts[p] = new GlyphLayout();
+                layOutScore(p, state.getScore(p + 1));
+            }
+            dirty = true;
+        }
+        for (int p = 0; p < playerCount; p++) {
+            int score = state.getScore(p + 1);
+            if (score != shownScores[p]) {
+                layOutScore(p, score);
+                dirty = true;
+            }
+        }
+        if (messageVisible == gameStarted) {
+            messageVisible = !gameStarted;
+            dirty = true;
+        }
+        if (dirty) {
+            rebuildCache();
+        }
+        if (x != offsetX || y != offsetY) {
+            // Moves the cached glyphs without laying them out again
+            cache.setPosition(x, y);
+            offsetX = x;
+            offsetY = y;
+        }
+        cache.draw(batch);
+    }
+
+    /**
+     * Lays out the score text of a player.
+     *
+     * @param p     Player index.
+     * @param score Score to show.
+     */
+    private void layOutScore(int p, int score) {
+        text.setLength(0);
+        text.append("Player ").append(p + 1).append(": ").append(score);
+        scoreLayouts[p].setText(font, text);
+        shownScores[p] = score;
+    }
+
+    /**
+     * Puts every laid out text in the cache at its place on the screen,
+     * odd players on the left and even players on the right.
+     */
+    private void rebuildCache() {
+        cache.clear();
+        for (int p = 0; p < scoreLayouts.length; p++) {
+            float x = p % 2 == 0 ? MARGIN : width - RIGHT_COLUMN_WIDTH;
+            float y = height - MARGIN - p / 2 * font.getLineHeight();
+            cache.addText(scoreLayouts[p], x, y);
+        }
+        if (messageVisible) {
+            cache.addText(messageLayout, width / 2 - 50, height / 2);
+        }
+        cache.setPosition(offsetX, offsetY);
+        dirty = false;
+    }
+}
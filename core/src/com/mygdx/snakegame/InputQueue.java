@@ -0,0 +1,103 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Receives key presses as events instead of polling the keyboard once per frame, so every
+ * press between two frames is seen, in order. Each press of a bound key is stored as a
+ * fixed-size record (time, player, direction) in a preallocated ring, and handed to a
+ * {@link TurnQueue} when the simulation reaches the tick it belongs to.
+ * <p>
+ * The rendering thread stores the presses while another thread may drain them: only the
+ * storing thread writes the tail and only the draining thread writes the head, and both
+ * indices are volatile, so an event is complete before the drain can see it, without a lock.
+ */
+public class InputQueue extends InputAdapter {
+    private static final int CAPACITY = 64; // Events kept between two frames, a power of two
+    private static final int KEY_COUNT = 256; // Key codes that can be bound
+
+    private final long[] times = new long[CAPACITY]; // Time of each event, in nanoseconds
+    private final int[] players = new int[CAPACITY]; // Player of each event
+    private final int[] directions = new int[CAPACITY]; // Requested direction of each event
+    private volatile int head; // Index of the oldest event, grows without wrapping, written by the draining thread
+    private volatile int tail; // Index after the newest event, grows without wrapping, written by the storing thread
+
+    private final int[] keyPlayers = new int[KEY_COUNT]; // Player bound to each key, 0 if none
+    private final int[] keyDirections = new int[KEY_COUNT]; // Direction bound to each key
+
+    /**
+     * Binds four keys to the directions of a player.
+     *
+     * @param player Player id.
+     * @param up     Key for moving up.
+     * @param down   Key for moving down.
+     * @param left   Key for moving left.
+     * @param right  Key for moving right.
+     */
+    public void bind(int player, int up, int down, int left, int right) {
+        bind(up, player, Direction.UP);
+        bind(down, player, Direction.DOWN);
+        bind(left, player, Direction.LEFT);
+        bind(right, player, Direction.RIGHT);
+    }
+
+    /**
+     * Binds a key to a direction of a player.
+     *
+     * @param keycode   Key code, from {@link com.badlogic.gdx.Input.Keys}.
+     * @param player    Player id.
+     * @param direction Direction requested by the key.
+     */
+    private void bind(int keycode, int player, int direction) {
+        keyPlayers[keycode] = player;
+        keyDirections[keycode] = direction;
+    }
+
+    /**
+     * Stores the press of a bound key. Presses are dropped while the ring is full.
+     *
+     * @param keycode Key code of the pressed key.
+     * @return True if the key is bound.
+     */
+    @Override
+    public boolean keyDown(int keycode) {
+        if (keycode < 0 || keycode >= KEY_COUNT || keyPlayers[keycode] == 0) {
+            return false;
+        }
+        if (tail - head < CAPACITY) {
+            int i = tail & (CAPACITY - 1);
+            times[i] = TimeUtils.nanoTime();
+            players[i] = keyPlayers[keycode];
+            directions[i] = keyDirections[keycode];
+            tail++;
+        }
+        return true;
+    }
+
+    /**
+     * Hands the events that happened up to a given time to the turn queue, oldest first.
+     * Called by the draining thread.
+     *
+     * @param time       Time of the tick about to run, in {@link TimeUtils#nanoTime()} units.
+     * @param simulation Simulation the players are in.
+     * @param turns      Queue receiving the turns.
+     */
+    public void drain(long time, GameSimulation simulation, TurnQueue turns) {
+        while (head != tail) {
+            int i = head & (CAPACITY - 1);
+            if (times[i] > time) {
+                return; // Belongs to a later tick
+            }
+            turns.offer(simulation, players[i], directions[i]);
+            head++;
+        }
+    }
+
+    /**
+     * Drops every stored event. Called by the draining thread.
+     */
+    public void clear() {
+        head = tail;
+    }
+}
@@ -0,0 +1,232 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Logger;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.io.IOException;
+
+/**
+ * Runs a match for two players on one keyboard, either of them possibly a bot, on a
+ * {@link SimulationThread}; each frame draws the latest {@link RenderState} the thread published.
+ * The events of the match are logged by an {@link EventLogger} and the matches are saved to the
+ * replays folder and the match history by a {@link MatchArchiver}. With the
+ * {@code snakegame.spectators} system property set to a TCP port, the match is streamed live
+ * to the spectators connecting to that port.
+ */
+public class LocalMatchController implements ModeController {
+    private static final int EVENT_CAPACITY = 1024; // Events the simulation can get ahead of the slowest consumer
+
+    private final int arenaWidth; // Size of the grid on the X-axis, 0 to fit the window
+    private final int arenaHeight; // Size of the grid on the Y-axis, 0 to fit the window
+    private final BotController[] bots = new BotController[GameSimulation.DEFAULT_PLAYER_COUNT]; // Bot steering each player, null for the keyboard
+    private final Logger logger = new Logger("SnakeGame", Logger.INFO);
+
+    private GameSimulation simulation;
+    private final RenderStateBuffer states = new RenderStateBuffer(); // Copies of the simulation for the renderer
+    private SimulationThread simulationThread; // Runs the match
+    private final GameEventBus events = new GameEventBus(EVENT_CAPACITY); // Events of the match
+    private GameEventBus.Subscription soundEvents; // Events drained each frame to play the sounds
+    private GameEventHandler soundPlayer; // Plays the sound of an event
+    private EventLogger eventLogger; // Logs the events of the match from its own thread
+    private MatchArchiver archiver; // Saves the replays and the records of the matches from its own thread
+    private MatchHistory history; // Finished matches and the leaderboard, null if it cannot be opened
+    private SpectatorServer spectators; // Streams the match, null if not asked for or if the port cannot be opened
+    private Sound eatSound; // Null until loaded
+
+    private boolean gameStarted; // Indicates whether the match has started
+    private long lastTick; // Tick of the last state drawn, to count the ticks of a frame
+    private int frameTicks; // Simulation ticks run since the last frame
+    private float alpha; // Interpolation factor of the current frame
+
+    /**
+     * Creates the controller of a match on a grid of a given size.
+     *
+     * @param arenaWidth  Size of the grid on the X-axis, or 0 to fit the window.
+     * @param arenaHeight Size of the grid on the Y-axis, or 0 to fit the window.
+     */
+    public LocalMatchController(int arenaWidth, int arenaHeight) {
+        this.arenaWidth = arenaWidth;
+        this.arenaHeight = arenaHeight;
+    }
+
+    /**
+     * Lets a bot steer a player instead of the keyboard. Must be called before {@link #create()}.
+     *
+     * @param player Player id.
+     * @param bot    Bot to steer with, or null for the keyboard.
+     */
+    public void setBot(int player, BotController bot) {
+        bots[player - 1] = bot;
+    }
+
+    /**
+     * Creates the simulation, binds the keys of both players and starts the threads of the match.
+     */
+    @Override
+    public void create() {
+        // Calculate grid size based on screen width and height, unless an arena size was given
+        int gridSizeX = arenaWidth > 0 ? arenaWidth : Gdx.graphics.getWidth() / Snake.CELL_SIZE;
+        int gridSizeY = arenaHeight > 0 ? arenaHeight : Gdx.graphics.getHeight() / Snake.CELL_SIZE;
+        simulation = new GameSimulation(gridSizeX, gridSizeY, System.nanoTime());
+
+        InputQueue inputQueue = new InputQueue();
+        inputQueue.bind(1, Input.Keys.UP, Input.Keys.DOWN, Input.Keys.LEFT, Input.Keys.RIGHT);
+        inputQueue.bind(2, Input.Keys.W, Input.Keys.S, Input.Keys.A, Input.Keys.D);
+        Gdx.input.setInputProcessor(inputQueue);
+
+        soundEvents = events.subscribe();
+        soundPlayer = (type, player, tick) -> {
+            if (type == GameEvents.FOOD_EATEN && eatSound != null) {
+                eatSound.play();
+            }
+        };
+        eventLogger = new EventLogger(events);
+        eventLogger.start();
+        openHistory();
+        archiver = new MatchArchiver(events, Gdx.files.local("replays").file().toPath(), history);
+        archiver.start();
+        openSpectators();
+        simulationThread = new SimulationThread(simulation, states, events, inputQueue, bots, archiver, spectators);
+        simulationThread.start();
+    }
+
+    /**
+     * Opens the history of the matches and logs the best score. The game is played
+     * without a history if it cannot be opened.
+     */
+    private void openHistory() {
+        long start = TimeUtils.nanoTime();
+        try {
+            history = new MatchHistory(Gdx.files.local("history").file().toPath());
+        } catch (IOException e) {
+            logger.error("Could not open the match history", e);
+            return;
+        }
+        logger.info(history.getMatchCount() + " matches loaded in " + TimeUtils.timeSinceNanos(start) / 1000 + " us"
+                + (history.getRecovered() != 0 ? ", " + history.getRecovered() + " recovered" : ""));
+        if (history.getTopCount() > 0) {
+            logger.info("Best score: " + history.getTopScore(0) + " by " + history.getTopName(0));
+        }
+    }
+
+    /**
+     * Opens the spectator server, if a port was given. The game is played without spectators
+     * if the port cannot be opened.
+     */
+    private void openSpectators() {
+        Integer port = Integer.getInteger("snakegame.spectators");
+        if (port == null) {
+            return;
+        }
+        try {
+            spectators = new SpectatorServer(port, simulation);
+            logger.info("Spectators can watch on TCP port " + spectators.getPort());
+        } catch (IOException e) {
+            logger.error("Could not open the spectator port " + port, e);
+            return;
+        }
+        spectators.start();
+    }
+
+    /**
+     * Plays the sound of the food eaten.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean playsSounds() {
+        return true;
+    }
+
+    /**
+     * Follows both players.
+     *
+     * @param renderer Renderer drawing the states of the match.
+     */
+    @Override
+    public void setUpRenderer(GameRenderer renderer) {
+        renderer.setFollowedPlayers(1, 2);
+    }
+
+    /**
+     * Hands over the sound played when a snake eats, once it is loaded.
+     *
+     * @param eatSound Sound to play.
+     */
+    @Override
+    public void setEatSound(Sound eatSound) {
+        this.eatSound = eatSound;
+    }
+
+    /**
+     * Asks the simulation thread to start the match on the first key press, takes the latest
+     * state it published, and plays the sounds of the events published since the last frame.
+     * The directions reach the thread through the input queue; the key that starts the match
+     * does not steer.
+     *
+     * @param metrics Frame statistics, null if metrics are disabled.
+     * @return State to draw.
+     */
+    @Override
+    public RenderState update(PerformanceMetrics metrics) {
+        if (!gameStarted && Gdx.input.isKeyJustPressed(Input.Keys.ANY_KEY)) {
+            simulationThread.requestStart();
+        }
+        if (PerformanceMetrics.ENABLED) {
+            metrics.endPhase(SnakeGame.INPUT_PHASE);
+        }
+        RenderState state = states.acquire();
+        gameStarted = state.isRunning();
+        soundEvents.drain(soundPlayer);
+        // The tick goes back to 0 when a match ends
+        frameTicks = (int) (state.getTick() >= lastTick ? state.getTick() - lastTick : state.getTick());
+        lastTick = state.getTick();
+        alpha = gameStarted ? Math.max(0f, Math.min(1f, (float) (TimeUtils.nanoTime() - state.getTickTime()) / SimulationThread.TICK_NANOS)) : 0f;
+        return state;
+    }
+
+    /**
+     * Gets how far the frame is between the state published by the thread and the next one.
+     *
+     * @return Interpolation factor between 0 and 1.
+     */
+    @Override
+    public float getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Gets the number of ticks the thread ran since the last frame.
+     *
+     * @return Number of ticks.
+     */
+    @Override
+    public int getFrameTicks() {
+        return frameTicks;
+    }
+
+    /**
+     * Stops the threads of the match and saves the history.
+     */
+    @Override
+    public void dispose() {
+        if (simulationThread != null) {
+            simulationThread.stop(); // Also hands over the recording
+            eventLogger.stop(); // Logs the last events
+            archiver.stop(); // Saves the last replay and stores the last match
+        }
+        if (spectators != null) {
+            spectators.stop();
+        }
+        if (history != null) {
+            try {
+                history.close(); // Saves the index, so the next start reads no record
+            } catch (IOException e) {
+                logger.error("Could not save the match history", e);
+            }
+        }
+    }
+}
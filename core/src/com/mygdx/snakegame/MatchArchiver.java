@@ -0,0 +1,166 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.utils.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stores the finished local matches from its own thread: closes the replay of each match, writes
+ * it to the replays folder and appends the record of the match to the {@link MatchHistory}, so
+ * the simulation thread never creates, writes or closes a file.
+ * <p>
+ * The simulation thread records each match in memory and hands the recording over with
+ * {@link #submit}, before it publishes the {@link GameEvents#GAME_OVER} that ends the match. The
+ * archiver drains a {@link GameEventBus} subscription a few times per second, like the
+ * {@link EventLogger}, and stores one match for each GAME_OVER it reads. A match still being
+ * played when the game closes is handed over without a record; its replay is saved on
+ * {@link #stop()}.
+ */
+public class MatchArchiver implements Runnable, GameEventHandler {
+    private static final long DRAIN_INTERVAL = 100_000_000L; // Time between two drains, in nanoseconds
+
+    private final GameEventBus.Subscription events;
+    private final Path directory; // Folder the replays are written to
+    private final MatchHistory history; // Stores the finished matches, null to keep none
+    private final Queue<Recording> recordings = new ConcurrentLinkedQueue<>(); // Handed over, not stored yet
+    private final Logger logger = new Logger("SnakeGame", Logger.INFO);
+    private final Thread thread = new Thread(this, "match-archive");
+    private volatile boolean running = true; // Cleared by stop()
+
+    /**
+     * Creates the archiver, not started yet, subscribed to a bus.
+     *
+     * @param bus       Bus the simulation publishes its events to.
+     * @param directory Folder the replays are written to, created if needed.
+     * @param history   History the finished matches are appended to, null to keep none.
+     */
+    public MatchArchiver(GameEventBus bus, Path directory, MatchHistory history) {
+        events = bus.subscribe();
+        this.directory = directory;
+        this.history = history;
+        thread.setDaemon(true); // Never keeps the application alive
+    }
+
+    /**
+     * Starts the thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops the thread once it has stored every match handed over so far. Call it after the
+     * simulation thread has stopped, so the match it was playing is saved too.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands over the recording of a match. Called by the simulation thread, which must not touch
+     * the recorder, the replay nor the record afterwards, and must publish the GAME_OVER of a
+     * finished match after this call.
+     *
+     * @param recorder  Recorder of the match, writing to the replay, not closed yet.
+     * @param replay    Memory the recorder writes to.
+     * @param startTime Time the match started, in milliseconds since the epoch, naming the replay.
+     * @param record    Record of the finished match, null if it was not finished.
+     */
+    public void submit(ReplayRecorder recorder, ByteArrayOutputStream replay, long startTime, MatchRecord record) {
+        recordings.add(new Recording(recorder, replay, startTime, record));
+    }
+
+    /**
+     * Drains the events in batches until stopped, then drains what is left and stores the
+     * matches handed over without a GAME_OVER.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            events.drain(this);
+            LockSupport.parkNanos(this, DRAIN_INTERVAL);
+        }
+        events.drain(this);
+        while (!recordings.isEmpty()) {
+            store(recordings.poll());
+        }
+    }
+
+    /**
+     * Stores the next match handed over when it ends.
+     *
+     * @param type   One of the {@link GameEvents} types.
+     * @param player Player concerned by the event, 0 if none.
+     * @param tick   Tick of the step that produced the event.
+     */
+    @Override
+    public void onEvent(int type, int player, long tick) {
+        if (type == GameEvents.GAME_OVER && !recordings.isEmpty()) {
+            store(recordings.poll());
+        }
+    }
+
+    /**
+     * Saves the replay of a match and appends its record to the history, if it was finished.
+     *
+     * @param recording Match handed over.
+     */
+    private void store(Recording recording) {
+        Path file = directory.resolve("replay-" + recording.startTime + ".replay");
+        try {
+            recording.recorder.close(); // Adds the keyframe index to the replay in memory
+            Files.createDirectories(directory);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                recording.replay.writeTo(out);
+            }
+            logger.info("Replay saved to " + file);
+        } catch (IOException e) {
+            logger.error("Could not save the replay", e);
+        }
+        if (history != null && recording.record != null) {
+            try {
+                history.append(recording.record);
+            } catch (IOException e) {
+                logger.error("Could not store the match", e);
+            }
+        }
+    }
+
+    /**
+     * Recording of a match handed over by the simulation thread.
+     */
+    private static class Recording {
+        final ReplayRecorder recorder;
+        final ByteArrayOutputStream replay;
+        final long startTime; // Time the match started, in milliseconds since the epoch
+        final MatchRecord record; // Null if the match was not finished
+
+        /**
+         * Creates a recording.
+         *
+         * @param recorder  Recorder of the match, not closed yet.
+         * @param replay    Memory the recorder writes to.
+         * @param startTime Time the match started, in milliseconds since the epoch.
+         * @param record    Record of the finished match, null if it was not finished.
+         */
+        Recording(ReplayRecorder recorder, ByteArrayOutputStream replay, long startTime, MatchRecord record) {
+            this.recorder = recorder;
+            this.replay = replay;
+            this.startTime = startTime;
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+
+/**
+ * Shows the statistics of a {@link PerformanceMetrics} in the bottom left corner of the screen.
+ * The text is laid out again only a few times per second, and drawn from a font cache in
+ * between, so the overlay barely changes the frame it measures.
+ */
+public class MetricsOverlay {
+    private static final float MARGIN = 10; // Distance from the screen edges, in pixels
+    private static final long REFRESH_INTERVAL = 500_000_000L; // Time between two layouts, in nanoseconds
+
+    private final PerformanceMetrics metrics;
+    private final BitmapFont font;
+    private final BitmapFontCache cache; // Glyphs of the statistics
+    private final StringBuilder text = new StringBuilder(512); // Reused to build the statistics
+    private boolean visible; // Indicates whether the overlay is drawn
+    private long lastRefresh; // Time of the last layout
+    private float offsetX; // Position of the screen in the coordinates of the batch
+    private float offsetY;
+
+    /**
+     * Creates a hidden overlay.
+     *
+     * @param metrics Metrics to show.
+     * @param font    Font to draw with.
+     */
+    public MetricsOverlay(PerformanceMetrics metrics, BitmapFont font) {
+        this.metrics = metrics;
+        this.font = font;
+        cache = font.newFontCache();
+    }
+
+    /**
+     * Shows the overlay if it is hidden, hides it otherwise.
+     */
+    public void toggle() {
+        visible = !visible;
+        lastRefresh = 0;
+    }
+
+    /**
+     * Checks if the overlay is drawn.
+     *
+     * @return True if visible.
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Brings the statistics up to date if they are old enough and draws them.
+     *
+     * @param batch Batch to draw with, between begin and end.
+     * @param x     X coordinate of the bottom left corner of the screen in the coordinates of the batch.
+     * @param y     Y coordinate of the bottom left corner of the screen in the coordinates of the batch.
+     */
+    public void draw(Batch batch, float x, float y) {
+        if (!visible) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (lastRefresh == 0 || now - lastRefresh >= REFRESH_INTERVAL) {
+            text.setLength(0);
+            metrics.appendSummary(text);
+            int lines = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '\n') {
+                    lines++;
+                }
+            }
+            cache.setText(text, MARGIN, MARGIN + lines * font.getLineHeight());
+            cache.setPosition(x, y);
+            offsetX = x;
+            offsetY = y;
+            lastRefresh = now;
+        } else if (x != offsetX || y != offsetY) {
+            // Moves the cached glyphs without laying them out again
+            cache.setPosition(x, y);
+            offsetX = x;
+            offsetY = y;
+        }
+        cache.draw(batch);
+    }
+}
@@ -0,0 +1,64 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.audio.Sound;
+
+/**
+ * Runs the match of one mode of {@link SnakeGame}: reads the keyboard, advances the simulation or
+ * takes it from elsewhere, and hands out the state to draw each frame. The game keeps the assets,
+ * the renderer and the frame statistics, and forwards its life cycle to the controller of its mode.
+ */
+public interface ModeController {
+    /**
+     * Creates the simulation and starts what the mode runs, once the application is running.
+     */
+    void create();
+
+    /**
+     * Indicates whether the mode plays sounds, so the game only loads them if it does.
+     *
+     * @return True if the mode plays sounds.
+     */
+    boolean playsSounds();
+
+    /**
+     * Sets the message and the followed players of the renderer, once it is created.
+     *
+     * @param renderer Renderer drawing the states of the mode.
+     */
+    void setUpRenderer(GameRenderer renderer);
+
+    /**
+     * Hands over the sound played when a snake eats, once it is loaded.
+     *
+     * @param eatSound Sound to play.
+     */
+    void setEatSound(Sound eatSound);
+
+    /**
+     * Reads the keyboard and advances the match for the current frame. Ends the input phase of
+     * the metrics, if they are enabled.
+     *
+     * @param metrics Frame statistics, null if metrics are disabled.
+     * @return State to draw.
+     */
+    RenderState update(PerformanceMetrics metrics);
+
+    /**
+     * Gets how far the frame drawn is between the state handed out and the next one.
+     *
+     * @return Interpolation factor between 0 and 1 of the last {@link #update(PerformanceMetrics)}.
+     */
+    float getAlpha();
+
+    /**
+     * Gets the number of simulation ticks the last {@link #update(PerformanceMetrics)} ran or received.
+     *
+     * @return Number of ticks.
+     */
+    int getFrameTicks();
+
+    /**
+     * Stops what the mode runs and releases its resources.
+     */
+    void dispose();
+}
@@ -0,0 +1,177 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Logger;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.io.IOException;
+
+/**
+ * Plays a match with another machine through a {@link RollbackPeer}: the frames are simulated on
+ * the rendering thread without waiting for the other player, and rolled back when its input
+ * differs from the one predicted. The match starts as soon as both machines are connected.
+ */
+public class PeerMatchController implements ModeController {
+    private static final int MAX_TICKS_PER_FRAME = 5; // Catch-up cap after a stall
+
+    private final RollbackPeer peer; // Other machine of the match
+    private final GameSimulation simulation;
+    private final TickScheduler scheduler = new TickScheduler(GameSimulation.TICKS_PER_SECOND, MAX_TICKS_PER_FRAME);
+    private final Logger logger = new Logger("SnakeGame", Logger.INFO);
+    private final RenderStateBuffer states = new RenderStateBuffer(); // Copies of the simulation for the renderer
+    private InputQueue inputQueue; // Key presses not simulated yet
+    private TurnQueue turns; // Turns waiting for the next move of the local player
+    private GameRenderer renderer; // Told when the other player leaves
+    private Sound eatSound; // Null until loaded
+
+    private boolean gameStarted = true; // Cleared when the other player leaves
+    private int lastScore; // Score of the local player in the last frame simulated
+    private int frameTicks; // Frames simulated during the current frame
+    private float alpha; // Interpolation factor of the current frame
+
+    /**
+     * Creates the controller of a peer-to-peer match.
+     *
+     * @param peer Peer that has already connected to the other machine.
+     */
+    public PeerMatchController(RollbackPeer peer) {
+        this.peer = peer;
+        this.simulation = peer.getSession().getSimulation();
+    }
+
+    /**
+     * Binds the arrow keys to the local player.
+     */
+    @Override
+    public void create() {
+        inputQueue = new InputQueue();
+        // The arrow keys steer the local player's snake, whatever its seat
+        inputQueue.bind(peer.getPlayer(), Input.Keys.UP, Input.Keys.DOWN, Input.Keys.LEFT, Input.Keys.RIGHT);
+        turns = new TurnQueue(simulation.getPlayerCount());
+        Gdx.input.setInputProcessor(inputQueue);
+    }
+
+    /**
+     * Plays the sound of the food eaten by the local player.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean playsSounds() {
+        return true;
+    }
+
+    /**
+     * Follows the local player.
+     *
+     * @param renderer Renderer drawing the states of the match.
+     */
+    @Override
+    public void setUpRenderer(GameRenderer renderer) {
+        this.renderer = renderer;
+        renderer.setFollowedPlayers(peer.getPlayer());
+    }
+
+    /**
+     * Hands over the sound played when a snake eats, once it is loaded.
+     *
+     * @param eatSound Sound to play.
+     */
+    @Override
+    public void setEatSound(Sound eatSound) {
+        this.eatSound = eatSound;
+    }
+
+    /**
+     * Simulates the frames due with the other machine, at the simulation rate. The inputs of the
+     * other player received since the last frame are applied first, rolling the simulation back
+     * if they differ from the ones predicted, then each frame is simulated with the local input.
+     * Frames are held back while the other player is too far behind to roll back to. The match
+     * ends once the other player has not been heard for {@link NetProtocol#CLIENT_TIMEOUT}.
+     *
+     * @param metrics Frame statistics, null if metrics are disabled.
+     * @return State to draw.
+     */
+    @Override
+    public RenderState update(PerformanceMetrics metrics) {
+        frameTicks = 0;
+        alpha = 0f;
+        if (gameStarted) {
+            simulate(metrics);
+        }
+        // The simulation is updated on this thread, so the copy is taken right away
+        states.getBack().update(simulation, gameStarted, 0);
+        states.publish();
+        return states.acquire();
+    }
+
+    /**
+     * Simulates the frames due, unless the other player left.
+     *
+     * @param metrics Frame statistics, null if metrics are disabled.
+     */
+    private void simulate(PerformanceMetrics metrics) {
+        RollbackSession session = peer.getSession();
+        int player = peer.getPlayer();
+        int ticks = scheduler.advance(Gdx.graphics.getDeltaTime());
+        try {
+            peer.poll();
+            if (PerformanceMetrics.ENABLED) {
+                metrics.endPhase(SnakeGame.INPUT_PHASE);
+            }
+            // Checked once the packets waiting are read, as none are while the assets load
+            if (peer.getTimeSinceReceive() > NetProtocol.CLIENT_TIMEOUT) {
+                logger.error("No packet from the other player for " + NetProtocol.CLIENT_TIMEOUT + " seconds, match ended");
+                gameStarted = false;
+                renderer.setStartMessage("The other player left");
+                return; // The last state stays on screen
+            }
+            for (int i = 0; i < ticks && session.canAdvance(); i++) {
+                inputQueue.drain(TimeUtils.nanoTime(), simulation, turns);
+                session.advance(turns.next(simulation, player));
+                frameTicks++;
+            }
+            session.resimulate(); // Also when waiting, so the state drawn uses every input received
+            peer.send();
+        } catch (IOException e) {
+            logger.error("Connection to the other player failed", e);
+        }
+        // Played from the score rather than from the events, which a rollback would play again
+        int score = simulation.getScore(player);
+        if (score > lastScore && eatSound != null) {
+            eatSound.play();
+        }
+        lastScore = score;
+        alpha = scheduler.getAlpha();
+    }
+
+    /**
+     * Gets how far the frame is between the last frame simulated and the next one.
+     *
+     * @return Interpolation factor between 0 and 1.
+     */
+    @Override
+    public float getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Gets the number of frames simulated during the last frame, rollbacks excluded.
+     *
+     * @return Number of ticks.
+     */
+    @Override
+    public int getFrameTicks() {
+        return frameTicks;
+    }
+
+    /**
+     * Closes the connection to the other machine.
+     */
+    @Override
+    public void dispose() {
+        peer.close();
+    }
+}
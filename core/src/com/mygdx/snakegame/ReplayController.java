@@ -0,0 +1,133 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.audio.Sound;
+
+/**
+ * Plays back a recorded match at the simulation rate, without sound.
+ * SPACE pauses, LEFT goes back a few seconds and holding RIGHT fast-forwards.
+ */
+public class ReplayController implements ModeController {
+    private static final int MAX_TICKS_PER_FRAME = 5; // Catch-up cap after a stall
+    private static final int FAST_FORWARD_FACTOR = 10; // Playback speed while fast-forwarding
+    private static final int SEEK_TICKS = 5 * GameSimulation.TICKS_PER_SECOND; // Ticks skipped back
+
+    private final ReplayPlayer replay; // Recording being watched
+    private final TickScheduler scheduler = new TickScheduler(GameSimulation.TICKS_PER_SECOND, MAX_TICKS_PER_FRAME);
+    private final RenderStateBuffer states = new RenderStateBuffer(); // Copies of the simulation for the renderer
+
+    private boolean playing; // Indicates whether the replay is playing rather than paused
+    private int frameTicks; // Ticks played back during the current frame
+    private float alpha; // Interpolation factor of the current frame
+
+    /**
+     * Creates the controller of a replay.
+     *
+     * @param replay Recording to watch.
+     */
+    public ReplayController(ReplayPlayer replay) {
+        this.replay = replay;
+    }
+
+    /**
+     * Does nothing: the recording is already open and no key is queued.
+     */
+    @Override
+    public void create() {
+        // The keys are polled each frame
+    }
+
+    /**
+     * Plays no sound.
+     *
+     * @return False.
+     */
+    @Override
+    public boolean playsSounds() {
+        return false;
+    }
+
+    /**
+     * Shows the keys of the replay until it plays, and follows the first two players.
+     *
+     * @param renderer Renderer drawing the states of the replay.
+     */
+    @Override
+    public void setUpRenderer(GameRenderer renderer) {
+        renderer.setStartMessage("Replay paused: SPACE to play, LEFT to go back, RIGHT to fast-forward");
+        renderer.setFollowedPlayers(replay.getSimulation().getPlayerCount() > 1 ? new int[]{1, 2} : new int[]{1});
+    }
+
+    /**
+     * Ignores the sound, as replays play none.
+     *
+     * @param eatSound Sound to play.
+     */
+    @Override
+    public void setEatSound(Sound eatSound) {
+        // Not loaded for replays
+    }
+
+    /**
+     * Plays back the ticks due, applying the keys first.
+     *
+     * @param metrics Frame statistics, null if metrics are disabled.
+     * @return State to draw.
+     */
+    @Override
+    public RenderState update(PerformanceMetrics metrics) {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
+            playing = !playing && !replay.isFinished();
+            scheduler.reset();
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.LEFT)) {
+            replay.seek(replay.getTick() - SEEK_TICKS);
+        }
+        if (PerformanceMetrics.ENABLED) {
+            metrics.endPhase(SnakeGame.INPUT_PHASE);
+        }
+        frameTicks = 0;
+        if (playing) {
+            int ticks = scheduler.advance(Gdx.graphics.getDeltaTime());
+            if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) {
+                ticks *= FAST_FORWARD_FACTOR;
+            }
+            frameTicks = replay.advance(ticks);
+            playing = !replay.isFinished();
+        }
+        alpha = playing ? scheduler.getAlpha() : 0f;
+        // The simulation is updated on this thread, so the copy is taken right away
+        states.getBack().update(replay.getSimulation(), playing, 0);
+        states.publish();
+        return states.acquire();
+    }
+
+    /**
+     * Gets how far the frame is between the last tick played back and the next one.
+     *
+     * @return Interpolation factor between 0 and 1.
+     */
+    @Override
+    public float getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Gets the number of ticks played back during the last frame.
+     *
+     * @return Number of ticks.
+     */
+    @Override
+    public int getFrameTicks() {
+        return frameTicks;
+    }
+
+    /**
+     * Does nothing: the recording is held in memory.
+     */
+    @Override
+    public void dispose() {
+        // Nothing to release
+    }
+}
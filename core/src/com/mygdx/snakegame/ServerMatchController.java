@@ -0,0 +1,152 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Logger;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.io.IOException;
+
+/**
+ * Plays a match hosted by a game server. The simulation is a mirror of the state the server
+ * broadcasts after each tick, and only the local player's input is read and sent.
+ */
+public class ServerMatchController implements ModeController {
+    private final NetworkClient client; // Connection to the game server
+    private final Logger logger = new Logger("SnakeGame", Logger.INFO);
+
+    private GameSimulation simulation; // Mirror of the match joined on the server
+    private final RenderStateBuffer states = new RenderStateBuffer(); // Copies of the simulation for the renderer
+    private InputQueue inputQueue; // Key presses not sent yet
+    private TurnQueue turns; // Turns waiting for the next move of the local player
+    private Sound eatSound; // Null until loaded
+
+    private boolean gameStarted; // Indicates whether the match has started
+    private int lastScore; // Score of the local player in the last state received
+    private int frameTicks; // States received during the current frame
+    private float alpha; // Interpolation factor of the current frame
+
+    /**
+     * Creates the controller of a match on a game server.
+     *
+     * @param client Client that has already joined a match.
+     */
+    public ServerMatchController(NetworkClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Creates the mirror of the match and binds the arrow keys to the local player.
+     */
+    @Override
+    public void create() {
+        simulation = new GameSimulation(client.getGridWidth(), client.getGridHeight(), client.getPlayerCount(), 0);
+        inputQueue = new InputQueue();
+        // The arrow keys steer the local player's snake, whatever its seat
+        inputQueue.bind(client.getPlayer(), Input.Keys.UP, Input.Keys.DOWN, Input.Keys.LEFT, Input.Keys.RIGHT);
+        turns = new TurnQueue(simulation.getPlayerCount());
+        Gdx.input.setInputProcessor(inputQueue);
+    }
+
+    /**
+     * Plays the sound of the food eaten by the local player.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean playsSounds() {
+        return true;
+    }
+
+    /**
+     * Shows the seat of the local player until the match starts, and follows it.
+     *
+     * @param renderer Renderer drawing the states of the match.
+     */
+    @Override
+    public void setUpRenderer(GameRenderer renderer) {
+        renderer.setStartMessage("Player " + client.getPlayer() + ": waiting for players");
+        renderer.setFollowedPlayers(client.getPlayer());
+    }
+
+    /**
+     * Hands over the sound played when a snake eats, once it is loaded.
+     *
+     * @param eatSound Sound to play.
+     */
+    @Override
+    public void setEatSound(Sound eatSound) {
+        this.eatSound = eatSound;
+    }
+
+    /**
+     * Sends the local player's input to the server and applies the states it broadcast.
+     * Turns are released against the last state received, one per move of the snake.
+     *
+     * @param metrics Frame statistics, null if metrics are disabled.
+     * @return State to draw.
+     */
+    @Override
+    public RenderState update(PerformanceMetrics metrics) {
+        int player = client.getPlayer();
+        frameTicks = 0;
+        try {
+            if (gameStarted) {
+                inputQueue.drain(TimeUtils.nanoTime(), simulation, turns);
+                client.sendInput(turns.next(simulation, player));
+            } else {
+                inputQueue.clear();
+                turns.clear();
+                client.sendInput(Direction.NONE); // Keeps the seat while waiting
+            }
+            if (PerformanceMetrics.ENABLED) {
+                metrics.endPhase(SnakeGame.INPUT_PHASE);
+            }
+            if (client.poll(simulation)) {
+                frameTicks = 1;
+                gameStarted = client.isRunning();
+                int score = simulation.getScore(player);
+                if (score > lastScore && eatSound != null) {
+                    eatSound.play();
+                }
+                lastScore = score;
+            }
+        } catch (IOException e) {
+            logger.error("Connection to the server failed", e);
+        }
+        alpha = gameStarted ? Math.min(1f, client.getTimeSinceState() * GameSimulation.TICKS_PER_SECOND) : 0f;
+        // The simulation is updated on this thread, so the copy is taken right away
+        states.getBack().update(simulation, gameStarted, 0);
+        states.publish();
+        return states.acquire();
+    }
+
+    /**
+     * Gets how far the frame is since the last state received.
+     *
+     * @return Interpolation factor between 0 and 1.
+     */
+    @Override
+    public float getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Gets the number of states received during the last frame.
+     *
+     * @return Number of ticks.
+     */
+    @Override
+    public int getFrameTicks() {
+        return frameTicks;
+    }
+
+    /**
+     * Closes the connection to the server.
+     */
+    @Override
+    public void dispose() {
+        client.close();
+    }
+}
@@ -0,0 +1,252 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.utils.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a local match on its own thread at the fixed simulation rate, so a slow frame, a vsync
+ * wait or a collection on the rendering thread no longer delays the snakes.
+ * After each batch of ticks the thread copies the simulation into the back state of a
+ * {@link RenderStateBuffer} and publishes it; the rendering thread only reads the latest
+ * published state. Key presses arrive through the {@link InputQueue}, the other way round, and
+ * the events of each tick leave through a {@link GameEventBus}, for the sounds and the log.
+ * No lock is shared: the only exchanges are the atomic swaps of the buffer, the cursors of the
+ * rings and the start and stop flags, so neither thread ever blocks on the other.
+ * <p>
+ * The thread owns the simulation, the bots and the replay recording from {@link #start()}
+ * to {@link #stop()}, and hands the state after each tick to the {@link SpectatorServer}, if
+ * the match is streamed. Replays are recorded in memory; each finished match goes to the
+ * {@link MatchArchiver}, which writes its replay and its record from its own thread.
+ */
+public class SimulationThread implements Runnable {
+    /** Duration of a tick, in nanoseconds. */
+    public static final long TICK_NANOS = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+    private static final int MAX_TICKS_PER_LOOP = 5; // Catch-up cap after a stall
+    private static final int REPLAY_CAPACITY = 256 * 1024; // Bytes of a replay before its memory grows
+
+    private final GameSimulation simulation;
+    private final RenderStateBuffer states; // Hands the copies of the simulation to the renderer
+    private final GameEventBus events; // Hands the events of each tick to the consumers
+    private final InputQueue inputQueue; // Key presses not handed to the simulation yet
+    private final TurnQueue turns; // Turns waiting for the next move of each snake
+    private final BotController[] bots; // Bot steering each player, null for the keyboard
+    private final int[] inputs; // Direction requested by each player
+    private final TickScheduler scheduler = new TickScheduler(GameSimulation.TICKS_PER_SECOND, MAX_TICKS_PER_LOOP);
+    private final Thread thread = new Thread(this, "simulation");
+    private final Logger logger = new Logger("SnakeGame", Logger.INFO); // Reports the recordings
+    private final MatchArchiver archiver; // Stores the finished matches
+    private final String[] names; // Name of each player in the records
+    private final SpectatorServer spectators; // Streams the match, null if nobody may watch
+
+    private volatile boolean running = true; // Cleared by stop()
+    private volatile boolean startRequested; // Set by the rendering thread to start a match
+    private boolean playing; // Indicates whether a match is being played
+    private ReplayRecorder recorder; // Records the current match
+    private ByteArrayOutputStream replay; // Memory the current match is recorded to
+    private long startTime; // Time the current match started, in milliseconds since the epoch
+    private MatchRecord match; // Outcome of the current match
+
+    /**
+     * Creates the thread of a local match, not started yet, and publishes the initial state.
+     *
+     * @param simulation Simulation of the match.
+     * @param states     Buffer the states are published to.
+     * @param events     Bus the events are published to.
+     * @param inputQueue Key presses of the players, filled by the rendering thread.
+     * @param bots       Bot steering each player, null for the keyboard.
+     * @param archiver   Archiver the finished matches are handed to, subscribed to the events.
+     * @param spectators Server streaming the match, null to stream nothing.
+     */
+    public SimulationThread(GameSimulation simulation, RenderStateBuffer states, GameEventBus events, InputQueue inputQueue, BotController[] bots,
+                            MatchArchiver archiver, SpectatorServer spectators) {
+        this.simulation = simulation;
+        this.states = states;
+        this.events = events;
+        this.inputQueue = inputQueue;
+        this.turns = new TurnQueue(simulation.getPlayerCount());
+        this.bots = bots.clone();
+        this.inputs = new int[simulation.getPlayerCount()];
+        this.archiver = archiver;
+        this.spectators = spectators;
+        this.names = new String[bots.length];
+        for (int p = 0; p < bots.length; p++) {
+            names[p] = bots[p] != null ? bots[p].getClass().getSimpleName() : "Player " + (p + 1);
+        }
+        thread.setDaemon(true); // Never keeps the application alive
+        publish(System.nanoTime());
+    }
+
+    /**
+     * Starts the thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Asks the thread to start a match, if none is being played. Called by the rendering thread.
+     */
+    public void requestStart() {
+        startRequested = true;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Stops the thread and waits for it to hand the current recording to the archiver.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs ticks as they fall due and publishes the state after each batch, sleeping in between.
+     */
+    @Override
+    public void run() {
+        long last = System.nanoTime();
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                int ticks = scheduler.advance((now - last) / 1e9f);
+                last = now;
+                boolean changed = false;
+                if (startRequested && !playing) {
+                    startMatch();
+                    ticks = 0; // The first tick is due one tick from now
+                    changed = true;
+                }
+                for (int i = 0; i < ticks && playing; i++) {
+                    // Presses made after the time this tick was due wait for a later tick
+                    long tickTime = now - (long) ((ticks - 1 - i + scheduler.getAlpha()) * TICK_NANOS);
+                    readTurns(tickTime);
+                    record();
+                    long tick = simulation.getTick() + 1; // The step resets the tick when the match ends
+                    handleEvents(simulation.step(inputs), tick);
+                    if (spectators != null) {
+                        spectators.publish(simulation); // Encoded once for every spectator
+                    }
+                    changed = true;
+                }
+                if (changed) {
+                    publish(now - (long) (scheduler.getAlpha() * TICK_NANOS));
+                }
+                LockSupport.parkNanos(this, (long) ((1 - scheduler.getAlpha()) * TICK_NANOS));
+            }
+        } finally {
+            stopRecording(null);
+        }
+    }
+
+    /**
+     * Starts a match: drops the key presses made before it, including the one that started it,
+     * and starts recording it, as a replay and as a record of the history.
+     */
+    private void startMatch() {
+        startRequested = false;
+        playing = true;
+        scheduler.reset();
+        inputQueue.clear();
+        turns.clear();
+        startRecording();
+    }
+
+    /**
+     * Copies the simulation into the back state and publishes it.
+     *
+     * @param tickTime Time the last tick was due, in {@link System#nanoTime()} units.
+     */
+    private void publish(long tickTime) {
+        states.getBack().update(simulation, playing, tickTime);
+        states.publish();
+    }
+
+    /**
+     * Sets the inputs of the next tick from the key presses made before it was due, or from the bots.
+     * Each snake gets at most one of its queued turns per move.
+     *
+     * @param tickTime Time the tick was due, in {@link System#nanoTime()} units.
+     */
+    private void readTurns(long tickTime) {
+        inputQueue.drain(tickTime, simulation, turns);
+        for (int p = 0; p < inputs.length; p++) {
+            inputs[p] = bots[p] != null ? bots[p].nextDirection(simulation, p + 1) : turns.next(simulation, p + 1);
+        }
+    }
+
+    /**
+     * Starts recording the match in memory, as a replay and as a record of the history.
+     */
+    private void startRecording() {
+        startTime = System.currentTimeMillis();
+        match = new MatchRecord(); // The previous one belongs to the archiver
+        for (int p = 0; p < names.length; p++) {
+            match.setName(p + 1, names[p]);
+        }
+        match.begin(simulation);
+        replay = new ByteArrayOutputStream(REPLAY_CAPACITY);
+        try {
+            recorder = new ReplayRecorder(Channels.newChannel(replay), simulation, ReplayRecorder.DEFAULT_KEYFRAME_INTERVAL);
+        } catch (IOException e) {
+            logger.error("Could not record the match", e);
+        }
+    }
+
+    /**
+     * Records the inputs of the next tick. Recording stops if the file cannot be written.
+     */
+    private void record() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.record(inputs);
+        } catch (IOException e) {
+            logger.error("Recording stopped", e);
+            recorder = null;
+        }
+    }
+
+    /**
+     * Hands the current recording, if any, to the archiver, which closes and saves it.
+     *
+     * @param record Record of the finished match, null if it was not finished.
+     */
+    private void stopRecording(MatchRecord record) {
+        if (recorder == null) {
+            return;
+        }
+        archiver.submit(recorder, replay, startTime, record);
+        recorder = null;
+        replay = null;
+    }
+
+    /**
+     * Notes the eliminations in the record of the match, hands the match to the archiver on
+     * {@link GameEvents#GAME_OVER}, then publishes the events of the step to the consumers.
+     *
+     * @param events Events produced by the step.
+     * @param tick   Tick of the step.
+     */
+    private void handleEvents(GameEvents events, long tick) {
+        for (int i = 0; i < events.size(); i++) {
+            match.onEvent(events.getType(i), events.getPlayer(i));
+            if (events.getType(i) == GameEvents.GAME_OVER) {
+                match.end(simulation, events.getPlayer(i), (int) tick, System.currentTimeMillis());
+                stopRecording(match); // Before the GAME_OVER that tells the archiver to store it
+                playing = false; // The simulation has already been reset
+                startRequested = false; // Drops a press made before the end was shown
+            }
+        }
+        this.events.publish(events, tick);
+    }
+}
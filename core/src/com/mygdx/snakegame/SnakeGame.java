@@ -3,296 +3,274 @@ package com.mygdx.snakegame;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
 import com.badlogic.gdx.utils.Logger;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.io.IOException;
 
 /**
  * Main class of the Snake game.
+ * Draws the states handed out by the {@link ModeController} of its mode, which reads the keys
+ * and runs the match: a {@link LocalMatchController} for two players on one keyboard, which
+ * may also stream the match to spectators, a {@link ServerMatchController} for a match on a
+ * game server, a {@link PeerMatchController} for a match played peer-to-peer and a
+ * {@link ReplayController} to watch a recording.
+ * Grids larger than the window scroll, with a camera following each local player.
+ * With the {@code snakegame.metrics} system property set, each frame is timed by {@link PerformanceMetrics}
+ * and F3 shows the statistics.
+ * <p>
+ * The assets are loaded by {@link GameAssets} in the background: a progress bar drawn without
+ * any texture is shown until the sprites and the font are ready, and the startup times are
+ * logged once the game can be played.
  */
 public class SnakeGame extends ApplicationAdapter {
+    static final int INPUT_PHASE = 0; // Metrics phase reading the keyboard, ended by the controllers
+    private static final int SIMULATION_PHASE = 1; // Metrics phase advancing the simulation, or taking the latest state
+    private static final int RENDER_PHASE = 2; // Metrics phase drawing the frame
+    private static final int BATCH_SIZE = 8191; // Sprites buffered before the batch flushes, the most it supports
+    private static final int LOADING_SLICE = 10; // Longest time spent loading per frame of the loading screen, in milliseconds
+    private static final float LOADING_BAR_WIDTH = 0.5f; // Width of the progress bar, as a fraction of the screen
+    private static final int LOADING_BAR_HEIGHT = 8; // Height of the progress bar, in pixels
+
+    private final ModeController controller; // Runs the match of the mode
     private SpriteBatch batch;
-    private Texture snakeTexture;
-    private Texture invulnerableSnakeTexture;
-    private Texture foodTexture;
-    private Texture bonusTexture;
-    private BitmapFont font;
-    private Sound eatSound;
-
-    private Snake snake1;
-    private Snake snake2;
-    private Food food;
-    private BonusItem bonusItem;
+    private GameAssets assets; // Sprites, font and sounds, loaded in the background
+    private boolean assetsLoaded; // Indicates whether the assets loaded after the game became playable are in use
     private GameRenderer renderer;
 
-    private int direction1; // Direction of movement for snake 1
-    private int direction2; // Direction of movement for snake 2
-    private int score1; // Player 1 score
-    private int score2; // Player 2 score
-
-    private boolean gameStarted; // Indicates whether the game has started
-    private boolean bonusActive; // Indicates whether the bonus item is active
-    private float bonusTimer; // Timer to control bonus item duration
-    private final float BONUS_DURATION = 5f;  // Duration of bonus in seconds
-
-    private boolean invulnerable1; // Indicates whether snake 1 is invulnerable
-    private float invulnerabilityTimer1; // Timer to control invulnerability of snake 1
-    private final float INVULNERABILITY_DURATION = 3f;  // Duration of invulnerability in seconds
-
-    private boolean invulnerable2; // Indicates whether snake 2 is invulnerable
-    private float invulnerabilityTimer2; // Timer to control invulnerability of snake 2
-
-    private float bonusSpawnTimer; // Timer to control bonus spawn interval
-    private final float BONUS_SPAWN_INTERVAL = 15f;  // Interval for bonus spawn in seconds
+    private PerformanceMetrics metrics; // Frame statistics, null if metrics are disabled
+    private MetricsOverlay metricsOverlay; // Shows the statistics
 
     private Logger logger; // Logger to display messages
 
+    private long launchTime; // Time the application was launched, in nanoseconds, 0 to time from create()
+    private long firstFrameTime; // Time the first frame was drawn, 0 before
+    private long interactiveTime; // Time the first frame of the game was drawn, 0 before
+
     /**
-     * Initializes the game resources and objects.
+     * Creates a local game for two players on one keyboard.
      */
-    @Override
-    public void create() {
-        batch = new SpriteBatch();
-        snakeTexture = new Texture("snake.png");
-        invulnerableSnakeTexture = new Texture("invulnerable_snake.png"); // texture for invulnerable snake
-        foodTexture = new Texture("food.png");
-        bonusTexture = new Texture("bonus.png");
-        font = new BitmapFont();
-        eatSound = Gdx.audio.newSound(Gdx.files.internal("crunch.wav"));
-
-        // Calculate grid size based on screen width and height
-        int gridSizeX = Gdx.graphics.getWidth() / Snake.CELL_SIZE;
-        int gridSizeY = Gdx.graphics.getHeight() / Snake.CELL_SIZE;
-
-        // Create instances of game objects
-        snake1 = new Snake(gridSizeX / 4, gridSizeY / 2, Input.Keys.RIGHT);
-        snake2 = new Snake(3 * gridSizeX / 4, gridSizeY / 2, Input.Keys.LEFT);
-        food = new Food(gridSizeX, gridSizeY, snake1);
-        bonusItem = new BonusItem(gridSizeX, gridSizeY, snake1);
-
-        renderer = new GameRenderer(batch, snakeTexture, foodTexture, bonusTexture, font, invulnerableSnakeTexture);
+    public SnakeGame() {
+        this(0, 0);
+    }
 
-        // Initial settings
-        direction1 = Input.Keys.RIGHT;
-        direction2 = Input.Keys.LEFT;
-        gameStarted = false;
-        bonusActive = false;
-        invulnerable1 = false;
-        invulnerable2 = false;
-        bonusSpawnTimer = BONUS_SPAWN_INTERVAL;
+    /**
+     * Creates a local game for two players on one keyboard on a grid of a given size.
+     * A grid larger than the window is shown split in two, each half following one player.
+     *
+     * @param arenaWidth  Size of the grid on the X-axis, or 0 to fit the window.
+     * @param arenaHeight Size of the grid on the Y-axis, or 0 to fit the window.
+     */
+    public SnakeGame(int arenaWidth, int arenaHeight) {
+        this(new LocalMatchController(arenaWidth, arenaHeight));
+    }
 
-        logger = new Logger("SnakeGame", Logger.INFO); // Initialize logger
+    /**
+     * Creates a game played on a game server.
+     *
+     * @param client Client that has already joined a match.
+     */
+    public SnakeGame(NetworkClient client) {
+        this(new ServerMatchController(client));
     }
 
     /**
-     * Handles user input and updates the game state.
+     * Creates a game played peer-to-peer with another machine.
+     *
+     * @param peer Peer that has already connected to the other machine.
      */
-    @Override
-    public void render() {
-        handleInput();
-        if (gameStarted) {
-            update(Gdx.graphics.getDeltaTime());
-        }
+    public SnakeGame(RollbackPeer peer) {
+        this(new PeerMatchController(peer));
+    }
 
-        // Clear color buffer and draw game elements
-        Gdx.gl.glClearColor(0, 0, 0, 1);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+    /**
+     * Creates a game that plays back a recorded match.
+     *
+     * @param replay Recording to watch.
+     */
+    public SnakeGame(ReplayPlayer replay) {
+        this(new ReplayController(replay));
+    }
 
-        renderer.render(snake1, snake2, food, bonusItem, score1, score2, gameStarted, invulnerable1, invulnerable2);
+    /**
+     * Creates a game in the mode of a controller.
+     *
+     * @param controller Controller running the match.
+     */
+    private SnakeGame(ModeController controller) {
+        this.controller = controller;
     }
 
     /**
-     * Handles input from players.
+     * Lets a bot steer a player of a local game instead of the keyboard. Must be called before
+     * the game is created.
+     *
+     * @param player Player id.
+     * @param bot    Bot to steer with, or null for the keyboard.
+     * @throws IllegalStateException If the game is not a local game.
      */
-    private void handleInput() {
-        if (!gameStarted) {
-            if (Gdx.input.isKeyJustPressed(Input.Keys.ANY_KEY)) {
-                gameStarted = true;
-            }
-            return;
+    public void setBot(int player, BotController bot) {
+        if (!(controller instanceof LocalMatchController)) {
+            throw new IllegalStateException("Bots only play local games");
         }
-
-        if (Gdx.input.isKeyPressed(Input.Keys.UP) && direction1 != Input.Keys.DOWN) direction1 = Input.Keys.UP;
-        if (Gdx.input.isKeyPressed(Input.Keys.DOWN) && direction1 != Input.Keys.UP) direction1 = Input.Keys.DOWN;
-        if (Gdx.input.isKeyPressed(Input.Keys.LEFT) && direction1 != Input.Keys.RIGHT) direction1 = Input.Keys.LEFT;
-        if (Gdx.input.isKeyPressed(Input.Keys.RIGHT) && direction1 != Input.Keys.LEFT) direction1 = Input.Keys.RIGHT;
-
-        if (Gdx.input.isKeyPressed(Input.Keys.W) && direction2 != Input.Keys.S) direction2 = Input.Keys.W;
-        if (Gdx.input.isKeyPressed(Input.Keys.S) && direction2 != Input.Keys.W) direction2 = Input.Keys.S;
-        if (Gdx.input.isKeyPressed(Input.Keys.A) && direction2 != Input.Keys.D) direction2 = Input.Keys.A;
-        if (Gdx.input.isKeyPressed(Input.Keys.D) && direction2 != Input.Keys.A) direction2 = Input.Keys.D;
+        ((LocalMatchController) controller).setBot(player, bot);
     }
 
     /**
-     * Updates game state.
+     * Sets the time the startup is measured from, such as the start of the launcher, so the
+     * startup times include the creation of the window. Must be called before the game is created.
      *
-     * @param delta Time since the last update.
+     * @param launchTime Time in {@link TimeUtils#nanoTime()} units.
      */
-    private void update(float delta) {
-        // Update snake 1
-        if (snake1.update(delta, direction1, invulnerable1)) {
-            if (snake1.checkCollision(food.getPosition())) {
-                food.spawn(snake1);
-                score1++;
-                snake1.grow();
-                snake1.increaseSpeed();
-                eatSound.play();
-            } else if (bonusActive && bonusItem.isEatenBySnake(snake1)) {
-                score1 += 5;
-                invulnerable1 = true;
-                invulnerabilityTimer1 = INVULNERABILITY_DURATION;
-                bonusItem.deactivate();
-                bonusActive = false;
-            }
-        }
+    public void setLaunchTime(long launchTime) {
+        this.launchTime = launchTime;
+    }
 
-        // Update snake 2
-        if (snake2.update(delta, direction2, invulnerable2)) {
-            if (snake2.checkCollision(food.getPosition())) {
-                food.spawn(snake2);
-                score2++;
-                snake2.grow();
-                snake2.increaseSpeed();
-                eatSound.play();
-            } else if (bonusActive && bonusItem.isEatenBySnake(snake2)) {
-                score2 += 5;
-                invulnerable2 = true;
-                invulnerabilityTimer2 = INVULNERABILITY_DURATION;
-                bonusItem.deactivate();
-                bonusActive = false;
-            }
+    /**
+     * Starts loading the assets and the match of the mode. The renderer is created once
+     * the assets it needs are loaded.
+     */
+    @Override
+    public void create() {
+        if (launchTime == 0) {
+            launchTime = TimeUtils.nanoTime();
         }
+        logger = new Logger("SnakeGame", Logger.INFO); // Initialize logger
 
-        // Check collision between snakes
-        for (int[] part : snake1.getBody()) {
-            if (!invulnerable2 && snake2.checkCollision(part)) {
-                logger.info("Game Over! Snakes collided."); // Log the message
-                logWinner();
-                resetGame();
-                return;
+        assets = new GameAssets(GameAssets.createResolver(), controller.playsSounds());
+        // A batch large enough for every cell of the grid, so a frame needs a single flush
+        batch = new SpriteBatch(BATCH_SIZE);
+        controller.create();
+
+        if (PerformanceMetrics.ENABLED) {
+            String[] phases = {"input", "simulation", "render"};
+            try {
+                metrics = PerformanceMetrics.fromSystemProperties(phases);
+            } catch (IOException e) {
+                logger.error("Could not create the metrics dump", e);
+                metrics = new PerformanceMetrics(phases);
             }
         }
+    }
 
-        for (int[] part : snake2.getBody()) {
-            if (!invulnerable1 && snake1.checkCollision(part)) {
-                logger.info("Game Over! Snakes collided."); // Log the message
-                logWinner();
-                resetGame();
-                return;
-            }
+    /**
+     * Builds the atlas and creates the renderer, once the sprites and the font are loaded.
+     */
+    private void createRenderer() {
+        assets.createGraphics();
+        renderer = new GameRenderer(batch, assets.getAtlas(), assets.getFont());
+        controller.setUpRenderer(renderer);
+        if (PerformanceMetrics.ENABLED) {
+            metricsOverlay = new MetricsOverlay(metrics, assets.getFont());
+            renderer.setMetricsOverlay(metricsOverlay);
         }
+    }
 
-        // Check if snake 1 is invulnerable
-        if (invulnerable1) {
-            invulnerabilityTimer1 -= delta;
-            if (invulnerabilityTimer1 <= 0) {
-                invulnerable1 = false;
-            }
+    /**
+     * Loads the assets for a time slice and draws the loading screen: a progress bar cleared
+     * into a scissor box, which needs neither a texture nor a shader. Creates the renderer once
+     * the assets it needs are loaded.
+     */
+    private void renderLoadingScreen() {
+        boolean loaded = assets.update(LOADING_SLICE);
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        int width = Gdx.graphics.getWidth();
+        int barWidth = (int) (width * LOADING_BAR_WIDTH * (loaded ? 1 : assets.getProgress()));
+        if (barWidth > 0) {
+            Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+            HdpiUtils.glScissor((int) (width * (1 - LOADING_BAR_WIDTH) / 2), Gdx.graphics.getHeight() / 2, barWidth, LOADING_BAR_HEIGHT);
+            Gdx.gl.glClearColor(0.2f, 0.8f, 0.2f, 1);
+            Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+            Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
         }
-
-        // Check if snake 2 is invulnerable
-        if (invulnerable2) {
-            invulnerabilityTimer2 -= delta;
-            if (invulnerabilityTimer2 <= 0) {
-                invulnerable2 = false;
-            }
+        if (loaded) {
+            createRenderer();
         }
+    }
 
-        // Update bonus spawn timer
-        bonusSpawnTimer -= delta;
-        if (bonusSpawnTimer <= 0 && !bonusActive) {
-            bonusItem.spawn(snake1);
-            bonusActive = true;
-            bonusTimer = BONUS_DURATION;
-            bonusSpawnTimer = BONUS_SPAWN_INTERVAL;
+    /**
+     * Hands the assets loaded after the game became playable to the renderer and the controller.
+     */
+    private void updateLoadedAssets() {
+        if (assets.updateDeferred()) {
+            renderer.setItemRegion(ItemComponent.BONUS, assets.getAtlas().findRegion(GameAtlas.BONUS));
+            controller.setEatSound(assets.getEatSound());
+            assetsLoaded = true;
         }
+    }
 
-        // Update active bonus timer
-        if (bonusActive) {
-            bonusTimer -= delta;
-            if (bonusTimer <= 0) {
-                bonusItem.deactivate();
-                bonusActive = false;
-            }
+    /**
+     * Notes the time of the first frame and of the first frame of the game, and logs both once
+     * the game can be played.
+     *
+     * @param playable True for a frame of the game, false for the loading screen.
+     */
+    private void recordStartup(boolean playable) {
+        long now = TimeUtils.nanoTime();
+        if (firstFrameTime == 0) {
+            firstFrameTime = now;
         }
-
-        // Check if snakes hit the wall
-        if (snake1.hasHitWall()) {
-            logger.info("Game Over! Snake 1 hit the wall."); // Log the message
-            logWinner("Snake 2"); // Snake 2 is the winner
-            resetGame();
-            return;
+        if (playable) {
+            interactiveTime = now;
+            logger.info("Startup: first frame after " + (firstFrameTime - launchTime) / 1_000_000 + " ms, playable after "
+                    + (interactiveTime - launchTime) / 1_000_000 + " ms");
         }
+    }
 
-        if (snake2.hasHitWall()) {
-            logger.info("Game Over! Snake 2 hit the wall."); // Log the message
-            logWinner("Snake 1"); // Snake 1 is the winner
-            resetGame();
+    /**
+     * Handles user input and updates the game state.
+     */
+    @Override
+    public void render() {
+        if (renderer == null) {
+            renderLoadingScreen();
+            recordStartup(false);
             return;
         }
-
-        // Verifica colisão das cobras consigo mesmas
-        if (!invulnerable1 && snake1.hasHitItself()) {
-            logger.info("Game Over! Snake 1 hit itself."); // Log the message
-            logWinner("Snake 2"); // Snake 2 is the winner
-            resetGame();
-            return;
+        if (!assetsLoaded) {
+            updateLoadedAssets();
         }
-
-        if (!invulnerable2 && snake2.hasHitItself()) {
-            logger.info("Game Over! Snake 2 hit itself."); // Log the message
-            logWinner("Snake 1"); // Snake 1 is the winner
-            resetGame();
-            return;
+        // Every metrics call is behind the constant flag, so none is compiled when metrics are disabled
+        if (PerformanceMetrics.ENABLED) {
+            metrics.beginFrame();
+            if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+                metricsOverlay.toggle();
+            }
+        }
+        RenderState state = controller.update(metrics);
+        if (PerformanceMetrics.ENABLED) {
+            metrics.endPhase(SIMULATION_PHASE);
         }
-    }
 
-    /**
-     * Logs the winner of the game based on scores.
-     */
-    private void logWinner() {
-        String winner;
-        if (score1 > score2) {
-            winner = "Snake 1";
-        } else if (score2 > score1) {
-            winner = "Snake 2";
-        } else {
-            winner = "Draw";
+        // Clear color buffer and draw game elements
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        renderer.render(state, controller.getAlpha());
+        if (PerformanceMetrics.ENABLED) {
+            metrics.endPhase(RENDER_PHASE);
+            metrics.endFrame(controller.getFrameTicks(), state.getEntityCount());
+        }
+        if (interactiveTime == 0) {
+            recordStartup(true);
         }
-        logger.info("Game Over! " + winner + " won!");
     }
 
     /**
-     * Logs the specified winner of the game.
+     * Adapts the rendering to the new size of the window.
      *
-     * @param winner The winner to log.
-     */
-    private void logWinner(String winner) {
-        logger.info("Game Over! " + winner + " won!");
-    }
-
-    /**
-     * Resets the game state to start a new game.
+     * @param width  New width of the window.
+     * @param height New height of the window.
      */
-    private void resetGame() {
-        int gridSizeX = Gdx.graphics.getWidth() / Snake.CELL_SIZE;
-        int gridSizeY = Gdx.graphics.getHeight() / Snake.CELL_SIZE;
-        snake1.reset(gridSizeX / 4, gridSizeY / 2, direction1);
-        snake2.reset(3 * gridSizeX / 4, gridSizeY / 2, direction2);
-        food.spawn(snake1);
-        bonusItem.deactivate(); /// Deactivate the bonus when resetting the game
-        direction1 = Input.Keys.RIGHT;
-        direction2 = Input.Keys.LEFT;
-        score1 = 0;
-        score2 = 0;
-        gameStarted = false;
-        bonusActive = false;
-        invulnerable1 = false;
-        invulnerable2 = false;
-        bonusSpawnTimer = BONUS_SPAWN_INTERVAL;
+    @Override
+    public void resize(int width, int height) {
+        if (renderer != null) {
+            renderer.resize(width, height);
+        }
     }
 
     /**
@@ -301,12 +279,13 @@ public class SnakeGame extends ApplicationAdapter {
     @Override
     public void dispose() {
         batch.dispose();
-        snakeTexture.dispose();
-        invulnerableSnakeTexture.dispose();
-        foodTexture.dispose();
-        bonusTexture.dispose();
-        font.dispose();
-        eatSound.dispose();
+        assets.dispose(); // Also the font, the atlas and the sounds
+        controller.dispose();
+        if (metrics != null) {
+            metrics.stopDump();
+            if (metrics.getDumpError() != null) {
+                logger.error("Metrics dump stopped", metrics.getDumpError());
+            }
+        }
     }
 }
-
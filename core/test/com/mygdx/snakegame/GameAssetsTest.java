@@ -0,0 +1,79 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Loads the real assets of the game through {@link GameAssets} and checks that each group ends
+ * up packed into the single atlas page, the bonus sprite only once the second group is loaded.
+ */
+public class GameAssetsTest {
+    private static final int SLICE_MILLIS = 10; // Time slice of each update, as in the game
+    private static final int MAX_UPDATES = 1000; // Updates after which loading is given up
+    private static final long FRAME_MILLIS = 5; // Time between two updates of the second group, a short frame
+
+    private GameAssets assets;
+
+    /**
+     * Queues the first group, reading every file from the classpath, where the test puts the assets.
+     */
+    @Before
+    public void setUp() {
+        HeadlessGdx.init();
+        FileHandleResolver resolver = fileName -> Gdx.files.classpath(fileName.startsWith(GameAssets.CLASSPATH_PREFIX)
+                ? fileName.substring(GameAssets.CLASSPATH_PREFIX.length()) : fileName);
+        assets = new GameAssets(resolver, false); // No audio without a window
+    }
+
+    /**
+     * Releases the assets.
+     */
+    @After
+    public void tearDown() {
+        assets.dispose();
+    }
+
+    /**
+     * Checks that the first group gives the sprites and the font of a match in one atlas page,
+     * and that the second group adds the bonus sprite to that same page.
+     *
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void packsEachGroupIntoOnePage() throws InterruptedException {
+        assertNull(assets.getAtlas());
+        int updates = 0;
+        while (!assets.update(SLICE_MILLIS)) {
+            assertTrue("First group not loaded", ++updates < MAX_UPDATES);
+        }
+        assertEquals(1f, assets.getProgress(), 0f);
+
+        assets.createGraphics();
+        TextureAtlas atlas = assets.getAtlas();
+        assertNotNull(atlas.findRegion(GameAtlas.SNAKE));
+        assertNotNull(atlas.findRegion(GameAtlas.FOOD));
+        assertNotNull(atlas.findRegion(GameAtlas.FONT));
+        assertNull("Bonus packed before the second group", atlas.findRegion(GameAtlas.BONUS));
+        assertNotNull(assets.getFont());
+        assertEquals(atlas.findRegion(GameAtlas.FONT).getTexture(), assets.getFont().getRegion().getTexture());
+
+        updates = 0;
+        while (!assets.updateDeferred()) {
+            assertTrue("Second group not loaded", ++updates < MAX_UPDATES);
+            Thread.sleep(FRAME_MILLIS); // A step per frame, the files are decoded in between
+        }
+        assertNotNull(atlas.findRegion(GameAtlas.BONUS));
+        assertEquals(1, atlas.getTextures().size);
+        assertNull(assets.getEatSound());
+        assertTrue(assets.updateDeferred());
+    }
+}
@@ -0,0 +1,106 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counts the draw calls of crowded frames: snakes covering most of the grid, one of them tinted,
+ * every kind of item and the HUD all come from the single atlas texture, so a view is one flush.
+ */
+public class GameRendererTest {
+    private SpriteBatch batch;
+    private TextureAtlas atlas;
+    private BitmapFont font;
+    private GameRenderer renderer;
+
+    /**
+     * Creates a renderer drawing from an atlas built like the game's.
+     */
+    @Before
+    public void setUp() {
+        HeadlessGdx.init();
+        batch = new SpriteBatch();
+        atlas = HeadlessGdx.createAtlas();
+        font = HeadlessGdx.createFont(atlas);
+        renderer = new GameRenderer(batch, atlas, font);
+    }
+
+    /**
+     * Releases the batch, the font and the atlas.
+     */
+    @After
+    public void tearDown() {
+        batch.dispose();
+        font.dispose();
+        atlas.dispose();
+    }
+
+    /**
+     * Checks that a grid filling the screen, with hundreds of sprites and the HUD, is drawn in
+     * one call, started or not.
+     */
+    @Test
+    public void crowdedFrameIsOneDrawCall() {
+        assertEquals(1, atlas.getTextures().size);
+        int width = HeadlessGdx.SCREEN_WIDTH / Snake.CELL_SIZE;
+        int height = HeadlessGdx.SCREEN_HEIGHT / Snake.CELL_SIZE;
+        RenderState state = crowdedState(width, height, false);
+        renderer.render(state, 0.5f);
+        assertEquals(1, renderer.getRenderCalls());
+
+        state = crowdedState(width, height, true);
+        renderer.render(state, 0.5f);
+        assertEquals(1, renderer.getRenderCalls());
+        assertEquals(2, batch.totalRenderCalls); // Both frames
+        assertTrue("Only " + batch.maxSpritesInBatch + " sprites drawn", batch.maxSpritesInBatch > width * height / 2);
+    }
+
+    /**
+     * Checks that a grid larger than the screen costs one call per followed player, plus one for
+     * the HUD drawn over the views.
+     */
+    @Test
+    public void largeArenaIsOneDrawCallPerView() {
+        renderer.setFollowedPlayers(1, 2);
+        renderer.render(crowdedState(256, 256, true), 0.5f);
+        assertEquals(3, renderer.getRenderCalls());
+    }
+
+    /**
+     * Builds the state of a match whose two snakes wind over most of the grid, with the first
+     * one invulnerable, and with food and a bonus item on the grid.
+     *
+     * @param width   Size of the grid on the X-axis.
+     * @param height  Size of the grid on the Y-axis.
+     * @param running Indicates whether the match is being played, or the start message shown.
+     * @return State to render.
+     */
+    private static RenderState crowdedState(int width, int height, boolean running) {
+        GameSimulation simulation = new GameSimulation(width, height, 2, 1L);
+        int rows = Math.min(height / 2 - 1, 10);
+        for (int player = 1; player <= 2; player++) {
+            Snake snake = simulation.getSnake(player);
+            snake.clear();
+            int top = (player - 1) * (height / 2);
+            for (int row = 0; row < rows; row++) {
+                for (int i = 0; i < width; i++) {
+                    snake.appendSegment(row % 2 == 0 ? i : width - 1 - i, top + row);
+                }
+            }
+            snake.restoreMotion(Direction.LEFT, 0, 3, false, 0, top + rows);
+        }
+        simulation.restorePlayer(1, Direction.LEFT, 12, 100, true);
+        simulation.restoreItem(ItemComponent.FOOD, true, width / 2, height - 2);
+        simulation.restoreItem(ItemComponent.BONUS, true, width / 2 + 1, height - 2);
+        RenderState state = new RenderState();
+        state.update(simulation, running, 0);
+        return state;
+    }
+}
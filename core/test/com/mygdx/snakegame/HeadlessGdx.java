@@ -0,0 +1,147 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * Sets up just enough of LibGDX for the tests to create batches, textures and fonts without a
+ * window: the native pixmap code is loaded for real, while OpenGL is a stub that accepts every
+ * call, succeeds at compiling shaders and issues no draws. Graphics reports a fixed screen size.
+ */
+final class HeadlessGdx {
+    /** Width of the stub screen, in pixels. */
+    static final int SCREEN_WIDTH = 640;
+    /** Height of the stub screen, in pixels. */
+    static final int SCREEN_HEIGHT = 480;
+
+    private static boolean initialized;
+
+    private HeadlessGdx() {
+    }
+
+    /**
+     * Installs the stubs, once per test run.
+     */
+    static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+        GdxNativesLoader.load();
+        ShaderProgram.pedantic = false;
+        Gdx.files = new HeadlessFiles();
+        Gdx.app = stub(Application.class);
+        Gdx.graphics = stub(Graphics.class);
+        Gdx.gl = Gdx.gl20 = stub(GL20.class);
+        initialized = true;
+    }
+
+    /**
+     * Packs the sprites and the font into an atlas, like {@link GameAssets#createGraphics()}
+     * with plain colored squares for the sprites.
+     *
+     * @return Atlas holding every region of {@link GameAtlas}.
+     */
+    static TextureAtlas createAtlas() {
+        PixmapPacker packer = GameAtlas.createPacker();
+        String[] sprites = { GameAtlas.SNAKE, GameAtlas.FOOD, GameAtlas.BONUS };
+        for (String sprite : sprites) {
+            Pixmap image = new Pixmap(Snake.CELL_SIZE, Snake.CELL_SIZE, Pixmap.Format.RGBA8888);
+            image.setColor(1, 1, 1, 1);
+            image.fill();
+            GameAtlas.pack(packer, sprite, image);
+            image.dispose();
+        }
+        Pixmap font = new Pixmap(Gdx.files.classpath(GameAtlas.FONT_PATH + ".png"));
+        GameAtlas.pack(packer, GameAtlas.FONT, font);
+        font.dispose();
+        TextureAtlas atlas = GameAtlas.createAtlas(packer);
+        packer.dispose();
+        return atlas;
+    }
+
+    /**
+     * Creates the default font drawing from an atlas made by {@link #createAtlas()}.
+     *
+     * @param atlas Atlas holding the font region.
+     * @return Font.
+     */
+    static BitmapFont createFont(TextureAtlas atlas) {
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData(Gdx.files.classpath(GameAtlas.FONT_PATH + ".fnt"), false);
+        return GameAtlas.createFont(data, atlas);
+    }
+
+    /**
+     * Creates a stub of a LibGDX interface. Methods return the screen size, a successful status
+     * for the OpenGL queries and calls that create objects, and zero, false or null otherwise.
+     *
+     * @param type Interface to stub.
+     * @param <T>  Type of the interface.
+     * @return Stub.
+     */
+    private static <T> T stub(Class<T> type) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> answer(method, args));
+        return type.cast(stub);
+    }
+
+    /**
+     * Answers a call to a stub.
+     *
+     * @param method Method called.
+     * @param args   Arguments of the call.
+     * @return Value returned by the stub.
+     */
+    private static Object answer(Method method, Object[] args) {
+        String name = method.getName();
+        switch (name) {
+            case "getWidth":
+            case "getBackBufferWidth":
+                return SCREEN_WIDTH;
+            case "getHeight":
+            case "getBackBufferHeight":
+                return SCREEN_HEIGHT;
+            case "getType":
+                return Application.ApplicationType.HeadlessDesktop;
+            case "glGetShaderiv":
+            case "glGetProgramiv":
+                // Compiled and linked, with no active attribute nor uniform to look up
+                int parameter = (Integer) args[1];
+                boolean status = parameter == GL20.GL_COMPILE_STATUS || parameter == GL20.GL_LINK_STATUS;
+                ((IntBuffer) args[2]).put(0, status ? 1 : 0);
+                return null;
+            case "glCreateShader":
+            case "glCreateProgram":
+            case "glGenBuffer":
+            case "glGenTexture":
+                return 1;
+            default:
+                break;
+        }
+        Class<?> result = method.getReturnType();
+        if (result == String.class) {
+            return "";
+        } else if (result == boolean.class) {
+            return false;
+        } else if (result == int.class) {
+            return 0;
+        } else if (result == long.class) {
+            return 0L;
+        } else if (result == float.class) {
+            return 0f;
+        }
+        return null;
+    }
+}
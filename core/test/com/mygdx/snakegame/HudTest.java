@@ -0,0 +1,138 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the HUD shows the current scores and draws steady frames without allocating.
+ */
+public class HudTest {
+    private static final int FRAMES = 10000; // Steady frames drawn when measuring allocations
+
+    private GlyphCountingBatch batch;
+    private TextureAtlas atlas;
+    private BitmapFont font;
+    private GameSimulation simulation;
+    private RenderState state;
+    private Hud hud;
+
+    /**
+     * Creates a HUD over a running two-player match.
+     */
+    @Before
+    public void setUp() {
+        HeadlessGdx.init();
+        batch = new GlyphCountingBatch();
+        atlas = HeadlessGdx.createAtlas();
+        font = HeadlessGdx.createFont(atlas);
+        hud = new Hud(font, HeadlessGdx.SCREEN_WIDTH, HeadlessGdx.SCREEN_HEIGHT);
+        hud.setMessage("Press any key to start");
+        simulation = new GameSimulation(32, 24, 2, 1L);
+        state = new RenderState();
+    }
+
+    /**
+     * Releases the batch, the font and the atlas.
+     */
+    @After
+    public void tearDown() {
+        batch.dispose();
+        font.dispose();
+        atlas.dispose();
+    }
+
+    /**
+     * Checks that the glyphs drawn follow the scores and the start message.
+     */
+    @Test
+    public void showsCurrentText() {
+        int waiting = draw(false);
+        int running = draw(true);
+        assertTrue("The start message is still drawn", running < waiting);
+
+        setScore(1, 10);
+        assertEquals("One more digit", running + 1, draw(true));
+        setScore(2, 100);
+        assertEquals("Two more digits", running + 3, draw(true));
+        setScore(1, 0);
+        assertEquals(running + 2, draw(true));
+    }
+
+    /**
+     * Checks that frames whose scores do not change allocate nothing, even when the HUD moves
+     * with the camera.
+     */
+    @Test
+    public void steadyFramesDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        setScore(1, 42);
+        for (int i = 0; i < FRAMES; i++) {
+            drawAt(true, i % 2); // Warms up the code paths measured below
+        }
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < FRAMES; i++) {
+            drawAt(true, i % 2);
+        }
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        // Less than a byte per frame: the measurement itself allocates a little, an object per frame would be 16 bytes or more
+        assertTrue(allocated + " bytes allocated by " + FRAMES + " steady frames", allocated < FRAMES);
+    }
+
+    /**
+     * Sets the score of a player and copies the match into the render state.
+     *
+     * @param player Player id.
+     * @param score  New score.
+     */
+    private void setScore(int player, int score) {
+        simulation.restorePlayer(player, simulation.getDirection(player), score, 0, true);
+    }
+
+    /**
+     * Draws the HUD at the origin.
+     *
+     * @param running Indicates whether the match is being played.
+     * @return Number of glyphs drawn.
+     */
+    private int draw(boolean running) {
+        return drawAt(running, 0);
+    }
+
+    /**
+     * Draws the HUD at a position.
+     *
+     * @param running Indicates whether the match is being played.
+     * @param x       X coordinate of the bottom left corner of the screen.
+     * @return Number of glyphs drawn.
+     */
+    private int drawAt(boolean running, float x) {
+        state.update(simulation, running, 0);
+        batch.glyphs = 0;
+        hud.draw(batch, state, x, 0);
+        return batch.glyphs;
+    }
+
+    /**
+     * Batch counting the glyphs that font caches send it in bulk, without drawing them, so the
+     * stub OpenGL calls of a flush do not count in the allocations.
+     */
+    private static class GlyphCountingBatch extends SpriteBatch {
+        private static final int VERTICES_PER_GLYPH = 20; // 4 corners of 5 floats
+        int glyphs; // Glyphs drawn since reset
+
+        @Override
+        public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+            glyphs += count / VERTICES_PER_GLYPH;
+        }
+    }
+}
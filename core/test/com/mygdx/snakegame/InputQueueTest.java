@@ -0,0 +1,88 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.utils.TimeUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that key presses reach the turn queue of their player in order, at the tick they
+ * belong to.
+ */
+public class InputQueueTest {
+    private GameSimulation simulation;
+    private InputQueue input;
+    private TurnQueue turns;
+    private int turn; // Key of player 1 turning a quarter from its start direction
+    private int back; // Key of player 1 for the opposite of its start direction
+
+    /**
+     * Binds the arrow keys to player 1 and the WASD keys to player 2.
+     */
+    @Before
+    public void setUp() {
+        simulation = new GameSimulation(20, 20, 2, 1L);
+        input = new InputQueue();
+        input.bind(1, Input.Keys.UP, Input.Keys.DOWN, Input.Keys.LEFT, Input.Keys.RIGHT);
+        input.bind(2, Input.Keys.W, Input.Keys.S, Input.Keys.A, Input.Keys.D);
+        turns = new TurnQueue(2);
+        int[] keys = { Input.Keys.UP, Input.Keys.RIGHT, Input.Keys.DOWN, Input.Keys.LEFT }; // Indexed by direction
+        int start = simulation.getDirection(1);
+        turn = keys[(start + 1) % 4];
+        back = keys[Direction.opposite(start)];
+    }
+
+    /**
+     * Checks that two presses made between two ticks both become pending turns, in order.
+     */
+    @Test
+    public void keepsQuickPresses() {
+        assertTrue(input.keyDown(turn));
+        assertTrue(input.keyDown(back));
+        assertFalse("Unbound key", input.keyDown(Input.Keys.SPACE));
+        input.drain(TimeUtils.nanoTime(), simulation, turns);
+        assertEquals(2, turns.getPendingCount(1));
+        assertEquals(0, turns.getPendingCount(2));
+        assertEquals((simulation.getDirection(1) + 1) % 4, turns.next(simulation, 1));
+    }
+
+    /**
+     * Checks that presses made after the time of a tick wait for a later tick.
+     */
+    @Test
+    public void waitsForTickTime() {
+        input.keyDown(turn);
+        long tick = TimeUtils.nanoTime();
+        while (TimeUtils.nanoTime() == tick) {
+            Thread.yield(); // The next press must be strictly later
+        }
+        input.keyDown(back);
+        input.drain(tick, simulation, turns);
+        assertEquals(1, turns.getPendingCount(1));
+        input.drain(TimeUtils.nanoTime(), simulation, turns);
+        assertEquals(2, turns.getPendingCount(1));
+    }
+
+    /**
+     * Checks that a burst of presses larger than the ring is still stored and drained, and that
+     * clearing drops the stored presses.
+     */
+    @Test
+    public void dropsOverflowAndCleared() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(input.keyDown(i % 2 == 0 ? Input.Keys.W : Input.Keys.D));
+        }
+        input.drain(TimeUtils.nanoTime(), simulation, turns);
+        assertTrue(turns.getPendingCount(2) > 0);
+
+        turns.clear();
+        input.keyDown(turn);
+        input.clear();
+        input.drain(TimeUtils.nanoTime(), simulation, turns);
+        assertEquals(0, turns.getPendingCount(1));
+    }
+}
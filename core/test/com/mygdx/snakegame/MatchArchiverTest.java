@@ -0,0 +1,136 @@
+package com.mygdx.snakegame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Plays matches on the test thread the way the {@link SimulationThread} does, hands them to an
+ * archiver, and checks the replays and the records it stores from its own thread.
+ */
+public class MatchArchiverTest {
+    private static final long START_TIME = 1_000_000L; // Start time of the first match, naming its replay
+    private static final int MAX_TICKS = 20000; // Ticks after which a match is given up
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GameEventBus bus;
+    private Path replays;
+    private MatchHistory history;
+    private MatchArchiver archiver;
+
+    /**
+     * Starts an archiver writing to a temporary folder, with an empty history.
+     *
+     * @throws IOException If the history cannot be created.
+     */
+    @Before
+    public void setUp() throws IOException {
+        HeadlessGdx.init(); // The archiver logs through Gdx.app
+        bus = new GameEventBus(256);
+        replays = folder.getRoot().toPath().resolve("replays");
+        history = new MatchHistory(folder.newFolder("history").toPath());
+        archiver = new MatchArchiver(bus, replays, history);
+        archiver.start();
+    }
+
+    /**
+     * Closes the history.
+     *
+     * @throws IOException If the history cannot be saved.
+     */
+    @After
+    public void tearDown() throws IOException {
+        history.close();
+    }
+
+    /**
+     * Checks that each finished match gets a complete replay, as long as the match, and a record
+     * with its winner and length.
+     *
+     * @throws IOException If a replay cannot be read.
+     */
+    @Test
+    public void storesFinishedMatches() throws IOException {
+        GameSimulation simulation = new GameSimulation(16, 12, 2, 3L);
+        int[] lengths = new int[2];
+        int[] winners = new int[2];
+        for (int m = 0; m < lengths.length; m++) {
+            MatchRecord record = new MatchRecord();
+            record.setName(1, "FoodSeekerBot");
+            record.setName(2, "SurvivalBot");
+            record.begin(simulation);
+            ByteArrayOutputStream replay = new ByteArrayOutputStream();
+            ReplayRecorder recorder = new ReplayRecorder(Channels.newChannel(replay), simulation, ReplayRecorder.DEFAULT_KEYFRAME_INTERVAL);
+            BotController[] bots = { new FoodSeekerBot(new GridSearch()), new SurvivalBot(new GridSearch()) };
+            int[] inputs = new int[2];
+            boolean over = false;
+            for (int tick = 1; tick <= MAX_TICKS && !over; tick++) {
+                for (int p = 0; p < inputs.length; p++) {
+                    inputs[p] = bots[p].nextDirection(simulation, p + 1);
+                }
+                recorder.record(inputs);
+                GameEvents events = simulation.step(inputs);
+                for (int i = 0; i < events.size(); i++) {
+                    record.onEvent(events.getType(i), events.getPlayer(i));
+                    if (events.getType(i) == GameEvents.GAME_OVER) {
+                        record.end(simulation, events.getPlayer(i), tick, START_TIME + m);
+                        archiver.submit(recorder, replay, START_TIME + m, record);
+                        lengths[m] = tick;
+                        winners[m] = events.getPlayer(i);
+                        over = true;
+                    }
+                }
+                bus.publish(events, tick);
+            }
+            assertTrue("Match " + m + " did not end", over);
+        }
+        archiver.stop();
+
+        assertEquals(lengths.length, history.getMatchCount());
+        MatchRecord stored = new MatchRecord();
+        for (int m = 0; m < lengths.length; m++) {
+            ReplayPlayer player = ReplayPlayer.open(replays.resolve("replay-" + (START_TIME + m) + ".replay"));
+            assertEquals(lengths[m], player.getLength());
+            history.readMatch(m, stored);
+            assertEquals(lengths[m], stored.getLength());
+            assertEquals(winners[m], stored.getWinner());
+            assertEquals(START_TIME + m, stored.getEndTime());
+            assertEquals("SurvivalBot", stored.getName(2));
+        }
+    }
+
+    /**
+     * Checks that a match handed over unfinished, as when the game closes, has its replay saved
+     * on stop but no record in the history.
+     *
+     * @throws IOException If the replay cannot be read.
+     */
+    @Test
+    public void savesUnfinishedMatchOnStop() throws IOException {
+        GameSimulation simulation = new GameSimulation(16, 12, 2, 4L);
+        ByteArrayOutputStream replay = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(Channels.newChannel(replay), simulation, ReplayRecorder.DEFAULT_KEYFRAME_INTERVAL);
+        int[] inputs = new int[2];
+        for (int tick = 1; tick <= 3; tick++) {
+            recorder.record(inputs);
+            bus.publish(simulation.step(inputs), tick);
+        }
+        archiver.submit(recorder, replay, START_TIME, null);
+        archiver.stop();
+
+        assertEquals(0, history.getMatchCount());
+        assertEquals(3, ReplayPlayer.open(replays.resolve("replay-" + START_TIME + ".replay")).getLength());
+    }
+}
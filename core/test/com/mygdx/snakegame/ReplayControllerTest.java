@@ -0,0 +1,157 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives a {@link ReplayController} with synthetic key presses and frame times, and checks that
+ * it pauses, plays, fast-forwards and seeks the recording like the keys ask.
+ */
+public class ReplayControllerTest {
+    private static final int TICKS = 1200; // Ticks recorded
+    private static final float FRAME = 1f / GameSimulation.TICKS_PER_SECOND; // Frame time, one tick
+
+    private final Set<Integer> justPressed = new HashSet<>(); // Keys pressed during the next frame
+    private final Set<Integer> held = new HashSet<>(); // Keys held down
+    private Graphics graphics; // Graphics of the other tests, put back afterwards
+    private Input input; // Input of the other tests, put back afterwards
+
+    /**
+     * Installs an input reporting the keys of the test and graphics reporting one tick per frame.
+     */
+    @Before
+    public void installStubs() {
+        HeadlessGdx.init();
+        graphics = Gdx.graphics;
+        input = Gdx.input;
+        Graphics screen = Gdx.graphics;
+        Gdx.graphics = (Graphics) Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[] { Graphics.class },
+                (proxy, method, args) -> method.getName().equals("getDeltaTime") ? FRAME : method.invoke(screen, args));
+        Gdx.input = (Input) Proxy.newProxyInstance(Input.class.getClassLoader(), new Class<?>[] { Input.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isKeyJustPressed":
+                            return justPressed.contains(args[0]);
+                        case "isKeyPressed":
+                            return held.contains(args[0]);
+                        default:
+                            return method.getReturnType() == boolean.class ? (Object) false : null;
+                    }
+                });
+    }
+
+    /**
+     * Puts back the graphics and the input of the other tests.
+     */
+    @After
+    public void removeStubs() {
+        Gdx.graphics = graphics;
+        Gdx.input = input;
+    }
+
+    /**
+     * Checks that the replay waits for SPACE, plays one tick per tick of time, fast-forwards
+     * while RIGHT is held, goes back on LEFT and stops at the end of the recording.
+     *
+     * @throws IOException Never, the recording is in memory.
+     */
+    @Test
+    public void keysDrivePlayback() throws IOException {
+        ReplayPlayer replay = new ReplayPlayer(ByteBuffer.wrap(record()));
+        ReplayController controller = new ReplayController(replay);
+        controller.create();
+        assertFalse(controller.playsSounds());
+
+        RenderState state = frame(controller);
+        assertFalse("Playing before SPACE", state.isRunning());
+        assertEquals(0, replay.getTick());
+
+        justPressed.add(Input.Keys.SPACE);
+        frame(controller);
+        for (int i = 0; i < 99; i++) {
+            state = frame(controller);
+        }
+        assertTrue(state.isRunning());
+        assertEquals(100, replay.getTick(), 2);
+        float alpha = controller.getAlpha();
+        assertTrue(alpha >= 0f && alpha < 1f);
+
+        held.add(Input.Keys.RIGHT);
+        long before = replay.getTick();
+        frame(controller);
+        assertEquals(controller.getFrameTicks(), replay.getTick() - before);
+        assertTrue(controller.getFrameTicks() >= 5);
+        held.clear();
+
+        before = replay.getTick();
+        justPressed.add(Input.Keys.LEFT);
+        frame(controller);
+        assertTrue(replay.getTick() < before);
+
+        justPressed.add(Input.Keys.SPACE);
+        before = replay.getTick();
+        state = frame(controller);
+        assertFalse("Still playing after SPACE", state.isRunning());
+        assertEquals(before, replay.getTick());
+
+        justPressed.add(Input.Keys.SPACE);
+        held.add(Input.Keys.RIGHT);
+        for (int i = 0; i < TICKS && !replay.isFinished(); i++) {
+            frame(controller);
+        }
+        state = frame(controller);
+        assertTrue(replay.isFinished());
+        assertFalse("Playing past the end", state.isRunning());
+        assertEquals(0f, controller.getAlpha(), 0f);
+    }
+
+    /**
+     * Runs one frame of the controller, then releases the keys just pressed.
+     *
+     * @param controller Controller under test.
+     * @return State to draw.
+     */
+    private RenderState frame(ReplayController controller) {
+        RenderState state = controller.update(null);
+        justPressed.clear();
+        return state;
+    }
+
+    /**
+     * Records a random match in memory.
+     *
+     * @return Complete replay file.
+     * @throws IOException Never, the channel is in memory.
+     */
+    private static byte[] record() throws IOException {
+        GameSimulation simulation = new GameSimulation(16, 12, 2, 17L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(Channels.newChannel(out), simulation, 120);
+        Random random = new Random(17);
+        int[] inputs = new int[2];
+        for (int tick = 0; tick < TICKS; tick++) {
+            TestMatches.randomInputs(random, inputs);
+            recorder.record(inputs);
+            simulation.step(inputs);
+        }
+        recorder.close();
+        return out.toByteArray();
+    }
+}
@@ -4,12 +4,85 @@ import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.mygdx.snakegame.SnakeGame;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 // Please note that on macOS your application needs to be started with the -XstartOnFirstThread JVM argument
+// Run without arguments for a local game, with "--arena width height" for a local game on a
+// scrolling grid, with "host port [match]" to join a game server, with "--peer player localPort
+// host port" to play against another machine, or with "--replay file" to watch a recorded match.
+// A leading "--bot" lets a bot play the second snake of a local game, and is refused otherwise
 public class DesktopLauncher {
-	public static void main (String[] arg) {
+	private static final int MAX_WINDOW_WIDTH = 1280; // Larger grids scroll
+	private static final int MAX_WINDOW_HEIGHT = 720;
+	private static final int PEER_GRID_WIDTH = 32; // Grid of a peer-to-peer match, chosen by player 1
+	private static final int PEER_GRID_HEIGHT = 24;
+	private static final float PEER_TIMEOUT = 60f; // Time to wait for the other machine, in seconds
+
+	public static void main (String[] arg) throws IOException {
+		long launchTime = System.nanoTime(); // The startup times of the game include the window creation
 		Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
 		config.setForegroundFPS(60);
 		config.setTitle("SnakeGame");
-		new Lwjgl3Application(new SnakeGame(), config);
+		boolean bot = arg.length > 0 && arg[0].equals("--bot");
+		if (bot) {
+			arg = Arrays.copyOfRange(arg, 1, arg.length);
+		}
+		if (arg.length >= 2 && arg[0].equals("--replay")) {
+			rejectBot(bot, "a replay");
+			ReplayPlayer replay = ReplayPlayer.open(Paths.get(arg[1]));
+			OccupancyGrid grid = replay.getSimulation().getGrid();
+			config.setTitle("SnakeGame - replay");
+			setWindowSize(config, grid.getWidth(), grid.getHeight());
+			new Lwjgl3Application(timed(new SnakeGame(replay), launchTime), config);
+		} else if (arg.length >= 3 && arg[0].equals("--arena")) {
+			int width = Integer.parseInt(arg[1]);
+			int height = Integer.parseInt(arg[2]);
+			setWindowSize(config, width, height);
+			new Lwjgl3Application(timed(createLocalGame(new SnakeGame(width, height), bot), launchTime), config);
+		} else if (arg.length >= 5 && arg[0].equals("--peer")) {
+			rejectBot(bot, "a peer-to-peer match");
+			RollbackPeer peer = new RollbackPeer(Integer.parseInt(arg[1]), Integer.parseInt(arg[2]), arg[3], Integer.parseInt(arg[4]));
+			peer.connect(PEER_GRID_WIDTH, PEER_GRID_HEIGHT, System.nanoTime(), PEER_TIMEOUT);
+			config.setTitle("SnakeGame - peer-to-peer, player " + peer.getPlayer());
+			setWindowSize(config, peer.getGridWidth(), peer.getGridHeight());
+			new Lwjgl3Application(timed(new SnakeGame(peer), launchTime), config);
+		} else if (arg.length >= 2) {
+			rejectBot(bot, "a game server");
+			NetworkClient client = new NetworkClient(arg[0], Integer.parseInt(arg[1]));
+			client.join(arg.length > 2 ? Integer.parseInt(arg[2]) : NetProtocol.ANY_MATCH, 5f);
+			config.setTitle("SnakeGame - match " + client.getMatchId() + ", player " + client.getPlayer());
+			setWindowSize(config, client.getGridWidth(), client.getGridHeight());
+			new Lwjgl3Application(timed(new SnakeGame(client), launchTime), config);
+		} else {
+			new Lwjgl3Application(timed(createLocalGame(new SnakeGame(), bot), launchTime), config);
+		}
+	}
+
+	// Hands the second snake of a local game to a bot if requested
+	private static SnakeGame createLocalGame (SnakeGame game, boolean bot) {
+		if (bot) {
+			game.setBot(2, new FoodSeekerBot(new GridSearch()));
+		}
+		return game;
+	}
+
+	// Refuses a bot for a game whose snakes are not all steered by this machine
+	private static void rejectBot (boolean bot, String game) {
+		if (bot) {
+			throw new IllegalArgumentException("--bot only applies to local games, not to " + game);
+		}
+	}
+
+	// Measures the startup of the game from the launch of the application
+	private static SnakeGame timed (SnakeGame game, long launchTime) {
+		game.setLaunchTime(launchTime);
+		return game;
+	}
+
+	// Sizes the window to show the whole grid, up to the largest window size
+	private static void setWindowSize (Lwjgl3ApplicationConfiguration config, int gridWidth, int gridHeight) {
+		config.setWindowedMode(Math.min(gridWidth * Snake.CELL_SIZE, MAX_WINDOW_WIDTH), Math.min(gridHeight * Snake.CELL_SIZE, MAX_WINDOW_HEIGHT));
 	}
 }
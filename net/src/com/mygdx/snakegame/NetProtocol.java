@@ -0,0 +1,48 @@
+package com.mygdx.snakegame;
+
+/**
+ * Datagram layout shared by the game server and its clients.
+ * Every packet starts with a type byte followed by the id of the match it concerns:
+ * <ul>
+ * <li>{@link #JOIN}: match id, or {@link #ANY_MATCH} to take the first free seat.</li>
+ * <li>{@link #JOINED}: match id, player (byte), player count (byte), grid width and height (shorts).</li>
+ * <li>{@link #INPUT}: match id, player (byte), direction (byte).</li>
+ * <li>{@link #STATE}: match id, running flag (byte), then a {@link GameStateCodec} state.</li>
+ * <li>{@link #LEAVE}: match id, player (byte).</li>
+ * <li>{@link #FULL}: match id.</li>
+ * </ul>
+ * Two {@link RollbackPeer}s exchange two more types, with a match id of 0:
+ * <ul>
+ * <li>{@link #PEER_HELLO}: match id, player (byte), grid width and height (shorts), seed (long).</li>
+ * <li>{@link #PEER_INPUT}: match id, player (byte), first frame of the receiver's input not received yet (int),
+ * first frame sent (int), frame count (byte), then one direction (byte) per frame.</li>
+ * </ul>
+ */
+public final class NetProtocol {
+    /** Client asks for a seat. */
+    public static final byte JOIN = 1;
+    /** Server grants a seat. */
+    public static final byte JOINED = 2;
+    /** Client sends the direction requested for the next tick. */
+    public static final byte INPUT = 3;
+    /** Server broadcasts the state of a match after a tick. */
+    public static final byte STATE = 4;
+    /** Client gives its seat back. */
+    public static final byte LEAVE = 5;
+    /** Server refuses a join because the match has no free seat. */
+    public static final byte FULL = 6;
+    /** Peer announces itself; player 1 also gives the grid and the seed of the session. */
+    public static final byte PEER_HELLO = 7;
+    /** Peer sends its inputs not acknowledged yet, and acknowledges the inputs it received. */
+    public static final byte PEER_INPUT = 8;
+
+    /** Match id asking the server to pick a match with a free seat. */
+    public static final int ANY_MATCH = -1;
+    /** Largest payload of a UDP datagram. */
+    public static final int MAX_PACKET_SIZE = 65507;
+    /** Seconds without a packet after which a client loses its seat. */
+    public static final float CLIENT_TIMEOUT = 5f;
+
+    private NetProtocol() {
+    }
+}
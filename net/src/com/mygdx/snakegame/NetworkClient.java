@@ -0,0 +1,218 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Client side of the {@link NetProtocol}.
+ * Joins a match on a game server, sends the local player's input and copies the
+ * states broadcast by the server into a mirror {@link GameSimulation}.
+ * The channel is non-blocking so polling from the render loop never waits. Datagrams too
+ * short for their type are ignored, so a stray or truncated packet never stops the client.
+ */
+public class NetworkClient {
+    private static final long JOIN_RETRY = 250_000_000L; // Time between join attempts, in nanoseconds
+    private static final int HEADER_SIZE = 5; // Type and match id, at the start of every packet
+    private static final int JOINED_SIZE = HEADER_SIZE + 6; // Seat and player count (bytes), grid width and height (shorts)
+    private static final int STATE_HEADER_SIZE = HEADER_SIZE + 1; // Running flag, before the state
+
+    private final DatagramChannel channel;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(16);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(NetProtocol.MAX_PACKET_SIZE);
+    private int matchId = NetProtocol.ANY_MATCH;
+    private int player; // Seat of the local player, 0 until joined
+    private int playerCount;
+    private int gridWidth;
+    private int gridHeight;
+    private boolean running; // Running flag of the last state received
+    private long lastStateTime; // Time the last state was received, in nanoseconds
+
+    /**
+     * Opens a channel to a game server.
+     *
+     * @param host Host name of the server.
+     * @param port UDP port of the server.
+     * @throws IOException If the channel cannot be opened.
+     */
+    public NetworkClient(String host, int port) throws IOException {
+        channel = DatagramChannel.open();
+        channel.connect(new InetSocketAddress(host, port));
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * Asks the server for a seat and waits for the answer, retrying lost packets.
+     *
+     * @param requestedMatch Id of the match to join, or {@link NetProtocol#ANY_MATCH}.
+     * @param timeout        Maximum time to wait, in seconds.
+     * @throws IOException If the server does not answer in time or the match is full.
+     */
+    public void join(int requestedMatch, float timeout) throws IOException {
+        long deadline = System.nanoTime() + (long) (timeout * 1e9);
+        long nextAttempt = 0;
+        while (System.nanoTime() < deadline) {
+            if (System.nanoTime() >= nextAttempt) {
+                sendBuffer.clear();
+                sendBuffer.put(NetProtocol.JOIN).putInt(requestedMatch);
+                sendBuffer.flip();
+                channel.write(sendBuffer);
+                nextAttempt = System.nanoTime() + JOIN_RETRY;
+            }
+            receiveBuffer.clear();
+            try {
+                if (channel.read(receiveBuffer) <= 0) {
+                    Thread.sleep(5);
+                    continue;
+                }
+            } catch (PortUnreachableException e) {
+                continue; // The server is not up yet
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while joining", e);
+            }
+            receiveBuffer.flip();
+            if (receiveBuffer.remaining() < HEADER_SIZE) {
+                continue;
+            }
+            byte type = receiveBuffer.get();
+            int id = receiveBuffer.getInt();
+            if (type == NetProtocol.FULL) {
+                throw new IOException("Match " + id + " is full");
+            }
+            if (type == NetProtocol.JOINED && receiveBuffer.remaining() >= JOINED_SIZE - HEADER_SIZE) {
+                matchId = id;
+                player = receiveBuffer.get();
+                playerCount = receiveBuffer.get();
+                gridWidth = receiveBuffer.getShort();
+                gridHeight = receiveBuffer.getShort();
+                return;
+            }
+        }
+        throw new IOException("No answer from the server");
+    }
+
+    /**
+     * Sends the direction requested by the local player.
+     *
+     * @param direction Requested direction, or {@link Direction#NONE}.
+     * @throws IOException If the channel fails.
+     */
+    public void sendInput(int direction) throws IOException {
+        sendBuffer.clear();
+        sendBuffer.put(NetProtocol.INPUT).putInt(matchId).put((byte) player).put((byte) direction);
+        sendBuffer.flip();
+        channel.write(sendBuffer);
+    }
+
+    /**
+     * Reads every pending datagram and copies the complete states into a simulation.
+     *
+     * @param mirror Simulation sized from {@link #getGridWidth()}, {@link #getGridHeight()} and {@link #getPlayerCount()}.
+     * @return True if at least one state was received, false otherwise.
+     * @throws IOException If the channel fails.
+     */
+    public boolean poll(GameSimulation mirror) throws IOException {
+        boolean received = false;
+        while (true) {
+            receiveBuffer.clear();
+            if (channel.read(receiveBuffer) <= 0) {
+                return received;
+            }
+            receiveBuffer.flip();
+            if (receiveBuffer.remaining() < STATE_HEADER_SIZE || receiveBuffer.get() != NetProtocol.STATE
+                    || receiveBuffer.getInt() != matchId) {
+                continue;
+            }
+            boolean matchRunning = receiveBuffer.get() != 0;
+            if (GameStateCodec.isComplete(receiveBuffer, mirror)) {
+                running = matchRunning;
+                GameStateCodec.read(receiveBuffer, mirror);
+                lastStateTime = System.nanoTime();
+                received = true;
+            }
+        }
+    }
+
+    /**
+     * Gives the seat back and closes the channel.
+     */
+    public void close() {
+        try {
+            if (player != 0) {
+                sendBuffer.clear();
+                sendBuffer.put(NetProtocol.LEAVE).putInt(matchId).put((byte) player);
+                sendBuffer.flip();
+                channel.write(sendBuffer);
+            }
+            channel.close();
+        } catch (IOException e) {
+            // The server times the seat out anyway
+        }
+    }
+
+    /**
+     * Indicates whether the match was running in the last state received.
+     *
+     * @return True if every seat is taken and the match is being played, false otherwise.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the time elapsed since the last state was received.
+     *
+     * @return Elapsed time, in seconds.
+     */
+    public float getTimeSinceState() {
+        return (System.nanoTime() - lastStateTime) / 1e9f;
+    }
+
+    /**
+     * Gets the id of the joined match.
+     *
+     * @return Match id.
+     */
+    public int getMatchId() {
+        return matchId;
+    }
+
+    /**
+     * Gets the seat of the local player.
+     *
+     * @return Player id, 0 until joined.
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the number of players in the joined match.
+     *
+     * @return Number of players.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Gets the size of the grid of the joined match on the X-axis.
+     *
+     * @return Number of columns.
+     */
+    public int getGridWidth() {
+        return gridWidth;
+    }
+
+    /**
+     * Gets the size of the grid of the joined match on the Y-axis.
+     *
+     * @return Number of rows.
+     */
+    public int getGridHeight() {
+        return gridHeight;
+    }
+}
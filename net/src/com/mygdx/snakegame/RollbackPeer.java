@@ -0,0 +1,272 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * One of the two machines of a peer-to-peer match played with a {@link RollbackSession}.
+ * The peers greet each other with {@link NetProtocol#PEER_HELLO}, player 1 giving the grid and
+ * the seed, then each sends every local input the other has not acknowledged yet in each
+ * {@link NetProtocol#PEER_INPUT}, along with the frame of the other's inputs it expects next.
+ * A lost packet therefore costs no round trip: the next one carries the same inputs again.
+ * The channel is non-blocking so polling from the render loop never waits. Packets too short
+ * for their type, or from another player, are ignored, inputs too far ahead of the local frame
+ * for the input ring are dropped, and directions outside the known ones are read as
+ * {@link Direction#NONE}, so a stray or damaged packet never breaks the session.
+ */
+public class RollbackPeer {
+    private static final int PLAYERS = 2;
+    private static final long HELLO_RETRY = 250_000_000L; // Time between hellos while connecting, in nanoseconds
+    private static final int HEADER_SIZE = 6; // Type, match id and player, at the start of every packet
+    private static final int HELLO_SIZE = HEADER_SIZE + 12; // Grid width and height (shorts) and seed (long)
+    private static final int INPUT_HEADER_SIZE = HEADER_SIZE + 9; // Acknowledged frame, first frame (ints) and count (byte)
+
+    private final DatagramChannel channel;
+    private final int player;
+    private final int remotePlayer;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(16 + RollbackSession.INPUT_SLOTS);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(NetProtocol.MAX_PACKET_SIZE);
+    private int gridWidth;
+    private int gridHeight;
+    private long seed;
+    private RollbackSession session; // Null until connected
+    private long lastReceiveTime; // Time the last packet of the other peer was received, in nanoseconds
+    private boolean remoteConnected; // Indicates whether inputs of the other peer were received, so it heard this one
+
+    /**
+     * Opens a channel to the other peer.
+     *
+     * @param player    Player id of this machine, 1 or 2; the other peer has the other one.
+     * @param localPort UDP port the other peer sends to, 0 for any free port.
+     * @param host      Host name of the other peer.
+     * @param port      UDP port of the other peer.
+     * @throws IOException If the channel cannot be opened.
+     */
+    public RollbackPeer(int player, int localPort, String host, int port) throws IOException {
+        if (player != 1 && player != 2) {
+            throw new IllegalArgumentException("Player must be 1 or 2, got " + player);
+        }
+        this.player = player;
+        this.remotePlayer = PLAYERS + 1 - player;
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(localPort));
+        channel.connect(new InetSocketAddress(host, port));
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * Greets the other peer until it answers, then creates the session. Player 1 gives the grid
+     * and the seed; player 2 ignores its own and takes them from player 1.
+     *
+     * @param gridWidth  Size of the grid on the X-axis, used by player 1.
+     * @param gridHeight Size of the grid on the Y-axis, used by player 1.
+     * @param seed       Seed of the simulation, used by player 1.
+     * @param timeout    Maximum time to wait, in seconds.
+     * @throws IOException If the other peer does not answer in time.
+     */
+    public void connect(int gridWidth, int gridHeight, long seed, float timeout) throws IOException {
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.seed = seed;
+        long deadline = System.nanoTime() + (long) (timeout * 1e9);
+        long nextHello = 0;
+        boolean greeted = false;
+        while (!greeted && System.nanoTime() < deadline) {
+            if (System.nanoTime() >= nextHello) {
+                sendHello();
+                nextHello = System.nanoTime() + HELLO_RETRY;
+            }
+            if (!receive()) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while connecting", e);
+                }
+                continue;
+            }
+            if (receiveBuffer.remaining() >= HELLO_SIZE && receiveBuffer.get() == NetProtocol.PEER_HELLO
+                    && receiveBuffer.getInt() == 0 && receiveBuffer.get() == remotePlayer) {
+                if (remotePlayer == 1) {
+                    this.gridWidth = receiveBuffer.getShort();
+                    this.gridHeight = receiveBuffer.getShort();
+                    this.seed = receiveBuffer.getLong();
+                }
+                sendHello(); // The other peer may not have heard this one yet
+                greeted = true;
+            }
+        }
+        if (!greeted) {
+            throw new IOException("No answer from player " + remotePlayer);
+        }
+        session = new RollbackSession(new GameSimulation(this.gridWidth, this.gridHeight, PLAYERS, this.seed), player);
+    }
+
+    /**
+     * Reads every pending packet: hands the inputs of the other peer to the session and answers
+     * its hellos until it sends inputs, which tells it heard this one.
+     *
+     * @throws IOException If the channel fails.
+     */
+    public void poll() throws IOException {
+        while (receive()) {
+            if (receiveBuffer.remaining() < HEADER_SIZE) {
+                continue;
+            }
+            byte type = receiveBuffer.get();
+            if (receiveBuffer.getInt() != 0 || receiveBuffer.get() != remotePlayer) {
+                continue;
+            }
+            if (type == NetProtocol.PEER_HELLO && !remoteConnected) {
+                sendHello();
+            } else if (type == NetProtocol.PEER_INPUT && receiveBuffer.remaining() >= INPUT_HEADER_SIZE - HEADER_SIZE) {
+                remoteConnected = true;
+                long acknowledged = receiveBuffer.getInt();
+                if (acknowledged <= session.getFrame()) {
+                    session.acknowledge(remotePlayer, acknowledged); // Never beyond the inputs sent
+                }
+                long first = receiveBuffer.getInt();
+                int count = Math.min(receiveBuffer.get() & 0xFF, receiveBuffer.remaining());
+                long limit = session.getFrame() + RollbackSession.INPUT_SLOTS - RollbackSession.STATE_SLOTS;
+                for (int i = 0; i < count; i++) {
+                    long frame = first + i;
+                    if (frame > session.getReceived(remotePlayer)) {
+                        break; // Sent before an older packet still on its way, which the next one repeats
+                    }
+                    if (frame >= limit) {
+                        break; // Would wrap the input ring over inputs a rollback may still need
+                    }
+                    int direction = receiveBuffer.get();
+                    if (direction < Direction.NONE || direction > Direction.LEFT) {
+                        direction = Direction.NONE; // Keeps the frame, as the inputs follow each other
+                    }
+                    session.addRemoteInput(remotePlayer, frame, direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the local inputs the other peer has not acknowledged, and the frame of its inputs
+     * expected next. Called after every frame, and while the session waits for the other peer.
+     *
+     * @throws IOException If the channel fails.
+     */
+    public void send() throws IOException {
+        long first = session.getAcknowledged(remotePlayer);
+        int count = (int) (session.getFrame() - first);
+        sendBuffer.clear();
+        sendBuffer.put(NetProtocol.PEER_INPUT).putInt(0).put((byte) player);
+        sendBuffer.putInt((int) session.getReceived(remotePlayer)).putInt((int) first).put((byte) count);
+        for (int i = 0; i < count; i++) {
+            sendBuffer.put((byte) session.getLocalInput(first + i));
+        }
+        sendBuffer.flip();
+        write();
+    }
+
+    /**
+     * Sends a hello, with the grid and the seed of the session.
+     *
+     * @throws IOException If the channel fails.
+     */
+    private void sendHello() throws IOException {
+        sendBuffer.clear();
+        sendBuffer.put(NetProtocol.PEER_HELLO).putInt(0).put((byte) player);
+        sendBuffer.putShort((short) gridWidth).putShort((short) gridHeight).putLong(seed);
+        sendBuffer.flip();
+        write();
+    }
+
+    /**
+     * Writes the send buffer to the other peer.
+     *
+     * @throws IOException If the channel fails.
+     */
+    private void write() throws IOException {
+        try {
+            channel.write(sendBuffer);
+        } catch (PortUnreachableException e) {
+            // The other peer is not up yet, or gone; the next packet tries again
+        }
+    }
+
+    /**
+     * Reads one packet into the receive buffer.
+     *
+     * @return True if a packet was read, ready to be parsed.
+     * @throws IOException If the channel fails.
+     */
+    private boolean receive() throws IOException {
+        receiveBuffer.clear();
+        try {
+            if (channel.read(receiveBuffer) <= 0) {
+                return false;
+            }
+        } catch (PortUnreachableException e) {
+            return false; // The other peer is not up yet
+        }
+        receiveBuffer.flip();
+        lastReceiveTime = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Closes the channel.
+     */
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    /**
+     * Gets the session, once connected.
+     *
+     * @return Session, null before {@link #connect(int, int, long, float)} succeeded.
+     */
+    public RollbackSession getSession() {
+        return session;
+    }
+
+    /**
+     * Gets the time elapsed since the other peer was last heard.
+     *
+     * @return Elapsed time, in seconds.
+     */
+    public float getTimeSinceReceive() {
+        return (System.nanoTime() - lastReceiveTime) / 1e9f;
+    }
+
+    /**
+     * Gets the player of this machine.
+     *
+     * @return Player id.
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the size of the grid of the session on the X-axis.
+     *
+     * @return Number of columns.
+     */
+    public int getGridWidth() {
+        return gridWidth;
+    }
+
+    /**
+     * Gets the size of the grid of the session on the Y-axis.
+     *
+     * @return Number of rows.
+     */
+    public int getGridHeight() {
+        return gridHeight;
+    }
+}
@@ -0,0 +1,444 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a match live to any number of spectators over TCP.
+ * <p>
+ * The thread stepping the simulation calls {@link #publish(GameSimulation)} after each tick,
+ * which encodes the state once, as a {@link SnapshotEncoder} keyframe every
+ * {@link #KEYFRAME_INTERVAL} frames and a delta otherwise, and appends it to a log held in one
+ * direct buffer. The log is a ring addressed by absolute byte positions: each spectator is only
+ * a position in it. The server thread hands every spectator the bytes between its position and
+ * the end of the log with one non-blocking gathering write of read-only views of that buffer,
+ * so a tick is encoded once and copied by no one, whatever the number of spectators.
+ * <p>
+ * Nothing is queued per spectator. A spectator whose socket stops taking bytes falls behind in
+ * the log; once it is more than {@link #MAX_LAG} frames behind, it skips to the latest keyframe
+ * as soon as it reaches the end of a frame, and misses the frames in between. One so far behind
+ * that the log wrapped over the bytes it still had to send is disconnected. The kernel buffer of
+ * each connection is kept small, so a stalled spectator is found out within seconds.
+ * <p>
+ * Stream layout: a header (magic, version, grid width and height as shorts, player count), then
+ * frames, each the length of a snapshot (int) followed by the snapshot. The first frame a
+ * spectator gets is a keyframe.
+ */
+public class SpectatorServer implements Runnable {
+    static final int MAGIC = 0x534E4B56; // "SNKV", start of a spectator stream
+    static final byte VERSION = 2; // 2: snapshots list every item
+    static final int HEADER_SIZE = 10; // Bytes of the stream header
+    static final int FRAME_HEADER_SIZE = 4; // Length of the snapshot (int)
+    /** Frames between two keyframes, where spectators start and where slow ones skip to. */
+    public static final int KEYFRAME_INTERVAL = GameSimulation.TICKS_PER_SECOND;
+    /** Frames a spectator may fall behind before it skips to the latest keyframe. */
+    public static final int MAX_LAG = GameSimulation.TICKS_PER_SECOND / 2;
+    private static final int FRAME_SLOTS = 1024; // Frames indexed, far more than a spectator may lag
+    private static final int MIN_LOG_SIZE = 1 << 20; // Smallest log, many seconds of play on any grid
+    private static final int SEND_BUFFER_SIZE = 8 * 1024; // Kernel buffer of each connection, a few seconds of stream
+
+    // Publisher side, the thread stepping the simulation
+    private final SnapshotEncoder encoder;
+    private ByteBuffer staging = ByteBuffer.allocate(1024); // Frame being encoded, grows with the snakes
+    private final ByteBuffer log; // Frames of the stream, shared by every spectator
+    private final ByteBuffer logWriter; // View of the log the publisher writes through
+
+    // Shared between the publisher and the server thread
+    private final long[] frameStarts = new long[FRAME_SLOTS]; // Absolute log position of each frame, and of the next one
+    private volatile long frames; // Frames published
+    private volatile long latestKeyframe = -1; // Sequence number of the latest keyframe, -1 before the first
+    private final AtomicLong claimed = new AtomicLong(); // Absolute log position up to which the publisher may be writing
+    private volatile int spectatorCount;
+    private volatile long skips; // Times a spectator skipped to a keyframe
+    private volatile long drops; // Spectators disconnected for falling a whole log behind
+    private volatile long bytesSent;
+    private volatile boolean running = true; // Cleared by stop()
+
+    // Server thread side
+    private final ServerSocketChannel acceptor;
+    private final Selector selector;
+    private final ByteBuffer header; // Stream header, shared by every spectator
+    private final List<Spectator> spectators = new ArrayList<>();
+    private final ByteBuffer scratch = ByteBuffer.allocate(256); // Receives what spectators send, ignored
+    private final Thread thread = new Thread(this, "spectators");
+
+    /**
+     * Opens a server for the spectators of a simulation, not started yet.
+     *
+     * @param port       TCP port to listen on, 0 for any free port.
+     * @param simulation Simulation to stream, which gives the grid size and the player count.
+     * @throws IOException If the port cannot be opened.
+     */
+    public SpectatorServer(int port, GameSimulation simulation) throws IOException {
+        OccupancyGrid grid = simulation.getGrid();
+        int playerCount = simulation.getPlayerCount();
+        encoder = new SnapshotEncoder(playerCount);
+        int frameSize = FRAME_HEADER_SIZE + SnapshotEncoder.getMaxSize(grid.getWidth(), grid.getHeight(), playerCount);
+        log = ByteBuffer.allocateDirect(Math.max(MIN_LOG_SIZE, 2 * frameSize));
+        logWriter = log.duplicate();
+
+        ByteBuffer stream = ByteBuffer.allocateDirect(HEADER_SIZE);
+        stream.putInt(MAGIC).put(VERSION);
+        stream.putShort((short) grid.getWidth()).putShort((short) grid.getHeight());
+        stream.put((byte) playerCount);
+        stream.flip();
+        header = stream.asReadOnlyBuffer();
+
+        selector = Selector.open();
+        acceptor = ServerSocketChannel.open();
+        acceptor.configureBlocking(false);
+        acceptor.bind(new InetSocketAddress(port), 256);
+        acceptor.register(selector, SelectionKey.OP_ACCEPT);
+        thread.setDaemon(true); // Never keeps the application alive
+    }
+
+    /**
+     * Starts the server thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops the server thread, disconnects every spectator and closes the port. Can be called
+     * from any thread, whether the server was started or not.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            acceptor.close();
+            selector.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    /**
+     * Encodes the state of the simulation after a tick and makes it available to every
+     * spectator. Called by the thread stepping the simulation, after every tick, so the deltas
+     * follow each other.
+     *
+     * @param simulation Simulation given to the constructor.
+     */
+    public void publish(GameSimulation simulation) {
+        long frame = frames;
+        int maxSize = FRAME_HEADER_SIZE + SnapshotEncoder.getMaxSize(simulation);
+        if (staging.capacity() < maxSize) {
+            staging = ByteBuffer.allocate(2 * maxSize);
+        }
+        staging.clear();
+        staging.position(FRAME_HEADER_SIZE);
+        boolean keyframe = frame % KEYFRAME_INTERVAL == 0;
+        if (keyframe) {
+            encoder.writeKeyframe(simulation, staging);
+        } else {
+            encoder.writeDelta(simulation, staging);
+        }
+        staging.putInt(0, staging.position() - FRAME_HEADER_SIZE);
+        staging.flip();
+
+        long start = frameStarts[(int) frame & (FRAME_SLOTS - 1)];
+        long end = start + staging.remaining();
+        // A full fence, unlike a volatile store, which later plain stores may pass: a spectator
+        // that read any byte of this frame then sees the claim, and knows it may be torn
+        claimed.getAndSet(end);
+        int offset = (int) (start % log.capacity());
+        int first = Math.min(staging.remaining(), log.capacity() - offset);
+        logWriter.limit(offset + first).position(offset);
+        staging.limit(first);
+        logWriter.put(staging);
+        if (first < end - start) {
+            staging.limit((int) (end - start));
+            logWriter.limit(log.capacity()).position(0);
+            logWriter.put(staging);
+        }
+
+        frameStarts[(int) (frame + 1) & (FRAME_SLOTS - 1)] = end;
+        frames = frame + 1;
+        if (keyframe) {
+            latestKeyframe = frame;
+        }
+        if (spectatorCount > 0) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Accepts spectators and sends them the log as frames are published, until {@link #stop()}.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid() && key.isReadable()) {
+                        receive((Spectator) key.attachment());
+                    }
+                }
+                for (int i = spectators.size() - 1; i >= 0; i--) {
+                    send(spectators.get(i));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Spectator server failed", e);
+        } finally {
+            for (int i = spectators.size() - 1; i >= 0; i--) {
+                disconnect(spectators.get(i));
+            }
+        }
+    }
+
+    /**
+     * Accepts every pending connection. A new spectator starts at the latest keyframe.
+     *
+     * @throws IOException If the server channel fails.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = acceptor.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_SIZE);
+            Spectator spectator = new Spectator(channel);
+            spectator.key = channel.register(selector, SelectionKey.OP_READ, spectator);
+            spectators.add(spectator);
+            spectatorCount = spectators.size();
+        }
+    }
+
+    /**
+     * Reads and ignores what a spectator sends, and disconnects it once it closed its end.
+     *
+     * @param spectator Spectator with bytes to read.
+     */
+    private void receive(Spectator spectator) {
+        try {
+            int read;
+            do {
+                scratch.clear();
+                read = spectator.channel.read(scratch);
+            } while (read > 0);
+            if (read < 0) {
+                disconnect(spectator);
+            }
+        } catch (IOException e) {
+            disconnect(spectator);
+        }
+    }
+
+    /**
+     * Sends a spectator as much of the log as its socket takes, in one gathering write: what is
+     * left of the stream header, then the bytes up to the end of the log, in two views if they
+     * wrap around it. Skips to the latest keyframe first if the spectator fell too far behind.
+     *
+     * @param spectator Connected spectator.
+     */
+    private void send(Spectator spectator) {
+        long published = frames;
+        if (spectator.frame < 0) {
+            long keyframe = latestKeyframe;
+            if (keyframe < 0) {
+                return; // Nothing to start from yet
+            }
+            spectator.frame = keyframe;
+            spectator.position = getStart(keyframe);
+        } else if (published - spectator.frame > MAX_LAG && spectator.position == getStart(spectator.frame)) {
+            long keyframe = latestKeyframe;
+            if (keyframe > spectator.frame) {
+                skips++;
+                spectator.frame = keyframe;
+                spectator.position = getStart(keyframe);
+            }
+        }
+        long end = getStart(published);
+        if (spectator.position == end && !spectator.views[0].hasRemaining()) {
+            return;
+        }
+
+        int offset = (int) (spectator.position % log.capacity());
+        int first = (int) Math.min(end - spectator.position, log.capacity() - offset);
+        spectator.views[1].limit(offset + first).position(offset);
+        spectator.views[2].limit((int) (end - spectator.position - first)).position(0);
+        int headerLeft = spectator.views[0].remaining();
+        long written;
+        try {
+            written = spectator.channel.write(spectator.views);
+        } catch (IOException e) {
+            disconnect(spectator);
+            return;
+        }
+        bytesSent += written;
+        long sentFrom = spectator.position;
+        spectator.position += written - (headerLeft - spectator.views[0].remaining());
+        // Read once the system call copied the bytes, so any claim over them made before is seen
+        if (claimed.get() - log.capacity() > sentFrom || frames - spectator.frame >= FRAME_SLOTS - 1) {
+            drops++; // The publisher wrapped over bytes being sent
+            disconnect(spectator);
+            return;
+        }
+        while (spectator.frame < published && getStart(spectator.frame + 1) <= spectator.position) {
+            spectator.frame++;
+        }
+        setWriteInterest(spectator, spectator.position < end);
+    }
+
+    /**
+     * Gets the log position of a published frame, or of the end of the log.
+     *
+     * @param frame Sequence number of the frame, at most the number of frames published.
+     * @return Absolute log position.
+     */
+    private long getStart(long frame) {
+        return frameStarts[(int) frame & (FRAME_SLOTS - 1)];
+    }
+
+    /**
+     * Asks the selector to report when a spectator's socket takes bytes again, or stops asking.
+     *
+     * @param spectator Connected spectator.
+     * @param pending   True if bytes are waiting for the socket.
+     */
+    private void setWriteInterest(Spectator spectator, boolean pending) {
+        if (spectator.writePending != pending) {
+            spectator.writePending = pending;
+            spectator.key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Closes a spectator's connection and forgets it.
+     *
+     * @param spectator Spectator to disconnect.
+     */
+    private void disconnect(Spectator spectator) {
+        int index = spectators.indexOf(spectator);
+        if (index < 0) {
+            return;
+        }
+        spectators.set(index, spectators.get(spectators.size() - 1));
+        spectators.remove(spectators.size() - 1);
+        spectatorCount = spectators.size();
+        try {
+            spectator.channel.close();
+        } catch (IOException e) {
+            // Gone anyway
+        }
+    }
+
+    /**
+     * Gets the port the server is bound to.
+     *
+     * @return Local port.
+     * @throws IOException If the channel is closed.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) acceptor.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the number of spectators connected.
+     *
+     * @return Number of spectators.
+     */
+    public int getSpectatorCount() {
+        return spectatorCount;
+    }
+
+    /**
+     * Gets the number of frames published.
+     *
+     * @return Number of frames.
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Gets the size of the log all spectators share.
+     *
+     * @return Size in bytes.
+     */
+    public int getLogSize() {
+        return log.capacity();
+    }
+
+    /**
+     * Gets the number of times a slow spectator skipped to a keyframe.
+     *
+     * @return Number of skips.
+     */
+    public long getSkipCount() {
+        return skips;
+    }
+
+    /**
+     * Gets the number of spectators disconnected for falling a whole log behind.
+     *
+     * @return Number of spectators dropped.
+     */
+    public long getDropCount() {
+        return drops;
+    }
+
+    /**
+     * Gets the number of bytes sent to the spectators.
+     *
+     * @return Bytes sent.
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Gets the id of the server thread, to measure its CPU time.
+     *
+     * @return Thread id.
+     */
+    public long getThreadId() {
+        return thread.getId();
+    }
+
+    /**
+     * Connection of one spectator, and its position in the log.
+     */
+    private class Spectator {
+        private final SocketChannel channel;
+        private final ByteBuffer[] views; // Rest of the stream header, then the log before and after it wraps
+        private SelectionKey key;
+        private long frame = -1; // Sequence number of the frame being sent, -1 until the first keyframe
+        private long position; // Absolute log position of the next byte to send
+        private boolean writePending; // Indicates whether the selector watches the socket for room
+
+        /**
+         * Creates a spectator that has not received anything yet.
+         *
+         * @param channel Connection of the spectator.
+         */
+        Spectator(SocketChannel channel) {
+            this.channel = channel;
+            views = new ByteBuffer[]{header.duplicate(), log.asReadOnlyBuffer(), log.asReadOnlyBuffer()};
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.mygdx.snakegame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Connects a {@link RollbackPeer} playing player 2 to a plain socket playing player 1, sends it
+ * short, foreign and damaged packets, and checks that it ignores them or reads what they hold
+ * without failing, and that its session follows the inputs received.
+ */
+public class RollbackPeerTest {
+    private static final int GRID_WIDTH = 20;
+    private static final int GRID_HEIGHT = 14;
+    private static final long SEED = 5L;
+    private static final int RECEIVE_TIMEOUT = 2000; // Milliseconds to wait for a packet
+    private static final float CONNECT_TIMEOUT = 2f; // Seconds the peer waits for the hello
+    private static final int FLOOD = 255; // Inputs in the largest input packet
+
+    private DatagramSocket remote; // Player 1
+    private SocketAddress peerAddress; // Address the peer sends from
+    private RollbackPeer peer;
+
+    /**
+     * Opens the socket of player 1 and the peer of player 2, sends a hello too short to read,
+     * then a real one, and waits until the peer is connected.
+     *
+     * @throws Exception If the peer does not connect.
+     */
+    @Before
+    public void connect() throws Exception {
+        remote = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        remote.setSoTimeout(RECEIVE_TIMEOUT);
+        peer = new RollbackPeer(2, 0, "127.0.0.1", remote.getLocalPort());
+        Exception[] failure = new Exception[1];
+        Thread connecting = new Thread(() -> {
+            try {
+                peer.connect(0, 0, 0L, CONNECT_TIMEOUT); // Grid and seed come from player 1
+            } catch (Exception e) {
+                failure[0] = e;
+            }
+        }, "peer-2");
+        connecting.start();
+
+        DatagramPacket hello = new DatagramPacket(new byte[NetProtocol.MAX_PACKET_SIZE], NetProtocol.MAX_PACKET_SIZE);
+        remote.receive(hello);
+        assertEquals(NetProtocol.PEER_HELLO, hello.getData()[0]);
+        peerAddress = hello.getSocketAddress();
+        send(header(NetProtocol.PEER_HELLO, 1).putShort((short) GRID_WIDTH)); // Cut before the height and seed
+        send(header(NetProtocol.PEER_HELLO, 1).putShort((short) GRID_WIDTH).putShort((short) GRID_HEIGHT).putLong(SEED));
+        connecting.join();
+        assertNull(failure[0]);
+    }
+
+    /**
+     * Closes both ends.
+     */
+    @After
+    public void close() {
+        peer.close();
+        remote.close();
+    }
+
+    /**
+     * Checks that the peer skipped the short hello and took the grid and the seed of the
+     * real one.
+     */
+    @Test
+    public void connectSkipsShortHello() {
+        assertEquals(GRID_WIDTH, peer.getGridWidth());
+        assertEquals(GRID_HEIGHT, peer.getGridHeight());
+        GameSimulation reference = new GameSimulation(GRID_WIDTH, GRID_HEIGHT, 2, SEED);
+        assertArrayEquals(TestMatches.state(reference), TestMatches.state(peer.getSession().getSimulation()));
+    }
+
+    /**
+     * Sends packets too short for their type, one from the wrong player, inputs whose count
+     * runs past the packet, with an unknown direction and an acknowledgement of frames never
+     * sent, and more inputs than the input ring holds. Checks that the peer keeps the inputs
+     * the packet holds, reads the unknown one as {@link Direction#NONE}, stops before the ring
+     * wraps, and ends in the state of the same inputs played locally.
+     *
+     * @throws Exception If a packet cannot be sent or received.
+     */
+    @Test
+    public void pollSkipsDamagedPackets() throws Exception {
+        send(ByteBuffer.allocate(3).put(NetProtocol.PEER_INPUT)); // Shorter than any header
+        send(header(NetProtocol.PEER_INPUT, 1)); // Header only
+        send(header(NetProtocol.PEER_INPUT, 1).putInt(0).putInt(0)); // No count
+        send(header(NetProtocol.PEER_INPUT, 2).putInt(0).putInt(0).put((byte) 1).put((byte) Direction.UP)); // Wrong player
+        send(header(NetProtocol.PEER_INPUT, 1).putInt(1000).putInt(0).put((byte) 3).put((byte) 9).put((byte) Direction.RIGHT));
+        ByteBuffer flood = header(NetProtocol.PEER_INPUT, 1).putInt(0).putInt(2).put((byte) FLOOD);
+        for (int i = 0; i < FLOOD; i++) {
+            flood.put((byte) Direction.DOWN); // More inputs than the ring holds, which would wrap over frames 0 and 1
+        }
+        send(flood);
+
+        RollbackSession session = peer.getSession();
+        int kept = RollbackSession.INPUT_SLOTS - RollbackSession.STATE_SLOTS; // Inputs ahead of frame 0 the ring takes
+        long deadline = System.nanoTime() + RECEIVE_TIMEOUT * 1_000_000L;
+        while (session.getReceived(1) < kept) {
+            assertTrue("Inputs not received", System.nanoTime() < deadline);
+            peer.poll();
+            Thread.yield();
+        }
+        peer.poll(); // Nothing else on the way
+        assertEquals(kept, session.getReceived(1));
+        assertEquals(0, session.getAcknowledged(1));
+
+        int[] local = { Direction.DOWN, Direction.LEFT };
+        GameSimulation reference = new GameSimulation(GRID_WIDTH, GRID_HEIGHT, 2, SEED);
+        reference.step(new int[]{ Direction.NONE, local[0] });
+        reference.step(new int[]{ Direction.RIGHT, local[1] });
+        for (int direction : local) {
+            session.advance(direction);
+        }
+        assertArrayEquals(TestMatches.state(reference), TestMatches.state(session.getSimulation()));
+
+        // The peer still answers with its inputs and the frame it expects next
+        peer.send();
+        ByteBuffer input = receive(NetProtocol.PEER_INPUT);
+        assertEquals(kept, input.getInt());
+        assertEquals(0, input.getInt());
+        assertEquals(local.length, input.get());
+        assertEquals(Direction.DOWN, input.get());
+        assertEquals(Direction.LEFT, input.get());
+    }
+
+    /**
+     * Starts a packet from player 1 or another player, with match id 0.
+     *
+     * @param type   Packet type.
+     * @param player Player id written in the packet.
+     * @return Buffer with the header, ready for the rest of the packet.
+     */
+    private static ByteBuffer header(byte type, int player) {
+        return ByteBuffer.allocate(NetProtocol.MAX_PACKET_SIZE).put(type).putInt(0).put((byte) player);
+    }
+
+    /**
+     * Sends the content of a buffer to the peer.
+     *
+     * @param buffer Buffer written up to its position.
+     * @throws IOException If the packet cannot be sent.
+     */
+    private void send(ByteBuffer buffer) throws IOException {
+        remote.send(new DatagramPacket(buffer.array(), buffer.position(), peerAddress));
+    }
+
+    /**
+     * Receives packets from the peer until one of a type arrives, hellos sent while
+     * connecting included.
+     *
+     * @param type Packet type expected.
+     * @return Packet, positioned after its header.
+     * @throws IOException If no packet arrives in time.
+     */
+    private ByteBuffer receive(byte type) throws IOException {
+        DatagramPacket packet = new DatagramPacket(new byte[NetProtocol.MAX_PACKET_SIZE], NetProtocol.MAX_PACKET_SIZE);
+        ByteBuffer buffer;
+        do {
+            remote.receive(packet);
+            buffer = ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
+        } while (buffer.get() != type);
+        assertEquals(0, buffer.getInt());
+        assertEquals(2, buffer.get());
+        return buffer;
+    }
+}
@@ -0,0 +1,172 @@
+package com.mygdx.snakegame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Streams a random match from a {@link SpectatorServer} on a local port to plain sockets, and
+ * checks that decoding the stream rebuilds the state of every tick published.
+ */
+public class SpectatorServerTest {
+    private static final int GRID_WIDTH = 16;
+    private static final int GRID_HEIGHT = 12;
+    private static final int PLAYERS = 2;
+    private static final int TICKS = 1000; // Ticks published by each test
+    private static final int RECEIVE_TIMEOUT = 2000; // Milliseconds to wait for a frame
+    private static final long CONNECT_TIMEOUT = 2_000_000_000L; // Nanoseconds to wait for the server to accept
+
+    private final GameSimulation simulation = new GameSimulation(GRID_WIDTH, GRID_HEIGHT, PLAYERS, 9L);
+    private final Random random = new Random(9);
+    private final int[] inputs = new int[PLAYERS];
+    private final byte[][] states = new byte[TICKS][]; // State after each published tick
+    private SpectatorServer server;
+
+    /**
+     * Starts a server streaming the simulation.
+     *
+     * @throws IOException If the port cannot be opened.
+     */
+    @Before
+    public void start() throws IOException {
+        server = new SpectatorServer(0, simulation);
+        server.start();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @After
+    public void stop() {
+        server.stop();
+    }
+
+    /**
+     * Checks that a spectator connected before the first tick gets the header, then every
+     * frame, a keyframe at each interval, and decodes each to the state published.
+     *
+     * @throws IOException If the stream cannot be read.
+     */
+    @Test
+    public void streamRebuildsEveryTick() throws IOException {
+        try (Socket socket = connect()) {
+            publish(0); // The header is only sent along with the first keyframe
+            Viewer viewer = new Viewer(socket);
+            for (int frame = 0; frame < TICKS; frame++) {
+                if (frame > 0) {
+                    publish(frame);
+                }
+                assertEquals("frame " + frame, frame % SpectatorServer.KEYFRAME_INTERVAL == 0, viewer.read());
+                assertArrayEquals("frame " + frame, states[frame], TestMatches.state(viewer.decoded));
+            }
+        }
+        assertEquals(TICKS, server.getFrameCount());
+        assertEquals(0, server.getDropCount());
+    }
+
+    /**
+     * Checks that a spectator joining in the middle of a match starts at the latest keyframe,
+     * then follows the frames published after it joined.
+     *
+     * @throws IOException If the stream cannot be read.
+     */
+    @Test
+    public void lateSpectatorStartsAtKeyframe() throws IOException {
+        int joined = TICKS / 2;
+        for (int frame = 0; frame < joined; frame++) {
+            publish(frame);
+        }
+        try (Socket socket = connect()) {
+            Viewer viewer = new Viewer(socket);
+            int keyframe = (joined - 1) / SpectatorServer.KEYFRAME_INTERVAL * SpectatorServer.KEYFRAME_INTERVAL;
+            assertTrue("The first frame is not a keyframe", viewer.read());
+            assertArrayEquals(states[keyframe], TestMatches.state(viewer.decoded));
+            for (int frame = keyframe + 1; frame < TICKS; frame++) {
+                if (frame >= joined) {
+                    publish(frame);
+                }
+                viewer.read();
+                assertArrayEquals("frame " + frame, states[frame], TestMatches.state(viewer.decoded));
+            }
+        }
+    }
+
+    /**
+     * Steps the simulation with random inputs and publishes the state.
+     *
+     * @param frame Number of the frame, to keep its state.
+     */
+    private void publish(int frame) {
+        TestMatches.randomInputs(random, inputs);
+        simulation.step(inputs);
+        states[frame] = TestMatches.state(simulation);
+        server.publish(simulation);
+    }
+
+    /**
+     * Connects a spectator and waits until the server has accepted it, so it gets the next frame.
+     *
+     * @return Connected socket.
+     * @throws IOException If the connection fails.
+     */
+    private Socket connect() throws IOException {
+        int before = server.getSpectatorCount();
+        Socket socket = new Socket("localhost", server.getPort());
+        socket.setSoTimeout(RECEIVE_TIMEOUT);
+        long deadline = System.nanoTime() + CONNECT_TIMEOUT;
+        while (server.getSpectatorCount() == before) {
+            assertTrue("Spectator not accepted", System.nanoTime() < deadline);
+            Thread.yield();
+        }
+        return socket;
+    }
+
+    /**
+     * Reads a stream and decodes its frames into a mirror of the simulation.
+     */
+    private static class Viewer {
+        final DataInputStream in;
+        final SnapshotDecoder decoder = new SnapshotDecoder();
+        final GameSimulation decoded = new GameSimulation(GRID_WIDTH, GRID_HEIGHT, PLAYERS, 0L);
+
+        /**
+         * Reads and checks the stream header.
+         *
+         * @param socket Connected socket.
+         * @throws IOException If the header cannot be read.
+         */
+        Viewer(Socket socket) throws IOException {
+            in = new DataInputStream(socket.getInputStream());
+            assertEquals(SpectatorServer.MAGIC, in.readInt());
+            assertEquals(SpectatorServer.VERSION, in.readByte());
+            assertEquals(GRID_WIDTH, in.readShort());
+            assertEquals(GRID_HEIGHT, in.readShort());
+            assertEquals(PLAYERS, in.readByte());
+        }
+
+        /**
+         * Reads the next frame and decodes it.
+         *
+         * @return True if the frame was a keyframe.
+         * @throws IOException If the frame cannot be read.
+         */
+        boolean read() throws IOException {
+            byte[] snapshot = new byte[in.readInt()];
+            in.readFully(snapshot);
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            decoder.read(buffer, decoded);
+            assertEquals("Bytes left in the frame", 0, buffer.remaining());
+            return snapshot[0] == SnapshotEncoder.KEYFRAME;
+        }
+    }
+}
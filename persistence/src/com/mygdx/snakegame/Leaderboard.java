@@ -0,0 +1,124 @@
+package com.mygdx.snakegame;
+
+/**
+ * Best scores ever made, at most a fixed number of them, kept sorted from the best in parallel
+ * arrays. A score that does not make the board is turned away with one comparison; one that
+ * does is placed with a binary search, so the board is maintained as matches end instead of
+ * being sorted from the whole history. Equal scores rank in the order they were made.
+ */
+public class Leaderboard {
+    private final int[] scores; // Score of each rank, best first
+    private final String[] names; // Player who made each score
+    private final int[] matches; // Index of the match of each score in the log
+    private int size;
+
+    /**
+     * Creates an empty board.
+     *
+     * @param capacity Number of ranks.
+     */
+    public Leaderboard(int capacity) {
+        scores = new int[capacity];
+        names = new String[capacity];
+        matches = new int[capacity];
+    }
+
+    /**
+     * Places a score on the board, if it is good enough, pushing the last rank out when full.
+     *
+     * @param score Score made.
+     * @param name  Player who made it.
+     * @param match Index of the match in the log.
+     * @return True if the score made the board.
+     */
+    public boolean offer(int score, String name, int match) {
+        if (size == scores.length && score <= scores[size - 1]) {
+            return false;
+        }
+        int rank = rankOf(score);
+        int moved = Math.min(size, scores.length - 1) - rank;
+        System.arraycopy(scores, rank, scores, rank + 1, moved);
+        System.arraycopy(names, rank, names, rank + 1, moved);
+        System.arraycopy(matches, rank, matches, rank + 1, moved);
+        scores[rank] = score;
+        names[rank] = name;
+        matches[rank] = match;
+        size = Math.min(size + 1, scores.length);
+        return true;
+    }
+
+    /**
+     * Finds the rank a new score would take, after every score at least as good.
+     *
+     * @param score Score to place.
+     * @return Rank from 0, {@link #getSize()} if it is below every score on the board.
+     */
+    public int rankOf(int score) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (scores[middle] >= score) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Empties the board.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gets the number of scores on the board.
+     *
+     * @return Number of ranks filled.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of ranks.
+     *
+     * @return Most scores the board holds.
+     */
+    public int getCapacity() {
+        return scores.length;
+    }
+
+    /**
+     * Gets the score of a rank.
+     *
+     * @param rank Rank from 0, the best.
+     * @return Score.
+     */
+    public int getScore(int rank) {
+        return scores[rank];
+    }
+
+    /**
+     * Gets the player who made the score of a rank.
+     *
+     * @param rank Rank from 0, the best.
+     * @return Name of the player.
+     */
+    public String getName(int rank) {
+        return names[rank];
+    }
+
+    /**
+     * Gets the match of the score of a rank, to read it from the log.
+     *
+     * @param rank Rank from 0, the best.
+     * @return Index of the match in the log.
+     */
+    public int getMatch(int rank) {
+        return matches[rank];
+    }
+}
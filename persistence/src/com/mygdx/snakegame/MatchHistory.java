@@ -0,0 +1,287 @@
+package com.mygdx.snakegame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every match ever finished on this machine: a {@link MatchLog} holding the records, and an
+ * index kept up to date as matches are appended, with the {@link Leaderboard} of the best
+ * scores and the {@link PlayerStats} of each player. Queries read the index only: a player's
+ * totals are a hash lookup, a rank is a binary search.
+ * <p>
+ * The index is saved next to the log on {@link #save()} and {@link #close()}, with the number
+ * of records it covers and the checksum of the last one. Opening a history reads that small
+ * file and the log header, then adds only the records appended since the index was saved, so
+ * startup does not depend on the length of the history. An index that is missing, unreadable
+ * or ahead of the log is rebuilt from every record, which only happens once after losing it.
+ * The index file is replaced atomically, so a crash while saving leaves the previous one.
+ * <p>
+ * Every method is synchronized: the {@code MatchArchiver} thread appends while other threads query.
+ */
+public class MatchHistory implements Closeable {
+    /** Number of scores on the leaderboard. */
+    public static final int LEADERBOARD_SIZE = 100;
+    static final int INDEX_MAGIC = 0x534E4B58; // "SNKX", start of an index file
+    static final int INDEX_VERSION = 1;
+    private static final String LOG_NAME = "matches.log";
+    private static final String INDEX_NAME = "matches.idx";
+
+    private final MatchLog log;
+    private final Path indexFile;
+    private final Leaderboard leaderboard = new Leaderboard(LEADERBOARD_SIZE);
+    private final Map<String, PlayerStats> players = new HashMap<>(); // Totals of each player, by name
+    private final MatchRecord scratch = new MatchRecord(); // Reused to read the records to index
+    private int indexed; // Number of records in the index
+    private int replayed; // Records indexed from the log when opened
+
+    /**
+     * Opens the history stored in a folder, creating it if needed.
+     *
+     * @param directory Folder of the log and of its index.
+     * @throws IOException If the log cannot be opened.
+     */
+    public MatchHistory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        log = new MatchLog(directory.resolve(LOG_NAME));
+        indexFile = directory.resolve(INDEX_NAME);
+        if (!loadIndex()) {
+            leaderboard.clear();
+            players.clear();
+            indexed = 0;
+        }
+        replayed = log.getCount() - indexed;
+        while (indexed < log.getCount()) {
+            log.read(indexed, scratch);
+            index(scratch, indexed);
+        }
+    }
+
+    /**
+     * Stores a finished match and adds it to the index.
+     *
+     * @param record Record of the match.
+     * @return Index of the match in the log.
+     * @throws IOException If the log cannot grow.
+     */
+    public synchronized int append(MatchRecord record) throws IOException {
+        int match = log.append(record);
+        index(record, match);
+        return match;
+    }
+
+    /**
+     * Adds a record to the leaderboard and to the totals of its players.
+     *
+     * @param record Record to add.
+     * @param match  Index of the record in the log, the next one to index.
+     */
+    private void index(MatchRecord record, int match) {
+        for (int player = 1; player <= record.getPlayerCount(); player++) {
+            String name = record.getName(player);
+            PlayerStats stats = players.get(name);
+            if (stats == null) {
+                stats = new PlayerStats(name);
+                players.put(name, stats);
+            }
+            stats.add(record, player);
+            leaderboard.offer(record.getScore(player), stats.getName(), match);
+        }
+        indexed = match + 1;
+    }
+
+    /**
+     * Reads the saved index, if it matches the log.
+     *
+     * @return True if the index was read, false if it must be rebuilt.
+     */
+    private boolean loadIndex() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                return false;
+            }
+            int count = in.readInt();
+            int checksum = in.readInt();
+            if (count > log.getCount() || count > 0 && log.getChecksum(count - 1) != checksum) {
+                return false; // Saved for other records
+            }
+            int playerCount = in.readInt();
+            for (int i = 0; i < playerCount; i++) {
+                PlayerStats stats = new PlayerStats(in.readUTF());
+                stats.set(in.readInt(), in.readInt(), in.readLong(), in.readInt(), in.readLong());
+                for (int cause = 0; cause < MatchRecord.CAUSE_COUNT; cause++) {
+                    stats.setCause(cause, in.readInt());
+                }
+                players.put(stats.getName(), stats);
+            }
+            int ranks = in.readInt();
+            for (int rank = 0; rank < ranks; rank++) {
+                int score = in.readInt();
+                int match = in.readInt();
+                PlayerStats stats = players.get(in.readUTF());
+                if (stats == null) {
+                    return false;
+                }
+                leaderboard.offer(score, stats.getName(), match);
+            }
+            indexed = count;
+            return true;
+        } catch (IOException e) {
+            return false; // Missing or cut short
+        }
+    }
+
+    /**
+     * Saves the index next to the log, so the next opening starts from it.
+     *
+     * @throws IOException If the index cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        Path temporary = indexFile.resolveSibling(INDEX_NAME + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(indexed);
+            out.writeInt(indexed > 0 ? log.getChecksum(indexed - 1) : 0);
+            out.writeInt(players.size());
+            for (PlayerStats stats : players.values()) {
+                out.writeUTF(stats.getName());
+                out.writeInt(stats.getMatches());
+                out.writeInt(stats.getWins());
+                out.writeLong(stats.getTotalScore());
+                out.writeInt(stats.getBestScore());
+                out.writeLong(stats.getTotalTicks());
+                for (int cause = 0; cause < MatchRecord.CAUSE_COUNT; cause++) {
+                    out.writeInt(stats.getCauseCount(cause));
+                }
+            }
+            out.writeInt(leaderboard.getSize());
+            for (int rank = 0; rank < leaderboard.getSize(); rank++) {
+                out.writeInt(leaderboard.getScore(rank));
+                out.writeInt(leaderboard.getMatch(rank));
+                out.writeUTF(leaderboard.getName(rank));
+            }
+        }
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Gets the number of matches stored.
+     *
+     * @return Number of matches.
+     */
+    public synchronized int getMatchCount() {
+        return log.getCount();
+    }
+
+    /**
+     * Reads a stored match.
+     *
+     * @param match  Index of the match, below {@link #getMatchCount()}.
+     * @param record Record to fill.
+     */
+    public synchronized void readMatch(int match, MatchRecord record) {
+        log.read(match, record);
+    }
+
+    /**
+     * Gets the number of scores on the leaderboard.
+     *
+     * @return Number of ranks filled, at most {@link #LEADERBOARD_SIZE}.
+     */
+    public synchronized int getTopCount() {
+        return leaderboard.getSize();
+    }
+
+    /**
+     * Gets a score of the leaderboard.
+     *
+     * @param rank Rank from 0, the best.
+     * @return Score.
+     */
+    public synchronized int getTopScore(int rank) {
+        return leaderboard.getScore(rank);
+    }
+
+    /**
+     * Gets the player who made a score of the leaderboard.
+     *
+     * @param rank Rank from 0, the best.
+     * @return Name of the player.
+     */
+    public synchronized String getTopName(int rank) {
+        return leaderboard.getName(rank);
+    }
+
+    /**
+     * Gets the match of a score of the leaderboard.
+     *
+     * @param rank Rank from 0, the best.
+     * @return Index of the match, to read it with {@link #readMatch(int, MatchRecord)}.
+     */
+    public synchronized int getTopMatch(int rank) {
+        return leaderboard.getMatch(rank);
+    }
+
+    /**
+     * Finds the rank a new score would take on the leaderboard.
+     *
+     * @param score Score to place.
+     * @return Rank from 0, {@link #LEADERBOARD_SIZE} or more if it would not make the board.
+     */
+    public synchronized int getRank(int score) {
+        return leaderboard.rankOf(score);
+    }
+
+    /**
+     * Gets the totals of a player.
+     *
+     * @param name Name of the player, as stored.
+     * @return Copy of the totals, null if the player never played.
+     */
+    public synchronized PlayerStats getPlayer(String name) {
+        PlayerStats stats = players.get(name);
+        return stats != null ? new PlayerStats(stats) : null;
+    }
+
+    /**
+     * Gets the number of records read from the log when the history was opened, the ones
+     * appended since the index was last saved.
+     *
+     * @return Number of records indexed at startup.
+     */
+    public int getReplayed() {
+        return replayed;
+    }
+
+    /**
+     * Gets how many records the recovery of the log changed when the history was opened.
+     *
+     * @return See {@link MatchLog#getRecovered()}.
+     */
+    public int getRecovered() {
+        return log.getRecovered();
+    }
+
+    /**
+     * Saves the index and closes the log.
+     *
+     * @throws IOException If the index cannot be saved or the log cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            save();
+        } finally {
+            log.close();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.mygdx.snakegame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only log of finished matches in a memory-mapped file of fixed-size
+ * {@link MatchRecord}s, so record n is found at a computed offset and opening a log never reads
+ * the records. Appending writes the record into the mapping, then the record count in the
+ * header; both are plain memory writes that the operating system flushes on its own, so a
+ * process that dies right after an append loses nothing.
+ * <p>
+ * File layout: a header of {@link #HEADER_SIZE} bytes (magic, version, record size, reserved,
+ * record count as a long), then the records. Each record carries its own index and a checksum,
+ * which is how a log recovers when opened after a crash: records the header counts but that are
+ * torn are dropped from the end, and whole records written after the last count update are
+ * kept. Only the records around the count are checked, so recovering costs the same for ten
+ * matches as for ten million. The file grows by doubling its mapping, and holds at most
+ * {@link #MAX_RECORDS} records.
+ */
+public class MatchLog implements Closeable {
+    static final int MAGIC = 0x534E4B48; // "SNKH", start of a match log
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int COUNT_OFFSET = 16; // Offset of the record count in the header
+    private static final int INITIAL_CAPACITY = 8192; // Records mapped for a new log, 1 MiB
+    /** Most records a log holds, as the mapping is addressed with ints. */
+    public static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / MatchRecord.SIZE;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer; // Mapping of the header and of every record slot
+    private int capacity; // Number of record slots mapped
+    private int count; // Number of whole records
+    private final int recovered; // Records added or dropped by the recovery when opened
+
+    /**
+     * Opens a log, creating it if needed, and recovers it if it was not closed cleanly.
+     *
+     * @param file File of the log.
+     * @throws IOException If the file cannot be mapped or is not a match log.
+     */
+    public MatchLog(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            boolean created = size == 0;
+            if (!created && size < HEADER_SIZE) {
+                throw new IOException("Not a match log: " + file);
+            }
+            capacity = (int) Math.min(MAX_RECORDS, Math.max(INITIAL_CAPACITY, (size - HEADER_SIZE) / MatchRecord.SIZE));
+            map();
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, MatchRecord.SIZE);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != MatchRecord.SIZE) {
+                throw new IOException("Not a match log: " + file);
+            }
+            int stored = (int) Math.max(0, Math.min(capacity, buffer.getLong(COUNT_OFFSET)));
+            count = stored;
+            while (count > 0 && !isWhole(count - 1)) {
+                count--; // Counted before it reached the disk
+            }
+            while (count < capacity && isWhole(count)) {
+                count++; // Written before the process died, not counted yet
+            }
+            recovered = count - stored;
+            buffer.putLong(COUNT_OFFSET, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the header and every record slot, growing the file if needed.
+     *
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void map() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * MatchRecord.SIZE);
+    }
+
+    /**
+     * Checks if a record slot holds a whole record.
+     *
+     * @param index Index of the slot.
+     * @return True if the record was completely written.
+     */
+    private boolean isWhole(int index) {
+        return MatchRecord.isValid(buffer, offsetOf(index), index);
+    }
+
+    /**
+     * Computes the offset of a record in the file.
+     *
+     * @param index Index of the record.
+     * @return Offset of its first byte.
+     */
+    private static int offsetOf(int index) {
+        return HEADER_SIZE + index * MatchRecord.SIZE;
+    }
+
+    /**
+     * Appends a record: writes it, then counts it.
+     *
+     * @param record Record to append.
+     * @return Index of the record.
+     * @throws IOException If the log is full or the file cannot grow.
+     */
+    public int append(MatchRecord record) throws IOException {
+        if (count == capacity) {
+            if (capacity == MAX_RECORDS) {
+                throw new IOException("Match log full");
+            }
+            capacity = (int) Math.min(MAX_RECORDS, capacity * 2L);
+            map();
+        }
+        buffer.position(offsetOf(count));
+        record.write(buffer, count);
+        buffer.putLong(COUNT_OFFSET, count + 1); // Only once the record is whole
+        return count++;
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param index  Index of the record, below {@link #getCount()}.
+     * @param record Record to fill.
+     */
+    public void read(int index, MatchRecord record) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + count);
+        }
+        record.read(buffer, offsetOf(index));
+    }
+
+    /**
+     * Gets the checksum of a record, which tells two logs of the same length apart.
+     *
+     * @param index Index of the record, below {@link #getCount()}.
+     * @return Checksum stored with the record.
+     */
+    int getChecksum(int index) {
+        return buffer.getInt(offsetOf(index) + MatchRecord.CRC_OFFSET);
+    }
+
+    /**
+     * Gets the number of records.
+     *
+     * @return Number of whole records.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets how many records the recovery changed when the log was opened.
+     *
+     * @return Records kept although not counted if positive, torn records dropped if negative,
+     * 0 after a clean close.
+     */
+    public int getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Writes the mapped records to the disk, so they also survive a crash of the operating system.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Forces the records to the disk and closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,337 @@
+package com.mygdx.snakegame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Outcome of a finished match, as stored in a {@link MatchLog}: the generator state it started
+ * from, its end time, length and ending, and the name, final score and cause of the end of
+ * each player. One record is reused for every match, so filling, writing and reading it never
+ * allocates except when a player gets a new name.
+ * <p>
+ * Encoded layout, {@link #SIZE} bytes: index (long), seed (long), end time (long), length in
+ * ticks (int), player count, winner and ending (bytes), then for each of the
+ * {@link #MAX_PLAYERS} players a name of {@link #NAME_LENGTH} ASCII bytes padded with zeros,
+ * a score (int) and a cause (byte), and a CRC32 of everything before it in the last four bytes.
+ */
+public class MatchRecord {
+    /** Encoded size of a record, in bytes. */
+    public static final int SIZE = 128;
+    /** Most players a record holds. */
+    public static final int MAX_PLAYERS = 4;
+    /** Longest player name kept, in ASCII characters; longer names are cut. */
+    public static final int NAME_LENGTH = 16;
+    static final int PLAYERS_OFFSET = 32; // Offset of the first player in an encoded record
+    static final int PLAYER_SIZE = NAME_LENGTH + 5; // Name, score (int) and cause (byte)
+    static final int CRC_OFFSET = SIZE - 4; // Offset of the checksum, the last field
+
+    /** Cause of the end of a snake: still alive when the match ended. */
+    public static final int SURVIVED = 0;
+    /** Cause of the end of a snake: hit a wall. */
+    public static final int WALL = 1;
+    /** Cause of the end of a snake: hit its own body. */
+    public static final int SELF = 2;
+    /** Cause of the end of a snake: hit another snake. */
+    public static final int SNAKE = 3;
+    /** Number of causes of the end of a snake. */
+    public static final int CAUSE_COUNT = 4;
+
+    /** Ending of a match: at most one snake left. */
+    public static final int ELIMINATION = 0;
+    /** Ending of a match: no free cell left for the food. */
+    public static final int BOARD_FULL = 1;
+
+    private long seed; // Generator state at the first tick
+    private long endTime; // Time the match ended, in milliseconds since the epoch
+    private int length; // Ticks played
+    private int playerCount;
+    private int winner; // Id of the winner, 0 for a draw
+    private int ending; // One of ELIMINATION and BOARD_FULL
+    private final String[] names = new String[MAX_PLAYERS]; // Name of each player
+    private final int[] scores = new int[MAX_PLAYERS]; // Final score of each player
+    private final int[] causes = new int[MAX_PLAYERS]; // Cause of the end of each player
+    private final byte[] nameBytes = new byte[NAME_LENGTH]; // Reused to decode the names
+
+    /**
+     * Starts recording a match: keeps the generator state of the simulation about to play it
+     * and marks every player as surviving. Names are kept from the previous match.
+     *
+     * @param simulation Simulation in the state of the first tick.
+     */
+    public void begin(GameSimulation simulation) {
+        if (simulation.getPlayerCount() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A record holds at most " + MAX_PLAYERS + " players");
+        }
+        seed = simulation.getRandomState();
+        playerCount = simulation.getPlayerCount();
+        for (int p = 0; p < playerCount; p++) {
+            causes[p] = SURVIVED;
+        }
+    }
+
+    /**
+     * Records the cause of the end of a player, from an event of the match. Other events are ignored.
+     *
+     * @param type   One of the {@link GameEvents} types.
+     * @param player Player concerned by the event.
+     */
+    public void onEvent(int type, int player) {
+        switch (type) {
+            case GameEvents.WALL_HIT:
+                causes[player - 1] = WALL;
+                break;
+            case GameEvents.SELF_HIT:
+                causes[player - 1] = SELF;
+                break;
+            case GameEvents.SNAKES_COLLIDED:
+                causes[player - 1] = SNAKE;
+                break;
+            case GameEvents.BOARD_FULL:
+                ending = BOARD_FULL;
+                break;
+        }
+    }
+
+    /**
+     * Finishes recording a match on {@link GameEvents#GAME_OVER}: keeps the final scores, the
+     * winner and the length. The ending is an elimination unless the board filled up.
+     *
+     * @param simulation Simulation that played the match, already reset.
+     * @param winner     Id of the winner, 0 for a draw.
+     * @param length     Ticks played.
+     * @param endTime    Time the match ended, in milliseconds since the epoch.
+     */
+    public void end(GameSimulation simulation, int winner, int length, long endTime) {
+        for (int p = 0; p < playerCount; p++) {
+            scores[p] = simulation.getFinalScore(p + 1);
+        }
+        this.winner = winner;
+        this.length = length;
+        this.endTime = endTime;
+    }
+
+    /**
+     * Sets the final score of a player, for a record not filled from a simulation.
+     *
+     * @param player Player id.
+     * @param score  Final score.
+     */
+    void setScore(int player, int score) {
+        scores[player - 1] = score;
+    }
+
+    /**
+     * Sets the name of a player, cut to {@link #NAME_LENGTH} characters with every character
+     * outside ASCII replaced by '?', as it is stored.
+     *
+     * @param player Player id.
+     * @param name   Name of the player.
+     */
+    public void setName(int player, String name) {
+        char[] chars = name.substring(0, Math.min(name.length(), NAME_LENGTH)).toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] == 0 || chars[i] >= 128) {
+                chars[i] = '?';
+            }
+        }
+        names[player - 1] = new String(chars);
+    }
+
+    /**
+     * Writes the record at the current position of a buffer, checksum included.
+     *
+     * @param buffer Destination, with at least {@link #SIZE} bytes remaining.
+     * @param index  Index of the record in its log.
+     */
+    void write(ByteBuffer buffer, long index) {
+        int start = buffer.position();
+        buffer.putLong(index);
+        buffer.putLong(seed);
+        buffer.putLong(endTime);
+        buffer.putInt(length);
+        buffer.put((byte) playerCount);
+        buffer.put((byte) winner);
+        buffer.put((byte) ending);
+        buffer.put((byte) 0);
+        for (int p = 0; p < MAX_PLAYERS; p++) {
+            int length = p < playerCount && names[p] != null ? names[p].length() : 0;
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) names[p].charAt(i));
+            }
+            for (int i = length; i < NAME_LENGTH; i++) {
+                buffer.put((byte) 0);
+            }
+            buffer.putInt(p < playerCount ? scores[p] : 0);
+            buffer.put((byte) (p < playerCount ? causes[p] : 0));
+        }
+        while (buffer.position() < start + CRC_OFFSET) {
+            buffer.put((byte) 0);
+        }
+        buffer.putInt(checksum(buffer, start));
+    }
+
+    /**
+     * Reads a record written by {@link #write(ByteBuffer, long)}, without checking it.
+     * The position of the buffer is left unchanged.
+     *
+     * @param buffer Source.
+     * @param start  Offset of the record in the buffer.
+     */
+    void read(ByteBuffer buffer, int start) {
+        seed = buffer.getLong(start + 8);
+        endTime = buffer.getLong(start + 16);
+        length = buffer.getInt(start + 24);
+        playerCount = buffer.get(start + 28);
+        winner = buffer.get(start + 29);
+        ending = buffer.get(start + 30);
+        for (int p = 0; p < playerCount; p++) {
+            int offset = start + PLAYERS_OFFSET + p * PLAYER_SIZE;
+            int length = 0;
+            while (length < NAME_LENGTH && buffer.get(offset + length) != 0) {
+                nameBytes[length] = buffer.get(offset + length);
+                length++;
+            }
+            if (!nameMatches(names[p], length)) {
+                names[p] = new String(nameBytes, 0, length, StandardCharsets.US_ASCII);
+            }
+            scores[p] = buffer.getInt(offset + NAME_LENGTH);
+            causes[p] = buffer.get(offset + NAME_LENGTH + 4);
+        }
+    }
+
+    /**
+     * Checks if a name equals the one decoded in the name bytes, so reading the records of the
+     * same players again and again reuses their names.
+     *
+     * @param name   Name to compare.
+     * @param length Number of decoded bytes.
+     * @return True if the name has these characters.
+     */
+    private boolean nameMatches(String name, int length) {
+        if (name == null || name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != nameBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an encoded record is whole: its index is the expected one and its checksum matches.
+     *
+     * @param buffer Source.
+     * @param start  Offset of the record in the buffer.
+     * @param index  Expected index of the record.
+     * @return True if the record was completely written.
+     */
+    static boolean isValid(ByteBuffer buffer, int start, long index) {
+        return buffer.getLong(start) == index && buffer.getInt(start + CRC_OFFSET) == checksum(buffer, start);
+    }
+
+    /**
+     * Computes the checksum of an encoded record, every byte before the checksum field.
+     *
+     * @param buffer Source.
+     * @param start  Offset of the record in the buffer.
+     * @return CRC32 of the record.
+     */
+    private static int checksum(ByteBuffer buffer, int start) {
+        // Bitwise, so checking a record needs neither a table nor a view of the buffer
+        int crc = 0xFFFFFFFF;
+        for (int i = start; i < start + CRC_OFFSET; i++) {
+            crc ^= buffer.get(i) & 0xFF;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc >>> 1) ^ (0xEDB88320 & -(crc & 1));
+            }
+        }
+        return ~crc;
+    }
+
+    /**
+     * Gets the generator state the match started from; with the inputs of its replay, it
+     * reproduces the match.
+     *
+     * @return Generator state at the first tick.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the time the match ended.
+     *
+     * @return Time in milliseconds since the epoch.
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Gets the length of the match.
+     *
+     * @return Ticks played.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the number of players of the match.
+     *
+     * @return Number of players.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Gets the winner of the match.
+     *
+     * @return Id of the winner, 0 for a draw.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Gets how the match ended.
+     *
+     * @return One of {@link #ELIMINATION} and {@link #BOARD_FULL}.
+     */
+    public int getEnding() {
+        return ending;
+    }
+
+    /**
+     * Gets the name of a player.
+     *
+     * @param player Player id.
+     * @return Name as stored, null if never set.
+     */
+    public String getName(int player) {
+        return names[player - 1];
+    }
+
+    /**
+     * Gets the final score of a player.
+     *
+     * @param player Player id.
+     * @return Final score.
+     */
+    public int getScore(int player) {
+        return scores[player - 1];
+    }
+
+    /**
+     * Gets the cause of the end of a player.
+     *
+     * @param player Player id.
+     * @return One of {@link #SURVIVED}, {@link #WALL}, {@link #SELF} and {@link #SNAKE}.
+     */
+    public int getCause(int player) {
+        return causes[player - 1];
+    }
+}
@@ -0,0 +1,153 @@
+package com.mygdx.snakegame;
+
+/**
+ * Totals of every match a player took part in, updated as matches end.
+ */
+public class PlayerStats {
+    private final String name;
+    private int matches; // Matches played
+    private int wins; // Matches won
+    private long totalScore; // Sum of the final scores
+    private int bestScore; // Best final score
+    private long totalTicks; // Sum of the lengths of the matches
+    private final int[] causes = new int[MatchRecord.CAUSE_COUNT]; // Matches ended by each cause
+
+    /**
+     * Creates the totals of a player who has not played yet.
+     *
+     * @param name Name of the player.
+     */
+    public PlayerStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates a copy of the totals of a player.
+     *
+     * @param other Totals to copy.
+     */
+    public PlayerStats(PlayerStats other) {
+        name = other.name;
+        set(other.matches, other.wins, other.totalScore, other.bestScore, other.totalTicks);
+        System.arraycopy(other.causes, 0, causes, 0, causes.length);
+    }
+
+    /**
+     * Adds a match to the totals.
+     *
+     * @param record Match the player took part in.
+     * @param player Id of the player in the match.
+     */
+    void add(MatchRecord record, int player) {
+        int score = record.getScore(player);
+        bestScore = matches == 0 ? score : Math.max(bestScore, score);
+        matches++;
+        if (record.getWinner() == player) {
+            wins++;
+        }
+        totalScore += score;
+        totalTicks += record.getLength();
+        causes[record.getCause(player)]++;
+    }
+
+    /**
+     * Sets the totals, when read back from a saved index.
+     *
+     * @param matches    Matches played.
+     * @param wins       Matches won.
+     * @param totalScore Sum of the final scores.
+     * @param bestScore  Best final score.
+     * @param totalTicks Sum of the lengths of the matches.
+     */
+    void set(int matches, int wins, long totalScore, int bestScore, long totalTicks) {
+        this.matches = matches;
+        this.wins = wins;
+        this.totalScore = totalScore;
+        this.bestScore = bestScore;
+        this.totalTicks = totalTicks;
+    }
+
+    /**
+     * Sets the number of matches ended by a cause, when read back from a saved index.
+     *
+     * @param cause One of the {@link MatchRecord} causes.
+     * @param count Number of matches.
+     */
+    void setCause(int cause, int count) {
+        causes[cause] = count;
+    }
+
+    /**
+     * Gets the name of the player.
+     *
+     * @return Name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of matches played.
+     *
+     * @return Matches played.
+     */
+    public int getMatches() {
+        return matches;
+    }
+
+    /**
+     * Gets the number of matches won.
+     *
+     * @return Matches won.
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    /**
+     * Gets the sum of the final scores.
+     *
+     * @return Total score.
+     */
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    /**
+     * Gets the average final score.
+     *
+     * @return Average score, 0 before any match.
+     */
+    public float getAverageScore() {
+        return matches == 0 ? 0 : (float) totalScore / matches;
+    }
+
+    /**
+     * Gets the best final score.
+     *
+     * @return Best score, 0 before any match.
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Gets the sum of the lengths of the matches.
+     *
+     * @return Ticks played.
+     */
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    /**
+     * Gets the number of matches a cause ended for the player.
+     *
+     * @param cause One of {@link MatchRecord#SURVIVED}, {@link MatchRecord#WALL},
+     *              {@link MatchRecord#SELF} and {@link MatchRecord#SNAKE}.
+     * @return Number of matches.
+     */
+    public int getCauseCount(int cause) {
+        return causes[cause];
+    }
+}
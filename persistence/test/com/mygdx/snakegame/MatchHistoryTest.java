@@ -0,0 +1,226 @@
+package com.mygdx.snakegame;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stores matches in a history, reopens it cleanly, without its index and after a crash, and
+ * checks the records, the leaderboard and the totals of the players against the matches stored.
+ */
+public class MatchHistoryTest {
+    private static final int MATCHES = 50;
+    private static final String[] NAMES = { "Alice", "Bob" };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final GameSimulation simulation = new GameSimulation(16, 12, 2, 1L); // Source of the player count and seed
+
+    /**
+     * Checks that a history closed cleanly reopens from its index without reading a record,
+     * and that its records, leaderboard and totals are the ones stored.
+     *
+     * @throws IOException If the history cannot be written or read.
+     */
+    @Test
+    public void reopensFromIndex() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (MatchHistory history = new MatchHistory(directory)) {
+            append(history, 0, MATCHES);
+        }
+        try (MatchHistory history = new MatchHistory(directory)) {
+            assertEquals(0, history.getReplayed());
+            assertEquals(0, history.getRecovered());
+            check(history, MATCHES);
+        }
+    }
+
+    /**
+     * Checks that matches appended after the index was saved are indexed when reopening, and
+     * that a lost index is rebuilt from every record.
+     *
+     * @throws IOException If the history cannot be written or read.
+     */
+    @Test
+    public void indexesRecordsMissingFromIndex() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        MatchHistory crashed = new MatchHistory(directory);
+        try {
+            append(crashed, 0, MATCHES);
+            crashed.save();
+            append(crashed, MATCHES, 10); // Not in the saved index, as if the process died now
+            try (MatchHistory history = new MatchHistory(directory)) {
+                assertEquals(10, history.getReplayed());
+                check(history, MATCHES + 10);
+            }
+
+            Files.delete(directory.resolve("matches.idx"));
+            try (MatchHistory history = new MatchHistory(directory)) {
+                assertEquals(MATCHES + 10, history.getReplayed());
+                check(history, MATCHES + 10);
+            }
+        } finally {
+            crashed.close();
+        }
+    }
+
+    /**
+     * Checks that a log whose header counts a torn record drops it, and that a log whose
+     * header missed the last appends keeps the whole records written after it.
+     *
+     * @throws IOException If the log cannot be written or read.
+     */
+    @Test
+    public void recoversLogAfterCrash() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("matches.log");
+        try (MatchLog log = new MatchLog(file)) {
+            MatchRecord record = new MatchRecord();
+            for (int m = 0; m < 10; m++) {
+                fill(record, m);
+                log.append(record);
+            }
+        }
+
+        // Header updated, but the last record did not reach the disk
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0x55 }), MatchLog.HEADER_SIZE + 9L * MatchRecord.SIZE + 40);
+        }
+        try (MatchLog log = new MatchLog(file)) {
+            assertEquals(9, log.getCount());
+            assertEquals(-1, log.getRecovered());
+        }
+
+        // Records written, but the header still counts only the first five
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer count = ByteBuffer.allocate(8);
+            count.putLong(0, 5);
+            channel.write(count, MatchLog.COUNT_OFFSET);
+        }
+        try (MatchLog log = new MatchLog(file)) {
+            assertEquals(9, log.getCount());
+            assertEquals(4, log.getRecovered());
+            MatchRecord record = new MatchRecord();
+            for (int m = 0; m < 9; m++) {
+                log.read(m, record);
+                assertEquals(score(m, 1), record.getScore(1));
+                assertEquals(score(m, 2), record.getScore(2));
+            }
+        }
+    }
+
+    /**
+     * Appends matches to a history.
+     *
+     * @param history History to append to.
+     * @param first   Number of the first match.
+     * @param count   Number of matches.
+     * @throws IOException If the log cannot grow.
+     */
+    private void append(MatchHistory history, int first, int count) throws IOException {
+        MatchRecord record = new MatchRecord();
+        for (int m = first; m < first + count; m++) {
+            fill(record, m);
+            assertEquals(m, history.append(record));
+        }
+    }
+
+    /**
+     * Fills the record of a match: the loser hits the wall, the winner alternates.
+     *
+     * @param record Record to fill.
+     * @param match  Number of the match.
+     */
+    private void fill(MatchRecord record, int match) {
+        for (int player = 1; player <= NAMES.length; player++) {
+            record.setName(player, NAMES[player - 1]);
+        }
+        record.begin(simulation);
+        int winner = winner(match);
+        record.onEvent(GameEvents.WALL_HIT, 3 - winner);
+        record.end(simulation, winner, length(match), 1000L + match);
+        for (int player = 1; player <= NAMES.length; player++) {
+            record.setScore(player, score(match, player));
+        }
+    }
+
+    /**
+     * Checks the records, the best score and the totals of each player of a history.
+     *
+     * @param history History to check.
+     * @param count   Number of matches stored.
+     */
+    private void check(MatchHistory history, int count) {
+        assertEquals(count, history.getMatchCount());
+        MatchRecord record = new MatchRecord();
+        int best = 0;
+        for (int m = 0; m < count; m++) {
+            history.readMatch(m, record);
+            assertEquals(winner(m), record.getWinner());
+            assertEquals(length(m), record.getLength());
+            assertEquals(MatchRecord.WALL, record.getCause(3 - winner(m)));
+            best = Math.max(best, Math.max(score(m, 1), score(m, 2)));
+        }
+        assertEquals(best, history.getTopScore(0));
+        assertEquals(0, history.getRank(best + 1));
+        assertTrue(history.getTopCount() > 0);
+
+        for (int player = 1; player <= NAMES.length; player++) {
+            PlayerStats stats = history.getPlayer(NAMES[player - 1]);
+            int wins = 0;
+            long total = 0;
+            long ticks = 0;
+            for (int m = 0; m < count; m++) {
+                wins += winner(m) == player ? 1 : 0;
+                total += score(m, player);
+                ticks += length(m);
+            }
+            assertEquals(count, stats.getMatches());
+            assertEquals(wins, stats.getWins());
+            assertEquals(total, stats.getTotalScore());
+            assertEquals(ticks, stats.getTotalTicks());
+            assertEquals(count - wins, stats.getCauseCount(MatchRecord.WALL));
+        }
+    }
+
+    /**
+     * Gets the winner of a match.
+     *
+     * @param match Number of the match.
+     * @return Id of the winner.
+     */
+    private static int winner(int match) {
+        return match % 3 == 0 ? 2 : 1;
+    }
+
+    /**
+     * Gets the length of a match.
+     *
+     * @param match Number of the match.
+     * @return Ticks played.
+     */
+    private static int length(int match) {
+        return 100 + match * 13;
+    }
+
+    /**
+     * Gets the final score of a player in a match.
+     *
+     * @param match  Number of the match.
+     * @param player Id of the player.
+     * @return Final score.
+     */
+    private static int score(int match, int player) {
+        return (match * (player == 1 ? 7 : 11) + player) % 97;
+    }
+}
@@ -0,0 +1,351 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authoritative game server.
+ * A single thread owns one non-blocking UDP channel and a selector, reads the inputs of every
+ * client, advances all matches at the fixed simulation rate and sends each client the state of
+ * its match after every tick. Any number of matches share that thread; a match is created when
+ * a client asks to join and every existing match is full. Seats can be filled with bots.
+ * With the {@code snakegame.metrics} system property set, each pass of the loop is timed by
+ * {@link PerformanceMetrics}, which can dump its statistics to a file and leaves a summary for
+ * the launcher to print.
+ */
+public class GameServer {
+    private static final int MAX_TICKS_PER_LOOP = 5; // Catch-up cap after a stall
+    private static final int RECEIVE_PHASE = 0; // Metrics phase reading the datagrams
+    private static final int SIMULATION_PHASE = 1; // Metrics phase advancing the matches
+    private static final int BROADCAST_PHASE = 2; // Metrics phase sending the states
+
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(NetProtocol.MAX_PACKET_SIZE);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(NetProtocol.MAX_PACKET_SIZE);
+    private final List<Match> matches = new ArrayList<>(); // Matches indexed by id
+    private final Map<SocketAddress, Match> clientMatches = new HashMap<>(); // Match of each seated client
+    private final TickScheduler scheduler = new TickScheduler(GameSimulation.TICKS_PER_SECOND, MAX_TICKS_PER_LOOP);
+    private final int gridWidth;
+    private final int gridHeight;
+    private final int playerCount; // Seats per match
+    private final int botsPerMatch; // Seats of each match held by bots
+    private final GridSearch botSearch = new GridSearch(); // Search arrays shared by every bot of the server
+    private final long timeout; // Client timeout, in nanoseconds
+    private volatile boolean running = true; // Cleared by stop()
+    private PerformanceMetrics metrics; // Loop statistics, null if metrics are disabled
+    private String metricsSummary; // Statistics of the last run, null if metrics are disabled
+
+    /**
+     * Creates a server bound to a local port.
+     *
+     * @param port        UDP port to listen on, 0 for any free port.
+     * @param gridWidth   Size of the grid of each match on the X-axis.
+     * @param gridHeight  Size of the grid of each match on the Y-axis.
+     * @param playerCount Number of players per match.
+     * @throws IOException If the channel cannot be opened or bound.
+     */
+    public GameServer(int port, int gridWidth, int gridHeight, int playerCount) throws IOException {
+        this(port, gridWidth, gridHeight, playerCount, 0);
+    }
+
+    /**
+     * Creates a server bound to a local port, with bots in the last seats of each match.
+     *
+     * @param port         UDP port to listen on, 0 for any free port.
+     * @param gridWidth    Size of the grid of each match on the X-axis.
+     * @param gridHeight   Size of the grid of each match on the Y-axis.
+     * @param playerCount  Number of players per match.
+     * @param botsPerMatch Number of seats of each match held by bots, fewer than the players.
+     * @throws IOException If the channel cannot be opened or bound.
+     */
+    public GameServer(int port, int gridWidth, int gridHeight, int playerCount, int botsPerMatch) throws IOException {
+        if (botsPerMatch < 0 || botsPerMatch >= playerCount) {
+            throw new IllegalArgumentException("A match needs at least one seat for a client, not " + botsPerMatch + " bots out of " + playerCount);
+        }
+        if (GameStateCodec.getMaxSize(gridWidth, gridHeight, playerCount) + 6 > NetProtocol.MAX_PACKET_SIZE) {
+            throw new IllegalArgumentException("The state of a " + gridWidth + "x" + gridHeight + " grid does not fit in a datagram");
+        }
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.playerCount = playerCount;
+        this.botsPerMatch = botsPerMatch;
+        this.timeout = (long) (NetProtocol.CLIENT_TIMEOUT * 1e9);
+        selector = Selector.open();
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(new InetSocketAddress(port));
+        channel.register(selector, SelectionKey.OP_READ);
+    }
+
+    /**
+     * Runs the server loop on the calling thread until {@link #stop()} is called.
+     *
+     * @throws IOException If the channel fails.
+     */
+    public void run() throws IOException {
+        if (PerformanceMetrics.ENABLED) {
+            // Created here to measure the allocations of the thread running the loop
+            metrics = PerformanceMetrics.fromSystemProperties("receive", "simulation", "broadcast");
+        }
+        scheduler.reset();
+        long last = System.nanoTime();
+        try {
+            while (running) {
+                if (PerformanceMetrics.ENABLED) {
+                    metrics.beginFrame();
+                }
+                long now = System.nanoTime();
+                int ticks = scheduler.advance((now - last) / 1e9f);
+                last = now;
+                if (ticks > 0) {
+                    for (int i = 0; i < matches.size(); i++) {
+                        Match match = matches.get(i);
+                        for (int t = 0; t < ticks; t++) {
+                            match.tick();
+                        }
+                        expireClients(match, now);
+                        if (PerformanceMetrics.ENABLED) {
+                            metrics.endPhase(SIMULATION_PHASE);
+                        }
+                        broadcast(match);
+                        if (PerformanceMetrics.ENABLED) {
+                            metrics.endPhase(BROADCAST_PHASE);
+                        }
+                    }
+                }
+
+                // Sleep in the selector until the next tick is due or a packet arrives
+                long wait = (long) ((1 - scheduler.getAlpha()) * 1000 / GameSimulation.TICKS_PER_SECOND);
+                if (selector.select(Math.max(1, wait)) > 0) {
+                    if (PerformanceMetrics.ENABLED) {
+                        metrics.skip(); // Waiting is not work
+                    }
+                    selector.selectedKeys().clear();
+                    receive(System.nanoTime());
+                    if (PerformanceMetrics.ENABLED) {
+                        metrics.endPhase(RECEIVE_PHASE);
+                    }
+                }
+                if (PerformanceMetrics.ENABLED) {
+                    metrics.endFrame(ticks, countEntities());
+                }
+            }
+        } finally {
+            if (metrics != null) {
+                StringBuilder summary = new StringBuilder();
+                metrics.appendSummary(summary);
+                metricsSummary = summary.toString();
+                metrics.stopDump();
+            }
+        }
+    }
+
+    /**
+     * Counts the entities of every match, for the metrics.
+     *
+     * @return Number of snake segments and items in all matches.
+     */
+    private int countEntities() {
+        int count = 0;
+        for (int i = 0; i < matches.size(); i++) {
+            count += PerformanceMetrics.countEntities(matches.get(i).getSimulation());
+        }
+        return count;
+    }
+
+    /**
+     * Gets the statistics of the server loop, for the launcher to print once {@link #run()} returned.
+     *
+     * @return Summary of {@link PerformanceMetrics}, or null if metrics are disabled.
+     */
+    public String getMetricsSummary() {
+        return metricsSummary;
+    }
+
+    /**
+     * Asks the server loop to return. Can be called from any thread.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Closes the channel and the selector.
+     *
+     * @throws IOException If closing fails.
+     */
+    public void close() throws IOException {
+        channel.close();
+        selector.close();
+    }
+
+    /**
+     * Gets the port the server is bound to.
+     *
+     * @return Local port.
+     * @throws IOException If the channel is closed.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the number of matches created so far.
+     *
+     * @return Number of matches.
+     */
+    public int getMatchCount() {
+        return matches.size();
+    }
+
+    /**
+     * Reads every pending datagram.
+     *
+     * @param now Current time, in nanoseconds.
+     * @throws IOException If the channel fails.
+     */
+    private void receive(long now) throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress address = channel.receive(receiveBuffer);
+            if (address == null) {
+                return;
+            }
+            receiveBuffer.flip();
+            if (receiveBuffer.remaining() >= 5) {
+                handlePacket(address, receiveBuffer.get(), receiveBuffer.getInt(), now);
+            }
+        }
+    }
+
+    /**
+     * Handles one datagram from a client. Malformed packets are ignored.
+     *
+     * @param address Address of the client.
+     * @param type    Packet type.
+     * @param matchId Match id carried by the packet.
+     * @param now     Current time, in nanoseconds.
+     * @throws IOException If a reply cannot be sent.
+     */
+    private void handlePacket(SocketAddress address, byte type, int matchId, long now) throws IOException {
+        if (type == NetProtocol.JOIN) {
+            join(address, matchId, now);
+            return;
+        }
+        Match match = clientMatches.get(address);
+        if (match == null || match.getId() != matchId || !receiveBuffer.hasRemaining()) {
+            return;
+        }
+        int player = match.getPlayer(address);
+        if (receiveBuffer.get() != player) {
+            return;
+        }
+        if (type == NetProtocol.INPUT && receiveBuffer.hasRemaining()) {
+            match.setInput(player, receiveBuffer.get(), now);
+        } else if (type == NetProtocol.LEAVE) {
+            clientMatches.remove(address);
+            match.leave(player);
+        }
+    }
+
+    /**
+     * Seats a client and replies with its seat, or with {@link NetProtocol#FULL}.
+     * A client that is already seated gets its seat again, so lost replies can be retried.
+     *
+     * @param address Address of the client.
+     * @param matchId Requested match, or {@link NetProtocol#ANY_MATCH}.
+     * @param now     Current time, in nanoseconds.
+     * @throws IOException If the reply cannot be sent.
+     */
+    private void join(SocketAddress address, int matchId, long now) throws IOException {
+        Match match = clientMatches.get(address);
+        int player = 0;
+        if (match != null) {
+            player = match.getPlayer(address);
+            match.touch(player, now);
+        } else {
+            match = matchId >= 0 && matchId < matches.size() ? matches.get(matchId) : findOpenMatch();
+            player = match.join(address, now);
+            if (player != 0) {
+                clientMatches.put(address, match);
+            }
+        }
+
+        sendBuffer.clear();
+        if (player == 0) {
+            sendBuffer.put(NetProtocol.FULL).putInt(match.getId());
+        } else {
+            sendBuffer.put(NetProtocol.JOINED).putInt(match.getId());
+            sendBuffer.put((byte) player).put((byte) playerCount);
+            sendBuffer.putShort((short) gridWidth).putShort((short) gridHeight);
+        }
+        sendBuffer.flip();
+        channel.send(sendBuffer, address);
+    }
+
+    /**
+     * Gets the first match with a free seat, creating one if every match is full.
+     *
+     * @return Match with a free seat.
+     */
+    private Match findOpenMatch() {
+        for (int i = 0; i < matches.size(); i++) {
+            if (!matches.get(i).isRunning()) {
+                return matches.get(i);
+            }
+        }
+        Match match = new Match(matches.size(), gridWidth, gridHeight, playerCount, botsPerMatch, botSearch, System.nanoTime());
+        matches.add(match);
+        return match;
+    }
+
+    /**
+     * Frees the seats of clients that stopped sending packets.
+     *
+     * @param match Match to check.
+     * @param now   Current time, in nanoseconds.
+     */
+    private void expireClients(Match match, long now) {
+        int player;
+        while ((player = match.findExpired(now, timeout)) != 0) {
+            clientMatches.remove(match.getClient(player));
+            match.leave(player);
+        }
+    }
+
+    /**
+     * Sends the state of a match to each of its clients. The state is encoded once per match.
+     * A datagram the socket cannot take right now is dropped like any lost packet.
+     *
+     * @param match Match to broadcast.
+     * @throws IOException If the channel fails.
+     */
+    private void broadcast(Match match) throws IOException {
+        if (match.getClientCount() == 0) {
+            return;
+        }
+        sendBuffer.clear();
+        sendBuffer.put(NetProtocol.STATE).putInt(match.getId());
+        sendBuffer.put((byte) (match.isRunning() ? 1 : 0));
+        GameStateCodec.write(match.getSimulation(), sendBuffer);
+        sendBuffer.flip();
+        for (int player = 1; player <= playerCount; player++) {
+            SocketAddress address = match.getClient(player);
+            if (address != null) {
+                sendBuffer.rewind();
+                channel.send(sendBuffer, address);
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Load test for the {@link GameServer}: simulates many clients from a single thread.
+ * Every client has its own UDP channel registered with one selector, joins a match,
+ * sends a random direction at the simulation rate and counts the states it receives.
+ * Arguments, all optional: number of clients, duration in seconds, host and port.
+ * Without a host, a server is started in this process on a free port.
+ */
+public class LoadTestClient {
+    private static final int DEFAULT_CLIENTS = 500;
+    private static final int DEFAULT_SECONDS = 10;
+    private static final long JOIN_RETRY = 500_000_000L; // Time between join attempts, in nanoseconds
+
+    private final DatagramChannel[] channels;
+    private final int[] matchIds; // Match of each client, -1 until joined
+    private final int[] players; // Seat of each client
+    private final long[] joinSent; // Time of the first join attempt of each client
+    private final long[] joinLatency; // Time between the first join attempt and the reply
+    private final long[] stateCounts; // Number of states received by each client
+    private final Selector selector;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(NetProtocol.MAX_PACKET_SIZE);
+    private final Random random = new Random(1);
+    private GameSimulation mirror; // Decodes the states of the first client to check them
+    private int decodeErrors;
+    private int joined;
+
+    /**
+     * Opens one channel per simulated client.
+     *
+     * @param server  Address of the server.
+     * @param clients Number of clients.
+     * @throws IOException If a channel cannot be opened.
+     */
+    public LoadTestClient(InetSocketAddress server, int clients) throws IOException {
+        channels = new DatagramChannel[clients];
+        matchIds = new int[clients];
+        players = new int[clients];
+        joinSent = new long[clients];
+        joinLatency = new long[clients];
+        stateCounts = new long[clients];
+        selector = Selector.open();
+        for (int c = 0; c < clients; c++) {
+            channels[c] = DatagramChannel.open();
+            channels[c].configureBlocking(false);
+            channels[c].connect(server);
+            channels[c].register(selector, SelectionKey.OP_READ, c);
+            matchIds[c] = -1;
+        }
+    }
+
+    /**
+     * Runs the load for a given time and prints a summary.
+     *
+     * @param seconds Duration of the test.
+     * @throws IOException If a channel fails.
+     */
+    public void run(int seconds) throws IOException {
+        long tickNanos = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        long nextSend = start;
+        long nextJoin = start;
+        long steadyStart = 0; // Time at which every client had a seat
+        long steadyStates = 0; // States received since then
+        long inputsSent = 0;
+
+        while (System.nanoTime() < end) {
+            long now = System.nanoTime();
+            if (joined < channels.length && now >= nextJoin) {
+                for (int c = 0; c < channels.length; c++) {
+                    if (matchIds[c] < 0) {
+                        if (joinSent[c] == 0) {
+                            joinSent[c] = now;
+                        }
+                        send(c, NetProtocol.JOIN, NetProtocol.ANY_MATCH, -1);
+                    }
+                }
+                nextJoin = now + JOIN_RETRY;
+            }
+            if (now >= nextSend) {
+                for (int c = 0; c < channels.length; c++) {
+                    if (matchIds[c] >= 0) {
+                        send(c, NetProtocol.INPUT, matchIds[c], random.nextInt(4));
+                        inputsSent++;
+                    }
+                }
+                nextSend += tickNanos;
+            }
+
+            selector.select(Math.max(1, (nextSend - System.nanoTime()) / 1_000_000));
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                int states = receive((Integer) key.attachment());
+                if (steadyStart != 0) {
+                    steadyStates += states;
+                }
+            }
+            if (steadyStart == 0 && joined == channels.length) {
+                steadyStart = System.nanoTime();
+            }
+        }
+
+        for (int c = 0; c < channels.length; c++) {
+            if (matchIds[c] >= 0) {
+                send(c, NetProtocol.LEAVE, matchIds[c], -1);
+            }
+            channels[c].close();
+        }
+        selector.close();
+        printSummary(System.nanoTime(), steadyStart, steadyStates, inputsSent);
+    }
+
+    /**
+     * Sends a packet from one client.
+     *
+     * @param client    Index of the client.
+     * @param type      Packet type.
+     * @param matchId   Match id.
+     * @param direction Direction for input packets, ignored otherwise.
+     * @throws IOException If the channel fails.
+     */
+    private void send(int client, byte type, int matchId, int direction) throws IOException {
+        buffer.clear();
+        buffer.put(type).putInt(matchId);
+        if (type != NetProtocol.JOIN) {
+            buffer.put((byte) players[client]);
+        }
+        if (type == NetProtocol.INPUT) {
+            buffer.put((byte) direction);
+        }
+        buffer.flip();
+        channels[client].write(buffer);
+    }
+
+    /**
+     * Reads every pending datagram of one client.
+     *
+     * @param client Index of the client.
+     * @return Number of states received.
+     * @throws IOException If the channel fails.
+     */
+    private int receive(int client) throws IOException {
+        int states = 0;
+        while (true) {
+            buffer.clear();
+            if (channels[client].receive(buffer) == null) {
+                return states;
+            }
+            buffer.flip();
+            byte type = buffer.get();
+            int matchId = buffer.getInt();
+            if (type == NetProtocol.JOINED && matchIds[client] < 0) {
+                matchIds[client] = matchId;
+                players[client] = buffer.get();
+                int playerCount = buffer.get();
+                int gridWidth = buffer.getShort();
+                int gridHeight = buffer.getShort();
+                joinLatency[client] = System.nanoTime() - joinSent[client];
+                joined++;
+                if (client == 0) {
+                    mirror = new GameSimulation(gridWidth, gridHeight, playerCount, 0);
+                }
+            } else if (type == NetProtocol.STATE && matchId == matchIds[client]) {
+                stateCounts[client]++;
+                states++;
+                if (client == 0) {
+                    buffer.get(); // Running flag
+                    try {
+                        GameStateCodec.read(buffer, mirror);
+                    } catch (RuntimeException e) {
+                        decodeErrors++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints the results of the test.
+     *
+     * @param now          Current time, in nanoseconds.
+     * @param steadyStart  Time at which every client had a seat, 0 if that never happened.
+     * @param steadyStates States received by all clients since then.
+     * @param inputsSent   Number of input packets sent.
+     */
+    private void printSummary(long now, long steadyStart, long steadyStates, long inputsSent) {
+        long maxLatency = 0;
+        long totalLatency = 0;
+        long minStates = Long.MAX_VALUE;
+        for (int c = 0; c < channels.length; c++) {
+            if (matchIds[c] >= 0) {
+                maxLatency = Math.max(maxLatency, joinLatency[c]);
+                totalLatency += joinLatency[c];
+                minStates = Math.min(minStates, stateCounts[c]);
+            }
+        }
+        System.out.println("Clients joined: " + joined + "/" + channels.length);
+        if (joined > 0) {
+            System.out.printf("Join latency: mean %.2f ms, max %.2f ms%n", totalLatency / 1e6 / joined, maxLatency / 1e6);
+            System.out.println("Fewest states received by a client: " + minStates);
+        }
+        System.out.println("Inputs sent: " + inputsSent);
+        if (steadyStart != 0) {
+            double seconds = (now - steadyStart) / 1e9;
+            System.out.printf("States per client per second once all joined: %.1f (server rate %d)%n",
+                    steadyStates / seconds / channels.length, GameSimulation.TICKS_PER_SECOND);
+        }
+        System.out.println("State decode errors: " + decodeErrors);
+    }
+
+    public static void main(String[] arg) throws Exception {
+        int clients = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_CLIENTS;
+        int seconds = arg.length > 1 ? Integer.parseInt(arg[1]) : DEFAULT_SECONDS;
+
+        GameServer server = null;
+        Thread serverThread = null;
+        InetSocketAddress address;
+        if (arg.length > 2) {
+            address = new InetSocketAddress(arg[2], arg.length > 3 ? Integer.parseInt(arg[3]) : ServerLauncher.DEFAULT_PORT);
+        } else {
+            server = new GameServer(0, ServerLauncher.DEFAULT_GRID_WIDTH, ServerLauncher.DEFAULT_GRID_HEIGHT, GameSimulation.DEFAULT_PLAYER_COUNT);
+            address = new InetSocketAddress("127.0.0.1", server.getPort());
+            final GameServer localServer = server;
+            serverThread = new Thread(() -> {
+                try {
+                    localServer.run();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "game-server");
+            serverThread.start();
+        }
+
+        System.out.println("Running " + clients + " clients against " + address + " for " + seconds + " s");
+        new LoadTestClient(address, clients).run(seconds);
+
+        if (server != null) {
+            System.out.println("Matches hosted: " + server.getMatchCount());
+            server.stop();
+            serverThread.join();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.mygdx.snakegame;
+
+import java.net.SocketAddress;
+import java.util.Arrays;
+
+/**
+ * One match hosted by the {@link GameServer}: a simulation and the clients seated in it.
+ * The last seats may be held by bots, which play on the server; the match only runs while
+ * every other seat is taken by a client. When a client leaves the simulation is reset and
+ * the remaining clients wait for a replacement.
+ */
+class Match {
+    private final int id; // Id of the match, sent in every packet
+    private final GameSimulation simulation;
+    private final SocketAddress[] clients; // Address of the client in each seat, null if free
+    private final long[] lastSeen; // Time of the last packet from each seat, in nanoseconds
+    private final int[] inputs; // Direction requested by each seat for the next tick
+    private final BotController[] bots; // Bot playing in each seat, null for client seats
+    private final int clientSeats; // Number of seats for clients, before the bot seats
+    private int clientCount; // Number of seats taken
+
+    /**
+     * Creates an empty match.
+     *
+     * @param id          Id of the match.
+     * @param gridWidth   Size of the grid on the X-axis.
+     * @param gridHeight  Size of the grid on the Y-axis.
+     * @param playerCount Number of seats.
+     * @param botCount    Number of seats held by bots, fewer than the seats.
+     * @param search      Search arrays shared by the bots of the server thread.
+     * @param seed        Seed of the simulation.
+     */
+    Match(int id, int gridWidth, int gridHeight, int playerCount, int botCount, GridSearch search, long seed) {
+        this.id = id;
+        simulation = new GameSimulation(gridWidth, gridHeight, playerCount, seed);
+        clients = new SocketAddress[playerCount];
+        lastSeen = new long[playerCount];
+        inputs = new int[playerCount];
+        Arrays.fill(inputs, Direction.NONE);
+        clientSeats = playerCount - botCount;
+        bots = new BotController[playerCount];
+        for (int p = clientSeats; p < playerCount; p++) {
+            bots[p] = new FoodSeekerBot(search);
+        }
+    }
+
+    /**
+     * Seats a client in the first free seat.
+     *
+     * @param address Address of the client.
+     * @param now     Current time, in nanoseconds.
+     * @return Player id of the seat, or 0 if the match is full.
+     */
+    int join(SocketAddress address, long now) {
+        for (int p = 0; p < clientSeats; p++) {
+            if (clients[p] == null) {
+                clients[p] = address;
+                lastSeen[p] = now;
+                clientCount++;
+                return p + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Frees a seat and resets the simulation.
+     *
+     * @param player Player id of the seat.
+     */
+    void leave(int player) {
+        if (clients[player - 1] != null) {
+            clients[player - 1] = null;
+            clientCount--;
+            Arrays.fill(inputs, Direction.NONE);
+            simulation.reset();
+        }
+    }
+
+    /**
+     * Gets the seat of a client.
+     *
+     * @param address Address of the client.
+     * @return Player id, or 0 if the client has no seat in this match.
+     */
+    int getPlayer(SocketAddress address) {
+        for (int p = 0; p < clients.length; p++) {
+            if (address.equals(clients[p])) {
+                return p + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Records the direction requested by a seat.
+     *
+     * @param player    Player id of the seat.
+     * @param direction Requested direction.
+     * @param now       Current time, in nanoseconds.
+     */
+    void setInput(int player, int direction, long now) {
+        if (direction >= Direction.NONE && direction <= Direction.LEFT) {
+            inputs[player - 1] = direction;
+        }
+        lastSeen[player - 1] = now;
+    }
+
+    /**
+     * Marks a seat as alive without changing its input.
+     *
+     * @param player Player id of the seat.
+     * @param now    Current time, in nanoseconds.
+     */
+    void touch(int player, long now) {
+        lastSeen[player - 1] = now;
+    }
+
+    /**
+     * Advances the simulation by one tick if the match is running.
+     * Inputs are consumed by the step, so a lost packet does not repeat an old request.
+     */
+    void tick() {
+        if (isRunning()) {
+            for (int p = clientSeats; p < bots.length; p++) {
+                inputs[p] = bots[p].nextDirection(simulation, p + 1);
+            }
+            simulation.step(inputs);
+            Arrays.fill(inputs, Direction.NONE);
+        }
+    }
+
+    /**
+     * Gets a seat whose client has not sent anything for too long.
+     *
+     * @param now     Current time, in nanoseconds.
+     * @param timeout Maximum silence, in nanoseconds.
+     * @return Player id of the first expired seat, or 0 if none.
+     */
+    int findExpired(long now, long timeout) {
+        for (int p = 0; p < clients.length; p++) {
+            if (clients[p] != null && now - lastSeen[p] > timeout) {
+                return p + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Indicates whether every client seat is taken, which is when the simulation runs.
+     *
+     * @return True if the match is running, false otherwise.
+     */
+    boolean isRunning() {
+        return clientCount == clientSeats;
+    }
+
+    /**
+     * Gets the id of the match.
+     *
+     * @return Match id.
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the simulation of the match.
+     *
+     * @return GameSimulation instance.
+     */
+    GameSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Gets the address of the client in a seat.
+     *
+     * @param player Player id of the seat.
+     * @return Address of the client, or null if the seat is free.
+     */
+    SocketAddress getClient(int player) {
+        return clients[player - 1];
+    }
+
+    /**
+     * Gets the number of seats taken.
+     *
+     * @return Number of clients.
+     */
+    int getClientCount() {
+        return clientCount;
+    }
+}
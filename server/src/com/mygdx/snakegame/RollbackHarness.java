@@ -0,0 +1,342 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays peer-to-peer rollback matches between two bots on localhost, through a relay that delays,
+ * reorders and drops packets, and checks that both peers end in the same state as a simulation
+ * stepped with the same inputs without any network.
+ * <p>
+ * Each peer runs on its own thread at the simulation rate and is steered by a
+ * {@link FoodSeekerBot} reading its predicted state, so the inputs turn often and the
+ * predictions are often wrong. Both peers stop at the same frame, wait for the last inputs of the
+ * other, and their states are compared byte for byte, with the state of the random number
+ * generator, against the reference. The rollbacks, the frames simulated again, the stalls and the
+ * time of the longest frame are printed for each link.
+ * <p>
+ * Arguments, all optional: seconds played, then one-way latency and jitter in milliseconds and
+ * loss percentage; without them, a perfect link and three degraded ones are tried in turn.
+ */
+public class RollbackHarness {
+    private static final int DEFAULT_SECONDS = 30;
+    private static final int[][] DEFAULT_LINKS = {{0, 0, 0}, {30, 10, 5}, {60, 30, 10}, {100, 50, 25}}; // Latency, jitter, loss
+    private static final int GRID_WIDTH = 16;
+    private static final int GRID_HEIGHT = 12;
+    private static final long SEED = 42;
+    private static final long TICK_NANOS = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+    private static final float CONNECT_TIMEOUT = 10f;
+    private static final long FINISH_TIMEOUT = 30_000_000_000L; // Longest wait for the last inputs, in nanoseconds
+
+    /**
+     * Relays the packets between the two peers, each delivered after the latency plus a random
+     * part of the jitter, so later packets may overtake earlier ones, unless randomly dropped.
+     * Each peer only knows the relay's port facing it.
+     */
+    static class LossyLink implements Runnable {
+        private final DatagramChannel[] sides = new DatagramChannel[2]; // Side facing player 1, then player 2
+        private final SocketAddress[] peers = new SocketAddress[2]; // Address of each player, learnt from its packets
+        private final PriorityQueue<Delayed> queue = new PriorityQueue<>();
+        private final ByteBuffer buffer = ByteBuffer.allocate(NetProtocol.MAX_PACKET_SIZE);
+        private final Random random = new Random(1);
+        private final long latency;
+        private final long jitter;
+        private final int lossPercent;
+        private final Thread thread = new Thread(this, "link");
+        private volatile boolean running = true;
+        private long relayed;
+        private long dropped;
+
+        /**
+         * Opens both sides of the relay.
+         *
+         * @param latencyMillis Delay of every packet, in milliseconds.
+         * @param jitterMillis  Largest extra delay of a packet, in milliseconds.
+         * @param lossPercent   Percentage of packets dropped.
+         * @throws IOException If a port cannot be opened.
+         */
+        LossyLink(int latencyMillis, int jitterMillis, int lossPercent) throws IOException {
+            latency = latencyMillis * 1_000_000L;
+            jitter = jitterMillis * 1_000_000L;
+            this.lossPercent = lossPercent;
+            for (int side = 0; side < 2; side++) {
+                sides[side] = DatagramChannel.open();
+                sides[side].bind(new InetSocketAddress("127.0.0.1", 0));
+                sides[side].configureBlocking(false);
+            }
+        }
+
+        /**
+         * Gets the port a player sends to.
+         *
+         * @param player Player id.
+         * @return Local UDP port of the side facing the player.
+         * @throws IOException If the channel is closed.
+         */
+        int getPort(int player) throws IOException {
+            return ((InetSocketAddress) sides[player - 1].getLocalAddress()).getPort();
+        }
+
+        /**
+         * Receives the packets of both players and delivers them once due, until stopped.
+         */
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    long now = System.nanoTime();
+                    for (int side = 0; side < 2; side++) {
+                        buffer.clear();
+                        SocketAddress from;
+                        while ((from = sides[side].receive(buffer)) != null) {
+                            peers[side] = from;
+                            buffer.flip();
+                            if (random.nextInt(100) >= lossPercent) {
+                                long delay = latency + (jitter > 0 ? (long) (random.nextDouble() * jitter) : 0);
+                                queue.add(new Delayed(now + delay, 1 - side, Arrays.copyOf(buffer.array(), buffer.limit())));
+                            } else {
+                                dropped++;
+                            }
+                            buffer.clear();
+                        }
+                    }
+                    while (!queue.isEmpty() && queue.peek().time <= now) {
+                        Delayed packet = queue.poll();
+                        if (peers[packet.side] != null) {
+                            sides[packet.side].send(ByteBuffer.wrap(packet.data), peers[packet.side]);
+                            relayed++;
+                        }
+                    }
+                    LockSupport.parkNanos(100_000L);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Link failed", e);
+            }
+        }
+
+        /**
+         * Stops the relay and closes both sides.
+         *
+         * @throws InterruptedException If interrupted while waiting for the thread.
+         * @throws IOException          If a channel cannot be closed.
+         */
+        void stop() throws InterruptedException, IOException {
+            running = false;
+            thread.join();
+            sides[0].close();
+            sides[1].close();
+        }
+    }
+
+    /**
+     * Packet waiting in the relay.
+     */
+    static class Delayed implements Comparable<Delayed> {
+        final long time; // Time the packet is due, in nanoseconds
+        final int side; // Side it leaves from
+        final byte[] data;
+
+        /**
+         * Creates a delayed packet.
+         *
+         * @param time Time the packet is due, in nanoseconds.
+         * @param side Side it leaves from.
+         * @param data Content of the packet.
+         */
+        Delayed(long time, int side, byte[] data) {
+            this.time = time;
+            this.side = side;
+            this.data = data;
+        }
+
+        /**
+         * Orders packets by due time.
+         *
+         * @param other Other packet.
+         * @return Negative if this packet is due first.
+         */
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(time, other.time);
+        }
+    }
+
+    /**
+     * One peer playing up to a given frame on its own thread.
+     */
+    static class Player implements Runnable {
+        private final RollbackPeer peer;
+        private final int frames;
+        private final int[] inputs; // Input of the local player at each frame, for the reference
+        private final Thread thread;
+        private long stalls; // Ticks spent waiting for the other peer
+        private long maxFrameNanos; // Longest update of a tick, rollback included
+        private long totalFrameNanos;
+        private byte[] finalState; // State after the last frame, with the random state first
+        private Exception failure;
+
+        /**
+         * Creates a peer sending to the relay.
+         *
+         * @param player Player id.
+         * @param port   Port of the relay facing the player.
+         * @param frames Frames to play.
+         * @throws IOException If the channel cannot be opened.
+         */
+        Player(int player, int port, int frames) throws IOException {
+            peer = new RollbackPeer(player, 0, "127.0.0.1", port);
+            this.frames = frames;
+            inputs = new int[frames];
+            thread = new Thread(this, "peer-" + player);
+        }
+
+        /**
+         * Connects, plays every frame at the simulation rate, then waits until both peers have
+         * every input and corrects the last frames.
+         */
+        @Override
+        public void run() {
+            try {
+                peer.connect(GRID_WIDTH, GRID_HEIGHT, SEED, CONNECT_TIMEOUT);
+                RollbackSession session = peer.getSession();
+                GameSimulation simulation = session.getSimulation();
+                BotController bot = new FoodSeekerBot(new GridSearch());
+                int player = peer.getPlayer();
+                int remote = 3 - player;
+                long next = System.nanoTime();
+                long deadline = Long.MAX_VALUE;
+                while (session.getFrame() < frames || session.getReceived(remote) < frames || session.getAcknowledged(remote) < frames) {
+                    long start = System.nanoTime();
+                    peer.poll();
+                    if (session.getFrame() < frames) {
+                        if (session.canAdvance()) {
+                            int frame = (int) session.getFrame();
+                            inputs[frame] = bot.nextDirection(simulation, player);
+                            session.advance(inputs[frame]);
+                        } else {
+                            stalls++;
+                        }
+                    } else if (deadline == Long.MAX_VALUE) {
+                        deadline = start + FINISH_TIMEOUT;
+                    } else if (start > deadline) {
+                        throw new IOException("Inputs of player " + remote + " still missing at frame " + session.getReceived(remote));
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    maxFrameNanos = Math.max(maxFrameNanos, elapsed);
+                    totalFrameNanos += elapsed;
+                    peer.send();
+                    next += TICK_NANOS;
+                    LockSupport.parkNanos(next - System.nanoTime());
+                }
+                // The other peer may still need this one's last packets
+                for (int i = 0; i < GameSimulation.TICKS_PER_SECOND; i++) {
+                    peer.poll();
+                    peer.send();
+                    LockSupport.parkNanos(TICK_NANOS);
+                }
+                session.resimulate();
+                finalState = encode(simulation);
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                peer.close();
+            }
+        }
+    }
+
+    /**
+     * Encodes the whole state of a simulation, random number generator included.
+     *
+     * @param simulation Simulation to encode.
+     * @return Encoded state.
+     */
+    static byte[] encode(GameSimulation simulation) {
+        ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.getSize(simulation) + Long.BYTES);
+        buffer.putLong(simulation.getRandomState());
+        GameStateCodec.write(simulation, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Plays a session over a link and prints whether both peers converged.
+     *
+     * @param seconds       Duration of the session.
+     * @param latencyMillis One-way delay, in milliseconds.
+     * @param jitterMillis  Largest extra delay, in milliseconds.
+     * @param lossPercent   Percentage of packets dropped.
+     * @return True if both peers ended in the reference state.
+     * @throws Exception If the peers cannot be run.
+     */
+    static boolean play(int seconds, int latencyMillis, int jitterMillis, int lossPercent) throws Exception {
+        int frames = seconds * GameSimulation.TICKS_PER_SECOND;
+        LossyLink link = new LossyLink(latencyMillis, jitterMillis, lossPercent);
+        Player[] players = {new Player(1, link.getPort(1), frames), new Player(2, link.getPort(2), frames)};
+        link.thread.start();
+        for (Player player : players) {
+            player.thread.start();
+        }
+        for (Player player : players) {
+            player.thread.join();
+        }
+        link.stop();
+
+        System.out.printf("Link: %d ms latency, %d ms jitter, %d%% loss; %d frames, %d packets relayed, %d dropped%n",
+                latencyMillis, jitterMillis, lossPercent, frames, link.relayed, link.dropped);
+        for (Player player : players) {
+            if (player.failure != null) {
+                System.out.println("  Player " + player.peer.getPlayer() + " failed: " + player.failure);
+                return false;
+            }
+        }
+
+        // Reference: the same inputs without any network
+        GameSimulation reference = new GameSimulation(GRID_WIDTH, GRID_HEIGHT, 2, SEED);
+        int[] inputs = new int[2];
+        int matches = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            inputs[0] = players[0].inputs[frame];
+            inputs[1] = players[1].inputs[frame];
+            GameEvents events = reference.step(inputs);
+            for (int i = 0; i < events.size(); i++) {
+                if (events.getType(i) == GameEvents.GAME_OVER) {
+                    matches++;
+                }
+            }
+        }
+        byte[] expected = encode(reference);
+
+        boolean converged = true;
+        for (Player player : players) {
+            RollbackSession session = player.peer.getSession();
+            boolean same = Arrays.equals(expected, player.finalState);
+            converged &= same;
+            System.out.printf("  Player %d: %s; %d rollbacks, %.2f frames simulated again per frame, longest %d, %d stalls; tick %.0f us on average, %.2f ms at most%n",
+                    player.peer.getPlayer(), same ? "same state as the reference" : "DIFFERENT STATE", session.getRollbackCount(),
+                    (double) session.getResimulatedFrames() / frames, session.getMaxRollback(), player.stalls,
+                    player.totalFrameNanos / 1e3 / frames, player.maxFrameNanos / 1e6);
+        }
+        System.out.println("  " + matches + " matches ended; " + (converged ? "both peers converged" : "the peers diverged"));
+        return converged;
+    }
+
+    public static void main(String[] arg) throws Exception {
+        int seconds = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_SECONDS;
+        int[][] links = arg.length > 3
+                ? new int[][]{{Integer.parseInt(arg[1]), Integer.parseInt(arg[2]), Integer.parseInt(arg[3])}}
+                : DEFAULT_LINKS;
+        boolean converged = true;
+        for (int[] link : links) {
+            converged &= play(seconds, link[0], link[1], link[2]);
+        }
+        if (!converged) {
+            System.exit(1);
+        }
+    }
+}
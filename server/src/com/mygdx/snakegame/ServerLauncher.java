@@ -0,0 +1,36 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+
+/**
+ * Starts a {@link GameServer}.
+ * Arguments, all optional: port, grid width, grid height, players per match and bots per match.
+ * The default grid matches the 640x480 window of the desktop client.
+ */
+public class ServerLauncher {
+    public static final int DEFAULT_PORT = 7777;
+    public static final int DEFAULT_GRID_WIDTH = 640 / Snake.CELL_SIZE;
+    public static final int DEFAULT_GRID_HEIGHT = 480 / Snake.CELL_SIZE;
+
+    public static void main(String[] arg) throws IOException {
+        int port = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_PORT;
+        int gridWidth = arg.length > 1 ? Integer.parseInt(arg[1]) : DEFAULT_GRID_WIDTH;
+        int gridHeight = arg.length > 2 ? Integer.parseInt(arg[2]) : DEFAULT_GRID_HEIGHT;
+        int playerCount = arg.length > 3 ? Integer.parseInt(arg[3]) : GameSimulation.DEFAULT_PLAYER_COUNT;
+        int botsPerMatch = arg.length > 4 ? Integer.parseInt(arg[4]) : 0;
+
+        GameServer server = new GameServer(port, gridWidth, gridHeight, playerCount, botsPerMatch);
+        System.out.println("Snake server listening on UDP port " + server.getPort()
+                + ", " + gridWidth + "x" + gridHeight + " grid, " + playerCount + " players per match"
+                + (botsPerMatch > 0 ? " including " + botsPerMatch + " bots" : ""));
+        try {
+            server.run();
+        } finally {
+            String summary = server.getMetricsSummary();
+            if (summary != null) {
+                System.out.print(summary);
+            }
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.mygdx.snakegame;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test for the {@link SpectatorServer}, on localhost: a match between four bots is streamed
+ * at the simulation rate to 10, 100 and 1000 spectators in turn, and the CPU time and memory the
+ * server spends per spectator are printed for each count.
+ * <p>
+ * The spectators run in a child process, so the memory measured here is the server's only: the
+ * heap and direct memory used with every spectator connected, after a collection, minus the
+ * same before any connected. The CPU time is the one of the server thread. The kernel socket
+ * buffers are not counted. A share of the spectators stop reading for a few seconds at a time,
+ * to show the slow ones skipping to keyframes instead of queueing.
+ * <p>
+ * Arguments, all optional: spectator counts separated by commas, seconds measured per count
+ * and percentage of slow spectators.
+ */
+public class SpectatorLoadTest {
+    private static final String DEFAULT_COUNTS = "10,100,1000";
+    private static final int DEFAULT_SECONDS = 10;
+    private static final int DEFAULT_SLOW_PERCENT = 10;
+    private static final int PLAYERS = 4;
+    private static final long TICK_NANOS = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+    private static final long CONNECT_TIMEOUT = 30_000_000_000L; // Longest wait for the spectators to connect, in nanoseconds
+
+    private final GameSimulation simulation;
+    private final BotController[] bots = new BotController[PLAYERS];
+    private final int[] inputs = new int[PLAYERS];
+    private final SpectatorServer server;
+    private final Thread thread = new Thread(this::play, "simulation");
+    private volatile boolean running = true;
+    private volatile long publishNanos; // Time spent publishing, only written by the simulation thread
+    private volatile long published; // Frames published by the simulation thread
+
+    /**
+     * Creates the match and opens the spectator server on a free port.
+     *
+     * @throws IOException If the server cannot be opened.
+     */
+    private SpectatorLoadTest() throws IOException {
+        simulation = new GameSimulation(ServerLauncher.DEFAULT_GRID_WIDTH, ServerLauncher.DEFAULT_GRID_HEIGHT, PLAYERS, 1);
+        GridSearch search = new GridSearch();
+        for (int p = 0; p < PLAYERS; p++) {
+            bots[p] = new FoodSeekerBot(search);
+        }
+        server = new SpectatorServer(0, simulation);
+    }
+
+    /**
+     * Steps the match at the simulation rate and publishes every tick, starting a new match as
+     * soon as one ends.
+     */
+    private void play() {
+        long next = System.nanoTime();
+        while (running) {
+            for (int p = 0; p < PLAYERS; p++) {
+                inputs[p] = bots[p].nextDirection(simulation, p + 1);
+            }
+            simulation.step(inputs);
+            long start = System.nanoTime();
+            server.publish(simulation);
+            publishNanos += System.nanoTime() - start;
+            published++;
+            next += TICK_NANOS;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+
+    /**
+     * Streams the match to a number of spectators and prints what it cost.
+     *
+     * @param spectators  Number of spectators.
+     * @param seconds     Duration of the measure.
+     * @param slowPercent Percentage of spectators that stop reading at times.
+     * @throws Exception If the spectators cannot be run.
+     */
+    private void measure(int spectators, int seconds, int slowPercent) throws Exception {
+        server.start();
+        thread.start();
+        Thread.sleep(1000);
+        long baseMemory = usedMemory();
+
+        Process viewers = startViewers(server.getPort(), spectators, slowPercent);
+        long deadline = System.nanoTime() + CONNECT_TIMEOUT;
+        while (server.getSpectatorCount() < spectators && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(1000);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuStart = threads.getThreadCpuTime(server.getThreadId());
+        long bytesStart = server.getBytesSent();
+        long publishedStart = published;
+        long publishStart = publishNanos;
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long cpu = threads.getThreadCpuTime(server.getThreadId()) - cpuStart;
+        long bytes = server.getBytesSent() - bytesStart;
+        long frames = published - publishedStart;
+        long publish = publishNanos - publishStart;
+        int connected = server.getSpectatorCount();
+        long memory = usedMemory() - baseMemory;
+
+        viewers.getOutputStream().close(); // Tells the spectators to stop and report
+        List<String> report = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(viewers.getInputStream(), "UTF-8"))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                report.add(line);
+            }
+        }
+        viewers.waitFor();
+        running = false;
+        thread.join();
+        server.stop();
+
+        System.out.printf("%d spectators (%d connected), %d frames in %.1f s, each encoded once and published in %.1f us%n",
+                spectators, connected, frames, elapsed, publish / 1e3 / Math.max(1, frames));
+        System.out.printf("  Server thread CPU: %.1f%% of a core, %.1f us per spectator per second, %.0f ns per spectator per frame%n",
+                cpu / 1e7 / elapsed, cpu / 1e3 / elapsed / spectators, (double) cpu / Math.max(1, frames) / spectators);
+        System.out.printf("  Server memory: %.0f bytes per spectator, %d KiB log shared by all%n",
+                (double) memory / spectators, server.getLogSize() / 1024);
+        System.out.printf("  Sent %.1f KiB/s per spectator; %d skips to a keyframe, %d spectators dropped%n",
+                bytes / 1024.0 / elapsed / spectators, server.getSkipCount(), server.getDropCount());
+        for (String line : report) {
+            System.out.println("  " + line);
+        }
+    }
+
+    /**
+     * Measures the memory in use after a collection, heap and direct buffers.
+     *
+     * @return Bytes in use.
+     * @throws InterruptedException If interrupted while waiting for the collection.
+     */
+    private static long usedMemory() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Starts the spectators in a child process running this class.
+     *
+     * @param port        Port of the spectator server.
+     * @param spectators  Number of spectators.
+     * @param slowPercent Percentage of spectators that stop reading at times.
+     * @return Child process, which stops once its input is closed.
+     * @throws IOException If the process cannot be started.
+     */
+    private static Process startViewers(int port, int spectators, int slowPercent) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SpectatorLoadTest.class.getName(), "--viewers", String.valueOf(port), String.valueOf(spectators), String.valueOf(slowPercent));
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return builder.start();
+    }
+
+    public static void main(String[] arg) throws Exception {
+        if (arg.length > 0 && arg[0].equals("--viewers")) {
+            Viewers viewers = new Viewers(Integer.parseInt(arg[1]), Integer.parseInt(arg[2]), Integer.parseInt(arg[3]));
+            viewers.run();
+            return;
+        }
+        String counts = arg.length > 0 ? arg[0] : DEFAULT_COUNTS;
+        int seconds = arg.length > 1 ? Integer.parseInt(arg[1]) : DEFAULT_SECONDS;
+        int slowPercent = arg.length > 2 ? Integer.parseInt(arg[2]) : DEFAULT_SLOW_PERCENT;
+        for (String count : counts.split(",")) {
+            new SpectatorLoadTest().measure(Integer.parseInt(count.trim()), seconds, slowPercent);
+        }
+    }
+
+    /**
+     * Spectators of the child process, all read by one thread. Each parses the frames of its
+     * stream; the first spectator and the first slow one also decode them into a simulation, to
+     * check the stream stays readable across the skips.
+     */
+    static class Viewers {
+        private static final int SLOW_RECEIVE_BUFFER = 1024; // Kernel buffer of the slow spectators, so they fill up fast
+        private static final long PAUSE_PERIOD = 10_000_000_000L; // Slow spectators read nothing for part of each period
+        private static final long PAUSE = 6_000_000_000L;
+
+        private final SocketChannel[] channels;
+        private final SelectionKey[] keys;
+        private final boolean[] slow; // Indicates whether each spectator stops reading at times
+        private final int[] headerLeft; // Bytes of the stream header not read yet
+        private final int[] lengthRead; // Bytes of the length of the current frame read so far
+        private final int[] frameLength; // Length of the current frame
+        private final int[] frameLeft; // Bytes of the current frame not read yet
+        private final long[] frames; // Frames received
+        private final Selector selector;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024); // Shared by every spectator
+        private final Decoder[] decoders; // Checks the frames of some spectators, null for the others
+        private volatile boolean running = true;
+
+        /**
+         * Connects the spectators.
+         *
+         * @param port        Port of the spectator server on localhost.
+         * @param count       Number of spectators.
+         * @param slowPercent Percentage of spectators that stop reading at times.
+         * @throws IOException If a spectator cannot connect.
+         */
+        Viewers(int port, int count, int slowPercent) throws IOException {
+            channels = new SocketChannel[count];
+            keys = new SelectionKey[count];
+            slow = new boolean[count];
+            headerLeft = new int[count];
+            lengthRead = new int[count];
+            frameLength = new int[count];
+            frameLeft = new int[count];
+            frames = new long[count];
+            decoders = new Decoder[count];
+            selector = Selector.open();
+            int slowCount = count * slowPercent / 100;
+            for (int v = 0; v < count; v++) {
+                slow[v] = v >= count - slowCount;
+                channels[v] = SocketChannel.open();
+                if (slow[v]) {
+                    channels[v].setOption(StandardSocketOptions.SO_RCVBUF, SLOW_RECEIVE_BUFFER);
+                }
+                channels[v].connect(new InetSocketAddress("127.0.0.1", port));
+                channels[v].configureBlocking(false);
+                keys[v] = channels[v].register(selector, SelectionKey.OP_READ, v);
+                headerLeft[v] = SpectatorServer.HEADER_SIZE;
+            }
+            decoders[0] = new Decoder();
+            if (slowCount > 0) {
+                decoders[count - slowCount] = new Decoder();
+            }
+        }
+
+        /**
+         * Reads every stream until the standard input is closed, then prints a report.
+         *
+         * @throws IOException If a connection fails.
+         */
+        void run() throws IOException {
+            Thread stopper = new Thread(() -> {
+                try {
+                    while (System.in.read() >= 0) {
+                        // Wait for the end of the input
+                    }
+                } catch (IOException e) {
+                    // Stop anyway
+                }
+                running = false;
+                selector.wakeup();
+            }, "stopper");
+            stopper.setDaemon(true);
+            stopper.start();
+
+            long start = System.nanoTime();
+            boolean paused = false;
+            while (running) {
+                boolean pause = (System.nanoTime() - start) % PAUSE_PERIOD < PAUSE;
+                if (pause != paused) {
+                    paused = pause;
+                    for (int v = 0; v < channels.length; v++) {
+                        if (slow[v]) {
+                            keys[v].interestOps(pause ? 0 : SelectionKey.OP_READ);
+                        }
+                    }
+                }
+                selector.select(100);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    read((Integer) key.attachment());
+                }
+                selector.selectedKeys().clear();
+            }
+            report();
+        }
+
+        /**
+         * Reads what a spectator received and splits it into frames.
+         *
+         * @param v Index of the spectator.
+         * @throws IOException If the connection fails.
+         */
+        private void read(int v) throws IOException {
+            while (true) {
+                buffer.clear();
+                int read = channels[v].read(buffer);
+                if (read <= 0) {
+                    if (read < 0) {
+                        keys[v].cancel();
+                    }
+                    return;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    if (headerLeft[v] > 0) {
+                        int skipped = Math.min(headerLeft[v], buffer.remaining());
+                        buffer.position(buffer.position() + skipped);
+                        headerLeft[v] -= skipped;
+                    } else if (lengthRead[v] < SpectatorServer.FRAME_HEADER_SIZE) {
+                        frameLength[v] = frameLength[v] << 8 | buffer.get() & 0xFF;
+                        if (++lengthRead[v] == SpectatorServer.FRAME_HEADER_SIZE) {
+                            frameLeft[v] = frameLength[v];
+                        }
+                    } else {
+                        int taken = Math.min(frameLeft[v], buffer.remaining());
+                        if (decoders[v] != null) {
+                            decoders[v].add(buffer, taken);
+                        } else {
+                            buffer.position(buffer.position() + taken);
+                        }
+                        frameLeft[v] -= taken;
+                        if (frameLeft[v] == 0) {
+                            if (decoders[v] != null) {
+                                decoders[v].decode();
+                            }
+                            frames[v]++;
+                            lengthRead[v] = 0;
+                            frameLength[v] = 0;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Prints the frames received by the steady and by the slow spectators, and the result
+         * of the decoding.
+         */
+        private void report() {
+            long steadyMin = Long.MAX_VALUE;
+            long steadyTotal = 0;
+            long slowTotal = 0;
+            int slowCount = 0;
+            for (int v = 0; v < channels.length; v++) {
+                if (slow[v]) {
+                    slowTotal += frames[v];
+                    slowCount++;
+                } else {
+                    steadyMin = Math.min(steadyMin, frames[v]);
+                    steadyTotal += frames[v];
+                }
+            }
+            int steadyCount = channels.length - slowCount;
+            System.out.printf("Frames received: %.0f per steady spectator (fewest %d), %.0f per slow one%n",
+                    (double) steadyTotal / Math.max(1, steadyCount), steadyCount > 0 ? steadyMin : 0, (double) slowTotal / Math.max(1, slowCount));
+            for (int v = 0; v < channels.length; v++) {
+                if (decoders[v] != null) {
+                    System.out.println((slow[v] ? "Slow" : "Steady") + " spectator decoded " + decoders[v].decoded
+                            + " frames, " + decoders[v].jumps + " jumps ahead, " + decoders[v].errors + " errors");
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes the frames of one spectator into a simulation.
+     */
+    static class Decoder {
+        private final SnapshotDecoder decoder = new SnapshotDecoder();
+        private GameSimulation mirror; // Created from the first keyframe
+        private ByteBuffer frame = ByteBuffer.allocate(4096); // Frame being received
+        private long lastTick = -1; // Tick of the last frame decoded
+        private int decoded;
+        private int jumps; // Frames whose tick is more than one past the previous one, as after a skip
+        private int errors;
+
+        /**
+         * Adds bytes of the frame being received.
+         *
+         * @param buffer Received bytes.
+         * @param length Number of bytes of the frame.
+         */
+        void add(ByteBuffer buffer, int length) {
+            if (frame.remaining() < length) {
+                ByteBuffer grown = ByteBuffer.allocate(2 * (frame.position() + length));
+                frame.flip();
+                grown.put(frame);
+                frame = grown;
+            }
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + length);
+            frame.put(buffer);
+            buffer.limit(limit);
+        }
+
+        /**
+         * Decodes the received frame.
+         */
+        void decode() {
+            frame.flip();
+            try {
+                if (mirror == null) {
+                    mirror = new GameSimulation(ServerLauncher.DEFAULT_GRID_WIDTH, ServerLauncher.DEFAULT_GRID_HEIGHT, PLAYERS, 0);
+                }
+                decoder.read(frame, mirror);
+                if (lastTick >= 0 && mirror.getTick() > lastTick + 1) {
+                    jumps++;
+                }
+                lastTick = mirror.getTick();
+                decoded++;
+            } catch (RuntimeException e) {
+                errors++;
+            }
+            frame.clear();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.mygdx.snakegame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Plays against a {@link GameServer} running on a local port, through plain datagram sockets,
+ * and checks that the {@link NetworkClient} skips datagrams too short to read.
+ */
+public class GameServerTest {
+    private static final int GRID_WIDTH = 20;
+    private static final int GRID_HEIGHT = 16;
+    private static final int RECEIVE_TIMEOUT = 2000; // Milliseconds to wait for a reply
+    private static final int MAX_STATES = 600; // States read before giving up on an expected one
+
+    private GameServer server;
+    private Thread thread;
+    private InetSocketAddress address;
+    private final DatagramSocket[] clients = new DatagramSocket[3];
+
+    /**
+     * Starts a two-player server and opens the client sockets.
+     *
+     * @throws IOException If a socket cannot be opened.
+     */
+    @Before
+    public void start() throws IOException {
+        server = new GameServer(0, GRID_WIDTH, GRID_HEIGHT, 2);
+        address = new InetSocketAddress("localhost", server.getPort());
+        thread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, "GameServerTest");
+        thread.start();
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = new DatagramSocket();
+            clients[i].setSoTimeout(RECEIVE_TIMEOUT);
+        }
+    }
+
+    /**
+     * Stops the server and closes the sockets.
+     *
+     * @throws Exception If the server thread cannot be joined.
+     */
+    @After
+    public void stop() throws Exception {
+        server.stop();
+        thread.join();
+        server.close();
+        for (DatagramSocket client : clients) {
+            client.close();
+        }
+    }
+
+    /**
+     * Checks that clients fill the seats of a match before a second match is created, and that a
+     * client asking again gets its seat back.
+     *
+     * @throws IOException If a socket fails.
+     */
+    @Test
+    public void seatsClients() throws IOException {
+        assertJoined(join(clients[0]), 0, 1);
+        assertJoined(join(clients[1]), 0, 2);
+        assertJoined(join(clients[2]), 1, 1);
+        assertJoined(join(clients[0]), 0, 1);
+        assertEquals(2, server.getMatchCount());
+    }
+
+    /**
+     * Checks that a full match runs, that its state decodes into a simulation, and that the
+     * input of a client steers its snake.
+     *
+     * @throws IOException If a socket fails.
+     */
+    @Test
+    public void runsMatch() throws IOException {
+        join(clients[0]);
+        join(clients[1]);
+        GameSimulation simulation = new GameSimulation(GRID_WIDTH, GRID_HEIGHT, 2, 0L);
+        receiveState(clients[1], simulation, false);
+        assertEquals(Direction.LEFT, simulation.getDirection(2));
+
+        byte[] input = ByteBuffer.allocate(7).put(NetProtocol.INPUT).putInt(0).put((byte) 2).put((byte) Direction.UP).array();
+        clients[1].send(new DatagramPacket(input, input.length, address));
+        receiveState(clients[1], simulation, true);
+    }
+
+    /**
+     * Answers a {@link NetworkClient} from a plain socket with datagrams too short for their
+     * type, and checks that it skips them and still joins and reads the complete state.
+     *
+     * @throws Exception If a socket fails or the client does not join.
+     */
+    @Test
+    public void clientSkipsShortDatagrams() throws Exception {
+        try (DatagramSocket fake = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            fake.setSoTimeout(RECEIVE_TIMEOUT);
+            NetworkClient client = new NetworkClient("127.0.0.1", fake.getLocalPort());
+            try {
+                Exception[] failure = new Exception[1];
+                Thread joining = new Thread(() -> {
+                    try {
+                        client.join(NetProtocol.ANY_MATCH, RECEIVE_TIMEOUT / 1000f);
+                    } catch (Exception e) {
+                        failure[0] = e;
+                    }
+                }, "client");
+                joining.start();
+                DatagramPacket join = new DatagramPacket(new byte[NetProtocol.MAX_PACKET_SIZE], NetProtocol.MAX_PACKET_SIZE);
+                fake.receive(join);
+                assertEquals(NetProtocol.JOIN, join.getData()[0]);
+                SocketAddress to = join.getSocketAddress();
+                send(fake, to, ByteBuffer.allocate(3).put(NetProtocol.JOINED)); // Shorter than a header
+                send(fake, to, ByteBuffer.allocate(7).put(NetProtocol.JOINED).putInt(0).put((byte) 1).put((byte) 2)); // No grid
+                send(fake, to, ByteBuffer.allocate(11).put(NetProtocol.JOINED).putInt(0).put((byte) 1).put((byte) 2)
+                        .putShort((short) GRID_WIDTH).putShort((short) GRID_HEIGHT));
+                joining.join();
+                assertNull(failure[0]);
+                assertEquals(1, client.getPlayer());
+                assertEquals(GRID_WIDTH, client.getGridWidth());
+
+                GameSimulation source = new GameSimulation(GRID_WIDTH, GRID_HEIGHT, 2, 3L);
+                source.step(new int[]{ Direction.UP, Direction.DOWN });
+                ByteBuffer state = ByteBuffer.allocate(NetProtocol.MAX_PACKET_SIZE).put(NetProtocol.STATE).putInt(0).put((byte) 1);
+                GameStateCodec.write(source, state);
+                ByteBuffer truncated = ByteBuffer.allocate(state.position() - 1);
+                truncated.put(state.array(), 0, truncated.capacity());
+                send(fake, to, ByteBuffer.allocate(2).put(NetProtocol.STATE)); // Shorter than a header
+                send(fake, to, ByteBuffer.allocate(5).put(NetProtocol.STATE).putInt(0)); // No running flag
+                send(fake, to, truncated); // Last segment cut
+                send(fake, to, state); // Read after the others, as the loopback keeps the order
+                GameSimulation mirror = new GameSimulation(GRID_WIDTH, GRID_HEIGHT, 2, 0L);
+                long deadline = System.nanoTime() + RECEIVE_TIMEOUT * 1_000_000L;
+                while (!client.poll(mirror)) {
+                    assertTrue("No state received", System.nanoTime() < deadline);
+                    Thread.yield();
+                }
+                assertArrayEquals(encode(source), encode(mirror));
+                assertTrue(client.isRunning());
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * Sends the content of a buffer.
+     *
+     * @param socket Socket to send from.
+     * @param to     Address of the receiver.
+     * @param buffer Buffer written up to its position.
+     * @throws IOException If the socket fails.
+     */
+    private static void send(DatagramSocket socket, SocketAddress to, ByteBuffer buffer) throws IOException {
+        socket.send(new DatagramPacket(buffer.array(), buffer.position(), to));
+    }
+
+    /**
+     * Encodes the state of a simulation, for comparisons.
+     *
+     * @param simulation Simulation to encode.
+     * @return Encoded state.
+     */
+    private static byte[] encode(GameSimulation simulation) {
+        ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.getSize(simulation));
+        GameStateCodec.write(simulation, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Sends a join for any match.
+     *
+     * @param client Socket of the client.
+     * @return Reply of the server.
+     * @throws IOException If the socket fails or no reply comes.
+     */
+    private ByteBuffer join(DatagramSocket client) throws IOException {
+        byte[] join = ByteBuffer.allocate(5).put(NetProtocol.JOIN).putInt(NetProtocol.ANY_MATCH).array();
+        client.send(new DatagramPacket(join, join.length, address));
+        ByteBuffer reply;
+        do {
+            reply = receive(client);
+        } while (reply.get(0) == NetProtocol.STATE);
+        return reply;
+    }
+
+    /**
+     * Reads states of the running match until one is decoded, or until player 2 steers up if asked to.
+     *
+     * @param client     Socket of the client.
+     * @param simulation Simulation into which each state is decoded.
+     * @param steered    Indicates whether to wait for player 2 to steer up.
+     * @throws IOException If the socket fails or no state comes.
+     */
+    private void receiveState(DatagramSocket client, GameSimulation simulation, boolean steered) throws IOException {
+        for (int i = 0; i < MAX_STATES; i++) {
+            ByteBuffer reply = receive(client);
+            if (reply.get() != NetProtocol.STATE || reply.getInt() != 0 || reply.get() != 1) {
+                continue;
+            }
+            GameStateCodec.read(reply, simulation);
+            assertEquals(0, reply.remaining());
+            if (!steered || simulation.getDirection(2) == Direction.UP) {
+                return;
+            }
+        }
+        throw new AssertionError("No " + (steered ? "steered " : "") + "state received");
+    }
+
+    /**
+     * Reads one datagram.
+     *
+     * @param client Socket of the client.
+     * @return Content of the datagram.
+     * @throws IOException If the socket fails or nothing comes in time.
+     */
+    private static ByteBuffer receive(DatagramSocket client) throws IOException {
+        DatagramPacket packet = new DatagramPacket(new byte[NetProtocol.MAX_PACKET_SIZE], NetProtocol.MAX_PACKET_SIZE);
+        client.receive(packet);
+        return ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
+    }
+
+    /**
+     * Checks a {@link NetProtocol#JOINED} reply.
+     *
+     * @param reply   Reply of the server.
+     * @param matchId Expected match.
+     * @param player  Expected seat.
+     */
+    private static void assertJoined(ByteBuffer reply, int matchId, int player) {
+        assertEquals(NetProtocol.JOINED, reply.get());
+        assertEquals(matchId, reply.getInt());
+        assertEquals(player, reply.get());
+        assertEquals(2, reply.get());
+        assertEquals(GRID_WIDTH, reply.getShort());
+        assertEquals(GRID_HEIGHT, reply.getShort());
+        assertFalse(reply.hasRemaining());
+    }
+}
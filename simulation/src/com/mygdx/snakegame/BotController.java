@@ -0,0 +1,15 @@
+package com.mygdx.snakegame;
+
+/**
+ * Steers a snake in place of a player, one input per simulation tick.
+ */
+public interface BotController {
+    /**
+     * Chooses the input of a player for the next tick.
+     *
+     * @param simulation Simulation the player is in, before the tick.
+     * @param player     Id of the steered player.
+     * @return Requested direction, or {@link Direction#NONE} to keep the current one.
+     */
+    int nextDirection(GameSimulation simulation, int player);
+}
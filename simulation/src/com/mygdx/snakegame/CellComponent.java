@@ -0,0 +1,11 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Cell of the grid an entity sits on.
+ */
+public class CellComponent implements Component {
+    public int x; // X coordinate of the cell
+    public int y; // Y coordinate of the cell
+}
@@ -0,0 +1,167 @@
+package com.mygdx.snakegame;
+
+import java.util.Arrays;
+
+/**
+ * Map from cell indices ({@code y * width + x}) to objects, such as the item on each cell.
+ * Keys are kept in a primitive array with open addressing and linear probing, at most half
+ * full, so a lookup is a multiplication and usually a single probe, and nothing is boxed.
+ * Removing a key shifts the keys of its probe run back instead of leaving a tombstone, so
+ * lookups never slow down as entries come and go. Only growing the table allocates.
+ *
+ * @param <V> Type of the values.
+ */
+public class CellMap<V> {
+    private static final int EMPTY = -1; // Key of an empty slot; cell indices are never negative
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys; // Cell of each slot, EMPTY if the slot is free
+    private Object[] values; // Value of each slot, null if the slot is free
+    private int mask; // Capacity - 1, the capacity being a power of two
+    private int shift; // 32 - log2 of the capacity, to keep the high bits of the hash
+    private int size; // Number of entries
+
+    /**
+     * Creates an empty map.
+     */
+    public CellMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Gets the value of a cell.
+     *
+     * @param cell Cell index, not negative.
+     * @return Value, or null if the cell has none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int cell) {
+        for (int i = slotOf(cell); ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == cell) {
+                return (V) values[i];
+            }
+            if (key == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Sets the value of a cell, replacing any value it had.
+     *
+     * @param cell  Cell index, not negative.
+     * @param value Value, not null.
+     */
+    public void put(int cell, V value) {
+        int i = slotOf(cell);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == cell) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = cell;
+        values[i] = value;
+        if (++size > (mask + 1) >> 1) {
+            resize((mask + 1) << 1);
+        }
+    }
+
+    /**
+     * Removes the value of a cell.
+     *
+     * @param cell Cell index, not negative.
+     * @return Removed value, or null if the cell had none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int cell) {
+        int i = slotOf(cell);
+        while (keys[i] != cell) {
+            if (keys[i] == EMPTY) {
+                return null;
+            }
+            i = (i + 1) & mask;
+        }
+        V value = (V) values[i];
+        // Move back the following keys of the run that could not take their own slot
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slotOf(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        size--;
+        return value;
+    }
+
+    /**
+     * Removes every entry, keeping the capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of cells with a value.
+     *
+     * @return Number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the home slot of a cell, from the high bits of a Fibonacci hash so that cells close
+     * on the grid spread over the table.
+     *
+     * @param cell Cell index.
+     * @return Slot index.
+     */
+    private int slotOf(int cell) {
+        return (cell * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Creates empty tables.
+     *
+     * @param capacity Number of slots, a power of two.
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    /**
+     * Moves every entry into larger tables.
+     *
+     * @param capacity New number of slots, a power of two.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int cell = oldKeys[i];
+            if (cell != EMPTY) {
+                int j = slotOf(cell);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = cell;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mygdx.snakegame;
+
+import java.util.Arrays;
+
+/**
+ * Splits the grid into square chunks of {@link #CHUNK_SIZE} cells and counts the cells covered
+ * by snake segments in each one, so a renderer can skip empty chunks and only look at the cells
+ * of the chunks it can see. The grid updates the counts when a cell becomes covered or empty,
+ * so keeping them costs O(1) per move.
+ */
+public class ChunkIndex {
+    /** Number of cells along each side of a chunk. */
+    public static final int CHUNK_SIZE = 32;
+    private static final int CHUNK_SHIFT = 5; // log2 of CHUNK_SIZE
+
+    private final int columns; // Number of chunks on the X-axis
+    private final int rows; // Number of chunks on the Y-axis
+    private final int[] counts; // Number of covered cells in each chunk
+
+    /**
+     * Creates an index where every chunk is empty.
+     *
+     * @param width  Size of the grid on the X-axis.
+     * @param height Size of the grid on the Y-axis.
+     */
+    public ChunkIndex(int width, int height) {
+        columns = (width + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        rows = (height + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        counts = new int[columns * rows];
+    }
+
+    /**
+     * Marks every chunk as empty.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+    }
+
+    /**
+     * Counts a cell that became covered.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     */
+    public void add(int x, int y) {
+        counts[(y >> CHUNK_SHIFT) * columns + (x >> CHUNK_SHIFT)]++;
+    }
+
+    /**
+     * Uncounts a cell that became empty.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     */
+    public void remove(int x, int y) {
+        counts[(y >> CHUNK_SHIFT) * columns + (x >> CHUNK_SHIFT)]--;
+    }
+
+    /**
+     * Gets the number of covered cells in a chunk.
+     *
+     * @param column Chunk index on the X-axis.
+     * @param row    Chunk index on the Y-axis.
+     * @return Number of cells covered by at least one segment.
+     */
+    public int getCount(int column, int row) {
+        return counts[row * columns + column];
+    }
+
+    /**
+     * Gets the chunk holding a cell on one axis.
+     *
+     * @param coordinate Cell coordinate, inside the grid.
+     * @return Chunk index on that axis.
+     */
+    public static int chunkOf(int coordinate) {
+        return coordinate >> CHUNK_SHIFT;
+    }
+
+    /**
+     * Gets the number of chunks on the X-axis.
+     *
+     * @return Number of chunk columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets the number of chunks on the Y-axis.
+     *
+     * @return Number of chunk rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.EntitySystem;
+
+/**
+ * Eliminates the snakes whose head hit a wall, a body or another head, and ends the match
+ * when at most one snake is left. Only heads are checked, so this costs O(1) per snake
+ * whatever the length of the snakes.
+ */
+public class CollisionSystem extends EntitySystem {
+    private final GameSimulation simulation;
+
+    /**
+     * Creates the system.
+     *
+     * @param simulation Simulation the snakes belong to.
+     */
+    public CollisionSystem(GameSimulation simulation) {
+        super(GameSimulation.COLLISION_PRIORITY);
+        this.simulation = simulation;
+    }
+
+    /**
+     * Finds the snakes that hit something, then removes them, so two heads meeting on the same
+     * cell are both eliminated.
+     *
+     * @param deltaTime Ticks to process, always 1.
+     */
+    @Override
+    public void update(float deltaTime) {
+        int playerCount = simulation.getPlayerCount();
+        for (int p = 1; p <= playerCount; p++) {
+            PlayerComponent player = simulation.getPlayer(p);
+            if (player.alive) {
+                player.eliminated = checkHead(player);
+            }
+        }
+        for (int p = 1; p <= playerCount; p++) {
+            PlayerComponent player = simulation.getPlayer(p);
+            if (player.eliminated) {
+                simulation.eliminate(player);
+            }
+        }
+
+        // The match ends when at most one snake is left, or when the only snake dies
+        int aliveCount = simulation.getAliveCount();
+        if (aliveCount == 0 || (simulation.getPlayerCount() > 1 && aliveCount == 1)) {
+            simulation.endMatch(aliveCount == 1 ? simulation.survivor() : simulation.winnerByScore());
+        }
+    }
+
+    /**
+     * Checks if a snake's head hit a wall, its own body or another snake, and reports it.
+     * Invulnerable snakes only die by hitting a wall.
+     *
+     * @param player Player of the snake.
+     * @return True if the snake must be eliminated.
+     */
+    private boolean checkHead(PlayerComponent player) {
+        Snake snake = player.snake;
+        GameEvents events = simulation.getEvents();
+        if (snake.hasHitWall()) {
+            events.add(GameEvents.WALL_HIT, player.player);
+            return true;
+        }
+        SnakeBody body = snake.getSegments();
+        // A head alone in its cell cannot have hit anything, whether the snake is invulnerable or not
+        if (simulation.getGrid().getCount(body.getHeadX(), body.getHeadY()) < 2 || simulation.isInvulnerable(player.player)) {
+            return false;
+        }
+        if (snake.hasHitItself()) {
+            events.add(GameEvents.SELF_HIT, player.player);
+        } else {
+            events.add(GameEvents.SNAKES_COLLIDED, player.player);
+        }
+        return true;
+    }
+}
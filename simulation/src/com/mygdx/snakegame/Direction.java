@@ -0,0 +1,71 @@
+package com.mygdx.snakegame;
+
+/**
+ * Directions a snake can move in, as plain int constants so they can be stored
+ * in primitive arrays and sent as per-tick inputs.
+ */
+public final class Direction {
+    /** No direction, used as input when a player did not press anything. */
+    public static final int NONE = -1;
+    /** Moves the snake towards higher Y coordinates. */
+    public static final int UP = 0;
+    /** Moves the snake towards higher X coordinates. */
+    public static final int RIGHT = 1;
+    /** Moves the snake towards lower Y coordinates. */
+    public static final int DOWN = 2;
+    /** Moves the snake towards lower X coordinates. */
+    public static final int LEFT = 3;
+
+    private static final int[] DX = { 0, 1, 0, -1 }; // X offset of each direction
+    private static final int[] DY = { 1, 0, -1, 0 }; // Y offset of each direction
+
+    private Direction() {
+    }
+
+    /**
+     * Gets the direction opposite to the given one.
+     *
+     * @param direction A direction other than {@link #NONE}.
+     * @return The opposite direction.
+     */
+    public static int opposite(int direction) {
+        return (direction + 2) & 3;
+    }
+
+    /**
+     * Gets the direction of a step between two adjacent cells.
+     *
+     * @param dx X offset of the step.
+     * @param dy Y offset of the step.
+     * @return The direction of the step, or {@link #NONE} if the offset is not a single step.
+     */
+    public static int of(int dx, int dy) {
+        if (dx == 0) {
+            return dy == 1 ? UP : dy == -1 ? DOWN : NONE;
+        }
+        if (dy == 0) {
+            return dx == 1 ? RIGHT : dx == -1 ? LEFT : NONE;
+        }
+        return NONE;
+    }
+
+    /**
+     * Gets the X offset of a step in the given direction.
+     *
+     * @param direction A direction other than {@link #NONE}.
+     * @return -1, 0 or 1.
+     */
+    public static int dx(int direction) {
+        return DX[direction];
+    }
+
+    /**
+     * Gets the Y offset of a step in the given direction.
+     *
+     * @param direction A direction other than {@link #NONE}.
+     * @return -1, 0 or 1.
+     */
+    public static int dy(int direction) {
+        return DY[direction];
+    }
+}
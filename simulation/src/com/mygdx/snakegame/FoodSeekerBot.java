@@ -0,0 +1,53 @@
+package com.mygdx.snakegame;
+
+/**
+ * Bot that goes for the nearest food along a shortest path around every snake. A step towards the food
+ * is only taken if it leaves the snake at least as much room as its length; otherwise, or when
+ * the food is out of reach within the search budget, the bot plays like a {@link SurvivalBot}.
+ */
+public class FoodSeekerBot extends SurvivalBot {
+    /**
+     * Creates a bot with the default search budget.
+     *
+     * @param search Search arrays, which may be shared by the bots of one thread.
+     */
+    public FoodSeekerBot(GridSearch search) {
+        super(search);
+    }
+
+    /**
+     * Creates a bot.
+     *
+     * @param search Search arrays, which may be shared by the bots of one thread.
+     * @param budget Maximum number of cells visited by one search.
+     */
+    public FoodSeekerBot(GridSearch search, int budget) {
+        super(search, budget);
+    }
+
+    /**
+     * Chooses the first step towards the nearest food if it is safe, the roomiest step otherwise.
+     *
+     * @param simulation Simulation the snake is in.
+     * @param snake      Steered snake, with at least one segment.
+     * @return Chosen direction.
+     */
+    @Override
+    int plan(GameSimulation simulation, Snake snake) {
+        ItemIndex items = simulation.getItemIndex();
+        if (items.getCount(ItemComponent.FOOD) > 0) {
+            OccupancyGrid grid = simulation.getGrid();
+            SnakeBody body = snake.getSegments();
+            int direction = search.findPathToItem(grid, items, ItemComponent.FOOD, body.getHeadX(), body.getHeadY(),
+                    Direction.opposite(snake.getDirection()), budget);
+            if (direction != Direction.NONE) {
+                int room = Math.min(body.size(), budget);
+                int space = search.countReachable(grid, body.getHeadX() + Direction.dx(direction), body.getHeadY() + Direction.dy(direction), room);
+                if (space >= room) {
+                    return direction;
+                }
+            }
+        }
+        return super.plan(simulation, snake);
+    }
+}
@@ -0,0 +1,123 @@
+package com.mygdx.snakegame;
+
+import java.util.Random;
+
+/**
+ * Keeps the set of free cells of the grid so a random free cell can be picked in O(log n).
+ * Free cells are counted in a Fenwick tree over the cell indices, so the k-th free cell in
+ * cell order can be found without scanning the grid. Unlike a dense array of free cells,
+ * the cell picked for a given random number depends only on which cells are free and not on
+ * the order they were freed in, which keeps spawning deterministic when a simulation is
+ * restored from a snapshot.
+ */
+public class FreeCellIndex {
+    private final boolean[] free; // Indicates whether each cell is free
+    private final int[] tree; // Fenwick tree of free cell counts, 1-based
+    private final int topStep; // Largest power of two not above the number of cells
+    private int size; // Number of free cells
+
+    /**
+     * Creates an index where every cell is free.
+     *
+     * @param cellCount Number of cells in the grid.
+     */
+    public FreeCellIndex(int cellCount) {
+        free = new boolean[cellCount];
+        tree = new int[cellCount + 1];
+        topStep = cellCount == 0 ? 0 : Integer.highestOneBit(cellCount);
+        reset();
+    }
+
+    /**
+     * Marks every cell as free.
+     */
+    public void reset() {
+        for (int i = 0; i < free.length; i++) {
+            free[i] = true;
+        }
+        // Each node covers the lowest set bit of its index worth of cells
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] = i & -i;
+        }
+        size = free.length;
+    }
+
+    /**
+     * Marks a cell as free. Does nothing if it is already free.
+     *
+     * @param cell Index of the cell.
+     */
+    public void add(int cell) {
+        if (free[cell]) {
+            return;
+        }
+        free[cell] = true;
+        for (int i = cell + 1; i < tree.length; i += i & -i) {
+            tree[i]++;
+        }
+        size++;
+    }
+
+    /**
+     * Marks a cell as taken. Does nothing if it is not free.
+     *
+     * @param cell Index of the cell.
+     */
+    public void remove(int cell) {
+        if (!free[cell]) {
+            return;
+        }
+        free[cell] = false;
+        for (int i = cell + 1; i < tree.length; i += i & -i) {
+            tree[i]--;
+        }
+        size--;
+    }
+
+    /**
+     * Checks if a cell is free.
+     *
+     * @param cell Index of the cell.
+     * @return True if the cell is free.
+     */
+    public boolean contains(int cell) {
+        return free[cell];
+    }
+
+    /**
+     * Picks a free cell uniformly at random.
+     *
+     * @param random Random number generator.
+     * @return Index of a free cell, or -1 if no cell is free.
+     */
+    public int random(Random random) {
+        return size == 0 ? -1 : select(random.nextInt(size));
+    }
+
+    /**
+     * Finds the free cell with a given rank in cell order.
+     *
+     * @param rank Number of free cells before the one to find, less than {@link #size()}.
+     * @return Index of the cell.
+     */
+    private int select(int rank) {
+        int position = 0;
+        for (int step = topStep; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= rank) {
+                position = next;
+                rank -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Gets the number of free cells.
+     *
+     * @return Number of free cells.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,133 @@
+package com.mygdx.snakegame;
+
+import java.util.Arrays;
+
+/**
+ * Carries the events of a simulation to consumers on other threads, such as logging and sound,
+ * so the thread stepping the simulation never formats a message, writes a file or plays a sound.
+ * <p>
+ * Events are copied into a preallocated ring of parallel arrays (type, player, tick). One
+ * thread publishes; each consumer drains its own {@link Subscription} in batches, whenever it
+ * suits it. A slot is only reused once every subscription has drained it, and publishing never
+ * waits: if the slowest subscription is a whole ring behind, new events are dropped and counted.
+ * The publisher makes a batch visible with a single volatile write, and rereads the cursors of
+ * the subscriptions only when the ring looks full, so publishing a step costs a few array writes.
+ */
+public class GameEventBus {
+    private final int mask; // Capacity - 1, the capacity being a power of two
+    private final int[] types; // Type of each event
+    private final int[] players; // Player concerned by each event
+    private final long[] ticks; // Tick of each event
+    private volatile long published; // Sequence number after the last published event
+    private volatile long dropped; // Events dropped because the ring was full, only written by the publisher
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    private long gate; // Lowest subscription cursor seen by the publisher, only used by the publisher
+
+    /**
+     * Creates an empty bus.
+     *
+     * @param capacity Number of events the ring holds, rounded up to a power of two.
+     */
+    public GameEventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        mask = size - 1;
+        types = new int[size];
+        players = new int[size];
+        ticks = new long[size];
+    }
+
+    /**
+     * Adds a consumer, which receives every event published from now on. Consumers should
+     * subscribe before the publisher starts.
+     *
+     * @return New subscription, to drain from one thread.
+     */
+    public synchronized Subscription subscribe() {
+        Subscription subscription = new Subscription(published);
+        Subscription[] grown = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        grown[grown.length - 1] = subscription;
+        subscriptions = grown;
+        return subscription;
+    }
+
+    /**
+     * Publishes the events of a simulation step. Publisher only.
+     *
+     * @param events Events of the step.
+     * @param tick   Tick of the step.
+     */
+    public void publish(GameEvents events, long tick) {
+        long next = published;
+        for (int i = 0; i < events.size(); i++) {
+            if (next - gate > mask) {
+                gate = lowestCursor(next);
+                if (next - gate > mask) {
+                    dropped++; // The slowest consumer would lose an event it has not read
+                    continue;
+                }
+            }
+            int slot = (int) next & mask;
+            types[slot] = events.getType(i);
+            players[slot] = events.getPlayer(i);
+            ticks[slot] = tick;
+            next++;
+        }
+        published = next;
+    }
+
+    /**
+     * Finds the cursor of the slowest subscription.
+     *
+     * @param next Sequence number of the next event, returned if there is no subscription.
+     * @return Lowest sequence number not drained by every subscription.
+     */
+    private long lowestCursor(long next) {
+        long lowest = next;
+        for (Subscription subscription : subscriptions) {
+            lowest = Math.min(lowest, subscription.cursor);
+        }
+        return lowest;
+    }
+
+    /**
+     * Gets the number of events dropped because a consumer was a whole ring behind.
+     *
+     * @return Number of dropped events.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Position of one consumer in the ring.
+     */
+    public class Subscription {
+        private volatile long cursor; // Sequence number of the next event to drain
+
+        /**
+         * Creates a subscription starting at a sequence number.
+         *
+         * @param cursor Sequence number of the first event to drain.
+         */
+        Subscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Hands every event published since the last drain to a handler, then frees their slots.
+         *
+         * @param handler Handler of the events.
+         * @return Number of events drained.
+         */
+        public int drain(GameEventHandler handler) {
+            long start = cursor;
+            long end = published;
+            for (long sequence = start; sequence < end; sequence++) {
+                int slot = (int) sequence & mask;
+                handler.onEvent(types[slot], players[slot], ticks[slot]);
+            }
+            cursor = end;
+            return (int) (end - start);
+        }
+    }
+}
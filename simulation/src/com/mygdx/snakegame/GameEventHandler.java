@@ -0,0 +1,15 @@
+package com.mygdx.snakegame;
+
+/**
+ * Receives the events drained from a {@link GameEventBus}, one call per event, oldest first.
+ */
+public interface GameEventHandler {
+    /**
+     * Handles an event.
+     *
+     * @param type   One of the {@link GameEvents} types.
+     * @param player Player concerned by the event, 0 if none.
+     * @param tick   Tick of the step that produced the event.
+     */
+    void onEvent(int type, int player, long tick);
+}
@@ -0,0 +1,86 @@
+package com.mygdx.snakegame;
+
+/**
+ * Reusable buffer of the events produced by one simulation step.
+ * Each event has a type and the id of the player it concerns (1-based, 0 if none),
+ * stored in preallocated parallel arrays so stepping does not allocate.
+ * Consumers on other threads receive them through a {@link GameEventBus}.
+ */
+public class GameEvents {
+    /** A snake ate the food. Player: the snake that ate it. */
+    public static final int FOOD_EATEN = 0;
+    /** A snake collected the bonus item. Player: the snake that collected it. */
+    public static final int BONUS_COLLECTED = 1;
+    /** A snake's head hit another snake and it was eliminated. Player: the eliminated snake. */
+    public static final int SNAKES_COLLIDED = 2;
+    /** A snake hit the wall and was eliminated. Player: the eliminated snake. */
+    public static final int WALL_HIT = 3;
+    /** A snake hit its own body and was eliminated. Player: the eliminated snake. */
+    public static final int SELF_HIT = 4;
+    /** No free cell was left for the food. Player: none. */
+    public static final int BOARD_FULL = 5;
+    /** The match ended and the simulation was reset. Player: the winner, 0 for a draw. */
+    public static final int GAME_OVER = 6;
+
+    private final int[] types; // Type of each event
+    private final int[] players; // Player concerned by each event
+    private int count; // Number of events in the buffer
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param capacity Maximum number of events a single step can produce.
+     */
+    GameEvents(int capacity) {
+        types = new int[capacity];
+        players = new int[capacity];
+    }
+
+    /**
+     * Removes every event from the buffer.
+     */
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * Appends an event to the buffer.
+     *
+     * @param type   Type of the event.
+     * @param player Player concerned by the event, 0 if none.
+     */
+    void add(int type, int player) {
+        types[count] = type;
+        players[count] = player;
+        count++;
+    }
+
+    /**
+     * Gets the number of events in the buffer.
+     *
+     * @return Number of events.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the type of an event.
+     *
+     * @param index Index of the event.
+     * @return Type of the event.
+     */
+    public int getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Gets the player concerned by an event.
+     *
+     * @param index Index of the event.
+     * @return 1-based player id, or 0 if none.
+     */
+    public int getPlayer(int index) {
+        return players[index];
+    }
+}
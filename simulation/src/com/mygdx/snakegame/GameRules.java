@@ -0,0 +1,118 @@
+package com.mygdx.snakegame;
+
+/**
+ * Tunable constants of the rules: how often the bonus item appears and how long it stays, how
+ * long it keeps a snake invulnerable, how much each food speeds a snake up and how many items of
+ * each kind can be on the grid at once. Matches use
+ * {@link #DEFAULT}; tools such as the tournament runner try other values. Replays and network
+ * states do not carry the rules, so they are only valid with the defaults.
+ */
+public final class GameRules {
+    /** Rules of a normal match. */
+    public static final GameRules DEFAULT = new GameRules(15 * GameSimulation.TICKS_PER_SECOND,
+            5 * GameSimulation.TICKS_PER_SECOND, 3 * GameSimulation.TICKS_PER_SECOND, 10);
+
+    private final int bonusSpawnInterval; // Ticks between two appearances of the bonus item
+    private final int bonusDuration; // Ticks the bonus item stays on the grid
+    private final int invulnerabilityDuration; // Ticks of invulnerability given by the bonus item
+    private final int speedIncrease; // Speed added by each food, in percent of the initial speed
+    private final int foodCount; // Food items kept on the grid
+    private final int maxBonusItems; // Most bonus items on the grid at once
+
+    /**
+     * Creates a set of rules with one food and at most one bonus item on the grid.
+     *
+     * @param bonusSpawnInterval      Ticks between two appearances of the bonus item, at least 1.
+     * @param bonusDuration           Ticks the bonus item stays on the grid.
+     * @param invulnerabilityDuration Ticks of invulnerability given by the bonus item.
+     * @param speedIncrease           Speed added by each food, in percent of the initial speed.
+     */
+    public GameRules(int bonusSpawnInterval, int bonusDuration, int invulnerabilityDuration, int speedIncrease) {
+        this(bonusSpawnInterval, bonusDuration, invulnerabilityDuration, speedIncrease, 1, 1);
+    }
+
+    /**
+     * Creates a set of rules.
+     *
+     * @param bonusSpawnInterval      Ticks between two appearances of a bonus item, at least 1.
+     * @param bonusDuration           Ticks a bonus item stays on the grid.
+     * @param invulnerabilityDuration Ticks of invulnerability given by a bonus item.
+     * @param speedIncrease           Speed added by each food, in percent of the initial speed.
+     * @param foodCount               Food items kept on the grid, at least 1; each one eaten is replaced.
+     * @param maxBonusItems           Most bonus items on the grid at once; no more spawn until one goes.
+     */
+    public GameRules(int bonusSpawnInterval, int bonusDuration, int invulnerabilityDuration, int speedIncrease,
+                     int foodCount, int maxBonusItems) {
+        this.bonusSpawnInterval = bonusSpawnInterval;
+        this.bonusDuration = bonusDuration;
+        this.invulnerabilityDuration = invulnerabilityDuration;
+        this.speedIncrease = speedIncrease;
+        this.foodCount = foodCount;
+        this.maxBonusItems = maxBonusItems;
+    }
+
+    /**
+     * Gets the number of ticks between two appearances of the bonus item.
+     *
+     * @return Spawn interval in ticks.
+     */
+    public int getBonusSpawnInterval() {
+        return bonusSpawnInterval;
+    }
+
+    /**
+     * Gets the number of ticks the bonus item stays on the grid.
+     *
+     * @return Duration in ticks.
+     */
+    public int getBonusDuration() {
+        return bonusDuration;
+    }
+
+    /**
+     * Gets the number of ticks of invulnerability given by the bonus item.
+     *
+     * @return Duration in ticks.
+     */
+    public int getInvulnerabilityDuration() {
+        return invulnerabilityDuration;
+    }
+
+    /**
+     * Gets the speed added by each food.
+     *
+     * @return Increase in percent of the initial speed.
+     */
+    public int getSpeedIncrease() {
+        return speedIncrease;
+    }
+
+    /**
+     * Gets the number of food items kept on the grid.
+     *
+     * @return Number of food items.
+     */
+    public int getFoodCount() {
+        return foodCount;
+    }
+
+    /**
+     * Gets the most bonus items on the grid at once.
+     *
+     * @return Number of bonus items.
+     */
+    public int getMaxBonusItems() {
+        return maxBonusItems;
+    }
+
+    /**
+     * Describes the rules, for logs and reports.
+     *
+     * @return Values of every constant.
+     */
+    @Override
+    public String toString() {
+        return "bonusSpawnInterval=" + bonusSpawnInterval + ", bonusDuration=" + bonusDuration
+                + ", invulnerabilityDuration=" + invulnerabilityDuration + ", speedIncrease=" + speedIncrease + "%, foodCount=" + foodCount + ", maxBonusItems=" + maxBonusItems;
+    }
+}
@@ -0,0 +1,612 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
+
+import java.util.Random;
+
+/**
+ * Rules of a match between any number of players, independent of any graphics, input or audio backend.
+ * The simulation is advanced one fixed-length tick at a time by {@link #step(int[])}
+ * with the players' inputs, and reports what happened through a reusable {@link GameEvents} buffer.
+ * Given the same grid size, player count, seed and inputs it always produces the same result.
+ * <p>
+ * The snakes, items and timed effects are entities of an Ashley {@link PooledEngine}, and each
+ * rule is a system run once per tick in the order of its priority: {@link MovementSystem},
+ * {@link PickupSystem}, {@link CollisionSystem}, {@link SpawnSystem} and {@link TimerSystem}.
+ * Entities and components come from pools, so items spawning and effects running out do not
+ * allocate. The systems over the snakes loop over the players in order, reading their
+ * components from arrays rather than through a family, which saves a component lookup per
+ * snake and per system. Timed effects and item lifetimes are timers of a {@link TimerWheel}, so a tick only
+ * spends time on those running out. A snake whose head hits a wall, its own body or another
+ * snake is eliminated; the match ends when at most one snake is left.
+ */
+public class GameSimulation {
+    /** Number of players in a local match. */
+    public static final int DEFAULT_PLAYER_COUNT = 2;
+    /** Number of simulation ticks per second of game time. */
+    public static final int TICKS_PER_SECOND = 60;
+
+    // Order of the systems in a tick, lowest first
+    static final int MOVEMENT_PRIORITY = 0; // Steer and move the snakes
+    static final int PICKUP_PRIORITY = 1; // Let the snakes that moved pick up items
+    static final int COLLISION_PRIORITY = 2; // Eliminate the snakes that hit something
+    static final int SPAWN_PRIORITY = 3; // Replace the food and spawn the bonus item
+    static final int TIMER_PRIORITY = 4; // Fire the timers of the effects and item lifetimes
+    static final int TIMER_SLOTS = 1024; // Slots of the timer wheel, more than the ticks of any default timer
+    private static final int NO_WINNER = -1; // Winner while the match goes on
+
+    private final PooledEngine engine; // Entities of the snakes and items, and the systems of the rules
+    private final OccupancyGrid grid; // Cells covered by the snakes and items
+    private final ItemIndex items; // Items on the grid, by cell
+    private final TimerWheel timers = new TimerWheel(TIMER_SLOTS); // Timers of the effects and item lifetimes
+    private final SimulationRandom random; // Seeded random number generator used to spawn items
+    private final GameEvents events; // Events of the current step
+    private final int playerCount; // Number of players in the match
+    private final MovementSystem movement;
+    private final SpawnSystem spawner;
+    private long tick; // Ticks elapsed since the start of the match
+    private int winner; // Winner of the match ended during the current tick, NO_WINNER while it goes on
+
+    private final Entity[] snakeEntities; // Entity of each player's snake, indexed from 0
+    private final PlayerComponent[] players; // State of each player, indexed from 0; the snake of player p has id p + 1
+    private final int[] finalScores; // Score of each player when the last match ended
+    private int aliveCount; // Number of snakes still in the match
+
+    /**
+     * Creates a two-player simulation with both snakes at their starting positions.
+     *
+     * @param gridWidth  Size of the grid on the X-axis.
+     * @param gridHeight Size of the grid on the Y-axis.
+     * @param seed       Seed of the random number generator used to spawn items.
+     */
+    public GameSimulation(int gridWidth, int gridHeight, long seed) {
+        this(gridWidth, gridHeight, DEFAULT_PLAYER_COUNT, seed);
+    }
+
+    /**
+     * Creates a simulation with every snake at its starting position.
+     * Snakes start on a lattice spread over the grid, which needs at least
+     * two cells per lattice column and row.
+     *
+     * @param gridWidth   Size of the grid on the X-axis.
+     * @param gridHeight  Size of the grid on the Y-axis.
+     * @param playerCount Number of players, at least 1.
+     * @param seed        Seed of the random number generator used to spawn items.
+     */
+    public GameSimulation(int gridWidth, int gridHeight, int playerCount, long seed) {
+        this(gridWidth, gridHeight, playerCount, seed, GameRules.DEFAULT);
+    }
+
+    /**
+     * Creates a simulation with every snake at its starting position, playing by tuned rules.
+     *
+     * @param gridWidth   Size of the grid on the X-axis.
+     * @param gridHeight  Size of the grid on the Y-axis.
+     * @param playerCount Number of players, at least 1.
+     * @param seed        Seed of the random number generator used to spawn items.
+     * @param rules       Constants of the rules.
+     */
+    public GameSimulation(int gridWidth, int gridHeight, int playerCount, long seed, GameRules rules) {
+        this.playerCount = playerCount;
+        grid = new OccupancyGrid(gridWidth, gridHeight);
+        random = new SimulationRandom(seed);
+        events = new GameEvents(2 * playerCount + 2);
+        engine = new PooledEngine();
+        items = new ItemIndex(engine, grid, rules, timers);
+
+        snakeEntities = new Entity[playerCount];
+        players = new PlayerComponent[playerCount];
+        finalScores = new int[playerCount];
+        for (int p = 0; p < playerCount; p++) {
+            Snake snake = new Snake(grid, p + 1, getStartX(p), getStartY(p), getStartDirection(p));
+            snake.setSpeedIncrease(rules.getSpeedIncrease());
+            PlayerComponent player = engine.createComponent(PlayerComponent.class);
+            player.player = p + 1;
+            player.snake = snake;
+            Entity entity = engine.createEntity();
+            entity.add(player);
+            engine.addEntity(entity);
+            snakeEntities[p] = entity;
+            players[p] = player;
+        }
+
+        movement = new MovementSystem(this);
+        spawner = new SpawnSystem(this, rules);
+        engine.addSystem(movement);
+        engine.addSystem(new PickupSystem(this));
+        engine.addSystem(new CollisionSystem(this));
+        engine.addSystem(spawner);
+        engine.addSystem(new TimerSystem(this));
+        reset();
+    }
+
+    /**
+     * Gets the number of columns of the starting lattice.
+     *
+     * @return Number of columns.
+     */
+    private int getStartColumns() {
+        return (int) Math.ceil(Math.sqrt(playerCount));
+    }
+
+    /**
+     * Gets the starting X position of a player's snake.
+     *
+     * @param p Player index.
+     * @return X coordinate.
+     */
+    private int getStartX(int p) {
+        int columns = getStartColumns();
+        return (2 * (p % columns) + 1) * grid.getWidth() / (2 * columns);
+    }
+
+    /**
+     * Gets the starting Y position of a player's snake.
+     *
+     * @param p Player index.
+     * @return Y coordinate.
+     */
+    private int getStartY(int p) {
+        int columns = getStartColumns();
+        int rows = (playerCount + columns - 1) / columns;
+        return (2 * (p / columns) + 1) * grid.getHeight() / (2 * rows);
+    }
+
+    /**
+     * Gets the starting direction of a player's snake, facing the centre of the grid.
+     *
+     * @param p Player index.
+     * @return One of the {@link Direction} constants.
+     */
+    private int getStartDirection(int p) {
+        int columns = getStartColumns();
+        return p % columns < columns / 2 ? Direction.RIGHT : Direction.LEFT;
+    }
+
+    /**
+     * Advances the simulation by one tick.
+     *
+     * @param inputs Direction requested by each player, indexed from 0, or {@link Direction#NONE}.
+     *               Requests to reverse the current direction are ignored.
+     * @return Events produced by this step. The buffer is reused by the next step.
+     */
+    public GameEvents step(int[] inputs) {
+        events.clear();
+        tick++;
+        movement.setInputs(inputs);
+        engine.update(1);
+        // Reset outside of the engine update, where entity changes apply at once
+        if (winner != NO_WINNER) {
+            gameOver(winner);
+        }
+        return events;
+    }
+
+    /**
+     * Ends the match at the end of the current tick. The systems after the one ending it are skipped.
+     *
+     * @param winner Id of the winner, or 0 for a draw.
+     */
+    void endMatch(int winner) {
+        this.winner = winner;
+    }
+
+    /**
+     * Checks if the match ended during the current tick.
+     *
+     * @return True once a system has ended the match.
+     */
+    boolean isMatchOver() {
+        return winner != NO_WINNER;
+    }
+
+    /**
+     * Takes an eliminated snake off the grid.
+     *
+     * @param player Player of the snake.
+     */
+    void eliminate(PlayerComponent player) {
+        player.eliminated = false;
+        player.alive = false;
+        aliveCount--;
+        player.snake.clear();
+    }
+
+    /**
+     * Sets the invulnerability of a snake, replacing any it had.
+     *
+     * @param entity Snake entity.
+     * @param ticks  Ticks of invulnerability, 0 to make the snake vulnerable.
+     */
+    void setInvulnerable(Entity entity, int ticks) {
+        InvulnerableComponent invulnerable = Mappers.INVULNERABLE.get(entity);
+        if (invulnerable != null && invulnerable.timer != TimerWheel.NO_TIMER) {
+            timers.cancel(invulnerable.timer);
+            invulnerable.timer = TimerWheel.NO_TIMER;
+        }
+        if (ticks <= 0) {
+            if (invulnerable != null) {
+                entity.remove(InvulnerableComponent.class);
+            }
+            return;
+        }
+        if (invulnerable == null) {
+            invulnerable = engine.createComponent(InvulnerableComponent.class);
+            entity.add(invulnerable);
+        }
+        invulnerable.timer = timers.schedule(TimerSystem.INVULNERABILITY, entity, ticks);
+    }
+
+    /**
+     * Gets the only snake left in the match.
+     *
+     * @return Id of the surviving player.
+     */
+    int survivor() {
+        for (int p = 0; p < playerCount; p++) {
+            if (players[p].alive) {
+                return p + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the winner of the game based on scores.
+     *
+     * @return Id of the player with the highest score, or 0 for a draw.
+     */
+    int winnerByScore() {
+        int winner = 0;
+        int best = -1;
+        for (int p = 0; p < playerCount; p++) {
+            int score = players[p].score;
+            if (score > best) {
+                best = score;
+                winner = p + 1;
+            } else if (score == best) {
+                winner = 0;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Reports the end of the match and resets the simulation.
+     *
+     * @param winner Id of the winner, or 0 for a draw.
+     */
+    private void gameOver(int winner) {
+        events.add(GameEvents.GAME_OVER, winner);
+        for (int p = 0; p < playerCount; p++) {
+            finalScores[p] = players[p].score;
+        }
+        reset();
+    }
+
+    /**
+     * Resets the game state to start a new game. Every item is taken off the grid before the food
+     * is placed again, so a match only depends on the state of the random number generator.
+     */
+    public void reset() {
+        for (int p = 0; p < playerCount; p++) {
+            PlayerComponent player = players[p];
+            player.direction = getStartDirection(p);
+            player.snake.reset(getStartX(p), getStartY(p), player.direction);
+            player.score = 0;
+            player.alive = true;
+            player.moved = false;
+            player.eliminated = false;
+            setInvulnerable(snakeEntities[p], 0);
+        }
+        aliveCount = playerCount;
+        items.clear();
+        spawner.reset();
+        tick = 0;
+        winner = NO_WINNER;
+    }
+
+    /**
+     * Starts a new match with the random number generator seeded again, which lets one
+     * simulation play many reproducible matches.
+     *
+     * @param seed Seed of the random number generator used to spawn items.
+     */
+    public void reset(long seed) {
+        random.setSeed(seed);
+        reset();
+    }
+
+    /**
+     * Gets the number of ticks elapsed since the start of the match.
+     *
+     * @return Tick counter, reset to 0 when a match ends.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the number of players in the match.
+     *
+     * @return Number of players.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Gets the direction a player is steering towards.
+     *
+     * @param player 1-based player id.
+     * @return One of the {@link Direction} constants.
+     */
+    public int getDirection(int player) {
+        return players[player - 1].direction;
+    }
+
+    /**
+     * Gets the state of a player, for the systems.
+     *
+     * @param player 1-based player id.
+     * @return Component of the player.
+     */
+    PlayerComponent getPlayer(int player) {
+        return players[player - 1];
+    }
+
+    /**
+     * Gets the entity of a player's snake, for the systems.
+     *
+     * @param player 1-based player id.
+     * @return Snake entity.
+     */
+    Entity getSnakeEntity(int player) {
+        return snakeEntities[player - 1];
+    }
+
+    /**
+     * Gets a player's snake.
+     *
+     * @param player 1-based player id.
+     * @return Snake of the player, with an empty body once eliminated.
+     */
+    public Snake getSnake(int player) {
+        return players[player - 1].snake;
+    }
+
+    /**
+     * Gets a player's score.
+     *
+     * @param player 1-based player id.
+     * @return Score of the player.
+     */
+    public int getScore(int player) {
+        return players[player - 1].score;
+    }
+
+    /**
+     * Gets the score a player had when the last match ended, since the scores are reset with
+     * the simulation on {@link GameEvents#GAME_OVER}.
+     *
+     * @param player Player id.
+     * @return Final score of the last match, 0 before any match ended.
+     */
+    public int getFinalScore(int player) {
+        return finalScores[player - 1];
+    }
+
+    /**
+     * Checks if a player's snake is invulnerable.
+     *
+     * @param player 1-based player id.
+     * @return True if the snake is invulnerable.
+     */
+    public boolean isInvulnerable(int player) {
+        return Mappers.INVULNERABLE.has(snakeEntities[player - 1]);
+    }
+
+    /**
+     * Checks if a player's snake is still in the match.
+     *
+     * @param player 1-based player id.
+     * @return True if the snake has not been eliminated.
+     */
+    public boolean isAlive(int player) {
+        return players[player - 1].alive;
+    }
+
+    /**
+     * Gets the number of snakes still in the match.
+     *
+     * @return Number of snakes not eliminated.
+     */
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * Gets the ticks of invulnerability a player's snake has left.
+     *
+     * @param player 1-based player id.
+     * @return Ticks left, 0 if the snake is vulnerable.
+     */
+    int getInvulnerableTicks(int player) {
+        InvulnerableComponent invulnerable = Mappers.INVULNERABLE.get(snakeEntities[player - 1]);
+        return invulnerable != null && invulnerable.timer != TimerWheel.NO_TIMER
+                ? (int) timers.getRemaining(invulnerable.timer) : 0;
+    }
+
+    /**
+     * Gets the ticks left before the next bonus item spawns.
+     *
+     * @return Bonus spawn timer in ticks.
+     */
+    int getBonusSpawnTimer() {
+        return spawner.getBonusSpawnTimer();
+    }
+
+    /**
+     * Replaces the first item of a kind, to set up a board by hand, such as in the benchmarks.
+     *
+     * @param kind   One of the {@link ItemComponent} kinds.
+     * @param active Indicates whether the item is on the grid.
+     * @param x      X coordinate of the item.
+     * @param y      Y coordinate of the item.
+     */
+    void restoreItem(int kind, boolean active, int x, int y) {
+        Entity item = items.find(kind);
+        if (item != null) {
+            items.remove(item);
+        }
+        if (active) {
+            items.spawn(kind, x, y);
+        }
+    }
+
+    /**
+     * Takes every item off the grid, before the items of a snapshot are placed.
+     */
+    void clearItems() {
+        items.clear();
+    }
+
+    /**
+     * Places an item of a snapshot on the grid, next to the items already there.
+     *
+     * @param kind     One of the {@link ItemComponent} kinds.
+     * @param x        X coordinate of the item.
+     * @param y        Y coordinate of the item.
+     * @param lifetime Ticks left before the item disappears, 0 if it stays until picked up.
+     */
+    void placeItem(int kind, int x, int y, long lifetime) {
+        items.setLifetime(items.spawn(kind, x, y), lifetime);
+    }
+
+    /**
+     * Restores the match-wide counters from a snapshot.
+     *
+     * @param tick            Ticks elapsed since the start of the match.
+     * @param bonusSpawnTimer Ticks left before the next bonus item spawns.
+     */
+    void restoreTimers(long tick, int bonusSpawnTimer) {
+        this.tick = tick;
+        spawner.setBonusSpawnTimer(bonusSpawnTimer);
+    }
+
+    /**
+     * Restores the state of a player from a snapshot. The snake itself is restored separately.
+     *
+     * @param player            1-based player id.
+     * @param direction         Direction the player is steering towards.
+     * @param score             Score of the player.
+     * @param invulnerableTicks Ticks of invulnerability left.
+     * @param alive             Indicates whether the snake is still in the match.
+     */
+    void restorePlayer(int player, int direction, int score, int invulnerableTicks, boolean alive) {
+        PlayerComponent state = players[player - 1];
+        if (state.alive != alive) {
+            aliveCount += alive ? 1 : -1;
+        }
+        state.direction = direction;
+        state.score = score;
+        state.alive = alive;
+        setInvulnerable(snakeEntities[player - 1], invulnerableTicks);
+    }
+
+    /**
+     * Gets the state of the random number generator used to spawn items.
+     *
+     * @return Generator state.
+     */
+    long getRandomState() {
+        return random.getState();
+    }
+
+    /**
+     * Restores the state of the random number generator, so a restored snapshot
+     * spawns the same items as the original.
+     *
+     * @param state Generator state returned by {@link #getRandomState()}.
+     */
+    void setRandomState(long state) {
+        random.setState(state);
+    }
+
+    /**
+     * Gets the first item of a kind on the grid, such as the food.
+     *
+     * @param kind One of the {@link ItemComponent} kinds.
+     * @return Item entity, with a {@link CellComponent} and an {@link ItemComponent}, or null if there is none.
+     */
+    public Entity getItem(int kind) {
+        return items.find(kind);
+    }
+
+    /**
+     * Gets the number of items on the grid.
+     *
+     * @return Number of items.
+     */
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * Gets the index of the items on the grid.
+     *
+     * @return Item index.
+     */
+    ItemIndex getItemIndex() {
+        return items;
+    }
+
+    /**
+     * Gets the wheel of the timers of the effects and item lifetimes.
+     *
+     * @return Timer wheel.
+     */
+    TimerWheel getTimers() {
+        return timers;
+    }
+
+    /**
+     * Gets the random number generator used to spawn items.
+     *
+     * @return Random number generator.
+     */
+    Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Gets the buffer of the events of the current step.
+     *
+     * @return Events buffer.
+     */
+    GameEvents getEvents() {
+        return events;
+    }
+
+    /**
+     * Gets the engine holding the entities of the snakes and items. Systems added by a client
+     * should disable their processing so the ticks do not run them. Like the rest of the
+     * simulation, the engine may only be used by the thread stepping it; other threads read
+     * a {@link RenderState} instead.
+     *
+     * @return Entity engine.
+     */
+    public PooledEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Gets the occupancy grid of the snakes and items.
+     *
+     * @return Occupancy grid.
+     */
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,186 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.utils.ImmutableArray;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the full state of a {@link GameSimulation} to a byte buffer and reads it back.
+ * The state read back renders and continues exactly like the original, except for
+ * the random number generator, which is not part of the snapshot.
+ * <p>
+ * Layout, big-endian: tick (int), player count (byte), bonus spawn timer (int), item count
+ * (int), then for each item: kind (byte), x and y (shorts) and ticks left before it disappears
+ * (int, 0 if it stays until picked up), then
+ * for each player: steering direction (byte), direction of the last move (byte), flags (byte: alive, growing), score (int),
+ * invulnerable ticks (short), speed level (short), ticks since move (short),
+ * previous tail x and y (shorts), length (int) and the segments from the head (x and y shorts).
+ * Items are written in the order of the engine and placed back in that order, so a state read
+ * back spawns and expires its items like the original whatever the number of each kind.
+ */
+public final class GameStateCodec {
+    private static final int FLAG_ALIVE = 1; // The snake is still in the match
+    private static final int FLAG_GROWING = 2; // The snake grows on its next move
+
+    private static final int HEADER_SIZE = 13; // Bytes written before the first item
+    private static final int ITEM_SIZE = 9; // Bytes written per item
+    private static final int PLAYER_SIZE = 21; // Bytes written per player before its segments
+    private static final int SEGMENT_SIZE = 4; // Bytes written per segment
+
+    private GameStateCodec() {
+    }
+
+    /**
+     * Gets the size of the state of a simulation whose items cover every cell of the grid, items
+     * being larger than segments, which bounds the size of any state reached without
+     * invulnerable overlaps.
+     *
+     * @param gridWidth   Size of the grid on the X-axis.
+     * @param gridHeight  Size of the grid on the Y-axis.
+     * @param playerCount Number of players.
+     * @return Size in bytes.
+     */
+    public static int getMaxSize(int gridWidth, int gridHeight, int playerCount) {
+        return HEADER_SIZE + playerCount * PLAYER_SIZE + gridWidth * gridHeight * ITEM_SIZE;
+    }
+
+    /**
+     * Gets the size of the current state of a simulation.
+     *
+     * @param simulation Simulation to encode.
+     * @return Size in bytes of what {@link #write(GameSimulation, ByteBuffer)} writes.
+     */
+    public static int getSize(GameSimulation simulation) {
+        int size = HEADER_SIZE + simulation.getItemCount() * ITEM_SIZE + simulation.getPlayerCount() * PLAYER_SIZE;
+        for (int player = 1; player <= simulation.getPlayerCount(); player++) {
+            size += simulation.getSnake(player).getSegments().size() * SEGMENT_SIZE;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the state of a simulation at the buffer's position.
+     *
+     * @param simulation Simulation to encode.
+     * @param buffer     Destination buffer.
+     * @throws java.nio.BufferOverflowException If the state does not fit in the buffer.
+     */
+    public static void write(GameSimulation simulation, ByteBuffer buffer) {
+        buffer.putInt((int) simulation.getTick());
+        buffer.put((byte) simulation.getPlayerCount());
+        buffer.putInt(simulation.getBonusSpawnTimer());
+        ItemIndex index = simulation.getItemIndex();
+        ImmutableArray<Entity> items = index.getItems();
+        buffer.putInt(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Entity item = items.get(i);
+            CellComponent cell = Mappers.CELL.get(item);
+            buffer.put((byte) Mappers.ITEM.get(item).kind);
+            buffer.putShort((short) cell.x);
+            buffer.putShort((short) cell.y);
+            buffer.putInt((int) index.getLifetime(item));
+        }
+
+        for (int player = 1; player <= simulation.getPlayerCount(); player++) {
+            Snake snake = simulation.getSnake(player);
+            int flags = (simulation.isAlive(player) ? FLAG_ALIVE : 0) | (snake.isGrowing() ? FLAG_GROWING : 0);
+            buffer.put((byte) simulation.getDirection(player));
+            buffer.put((byte) snake.getDirection());
+            buffer.put((byte) flags);
+            buffer.putInt(simulation.getScore(player));
+            buffer.putShort((short) simulation.getInvulnerableTicks(player));
+            buffer.putShort((short) snake.getSpeedLevel());
+            buffer.putShort((short) snake.getTicksSinceMove());
+            buffer.putShort((short) snake.getPrevTailX());
+            buffer.putShort((short) snake.getPrevTailY());
+            SnakeBody body = snake.getSegments();
+            buffer.putInt(body.size());
+            for (int i = 0; i < body.size(); i++) {
+                buffer.putShort((short) body.getX(i));
+                buffer.putShort((short) body.getY(i));
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the bytes left in a buffer hold a whole state for a simulation, so that
+     * {@link #read(ByteBuffer, GameSimulation)} neither runs past them nor refuses the player
+     * count. Only the lengths are checked; the buffer's position is left unchanged.
+     *
+     * @param buffer     Source buffer, positioned at the start of the state.
+     * @param simulation Simulation the state would be read into.
+     * @return True if the state is complete, false if it is cut short or for another player count.
+     */
+    public static boolean isComplete(ByteBuffer buffer, GameSimulation simulation) {
+        int offset = buffer.position();
+        int end = buffer.limit();
+        if (end - offset < HEADER_SIZE || buffer.get(offset + 4) != simulation.getPlayerCount()) {
+            return false;
+        }
+        int itemCount = buffer.getInt(offset + HEADER_SIZE - 4); // Last field before the items
+        offset += HEADER_SIZE;
+        if (itemCount < 0 || itemCount > (end - offset) / ITEM_SIZE) {
+            return false;
+        }
+        offset += itemCount * ITEM_SIZE;
+        for (int player = 1; player <= simulation.getPlayerCount(); player++) {
+            if (end - offset < PLAYER_SIZE) {
+                return false;
+            }
+            int length = buffer.getInt(offset + PLAYER_SIZE - 4); // Last field before the segments
+            offset += PLAYER_SIZE;
+            if (length < 0 || length > (end - offset) / SEGMENT_SIZE) {
+                return false;
+            }
+            offset += length * SEGMENT_SIZE;
+        }
+        return true;
+    }
+
+    /**
+     * Reads a state written by {@link #write(GameSimulation, ByteBuffer)} into a simulation
+     * with the same grid size and player count, replacing its current state.
+     *
+     * @param buffer     Source buffer, positioned at the start of the state.
+     * @param simulation Simulation to overwrite.
+     * @throws IllegalArgumentException If the player count does not match.
+     */
+    public static void read(ByteBuffer buffer, GameSimulation simulation) {
+        long tick = buffer.getInt();
+        int playerCount = buffer.get();
+        if (playerCount != simulation.getPlayerCount()) {
+            throw new IllegalArgumentException("Expected " + simulation.getPlayerCount() + " players, got " + playerCount);
+        }
+        simulation.restoreTimers(tick, buffer.getInt());
+        simulation.clearItems();
+        int itemCount = buffer.getInt();
+        for (int i = 0; i < itemCount; i++) {
+            int kind = buffer.get();
+            int x = buffer.getShort();
+            int y = buffer.getShort();
+            simulation.placeItem(kind, x, y, buffer.getInt());
+        }
+
+        for (int player = 1; player <= playerCount; player++) {
+            int direction = buffer.get();
+            int moveDirection = buffer.get();
+            int flags = buffer.get();
+            int score = buffer.getInt();
+            int invulnerableTicks = buffer.getShort();
+            int speedLevel = buffer.getShort();
+            int ticksSinceMove = buffer.getShort();
+            int prevTailX = buffer.getShort();
+            int prevTailY = buffer.getShort();
+            simulation.restorePlayer(player, direction, score, invulnerableTicks, (flags & FLAG_ALIVE) != 0);
+
+            Snake snake = simulation.getSnake(player);
+            snake.clear();
+            int length = buffer.getInt();
+            for (int i = 0; i < length; i++) {
+                snake.appendSegment(buffer.getShort(), buffer.getShort());
+            }
+            snake.restoreMotion(moveDirection, speedLevel, ticksSinceMove, (flags & FLAG_GROWING) != 0, prevTailX, prevTailY);
+        }
+    }
+}
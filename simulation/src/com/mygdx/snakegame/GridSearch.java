@@ -0,0 +1,198 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first searches over the free cells of an {@link OccupancyGrid}, for the bots.
+ * The queue, the visited marks and the parent of each cell are primitive arrays sized for the
+ * grid once and reused by every search; a cell counts as visited when its mark equals the stamp
+ * of the current search, so starting a search does not clear anything. Each search stops after
+ * visiting a given number of cells, which bounds its cost whatever the size of the grid.
+ * One instance can be shared by every bot planning on the same thread.
+ */
+public class GridSearch {
+    private int[] queue = new int[0]; // Cells to expand, in the order they were reached
+    private int[] marks = new int[0]; // Stamp of the last search that reached each cell
+    private int[] parents = new int[0]; // Cell each cell was reached from in the last search
+    private int stamp; // Stamp of the current search
+    private int width; // Size of the grid of the current search on the X-axis
+
+    /**
+     * Prepares the arrays for a new search on a grid.
+     *
+     * @param grid Grid to search.
+     */
+    private void begin(OccupancyGrid grid) {
+        width = grid.getWidth();
+        int cells = width * grid.getHeight();
+        if (marks.length < cells) {
+            queue = new int[cells];
+            marks = new int[cells];
+            parents = new int[cells];
+            stamp = 0;
+        }
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Finds a shortest path over free cells between a start cell and a target cell.
+     * The start cell itself may be covered, such as by the head of a snake.
+     *
+     * @param grid      Grid to search.
+     * @param startX    X coordinate of the start cell.
+     * @param startY    Y coordinate of the start cell.
+     * @param forbidden Direction the first step may not take, such as a reversal, or {@link Direction#NONE}.
+     * @param targetX   X coordinate of the target cell.
+     * @param targetY   Y coordinate of the target cell.
+     * @param budget    Maximum number of cells to visit.
+     * @return Direction of the first step of the path, or {@link Direction#NONE} if the target
+     * cannot be reached within the budget.
+     */
+    public int findPath(OccupancyGrid grid, int startX, int startY, int forbidden, int targetX, int targetY, int budget) {
+        begin(grid);
+        int start = startY * width + startX;
+        int target = targetY * width + targetX;
+        marks[start] = stamp;
+        queue[0] = start;
+        int read = 0;
+        int write = 1;
+        while (read < write && write <= budget) {
+            int cell = queue[read++];
+            int y = cell / width;
+            int x = cell - y * width;
+            for (int direction = Direction.UP; direction <= Direction.LEFT; direction++) {
+                if (cell == start && direction == forbidden) {
+                    continue;
+                }
+                int nx = x + Direction.dx(direction);
+                int ny = y + Direction.dy(direction);
+                if (!grid.isInside(nx, ny)) {
+                    continue;
+                }
+                int next = ny * width + nx;
+                if (marks[next] == stamp || grid.getCount(nx, ny) > 0) {
+                    continue;
+                }
+                marks[next] = stamp;
+                parents[next] = cell;
+                if (next == target) {
+                    return firstStep(start, target);
+                }
+                queue[write++] = next;
+            }
+        }
+        return Direction.NONE;
+    }
+
+    /**
+     * Finds a shortest path over free cells between a start cell and the nearest item of a kind,
+     * so a bot goes for whichever item it reaches first when the rules spawn several of a kind.
+     * The start cell itself may be covered, such as by the head of a snake.
+     *
+     * @param grid      Grid to search.
+     * @param items     Items on the grid.
+     * @param kind      One of the {@link ItemComponent} kinds.
+     * @param startX    X coordinate of the start cell.
+     * @param startY    Y coordinate of the start cell.
+     * @param forbidden Direction the first step may not take, such as a reversal, or {@link Direction#NONE}.
+     * @param budget    Maximum number of cells to visit.
+     * @return Direction of the first step of the path, or {@link Direction#NONE} if no item of
+     * the kind can be reached within the budget.
+     */
+    public int findPathToItem(OccupancyGrid grid, ItemIndex items, int kind, int startX, int startY, int forbidden, int budget) {
+        begin(grid);
+        int start = startY * width + startX;
+        marks[start] = stamp;
+        queue[0] = start;
+        int read = 0;
+        int write = 1;
+        while (read < write && write <= budget) {
+            int cell = queue[read++];
+            int y = cell / width;
+            int x = cell - y * width;
+            for (int direction = Direction.UP; direction <= Direction.LEFT; direction++) {
+                if (cell == start && direction == forbidden) {
+                    continue;
+                }
+                int nx = x + Direction.dx(direction);
+                int ny = y + Direction.dy(direction);
+                if (!grid.isInside(nx, ny)) {
+                    continue;
+                }
+                int next = ny * width + nx;
+                if (marks[next] == stamp || grid.getCount(nx, ny) > 0) {
+                    continue;
+                }
+                marks[next] = stamp;
+                parents[next] = cell;
+                if (!grid.isFree(nx, ny)) { // Reserved by an item
+                    Entity item = items.get(nx, ny);
+                    if (item != null && Mappers.ITEM.get(item).kind == kind) {
+                        return firstStep(start, next);
+                    }
+                }
+                queue[write++] = next;
+            }
+        }
+        return Direction.NONE;
+    }
+
+    /**
+     * Walks a path found by the last search back to its first step.
+     *
+     * @param start  Start cell of the path.
+     * @param target Last cell of the path.
+     * @return Direction of the step out of the start cell.
+     */
+    private int firstStep(int start, int target) {
+        int cell = target;
+        while (parents[cell] != start) {
+            cell = parents[cell];
+        }
+        return Direction.of(cell % width - start % width, cell / width - start / width);
+    }
+
+    /**
+     * Counts the free cells reachable from a free cell, itself included.
+     *
+     * @param grid  Grid to search.
+     * @param x     X coordinate of the cell.
+     * @param y     Y coordinate of the cell.
+     * @param limit Count at which the search stops.
+     * @return Number of reachable cells, at most {@code limit}, or 0 if the cell is not free.
+     */
+    public int countReachable(OccupancyGrid grid, int x, int y, int limit) {
+        if (!grid.isInside(x, y) || grid.getCount(x, y) > 0 || limit <= 0) {
+            return 0;
+        }
+        begin(grid);
+        int start = y * width + x;
+        marks[start] = stamp;
+        queue[0] = start;
+        int read = 0;
+        int write = 1;
+        while (read < write && write < limit) {
+            int cell = queue[read++];
+            int cy = cell / width;
+            int cx = cell - cy * width;
+            for (int direction = Direction.UP; direction <= Direction.LEFT && write < limit; direction++) {
+                int nx = cx + Direction.dx(direction);
+                int ny = cy + Direction.dy(direction);
+                if (!grid.isInside(nx, ny)) {
+                    continue;
+                }
+                int next = ny * width + nx;
+                if (marks[next] != stamp && grid.getCount(nx, ny) == 0) {
+                    marks[next] = stamp;
+                    queue[write++] = next;
+                }
+            }
+        }
+        return write;
+    }
+}
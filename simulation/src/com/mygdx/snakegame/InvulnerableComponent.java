@@ -0,0 +1,11 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Timed effect on a snake that only lets it die by hitting a wall.
+ * Removed from the snake when its timer fires.
+ */
+public class InvulnerableComponent implements Component {
+    public int timer = TimerWheel.NO_TIMER; // Timer removing the effect, on the wheel of the simulation
+}
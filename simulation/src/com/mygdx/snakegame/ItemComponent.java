@@ -0,0 +1,22 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Item a snake picks up by moving its head onto the item's cell, and what picking it up does.
+ * The effect is data, so a new kind of item only needs its values set in {@link ItemIndex}.
+ */
+public class ItemComponent implements Component {
+    /** Kind of the food, kept on the grid at all times. */
+    public static final int FOOD = 0;
+    /** Kind of the bonus item, spawned at intervals for a limited time. */
+    public static final int BONUS = 1;
+    /** Number of item kinds. */
+    public static final int KIND_COUNT = 2;
+
+    public int kind; // One of the kind constants
+    public int score; // Points given to the player
+    public boolean grows; // Indicates whether the snake grows and speeds up
+    public int invulnerability; // Ticks of invulnerability given to the snake, 0 for none
+    public int event; // Event reported when the item is picked up, one of the GameEvents constants
+}
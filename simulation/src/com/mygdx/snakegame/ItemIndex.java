@@ -0,0 +1,242 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.ashley.utils.ImmutableArray;
+
+import java.util.Random;
+
+/**
+ * Item entities on the grid, indexed by cell so a snake finds the item under its head in O(1)
+ * whatever the number of items. Items are pooled entities: spawning one reuses an entity and
+ * components freed by an earlier pickup, so items come and go without allocating. Components
+ * are not cleared when they return to the pool; every field is set when one is taken from it.
+ * Every cell holding an item is reserved on the occupancy grid, so snakes and other items avoid it.
+ * Items that disappear after a while hold a timer on the {@link TimerWheel} of the simulation,
+ * cancelled when they leave the grid earlier, so any number of them can wait at no cost per tick.
+ * <p>
+ * The index is updated as soon as an item spawns or is removed, while the engine only adds or
+ * removes the entity once the running system is done, so a removed item can never be picked
+ * up twice in the same tick.
+ */
+public class ItemIndex {
+    private static final Family ITEMS = Family.all(ItemComponent.class, CellComponent.class).get(); // Every item
+
+    private final PooledEngine engine;
+    private final OccupancyGrid grid;
+    private final GameRules rules;
+    private final TimerWheel timers; // Wheel of the item lifetimes
+    private final CellMap<Entity> cells = new CellMap<>(); // Item on each cell, keyed by y * width + x
+    private final int[] counts = new int[ItemComponent.KIND_COUNT]; // Number of items of each kind
+    private final ImmutableArray<Entity> items; // Items known to the engine
+
+    /**
+     * Creates an empty index.
+     *
+     * @param engine Engine holding the item entities.
+     * @param grid   Occupancy grid of the snakes and items.
+     * @param rules  Rules giving the effect and lifetime of each kind of item.
+     * @param timers Wheel on which the lifetimes are scheduled, advanced by the {@link TimerSystem}.
+     */
+    public ItemIndex(PooledEngine engine, OccupancyGrid grid, GameRules rules, TimerWheel timers) {
+        this.engine = engine;
+        this.grid = grid;
+        this.rules = rules;
+        this.timers = timers;
+        this.items = engine.getEntitiesFor(ITEMS);
+    }
+
+    /**
+     * Places a new item on a free cell.
+     *
+     * @param kind One of the {@link ItemComponent} kinds.
+     * @param x    X coordinate of the cell.
+     * @param y    Y coordinate of the cell.
+     * @return New item entity.
+     */
+    public Entity spawn(int kind, int x, int y) {
+        Entity entity = engine.createEntity();
+        ItemComponent item = engine.createComponent(ItemComponent.class);
+        item.kind = kind;
+        switch (kind) {
+            case ItemComponent.FOOD:
+                item.score = 1;
+                item.grows = true;
+                item.invulnerability = 0;
+                item.event = GameEvents.FOOD_EATEN;
+                break;
+            case ItemComponent.BONUS:
+                item.score = 5;
+                item.grows = false;
+                item.invulnerability = rules.getInvulnerabilityDuration();
+                item.event = GameEvents.BONUS_COLLECTED;
+                setLifetime(entity, Math.max(1, rules.getBonusDuration()));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown item kind " + kind);
+        }
+        entity.add(item);
+        CellComponent cell = engine.createComponent(CellComponent.class);
+        cell.x = x;
+        cell.y = y;
+        entity.add(cell);
+
+        grid.reserve(x, y);
+        cells.put(y * grid.getWidth() + x, entity);
+        counts[kind]++;
+        engine.addEntity(entity);
+        return entity;
+    }
+
+    /**
+     * Sets the ticks an item has left before it disappears, replacing any lifetime it had.
+     *
+     * @param entity Item entity.
+     * @param ticks  Ticks left, the item being removed by the last of them; 0 to keep the item
+     *               until it is picked up.
+     */
+    public void setLifetime(Entity entity, long ticks) {
+        LifetimeComponent lifetime = Mappers.LIFETIME.get(entity);
+        if (lifetime == null) {
+            if (ticks <= 0) {
+                return;
+            }
+            lifetime = engine.createComponent(LifetimeComponent.class);
+            entity.add(lifetime);
+        } else if (lifetime.timer != TimerWheel.NO_TIMER) {
+            timers.cancel(lifetime.timer);
+            lifetime.timer = TimerWheel.NO_TIMER;
+        }
+        if (ticks > 0) {
+            lifetime.timer = timers.schedule(TimerSystem.LIFETIME, entity, ticks);
+        }
+    }
+
+    /**
+     * Gets the ticks an item has left before it disappears.
+     *
+     * @param entity Item entity.
+     * @return Ticks left, 0 if the item stays until it is picked up.
+     */
+    public long getLifetime(Entity entity) {
+        LifetimeComponent lifetime = Mappers.LIFETIME.get(entity);
+        return lifetime != null && lifetime.timer != TimerWheel.NO_TIMER ? timers.getRemaining(lifetime.timer) : 0;
+    }
+
+    /**
+     * Places a new item on a random free cell.
+     *
+     * @param kind   One of the {@link ItemComponent} kinds.
+     * @param random Random number generator used to pick a cell.
+     * @return New item entity, or null if no free cell is left.
+     */
+    public Entity spawnRandom(int kind, Random random) {
+        int cell = grid.randomFreeCell(random);
+        if (cell < 0) {
+            return null; // The board is full
+        }
+        return spawn(kind, cell % grid.getWidth(), cell / grid.getWidth());
+    }
+
+    /**
+     * Takes an item off the grid and returns its entity to the pool.
+     *
+     * @param entity Item entity.
+     */
+    public void remove(Entity entity) {
+        CellComponent cell = Mappers.CELL.get(entity);
+        grid.release(cell.x, cell.y);
+        cells.remove(cell.y * grid.getWidth() + cell.x);
+        counts[Mappers.ITEM.get(entity).kind]--;
+        LifetimeComponent lifetime = Mappers.LIFETIME.get(entity);
+        if (lifetime != null && lifetime.timer != TimerWheel.NO_TIMER) {
+            timers.cancel(lifetime.timer);
+            lifetime.timer = TimerWheel.NO_TIMER;
+        }
+        engine.removeEntity(entity);
+    }
+
+    /**
+     * Takes every item off the grid.
+     */
+    public void clear() {
+        for (int i = items.size() - 1; i >= 0; i--) {
+            Entity entity = items.get(i);
+            if (isOnGrid(entity)) {
+                remove(entity);
+            }
+        }
+    }
+
+    /**
+     * Gets the item on a cell.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     * @return Item entity, or null if the cell holds no item.
+     */
+    public Entity get(int x, int y) {
+        return cells.get(y * grid.getWidth() + x);
+    }
+
+    /**
+     * Gets the first item of a kind. Items spawned by the system running right now are not
+     * seen until it is done.
+     *
+     * @param kind One of the {@link ItemComponent} kinds.
+     * @return Item entity, or null if there is none.
+     */
+    public Entity find(int kind) {
+        if (counts[kind] == 0) {
+            return null;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            Entity entity = items.get(i);
+            if (Mappers.ITEM.get(entity).kind == kind && isOnGrid(entity)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of items of a kind on the grid.
+     *
+     * @param kind One of the {@link ItemComponent} kinds.
+     * @return Number of items.
+     */
+    public int getCount(int kind) {
+        return counts[kind];
+    }
+
+    /**
+     * Gets the number of items on the grid.
+     *
+     * @return Number of items.
+     */
+    public int size() {
+        return cells.size();
+    }
+
+    /**
+     * Gets the items known to the engine. Between two ticks, these are exactly the items on the grid.
+     *
+     * @return Item entities.
+     */
+    ImmutableArray<Entity> getItems() {
+        return items;
+    }
+
+    /**
+     * Checks if an item known to the engine is still on the grid, and not only waiting for the
+     * engine to remove it.
+     *
+     * @param entity Item entity.
+     * @return True if the item is on the grid.
+     */
+    private boolean isOnGrid(Entity entity) {
+        CellComponent cell = Mappers.CELL.get(entity);
+        return cells.get(cell.y * grid.getWidth() + cell.x) == entity;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Time left before an item disappears from the grid.
+ */
+public class LifetimeComponent implements Component {
+    public int timer = TimerWheel.NO_TIMER; // Timer removing the item, on the wheel of the simulation
+}
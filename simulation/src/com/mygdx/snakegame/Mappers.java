@@ -0,0 +1,17 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.ComponentMapper;
+
+/**
+ * Component mappers shared by the systems, the fastest way to get a component of an entity.
+ */
+public final class Mappers {
+    public static final ComponentMapper<PlayerComponent> PLAYER = ComponentMapper.getFor(PlayerComponent.class);
+    public static final ComponentMapper<InvulnerableComponent> INVULNERABLE = ComponentMapper.getFor(InvulnerableComponent.class);
+    public static final ComponentMapper<CellComponent> CELL = ComponentMapper.getFor(CellComponent.class);
+    public static final ComponentMapper<ItemComponent> ITEM = ComponentMapper.getFor(ItemComponent.class);
+    public static final ComponentMapper<LifetimeComponent> LIFETIME = ComponentMapper.getFor(LifetimeComponent.class);
+
+    private Mappers() {
+    }
+}
@@ -0,0 +1,59 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.EntitySystem;
+
+/**
+ * First system of a tick: applies each player's input to the steering direction, then moves
+ * the snakes still in the match when their speed allows it.
+ */
+public class MovementSystem extends EntitySystem {
+    private final GameSimulation simulation;
+    private int[] inputs; // Direction requested by each player for the current tick, indexed from 0
+
+    /**
+     * Creates the system.
+     *
+     * @param simulation Simulation the snakes belong to.
+     */
+    public MovementSystem(GameSimulation simulation) {
+        super(GameSimulation.MOVEMENT_PRIORITY);
+        this.simulation = simulation;
+    }
+
+    /**
+     * Sets the inputs of the next tick.
+     *
+     * @param inputs Direction requested by each player, indexed from 0, or {@link Direction#NONE}.
+     */
+    void setInputs(int[] inputs) {
+        this.inputs = inputs;
+    }
+
+    /**
+     * Steers and moves the snake of each player, in player order.
+     *
+     * @param deltaTime Ticks to process, always 1.
+     */
+    @Override
+    public void update(float deltaTime) {
+        for (int p = 1; p <= simulation.getPlayerCount(); p++) {
+            PlayerComponent player = simulation.getPlayer(p);
+            player.direction = steer(player.direction, inputs[p - 1]);
+            player.moved = player.alive && player.snake.update(player.direction);
+        }
+    }
+
+    /**
+     * Applies a player's input to the current direction.
+     *
+     * @param direction Current direction.
+     * @param input     Requested direction, or {@link Direction#NONE}.
+     * @return The new direction.
+     */
+    private static int steer(int direction, int input) {
+        if (input == Direction.NONE || input == Direction.opposite(direction)) {
+            return direction;
+        }
+        return input;
+    }
+}
@@ -0,0 +1,247 @@
+package com.mygdx.snakegame;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tracks which cells of the grid are covered by snake segments or reserved by items.
+ * Snakes update the grid when they add a head or remove a tail, so checking
+ * whether a cell is occupied costs O(1) no matter how long the snakes are.
+ * Cells that are neither covered nor reserved are kept in a {@link FreeCellIndex}
+ * so items can spawn on a random free cell in O(log n), and covered cells are counted per
+ * chunk in a {@link ChunkIndex} so large grids can be drawn by looking only at visible chunks.
+ */
+public class OccupancyGrid {
+    /** Owner value stored in cells not covered by any snake. */
+    public static final int NO_OWNER = 0;
+    /** Owner value stored in shared cells whose remaining owner is not known. */
+    public static final int UNKNOWN_OWNER = -1;
+
+    private final int width;  // Grid size on the X-axis
+    private final int height; // Grid size on the Y-axis
+    private final int[] counts; // Number of segments covering each cell
+    private final int[] owners; // Id of a snake known to cover each cell
+    private final int[] items; // Number of items reserving each cell
+    private final FreeCellIndex freeCells; // Cells not covered by snakes nor reserved by items
+    private final ChunkIndex chunks; // Number of covered cells in each chunk
+    private int sharedCells; // Number of cells covered by more than one segment
+
+    /**
+     * Creates an empty occupancy grid.
+     *
+     * @param width  Size of the grid on the X-axis.
+     * @param height Size of the grid on the Y-axis.
+     */
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        counts = new int[width * height];
+        owners = new int[width * height];
+        items = new int[width * height];
+        freeCells = new FreeCellIndex(width * height);
+        chunks = new ChunkIndex(width, height);
+    }
+
+    /**
+     * Marks a cell as covered by a segment of the given snake.
+     * Positions outside the grid are ignored.
+     *
+     * @param x     X coordinate of the cell.
+     * @param y     Y coordinate of the cell.
+     * @param owner Id of the snake entering the cell.
+     */
+    public void add(int x, int y, int owner) {
+        if (!isInside(x, y)) {
+            return;
+        }
+        int cell = y * width + x;
+        int count = ++counts[cell];
+        if (count == 1) {
+            freeCells.remove(cell);
+            chunks.add(x, y);
+        } else if (count == 2) {
+            sharedCells++;
+        }
+        owners[cell] = owner;
+    }
+
+    /**
+     * Removes one segment of the given snake from a cell.
+     * Positions outside the grid are ignored.
+     *
+     * @param x     X coordinate of the cell.
+     * @param y     Y coordinate of the cell.
+     * @param owner Id of the snake leaving the cell.
+     */
+    public void remove(int x, int y, int owner) {
+        if (!isInside(x, y)) {
+            return;
+        }
+        int cell = y * width + x;
+        int count = --counts[cell];
+        if (count == 0) {
+            owners[cell] = NO_OWNER;
+            chunks.remove(x, y);
+            if (items[cell] == 0) {
+                freeCells.add(cell);
+            }
+            return;
+        }
+        if (count == 1) {
+            sharedCells--;
+        }
+        // The remaining segments may belong to any snake that entered earlier
+        if (owners[cell] == owner) {
+            owners[cell] = UNKNOWN_OWNER;
+        }
+    }
+
+    /**
+     * Reserves a cell for an item so no other item spawns on it.
+     * Positions outside the grid are ignored.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     */
+    public void reserve(int x, int y) {
+        if (!isInside(x, y)) {
+            return;
+        }
+        int cell = y * width + x;
+        items[cell]++;
+        freeCells.remove(cell);
+    }
+
+    /**
+     * Releases a cell previously reserved for an item.
+     * Positions outside the grid are ignored.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     */
+    public void release(int x, int y) {
+        if (!isInside(x, y)) {
+            return;
+        }
+        int cell = y * width + x;
+        if (--items[cell] == 0 && counts[cell] == 0) {
+            freeCells.add(cell);
+        }
+    }
+
+    /**
+     * Picks a random cell not covered by any snake nor reserved by any item.
+     *
+     * @param random Random number generator.
+     * @return Index of the cell ({@code y * width + x}), or -1 if the grid is full.
+     */
+    public int randomFreeCell(Random random) {
+        return freeCells.random(random);
+    }
+
+    /**
+     * Gets the number of cells not covered by any snake nor reserved by any item.
+     *
+     * @return Number of free cells.
+     */
+    public int getFreeCellCount() {
+        return freeCells.size();
+    }
+
+    /**
+     * Removes every segment and reservation from the grid.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(owners, NO_OWNER);
+        Arrays.fill(items, 0);
+        freeCells.reset();
+        chunks.reset();
+        sharedCells = 0;
+    }
+
+    /**
+     * Checks if a position lies inside the grid.
+     *
+     * @param x X coordinate.
+     * @param y Y coordinate.
+     * @return True if the position is inside the grid.
+     */
+    public boolean isInside(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Checks if no segment covers a cell, regardless of item reservations.
+     * Positions outside the grid are never free.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     * @return True if the cell is inside the grid and empty.
+     */
+    public boolean isFree(int x, int y) {
+        return isInside(x, y) && counts[y * width + x] == 0;
+    }
+
+    /**
+     * Gets the number of segments covering a cell.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     * @return Number of segments in the cell, 0 outside the grid.
+     */
+    public int getCount(int x, int y) {
+        return isInside(x, y) ? counts[y * width + x] : 0;
+    }
+
+    /**
+     * Gets the id of a snake known to cover a cell.
+     * When the cell holds a single segment this is its exact owner, unless the cell was shared
+     * and the snake that entered it last has left since.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     * @return Owner id, {@link #UNKNOWN_OWNER} if a shared cell lost track of its owner,
+     *         or {@link #NO_OWNER} if the cell is empty or outside the grid.
+     */
+    public int getOwner(int x, int y) {
+        return isInside(x, y) ? owners[y * width + x] : NO_OWNER;
+    }
+
+    /**
+     * Gets the number of covered cells in each chunk of the grid.
+     *
+     * @return Chunk index, updated as snakes move.
+     */
+    public ChunkIndex getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Checks if any cell is covered by more than one segment.
+     * While this is false no snake can overlap itself or another snake.
+     *
+     * @return True if at least one cell is shared.
+     */
+    public boolean hasSharedCells() {
+        return sharedCells > 0;
+    }
+
+    /**
+     * Gets the grid size on the X-axis.
+     *
+     * @return Width of the grid in cells.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the grid size on the Y-axis.
+     *
+     * @return Height of the grid in cells.
+     */
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,455 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records where the time of each frame goes: the duration of named phases, the whole frame,
+ * simulation ticks per frame, entity counts, bytes allocated by the frame's thread and garbage
+ * collections, each in a {@link RollingHistogram} over the last {@link #WINDOW} frames.
+ * <p>
+ * Metrics are switched on with the {@code snakegame.metrics} system property. Callers guard
+ * every call with {@link #ENABLED}, a constant the JIT folds, so when metrics are off the
+ * instrumentation is compiled out of the hot path. With {@code snakegame.metrics.dump} set to
+ * a file, a line of statistics is appended every {@code snakegame.metrics.interval} seconds,
+ * as JSON (one object per line) if the file name ends with {@code .json} and as CSV otherwise.
+ * Recording a frame does not allocate; only writing a line does.
+ */
+public class PerformanceMetrics {
+    /** Indicates whether metrics are recorded, from the {@code snakegame.metrics} system property. */
+    public static final boolean ENABLED = Boolean.getBoolean("snakegame.metrics");
+    /** Number of most recent frames the statistics cover, ten seconds at 60 frames per second. */
+    public static final int WINDOW = 600;
+    private static final float DEFAULT_DUMP_INTERVAL = 5f; // Seconds between two lines of the dump
+
+    private final String[] phaseNames;
+    private final long[] phaseTimes; // Time spent in each phase during the current frame
+    private final RollingHistogram[] phases; // Duration of each phase, in nanoseconds
+    private final RollingHistogram frames = new RollingHistogram(WINDOW); // Time spent in the phases of a frame, in nanoseconds
+    private final RollingHistogram ticks = new RollingHistogram(WINDOW); // Simulation ticks run per frame
+    private final RollingHistogram allocations = new RollingHistogram(WINDOW); // Bytes allocated per frame
+    private final RollingHistogram gcCounts = new RollingHistogram(WINDOW); // Collections that ended during each frame
+    private final RollingHistogram gcTimes = new RollingHistogram(WINDOW); // Collection time accumulated during each frame, in milliseconds
+    private final long[] frameStarts = new long[WINDOW]; // Start time of the frames of the window, for rates
+    private int frameCount; // Frames recorded since the creation
+    private long frameStart; // Start time of the current frame
+    private long lapStart; // Start time of the current phase
+    private int entities; // Entity count of the last frame
+
+    private final com.sun.management.ThreadMXBean threadBean; // Allocation counter, null if the JVM has none
+    private final long threadId; // Thread the frames run on
+    private final long allocationOverhead; // Bytes allocated by reading the allocation counter itself
+    private long allocatedBefore; // Allocation counter at the start of the current frame
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private long gcCountBefore; // Collections at the start of the current frame
+    private long gcTimeBefore; // Collection time at the start of the current frame
+
+    private Writer dump; // Destination of the periodic lines, null if not dumping
+    private IOException dumpError; // Why the dump stopped early, null if it did not fail
+    private boolean json; // Indicates whether lines are JSON objects rather than CSV rows
+    private long dumpInterval; // Time between two lines, in nanoseconds
+    private long nextDump; // Time the next line is due
+    private final StringBuilder line = new StringBuilder(256); // Reused to build each line
+
+    /**
+     * Creates metrics for frames made of the given phases, measured on the calling thread.
+     *
+     * @param phaseNames Name of each phase, indexed by phase number.
+     */
+    public PerformanceMetrics(String... phaseNames) {
+        this.phaseNames = phaseNames.clone();
+        phaseTimes = new long[phaseNames.length];
+        phases = new RollingHistogram[phaseNames.length];
+        for (int i = 0; i < phaseNames.length; i++) {
+            phases[i] = new RollingHistogram(WINDOW);
+        }
+        threadId = Thread.currentThread().getId();
+        threadBean = createThreadBean();
+        if (threadBean != null) {
+            long first = threadBean.getThreadAllocatedBytes(threadId);
+            allocationOverhead = threadBean.getThreadAllocatedBytes(threadId) - first;
+        } else {
+            allocationOverhead = 0;
+        }
+    }
+
+    /**
+     * Creates metrics configured from the {@code snakegame.metrics.*} system properties,
+     * dumping to the requested file if any.
+     *
+     * @param phaseNames Name of each phase, indexed by phase number.
+     * @return New metrics.
+     * @throws IOException If the dump file cannot be created.
+     */
+    public static PerformanceMetrics fromSystemProperties(String... phaseNames) throws IOException {
+        PerformanceMetrics metrics = new PerformanceMetrics(phaseNames);
+        String file = System.getProperty("snakegame.metrics.dump");
+        if (file != null) {
+            float interval = Float.parseFloat(System.getProperty("snakegame.metrics.interval", String.valueOf(DEFAULT_DUMP_INTERVAL)));
+            metrics.startDump(Paths.get(file), interval);
+        }
+        return metrics;
+    }
+
+    /**
+     * Gets the allocation counter of the JVM, if it has one.
+     *
+     * @return Thread bean with allocation counters enabled, or null.
+     */
+    private static com.sun.management.ThreadMXBean createThreadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported()) {
+                hotspot.setThreadAllocatedMemoryEnabled(true);
+                return hotspot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts appending a line of statistics to a file at a fixed interval.
+     *
+     * @param file     File to create or overwrite. A {@code .json} name selects JSON, anything else CSV.
+     * @param interval Seconds between two lines.
+     * @throws IOException If the file cannot be created.
+     */
+    public void startDump(Path file, float interval) throws IOException {
+        stopDump();
+        dumpError = null;
+        dump = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        json = file.getFileName().toString().endsWith(".json");
+        dumpInterval = (long) (interval * 1e9);
+        nextDump = System.nanoTime() + dumpInterval;
+        if (!json) {
+            writeCsvHeader();
+        }
+    }
+
+    /**
+     * Closes the dump file, if any.
+     */
+    public void stopDump() {
+        if (dump == null) {
+            return;
+        }
+        try {
+            dump.close();
+        } catch (IOException e) {
+            // Nothing left to save
+        }
+        dump = null;
+    }
+
+    /**
+     * Gets the error that stopped the dump before {@link #stopDump()} was called.
+     *
+     * @return Write error, or null if the dump did not fail.
+     */
+    public IOException getDumpError() {
+        return dumpError;
+    }
+
+    /**
+     * Starts a frame. The first phase starts now.
+     */
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        lapStart = frameStart;
+        if (threadBean != null) {
+            allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        }
+        gcCountBefore = 0;
+        gcTimeBefore = 0;
+        for (int i = 0; i < collectors.size(); i++) {
+            gcCountBefore += collectors.get(i).getCollectionCount();
+            gcTimeBefore += collectors.get(i).getCollectionTime();
+        }
+    }
+
+    /**
+     * Ends a phase of the current frame and starts the next one. A phase ended several times
+     * in a frame accumulates its durations.
+     *
+     * @param phase Number of the phase that ends.
+     */
+    public void endPhase(int phase) {
+        long now = System.nanoTime();
+        phaseTimes[phase] += now - lapStart;
+        lapStart = now;
+    }
+
+    /**
+     * Skips the time since the last phase ended, such as time spent waiting, so it counts in no phase.
+     */
+    public void skip() {
+        lapStart = System.nanoTime();
+    }
+
+    /**
+     * Ends the current frame and records its statistics. Writes a line to the dump if one is due.
+     *
+     * @param tickCount   Simulation ticks run during the frame.
+     * @param entityCount Number of entities in the game, such as snake segments and items.
+     */
+    public void endFrame(int tickCount, int entityCount) {
+        long now = System.nanoTime();
+        long work = 0;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i].record(phaseTimes[i]);
+            work += phaseTimes[i];
+            phaseTimes[i] = 0;
+        }
+        frames.record(work);
+        ticks.record(tickCount);
+        entities = entityCount;
+        frameStarts[frameCount % WINDOW] = frameStart;
+        frameCount++;
+
+        if (threadBean != null) {
+            allocations.record(threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore - allocationOverhead);
+        }
+        long gcCount = 0;
+        long gcTime = 0;
+        for (int i = 0; i < collectors.size(); i++) {
+            gcCount += collectors.get(i).getCollectionCount();
+            gcTime += collectors.get(i).getCollectionTime();
+        }
+        gcCounts.record(gcCount - gcCountBefore);
+        gcTimes.record(gcTime - gcTimeBefore);
+
+        if (dump != null && now >= nextDump) {
+            nextDump = now + dumpInterval;
+            writeLine();
+        }
+    }
+
+    /**
+     * Gets the number of frames per second over the window.
+     *
+     * @return Frame rate, or 0 before two frames were recorded.
+     */
+    public double getFramesPerSecond() {
+        int count = Math.min(frameCount, WINDOW);
+        if (count < 2) {
+            return 0;
+        }
+        long newest = frameStarts[(frameCount - 1) % WINDOW];
+        long oldest = frameStarts[(frameCount - count) % WINDOW];
+        return newest == oldest ? 0 : (count - 1) * 1e9 / (newest - oldest);
+    }
+
+    /**
+     * Gets the bytes allocated per second by the frame's thread over the window.
+     *
+     * @return Allocation rate, or 0 if the JVM cannot count allocations.
+     */
+    public double getAllocationRate() {
+        return allocations.getMean() * getFramesPerSecond();
+    }
+
+    /**
+     * Checks if the JVM can count the bytes allocated by a thread.
+     *
+     * @return True if allocation statistics are available.
+     */
+    public boolean isAllocationSupported() {
+        return threadBean != null;
+    }
+
+    /**
+     * Gets the duration of a phase.
+     *
+     * @param phase Phase number.
+     * @return Histogram of the durations in nanoseconds.
+     */
+    public RollingHistogram getPhase(int phase) {
+        return phases[phase];
+    }
+
+    /**
+     * Gets the time spent in the phases of each frame, skipped time excluded.
+     *
+     * @return Histogram of the durations in nanoseconds.
+     */
+    public RollingHistogram getFrames() {
+        return frames;
+    }
+
+    /**
+     * Gets the number of simulation ticks run per frame.
+     *
+     * @return Histogram of the tick counts.
+     */
+    public RollingHistogram getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the bytes allocated by the frame's thread during each frame.
+     *
+     * @return Histogram of the allocated bytes.
+     */
+    public RollingHistogram getAllocations() {
+        return allocations;
+    }
+
+    /**
+     * Gets the number of garbage collections that ended during each frame.
+     *
+     * @return Histogram of the collection counts.
+     */
+    public RollingHistogram getGcCounts() {
+        return gcCounts;
+    }
+
+    /**
+     * Gets the garbage collection time accumulated during each frame.
+     *
+     * @return Histogram of the collection times in milliseconds.
+     */
+    public RollingHistogram getGcTimes() {
+        return gcTimes;
+    }
+
+    /**
+     * Gets the entity count of the last frame.
+     *
+     * @return Number of entities.
+     */
+    public int getEntityCount() {
+        return entities;
+    }
+
+    /**
+     * Counts the entities of a simulation: the segments of every snake and the items on the grid.
+     *
+     * @param simulation Simulation to count.
+     * @return Number of entities.
+     */
+    public static int countEntities(GameSimulation simulation) {
+        int count = 0;
+        for (int player = 1; player <= simulation.getPlayerCount(); player++) {
+            count += simulation.getSnake(player).getSegments().size();
+        }
+        return count + simulation.getItemCount();
+    }
+
+    /**
+     * Appends a human-readable summary of the window, one statistic per line.
+     *
+     * @param out Destination of the text.
+     */
+    public void appendSummary(StringBuilder out) {
+        out.append(String.format(Locale.ROOT, "%.0f fps, %d entities\n", getFramesPerSecond(), entities));
+        appendTimes(out, "frame", frames);
+        for (int i = 0; i < phases.length; i++) {
+            appendTimes(out, phaseNames[i], phases[i]);
+        }
+        out.append(String.format(Locale.ROOT, "ticks/frame p50 %d  p99 %d\n", ticks.getPercentile(50), ticks.getPercentile(99)));
+        if (threadBean != null) {
+            out.append(String.format(Locale.ROOT, "alloc %.2f MB/s  p99 %d B/frame\n", getAllocationRate() / 1e6, allocations.getPercentile(99)));
+        }
+        out.append(String.format(Locale.ROOT, "gc %d collections, %d ms\n", gcCounts.getSum(), gcTimes.getSum()));
+        if (dumpError != null) {
+            out.append("dump stopped: ").append(dumpError).append('\n');
+        }
+    }
+
+    /**
+     * Appends the median and 99th percentile of a duration.
+     *
+     * @param out       Destination of the text.
+     * @param name      Name of the duration.
+     * @param histogram Durations in nanoseconds.
+     */
+    private static void appendTimes(StringBuilder out, String name, RollingHistogram histogram) {
+        out.append(String.format(Locale.ROOT, "%-10s p50 %6.2f ms  p99 %6.2f ms\n", name, histogram.getPercentile(50) / 1e6, histogram.getPercentile(99) / 1e6));
+    }
+
+    /**
+     * Writes the names of the CSV columns.
+     */
+    private void writeCsvHeader() {
+        line.setLength(0);
+        line.append("time_ms,fps,entities,frame_p50_ms,frame_p99_ms");
+        for (String name : phaseNames) {
+            line.append(',').append(name).append("_p50_ms,").append(name).append("_p99_ms");
+        }
+        line.append(",ticks_p50,ticks_p99,alloc_bytes_per_s,alloc_p99_bytes,gc_count,gc_ms\n");
+        write();
+    }
+
+    /**
+     * Writes the statistics of the window as one line of the dump.
+     */
+    private void writeLine() {
+        line.setLength(0);
+        if (json) {
+            line.append('{');
+        }
+        field("time_ms", System.currentTimeMillis(), true);
+        field("fps", getFramesPerSecond(), false);
+        field("entities", entities, false);
+        field("frame_p50_ms", frames.getPercentile(50) / 1e6, false);
+        field("frame_p99_ms", frames.getPercentile(99) / 1e6, false);
+        for (int i = 0; i < phases.length; i++) {
+            field(phaseNames[i] + "_p50_ms", phases[i].getPercentile(50) / 1e6, false);
+            field(phaseNames[i] + "_p99_ms", phases[i].getPercentile(99) / 1e6, false);
+        }
+        field("ticks_p50", ticks.getPercentile(50), false);
+        field("ticks_p99", ticks.getPercentile(99), false);
+        field("alloc_bytes_per_s", getAllocationRate(), false);
+        field("alloc_p99_bytes", allocations.getPercentile(99), false);
+        field("gc_count", gcCounts.getSum(), false);
+        field("gc_ms", gcTimes.getSum(), false);
+        line.append(json ? "}\n" : "\n");
+        write();
+    }
+
+    /**
+     * Appends a field to the current line.
+     *
+     * @param name  Name of the field, used as the JSON key.
+     * @param value Value of the field.
+     * @param first Indicates whether this is the first field of the line.
+     */
+    private void field(String name, double value, boolean first) {
+        if (!first) {
+            line.append(',');
+        }
+        if (json) {
+            line.append('"').append(name).append("\":");
+        }
+        if (value == (long) value) {
+            line.append((long) value);
+        } else {
+            line.append(String.format(Locale.ROOT, "%.3f", value));
+        }
+    }
+
+    /**
+     * Writes the current line to the dump. Dumping stops if the file cannot be written, and the
+     * error is kept for the summary and {@link #getDumpError()}, as the owner of the metrics
+     * decides where messages go.
+     */
+    private void write() {
+        try {
+            dump.append(line);
+            dump.flush();
+        } catch (IOException e) {
+            dumpError = e;
+            stopDump();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+
+/**
+ * Lets each snake that moved pick up the item under its head, found through the
+ * {@link ItemIndex} in O(1), and applies the effect described by the item.
+ * The item leaves the grid; the {@link SpawnSystem} replaces it later in the tick if needed.
+ */
+public class PickupSystem extends EntitySystem {
+    private final GameSimulation simulation;
+
+    /**
+     * Creates the system.
+     *
+     * @param simulation Simulation the items and snakes belong to.
+     */
+    public PickupSystem(GameSimulation simulation) {
+        super(GameSimulation.PICKUP_PRIORITY);
+        this.simulation = simulation;
+    }
+
+    /**
+     * Lets each snake that moved, in player order, pick up the item under its head.
+     *
+     * @param deltaTime Ticks to process, always 1.
+     */
+    @Override
+    public void update(float deltaTime) {
+        for (int p = 1; p <= simulation.getPlayerCount(); p++) {
+            PlayerComponent player = simulation.getPlayer(p);
+            if (player.moved) {
+                pickUp(player);
+            }
+        }
+    }
+
+    /**
+     * Picks up the item under the head of a snake, if there is one.
+     *
+     * @param player Player whose snake moved.
+     */
+    private void pickUp(PlayerComponent player) {
+        SnakeBody body = player.snake.getSegments();
+        ItemIndex items = simulation.getItemIndex();
+        Entity itemEntity = items.get(body.getHeadX(), body.getHeadY());
+        if (itemEntity == null) {
+            return;
+        }
+        ItemComponent item = Mappers.ITEM.get(itemEntity);
+        player.score += item.score;
+        if (item.grows) {
+            player.snake.grow();
+            player.snake.increaseSpeed();
+        }
+        if (item.invulnerability > 0) {
+            simulation.setInvulnerable(simulation.getSnakeEntity(player.player), item.invulnerability);
+        }
+        simulation.getEvents().add(item.event, player.player);
+        items.remove(itemEntity);
+    }
+}
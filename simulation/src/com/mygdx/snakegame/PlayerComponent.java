@@ -0,0 +1,16 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * State of a player in the match, on the entity of the player's snake.
+ */
+public class PlayerComponent implements Component {
+    public int player; // 1-based player id
+    public Snake snake; // Snake of the player
+    public int direction; // Direction the player is steering towards
+    public int score; // Score of the player
+    public boolean alive; // Indicates whether the snake is still in the match
+    public boolean moved; // Indicates whether the snake moved during the current tick
+    public boolean eliminated; // Indicates whether the snake hit something during the current tick
+}
@@ -0,0 +1,518 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.utils.ImmutableArray;
+
+/**
+ * Copy of what a renderer needs from a {@link GameSimulation} after a tick: scores, flags, the
+ * moving ends of each snake, the covered cells and the items, in flat arrays. A state is filled
+ * by the thread stepping the simulation and handed to the drawing thread through a
+ * {@link RenderStateBuffer}, so drawing never reads the simulation while it moves on.
+ * <p>
+ * The segments behind the heads are stored grouped by chunk of the {@link ChunkIndex}, with a
+ * counting sort, so a renderer still only looks at the cells of the chunks it can see.
+ * Filling a state costs O(segments + items + chunks). The arrays only grow, to twice the size
+ * needed, so filling does not allocate once the snakes stop growing fast.
+ */
+public class RenderState {
+    private int gridWidth;
+    private int gridHeight;
+    private int playerCount;
+    private long tick; // Tick of the simulation when the state was filled
+    private long tickTime; // Time the last tick was due, in System.nanoTime() units
+    private boolean running; // Indicates whether the match is being played
+
+    // Per player, indexed by player id - 1
+    private int[] scores = new int[0];
+    private boolean[] alive = new boolean[0];
+    private boolean[] invulnerable = new boolean[0];
+    private int[] sizes = new int[0]; // Number of segments
+    private int[] headX = new int[0];
+    private int[] headY = new int[0];
+    private int[] fromX = new int[0]; // Cell the head moved from
+    private int[] fromY = new int[0];
+    private int[] tailX = new int[0];
+    private int[] tailY = new int[0];
+    private int[] prevTailX = new int[0]; // Cell the tail moved from
+    private int[] prevTailY = new int[0];
+    private int[] ticksSinceMove = new int[0];
+    private int[] stepTicks = new int[0]; // Ticks between two moves
+
+    // Segments behind the heads, grouped by chunk
+    private int chunkColumns; // Number of chunks on the X-axis
+    private int[] chunkStarts = new int[1]; // Index of the first cell of each chunk, then the cell count
+    private int[] chunkCursors = new int[0]; // Next free index of each chunk while sorting
+    private int[] cellX = new int[0];
+    private int[] cellY = new int[0];
+    private int[] cellOwners = new int[0]; // Id of the snake of each cell
+
+    private int itemCount;
+    private int[] itemKinds = new int[0]; // One of the ItemComponent kinds
+    private int[] itemX = new int[0];
+    private int[] itemY = new int[0];
+
+    /**
+     * Copies the state of a simulation. Must be called by the thread stepping the simulation,
+     * between two ticks.
+     *
+     * @param simulation Simulation to copy.
+     * @param running    Indicates whether the match is being played.
+     * @param tickTime   Time the last tick was due, in {@link System#nanoTime()} units.
+     */
+    public void update(GameSimulation simulation, boolean running, long tickTime) {
+        OccupancyGrid grid = simulation.getGrid();
+        gridWidth = grid.getWidth();
+        gridHeight = grid.getHeight();
+        tick = simulation.getTick();
+        this.tickTime = tickTime;
+        this.running = running;
+        copyPlayers(simulation);
+        copyCells(simulation, grid.getChunks());
+        copyItems(simulation.getItemIndex().getItems());
+    }
+
+    /**
+     * Copies the scores, flags and moving ends of the snakes.
+     *
+     * @param simulation Simulation to copy.
+     */
+    private void copyPlayers(GameSimulation simulation) {
+        playerCount = simulation.getPlayerCount();
+        if (scores.length < playerCount) {
+            scores = new int[playerCount];
+            alive = new boolean[playerCount];
+            invulnerable = new boolean[playerCount];
+            sizes = new int[playerCount];
+            headX = new int[playerCount];
+            headY = new int[playerCount];
+            fromX = new int[playerCount];
+            fromY = new int[playerCount];
+            tailX = new int[playerCount];
+            tailY = new int[playerCount];
+            prevTailX = new int[playerCount];
+            prevTailY = new int[playerCount];
+            ticksSinceMove = new int[playerCount];
+            stepTicks = new int[playerCount];
+        }
+        for (int p = 0; p < playerCount; p++) {
+            Snake snake = simulation.getSnake(p + 1);
+            SnakeBody body = snake.getSegments();
+            scores[p] = simulation.getScore(p + 1);
+            alive[p] = simulation.isAlive(p + 1);
+            invulnerable[p] = simulation.isInvulnerable(p + 1);
+            sizes[p] = body.size();
+            prevTailX[p] = snake.getPrevTailX();
+            prevTailY[p] = snake.getPrevTailY();
+            ticksSinceMove[p] = snake.getTicksSinceMove();
+            stepTicks[p] = snake.getStepTicks();
+            if (body.size() > 0) {
+                headX[p] = body.getHeadX();
+                headY[p] = body.getHeadY();
+                tailX[p] = body.getTailX();
+                tailY[p] = body.getTailY();
+                // The head moved from where the second segment is now
+                fromX[p] = body.size() > 1 ? body.getX(1) : snake.getPrevTailX();
+                fromY[p] = body.size() > 1 ? body.getY(1) : snake.getPrevTailY();
+            }
+        }
+    }
+
+    /**
+     * Copies the segments behind the heads, sorted by chunk: one pass counts the segments of
+     * each chunk, the counts become start indices, and a second pass puts each segment in place.
+     * Consecutive segments mostly lie in the same chunk, so both passes work on runs of segments
+     * and only touch the per-chunk arrays when the chunk changes.
+     *
+     * @param simulation Simulation to copy.
+     * @param chunks     Chunks of the grid.
+     */
+    private void copyCells(GameSimulation simulation, ChunkIndex chunks) {
+        chunkColumns = chunks.getColumns();
+        int chunkCount = chunkColumns * chunks.getRows();
+        if (chunkCursors.length < chunkCount) {
+            chunkStarts = new int[chunkCount + 1];
+            chunkCursors = new int[chunkCount];
+        }
+        for (int c = 0; c <= chunkCount; c++) {
+            chunkStarts[c] = 0;
+        }
+
+        int cellCount = 0;
+        for (int p = 0; p < playerCount; p++) {
+            SnakeBody body = simulation.getSnake(p + 1).getSegments();
+            int chunk = -1; // Chunk of the current run
+            int run = 0; // Segments of the current run
+            for (int i = 1; i < body.size(); i++) {
+                int c = chunkOfCell(body.getX(i), body.getY(i));
+                if (c != chunk) {
+                    if (run > 0) {
+                        chunkStarts[chunk + 1] += run;
+                    }
+                    chunk = c;
+                    run = 0;
+                }
+                run++;
+            }
+            if (run > 0) {
+                chunkStarts[chunk + 1] += run;
+            }
+            cellCount += Math.max(0, body.size() - 1);
+        }
+        for (int c = 0; c < chunkCount; c++) {
+            chunkStarts[c + 1] += chunkStarts[c];
+            chunkCursors[c] = chunkStarts[c];
+        }
+
+        if (cellX.length < cellCount) {
+            cellX = new int[cellCount * 2];
+            cellY = new int[cellCount * 2];
+            cellOwners = new int[cellCount * 2];
+        }
+        for (int p = 0; p < playerCount; p++) {
+            SnakeBody body = simulation.getSnake(p + 1).getSegments();
+            int chunk = -1; // Chunk of the current run
+            int cursor = 0; // Next free index of the chunk of the current run
+            for (int i = 1; i < body.size(); i++) {
+                int x = body.getX(i);
+                int y = body.getY(i);
+                int c = chunkOfCell(x, y);
+                if (c != chunk) {
+                    if (chunk >= 0) {
+                        chunkCursors[chunk] = cursor;
+                    }
+                    chunk = c;
+                    cursor = chunkCursors[c];
+                }
+                cellX[cursor] = x;
+                cellY[cursor] = y;
+                cellOwners[cursor] = p + 1;
+                cursor++;
+            }
+            if (chunk >= 0) {
+                chunkCursors[chunk] = cursor;
+            }
+        }
+    }
+
+    /**
+     * Gets the index of the chunk holding a cell.
+     *
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     * @return Chunk index, row by row.
+     */
+    private int chunkOfCell(int x, int y) {
+        return ChunkIndex.chunkOf(y) * chunkColumns + ChunkIndex.chunkOf(x);
+    }
+
+    /**
+     * Copies the kind and cell of every item.
+     *
+     * @param items Items on the grid.
+     */
+    private void copyItems(ImmutableArray<Entity> items) {
+        itemCount = items.size();
+        if (itemKinds.length < itemCount) {
+            itemKinds = new int[itemCount * 2];
+            itemX = new int[itemCount * 2];
+            itemY = new int[itemCount * 2];
+        }
+        for (int i = 0; i < itemCount; i++) {
+            Entity entity = items.get(i);
+            CellComponent cell = Mappers.CELL.get(entity);
+            itemKinds[i] = Mappers.ITEM.get(entity).kind;
+            itemX[i] = cell.x;
+            itemY[i] = cell.y;
+        }
+    }
+
+    /**
+     * Gets the size of the grid on the X-axis.
+     *
+     * @return Number of cells on the X-axis.
+     */
+    public int getGridWidth() {
+        return gridWidth;
+    }
+
+    /**
+     * Gets the size of the grid on the Y-axis.
+     *
+     * @return Number of cells on the Y-axis.
+     */
+    public int getGridHeight() {
+        return gridHeight;
+    }
+
+    /**
+     * Gets the number of players.
+     *
+     * @return Number of players.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Gets the tick of the simulation when the state was filled.
+     *
+     * @return Ticks since the start of the match.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the time the last tick was due, to interpolate the movement from.
+     *
+     * @return Time in {@link System#nanoTime()} units.
+     */
+    public long getTickTime() {
+        return tickTime;
+    }
+
+    /**
+     * Checks if the match is being played.
+     *
+     * @return True once the match has started and until it is over.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the score of a player.
+     *
+     * @param player Player id.
+     * @return Score.
+     */
+    public int getScore(int player) {
+        return scores[player - 1];
+    }
+
+    /**
+     * Checks if a player is still in the match.
+     *
+     * @param player Player id.
+     * @return True if the player's snake is alive.
+     */
+    public boolean isAlive(int player) {
+        return alive[player - 1];
+    }
+
+    /**
+     * Checks if a player's snake is invulnerable.
+     *
+     * @param player Player id.
+     * @return True if the snake is invulnerable.
+     */
+    public boolean isInvulnerable(int player) {
+        return invulnerable[player - 1];
+    }
+
+    /**
+     * Gets the number of segments of a player's snake.
+     *
+     * @param player Player id.
+     * @return Length of the snake, 0 if it has no segment on the grid.
+     */
+    public int getSize(int player) {
+        return sizes[player - 1];
+    }
+
+    /**
+     * Gets the X coordinate of the head of a player's snake.
+     *
+     * @param player Player id.
+     * @return X coordinate of the head.
+     */
+    public int getHeadX(int player) {
+        return headX[player - 1];
+    }
+
+    /**
+     * Gets the Y coordinate of the head of a player's snake.
+     *
+     * @param player Player id.
+     * @return Y coordinate of the head.
+     */
+    public int getHeadY(int player) {
+        return headY[player - 1];
+    }
+
+    /**
+     * Gets the X coordinate the head of a player's snake moved from.
+     *
+     * @param player Player id.
+     * @return X coordinate of the previous cell of the head.
+     */
+    public int getFromX(int player) {
+        return fromX[player - 1];
+    }
+
+    /**
+     * Gets the Y coordinate the head of a player's snake moved from.
+     *
+     * @param player Player id.
+     * @return Y coordinate of the previous cell of the head.
+     */
+    public int getFromY(int player) {
+        return fromY[player - 1];
+    }
+
+    /**
+     * Gets the X coordinate of the tail of a player's snake.
+     *
+     * @param player Player id.
+     * @return X coordinate of the tail.
+     */
+    public int getTailX(int player) {
+        return tailX[player - 1];
+    }
+
+    /**
+     * Gets the Y coordinate of the tail of a player's snake.
+     *
+     * @param player Player id.
+     * @return Y coordinate of the tail.
+     */
+    public int getTailY(int player) {
+        return tailY[player - 1];
+    }
+
+    /**
+     * Gets the X coordinate the tail of a player's snake occupied before the last move.
+     *
+     * @param player Player id.
+     * @return Previous X coordinate of the tail.
+     */
+    public int getPrevTailX(int player) {
+        return prevTailX[player - 1];
+    }
+
+    /**
+     * Gets the Y coordinate the tail of a player's snake occupied before the last move.
+     *
+     * @param player Player id.
+     * @return Previous Y coordinate of the tail.
+     */
+    public int getPrevTailY(int player) {
+        return prevTailY[player - 1];
+    }
+
+    /**
+     * Gets how far a player's snake is between its last move and the next one,
+     * as {@link Snake#getMoveProgress(float)} did when the state was filled.
+     *
+     * @param player Player id.
+     * @param alpha  Fraction of the current tick that has elapsed, between 0 and 1.
+     * @return Progress between 0 (just moved) and 1 (about to move).
+     */
+    public float getMoveProgress(int player, float alpha) {
+        return Math.min(1f, (ticksSinceMove[player - 1] + alpha) / stepTicks[player - 1]);
+    }
+
+    /**
+     * Gets the index of the first segment of a chunk in the cell arrays.
+     *
+     * @param column Chunk index on the X-axis.
+     * @param row    Chunk index on the Y-axis.
+     * @return Index of the first cell of the chunk.
+     */
+    public int getChunkStart(int column, int row) {
+        return chunkStarts[row * chunkColumns + column];
+    }
+
+    /**
+     * Gets the index after the last segment of a chunk in the cell arrays.
+     *
+     * @param column Chunk index on the X-axis.
+     * @param row    Chunk index on the Y-axis.
+     * @return Index after the last cell of the chunk, equal to the start if the chunk is empty.
+     */
+    public int getChunkEnd(int column, int row) {
+        return chunkStarts[row * chunkColumns + column + 1];
+    }
+
+    /**
+     * Gets the X coordinate of a segment behind a head.
+     *
+     * @param index Index of the cell, from {@link #getChunkStart(int, int)}.
+     * @return X coordinate of the segment.
+     */
+    public int getCellX(int index) {
+        return cellX[index];
+    }
+
+    /**
+     * Gets the Y coordinate of a segment behind a head.
+     *
+     * @param index Index of the cell, from {@link #getChunkStart(int, int)}.
+     * @return Y coordinate of the segment.
+     */
+    public int getCellY(int index) {
+        return cellY[index];
+    }
+
+    /**
+     * Gets the snake a segment belongs to.
+     *
+     * @param index Index of the cell, from {@link #getChunkStart(int, int)}.
+     * @return Player id.
+     */
+    public int getCellOwner(int index) {
+        return cellOwners[index];
+    }
+
+    /**
+     * Gets the number of items on the grid.
+     *
+     * @return Number of items.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Gets the kind of an item.
+     *
+     * @param index Index of the item, below {@link #getItemCount()}.
+     * @return One of the {@link ItemComponent} kinds.
+     */
+    public int getItemKind(int index) {
+        return itemKinds[index];
+    }
+
+    /**
+     * Gets the X coordinate of the cell of an item.
+     *
+     * @param index Index of the item, below {@link #getItemCount()}.
+     * @return X coordinate of the item.
+     */
+    public int getItemX(int index) {
+        return itemX[index];
+    }
+
+    /**
+     * Gets the Y coordinate of the cell of an item.
+     *
+     * @param index Index of the item, below {@link #getItemCount()}.
+     * @return Y coordinate of the item.
+     */
+    public int getItemY(int index) {
+        return itemY[index];
+    }
+
+    /**
+     * Counts the entities of the state, for the metrics.
+     *
+     * @return Number of snake segments and items.
+     */
+    public int getEntityCount() {
+        int count = itemCount;
+        for (int p = 0; p < playerCount; p++) {
+            count += sizes[p];
+        }
+        return count;
+    }
+}
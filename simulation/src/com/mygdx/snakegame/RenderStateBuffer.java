@@ -0,0 +1,53 @@
+package com.mygdx.snakegame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands {@link RenderState}s from the thread stepping a simulation to the thread drawing it,
+ * without locks. Three states take turns: the producer fills its back state and swaps it with
+ * the shared one, the consumer swaps its front state with the shared one when the shared one
+ * is newer. Each swap is a single atomic exchange, so neither thread ever waits for the other,
+ * a state is never written while it is read, and the consumer always gets the latest state.
+ * States the consumer did not pick up in time are overwritten.
+ * <p>
+ * One thread may produce and one thread may consume; they can be the same thread.
+ */
+public class RenderStateBuffer {
+    private static final int INDEX_MASK = 3; // Bits of the shared word holding the index of the shared state
+    private static final int FRESH = 4; // Bit of the shared word set while the shared state has not been consumed
+
+    private final RenderState[] states = {new RenderState(), new RenderState(), new RenderState()};
+    private final AtomicInteger shared = new AtomicInteger(1); // Index of the shared state, plus FRESH
+    private int back; // Index of the state the producer fills, only used by the producer
+    private int front = 2; // Index of the state the consumer reads, only used by the consumer
+
+    /**
+     * Gets the state to fill before the next call to {@link #publish()}. Producer only.
+     *
+     * @return State owned by the producer.
+     */
+    public RenderState getBack() {
+        return states[back];
+    }
+
+    /**
+     * Publishes the back state, replacing the shared state if the consumer has not taken it yet,
+     * and takes the shared state as the new back state. Producer only.
+     */
+    public void publish() {
+        back = shared.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Gets the most recently published state, which stays unchanged until the next call.
+     * Consumer only.
+     *
+     * @return State owned by the consumer; empty until something is published.
+     */
+    public RenderState acquire() {
+        if ((shared.get() & FRESH) != 0) {
+            front = shared.getAndSet(front) & INDEX_MASK;
+        }
+        return states[front];
+    }
+}
@@ -0,0 +1,226 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Plays back a match written by a {@link ReplayRecorder} in its own {@link GameSimulation}.
+ * Seeking restores the nearest keyframe at or before the target tick and steps forward from
+ * there, so any tick is at most one keyframe interval of simulation steps away.
+ * Stepping does not allocate, so fast-forwarding runs at the speed of the simulation.
+ */
+public class ReplayPlayer {
+    private final ByteBuffer data; // Whole replay file
+    private final GameSimulation simulation;
+    private final SnapshotDecoder decoder = new SnapshotDecoder();
+    private final int[] inputs; // Inputs of the current tick
+    private final int keyframeInterval;
+    private final long length; // Number of recorded ticks
+    private final long[] keyframeTicks; // Tick of each keyframe
+    private final int[] keyframeOffsets; // Offset of each keyframe record
+    private long tick; // Number of ticks played since the start of the recording
+    private int idleTicks; // Ticks without input left in the current record
+
+    /**
+     * Opens a replay file. The file is mapped in memory and can be closed once loaded.
+     *
+     * @param file Replay file.
+     * @return Player positioned at the first tick.
+     * @throws IOException If the file cannot be read or is not a complete replay.
+     */
+    public static ReplayPlayer open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ReplayPlayer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Creates a player from the content of a replay file.
+     *
+     * @param data Whole replay file, from position 0.
+     * @throws IOException If the data is not a complete replay.
+     */
+    public ReplayPlayer(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.limit() < 20 + ReplayRecorder.TRAILER_SIZE || data.getInt(0) != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        if (data.get(4) != ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + data.get(4));
+        }
+        if (data.getInt(data.limit() - 4) != ReplayRecorder.INDEX_MAGIC) {
+            throw new IOException("Incomplete replay file, the recording was not closed");
+        }
+        data.position(5);
+        int gridWidth = data.getShort();
+        int gridHeight = data.getShort();
+        int playerCount = data.get();
+        keyframeInterval = data.getInt();
+        long randomState = data.getLong();
+        simulation = new GameSimulation(gridWidth, gridHeight, playerCount, 0);
+        simulation.setRandomState(randomState);
+        inputs = new int[playerCount];
+
+        data.position((int) data.getLong(data.limit() - ReplayRecorder.TRAILER_SIZE));
+        if (data.get() != ReplayRecorder.INDEX) {
+            throw new IOException("Corrupt replay index");
+        }
+        length = SnapshotDecoder.getVarLong(data);
+        int keyframeCount = SnapshotDecoder.getVarint(data);
+        keyframeTicks = new long[keyframeCount];
+        keyframeOffsets = new int[keyframeCount];
+        for (int i = 0; i < keyframeCount; i++) {
+            keyframeTicks[i] = SnapshotDecoder.getVarLong(data);
+            keyframeOffsets[i] = (int) SnapshotDecoder.getVarLong(data);
+        }
+        if (keyframeCount == 0) {
+            throw new IOException("Empty replay");
+        }
+        data.position(keyframeOffsets[0]);
+        readKeyframe(data.get());
+    }
+
+    /**
+     * Moves playback to a tick. The simulation is left in the state before the inputs of that tick.
+     *
+     * @param target Tick to move to, clamped to the recording.
+     */
+    public void seek(long target) {
+        target = Math.max(0, Math.min(target, length));
+        int keyframe = Arrays.binarySearch(keyframeTicks, target);
+        if (keyframe < 0) {
+            keyframe = -keyframe - 2; // Last keyframe before the target
+        }
+        // Step forward from the current tick when it is already past that keyframe
+        if (target < tick || tick < keyframeTicks[keyframe]) {
+            data.position(keyframeOffsets[keyframe]);
+            readKeyframe(data.get());
+        }
+        advance(target - tick);
+    }
+
+    /**
+     * Plays the next tick.
+     *
+     * @return Events produced by the step, or null at the end of the recording.
+     */
+    public GameEvents step() {
+        if (tick >= length) {
+            return null;
+        }
+        Arrays.fill(inputs, Direction.NONE);
+        if (idleTicks == 0) {
+            readInputs();
+        }
+        if (idleTicks > 0) {
+            idleTicks--;
+        }
+        tick++;
+        return simulation.step(inputs);
+    }
+
+    /**
+     * Plays several ticks without stopping, for fast-forwarding.
+     *
+     * @param ticks Maximum number of ticks to play.
+     * @return Number of ticks played, less than requested at the end of the recording.
+     */
+    public int advance(long ticks) {
+        int played = 0;
+        while (played < ticks && step() != null) {
+            played++;
+        }
+        return played;
+    }
+
+    /**
+     * Reads records up to the inputs of the current tick, skipping keyframes.
+     */
+    private void readInputs() {
+        while (true) {
+            byte tag = data.get();
+            if (tag == ReplayRecorder.IDLE) {
+                idleTicks = SnapshotDecoder.getVarint(data);
+                return;
+            } else if (tag == ReplayRecorder.INPUTS) {
+                int changes = SnapshotDecoder.getVarint(data);
+                for (int i = 0; i < changes; i++) {
+                    int p = SnapshotDecoder.getVarint(data);
+                    inputs[p] = data.get();
+                }
+                return;
+            } else if (tag == ReplayRecorder.KEYFRAME) {
+                int size = SnapshotDecoder.getVarint(data);
+                data.position(data.position() + size);
+            } else {
+                throw new IllegalStateException("Unexpected replay record " + tag + " at tick " + tick);
+            }
+        }
+    }
+
+    /**
+     * Restores the state stored in a keyframe record.
+     *
+     * @param tag Tag of the record, already read.
+     */
+    private void readKeyframe(byte tag) {
+        if (tag != ReplayRecorder.KEYFRAME) {
+            throw new IllegalStateException("Corrupt replay index");
+        }
+        SnapshotDecoder.getVarint(data); // Payload size
+        tick = SnapshotDecoder.getVarLong(data);
+        simulation.setRandomState(data.getLong());
+        decoder.reset();
+        decoder.read(data, simulation);
+        idleTicks = 0;
+    }
+
+    /**
+     * Gets the simulation holding the played state.
+     *
+     * @return GameSimulation instance.
+     */
+    public GameSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Gets the number of ticks played since the start of the recording.
+     *
+     * @return Current tick.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the number of recorded ticks.
+     *
+     * @return Length of the recording.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the number of ticks between two keyframes, which bounds the work of a seek.
+     *
+     * @return Keyframe interval.
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Checks if every recorded tick has been played.
+     *
+     * @return True at the end of the recording.
+     */
+    public boolean isFinished() {
+        return tick >= length;
+    }
+}
@@ -0,0 +1,261 @@
+package com.mygdx.snakegame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Records a match as the inputs of every tick, so a {@link ReplayPlayer} can play it back.
+ * The simulation is deterministic, so inputs and the random number generator state are enough
+ * to reproduce it; full-state keyframes are added at a fixed interval so playback can seek
+ * without replaying from the start. Records go to a memory buffer that is written to the
+ * channel only when full, so recording a tick costs a few buffer writes.
+ * <p>
+ * File layout: a header (magic, version, grid size, player count, keyframe interval and the
+ * generator state at the first tick), then a stream of records, then an index of the keyframes
+ * and a trailer holding the offset of the index. The file is only complete once closed.
+ * Records are a tag byte followed by:
+ * <ul>
+ * <li>{@link #IDLE}: number of consecutive ticks without input (varint).</li>
+ * <li>{@link #INPUTS}: inputs of one tick, as a count and (player index varint, direction byte) pairs.</li>
+ * <li>{@link #KEYFRAME}: payload length (varint), tick (varint), generator state (long) and a
+ * {@link SnapshotEncoder} keyframe, taken before the inputs of that tick.</li>
+ * </ul>
+ */
+public class ReplayRecorder implements Closeable {
+    static final int MAGIC = 0x534E4B52; // "SNKR", start of a replay file
+    static final int INDEX_MAGIC = 0x534E4B49; // "SNKI", end of a complete replay file
+    static final byte VERSION = 3; // 2: items are picked up once every snake has moved; 3: keyframes list every item
+    static final int TRAILER_SIZE = 12; // Index offset (long) and index magic (int)
+
+    static final byte IDLE = 0; // Record: ticks without input
+    static final byte INPUTS = 1; // Record: inputs of one tick
+    static final byte KEYFRAME = 2; // Record: full state
+    static final byte INDEX = 3; // Keyframe index, after the last record
+
+    /** Ticks between two keyframes by default, ten seconds of play. */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 10 * GameSimulation.TICKS_PER_SECOND;
+    private static final int BUFFER_SIZE = 64 * 1024; // Bytes buffered before writing to the channel
+
+    private final WritableByteChannel channel;
+    private final GameSimulation simulation;
+    private final int keyframeInterval;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer keyframeBuffer = ByteBuffer.allocate(BUFFER_SIZE); // Holds a keyframe while its length is unknown
+    private final SnapshotEncoder encoder;
+    private long[] keyframeTicks = new long[16]; // Tick of each keyframe
+    private long[] keyframeOffsets = new long[16]; // File offset of each keyframe record
+    private int keyframeCount;
+    private long written; // Bytes written to the channel
+    private long tick; // Number of ticks recorded
+    private int idleTicks; // Ticks without input not written yet
+    private boolean closed;
+
+    /**
+     * Creates a recorder writing to a file with the default keyframe interval.
+     *
+     * @param file       File to create or overwrite.
+     * @param simulation Simulation to record, in the state of the first recorded tick.
+     * @throws IOException If the file cannot be opened.
+     */
+    public ReplayRecorder(Path file, GameSimulation simulation) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+                simulation, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates a recorder writing to a channel.
+     *
+     * @param channel          Destination channel, closed with the recorder.
+     * @param simulation       Simulation to record, in the state of the first recorded tick.
+     * @param keyframeInterval Ticks between two keyframes.
+     * @throws IOException If the header cannot be written.
+     */
+    public ReplayRecorder(WritableByteChannel channel, GameSimulation simulation, int keyframeInterval) throws IOException {
+        this.channel = channel;
+        this.simulation = simulation;
+        this.keyframeInterval = keyframeInterval;
+        OccupancyGrid grid = simulation.getGrid();
+        encoder = new SnapshotEncoder(simulation.getPlayerCount());
+
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putShort((short) grid.getWidth());
+        buffer.putShort((short) grid.getHeight());
+        buffer.put((byte) simulation.getPlayerCount());
+        buffer.putInt(keyframeInterval);
+        buffer.putLong(simulation.getRandomState());
+    }
+
+    /**
+     * Records the inputs of the next tick. Must be called before each
+     * {@link GameSimulation#step(int[])}, with the same inputs.
+     * Inputs that do not change a player's steering are recorded as no input.
+     *
+     * @param inputs Direction requested by each player, indexed from 0.
+     * @throws IOException If the buffer cannot be written to the channel.
+     */
+    public void record(int[] inputs) throws IOException {
+        if (tick % keyframeInterval == 0) {
+            flushIdle();
+            writeKeyframe();
+        }
+
+        int changes = 0;
+        for (int p = 0; p < inputs.length; p++) {
+            if (isChange(p, inputs[p])) {
+                changes++;
+            }
+        }
+        if (changes == 0) {
+            idleTicks++;
+        } else {
+            flushIdle();
+            ensureRemaining(6 + changes * 6);
+            buffer.put(INPUTS);
+            SnapshotEncoder.putVarint(buffer, changes);
+            for (int p = 0; p < inputs.length; p++) {
+                if (isChange(p, inputs[p])) {
+                    SnapshotEncoder.putVarint(buffer, p);
+                    buffer.put((byte) inputs[p]);
+                }
+            }
+        }
+        tick++;
+    }
+
+    /**
+     * Checks if an input changes the steering of a player, using the same rule as the simulation.
+     *
+     * @param p         Player index.
+     * @param direction Requested direction.
+     * @return True if the input has an effect.
+     */
+    private boolean isChange(int p, int direction) {
+        int current = simulation.getDirection(p + 1);
+        return direction != Direction.NONE && direction != current && direction != Direction.opposite(current);
+    }
+
+    /**
+     * Writes the pending run of ticks without input.
+     *
+     * @throws IOException If the buffer cannot be written to the channel.
+     */
+    private void flushIdle() throws IOException {
+        if (idleTicks > 0) {
+            ensureRemaining(6);
+            buffer.put(IDLE);
+            SnapshotEncoder.putVarint(buffer, idleTicks);
+            idleTicks = 0;
+        }
+    }
+
+    /**
+     * Writes a keyframe of the current state and adds it to the index.
+     *
+     * @throws IOException If the buffer cannot be written to the channel.
+     */
+    private void writeKeyframe() throws IOException {
+        // Keyframes grow with the snakes, not with the grid, so size the buffer from the bodies
+        int maxSize = SnapshotEncoder.getMaxSize(simulation);
+        if (keyframeBuffer.capacity() < maxSize) {
+            keyframeBuffer = ByteBuffer.allocate(2 * maxSize);
+        }
+        keyframeBuffer.clear();
+        SnapshotEncoder.putVarLong(keyframeBuffer, tick);
+        keyframeBuffer.putLong(simulation.getRandomState());
+        encoder.writeKeyframe(simulation, keyframeBuffer);
+        keyframeBuffer.flip();
+
+        ensureRemaining(6 + keyframeBuffer.remaining());
+        if (keyframeCount == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+        }
+        keyframeTicks[keyframeCount] = tick;
+        keyframeOffsets[keyframeCount] = written + buffer.position();
+        keyframeCount++;
+
+        buffer.put(KEYFRAME);
+        SnapshotEncoder.putVarint(buffer, keyframeBuffer.remaining());
+        if (keyframeBuffer.remaining() > buffer.remaining()) {
+            flush();
+            while (keyframeBuffer.hasRemaining()) {
+                written += channel.write(keyframeBuffer);
+            }
+        } else {
+            buffer.put(keyframeBuffer);
+        }
+    }
+
+    /**
+     * Makes room in the buffer, writing it to the channel if needed.
+     *
+     * @param bytes Number of bytes about to be put.
+     * @throws IOException If the buffer cannot be written to the channel.
+     */
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffer to the channel.
+     *
+     * @throws IOException If the channel fails.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Gets the number of ticks recorded.
+     *
+     * @return Number of ticks.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Writes the keyframe index and the trailer, then closes the channel.
+     *
+     * @throws IOException If the channel fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushIdle();
+            ensureRemaining(32);
+            long indexOffset = written + buffer.position();
+            buffer.put(INDEX);
+            SnapshotEncoder.putVarLong(buffer, tick);
+            SnapshotEncoder.putVarint(buffer, keyframeCount);
+            for (int i = 0; i < keyframeCount; i++) {
+                ensureRemaining(20 + TRAILER_SIZE);
+                SnapshotEncoder.putVarLong(buffer, keyframeTicks[i]);
+                SnapshotEncoder.putVarLong(buffer, keyframeOffsets[i]);
+            }
+            ensureRemaining(TRAILER_SIZE);
+            buffer.putLong(indexOffset);
+            buffer.putInt(INDEX_MAGIC);
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
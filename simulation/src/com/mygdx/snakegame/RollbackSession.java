@@ -0,0 +1,285 @@
+package com.mygdx.snakegame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Plays a match between players on different machines without waiting for each other's input.
+ * Each frame is simulated as soon as the local input is known: the input of a remote player not
+ * received yet is predicted to be the last one received, since a snake keeps its course between
+ * turns. When a remote input arrives and differs from the prediction used, the simulation is
+ * rolled back to the state before that frame and simulated again up to the current frame with
+ * the corrected inputs, within the same call, so the players only see the correction.
+ * <p>
+ * The state before each of the last {@link #STATE_SLOTS} frames is kept in a ring of byte
+ * buffers, written by the {@link GameStateCodec} along with the state of the random number
+ * generator: a few bytes per snake segment, copied without allocating once the buffers fit the
+ * snakes. The inputs of every player are kept in a ring of {@link #INPUT_SLOTS} frames. The
+ * session stops advancing when a remote player is {@link #MAX_PREDICTION} frames behind, so a
+ * rollback never goes further back than the states kept.
+ * <p>
+ * Frames are numbered from 0 for the whole session; the simulation starts a new match by itself
+ * after each {@link GameEvents#GAME_OVER}, so every player goes through the same matches. The
+ * session holds no connection: the {@code RollbackPeer} of the net module exchanges the inputs.
+ */
+public class RollbackSession {
+    /** States kept for rolling back, the furthest a rollback goes back. */
+    public static final int STATE_SLOTS = 16;
+    /** Frames the session may run ahead of the inputs received from a remote player. */
+    public static final int MAX_PREDICTION = STATE_SLOTS - 1;
+    /** Frames of inputs kept for each player, a power of two. */
+    public static final int INPUT_SLOTS = 64;
+    private static final long NO_ROLLBACK = Long.MAX_VALUE;
+
+    private final GameSimulation simulation;
+    private final int playerCount;
+    private final int localPlayer;
+    private final int[] inputs; // Input of each player at each frame, confirmed or predicted, INPUT_SLOTS slots per player
+    private final long[] received; // First frame whose input is not known yet, for each player
+    private final long[] acknowledged; // First frame of local input not acknowledged yet, for each remote player
+    private final int[] stepInputs; // Inputs of the frame being simulated
+    private final ByteBuffer[] states = new ByteBuffer[STATE_SLOTS]; // State before each of the last frames
+    private long frame; // Next frame to simulate
+    private long rollbackFrame = NO_ROLLBACK; // Earliest frame simulated with a wrong prediction
+
+    private long rollbacks; // Times the simulation was rolled back
+    private long resimulatedFrames; // Frames simulated again by the rollbacks
+    private int maxRollback; // Most frames simulated again by one rollback
+
+    /**
+     * Creates a session around a simulation at the start of a match, identical on every machine.
+     *
+     * @param simulation  Simulation created with the same grid size, player count, seed and rules on every machine.
+     * @param localPlayer Player id of the player on this machine.
+     */
+    public RollbackSession(GameSimulation simulation, int localPlayer) {
+        this.simulation = simulation;
+        this.playerCount = simulation.getPlayerCount();
+        this.localPlayer = localPlayer;
+        inputs = new int[playerCount * INPUT_SLOTS];
+        received = new long[playerCount];
+        acknowledged = new long[playerCount];
+        stepInputs = new int[playerCount];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = ByteBuffer.allocate(GameStateCodec.getSize(simulation) + Long.BYTES);
+        }
+    }
+
+    /**
+     * Indicates whether the next frame can be simulated: no remote player is too far behind to
+     * roll back to, and the local inputs the remote players have not acknowledged are still kept.
+     *
+     * @return True if {@link #advance(int)} may be called.
+     */
+    public boolean canAdvance() {
+        for (int p = 0; p < playerCount; p++) {
+            if (p != localPlayer - 1 && (frame - received[p] >= MAX_PREDICTION || frame - acknowledged[p] >= INPUT_SLOTS - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Corrects the mispredicted frames, if any, then simulates the next frame with the input of
+     * the local player and the predicted inputs of the others.
+     *
+     * @param direction Direction requested by the local player, or {@link Direction#NONE}.
+     * @return Events of the new frame.
+     * @throws IllegalStateException If a remote player is too far behind, see {@link #canAdvance()}.
+     */
+    public GameEvents advance(int direction) {
+        if (!canAdvance()) {
+            throw new IllegalStateException("Frame " + frame + " is too far ahead of the remote inputs");
+        }
+        resimulate();
+        inputs[getSlot(localPlayer, frame)] = direction;
+        received[localPlayer - 1] = frame + 1;
+        return step();
+    }
+
+    /**
+     * Rolls back to the earliest frame simulated with a wrong prediction and simulates again up
+     * to the current frame, if a remote input received since the last frame requires it.
+     */
+    public void resimulate() {
+        if (rollbackFrame >= frame) {
+            rollbackFrame = NO_ROLLBACK;
+            return;
+        }
+        int count = (int) (frame - rollbackFrame);
+        ByteBuffer state = states[(int) rollbackFrame & (STATE_SLOTS - 1)];
+        state.flip();
+        simulation.setRandomState(state.getLong());
+        GameStateCodec.read(state, simulation);
+        long current = frame;
+        frame = rollbackFrame;
+        rollbackFrame = NO_ROLLBACK;
+        while (frame < current) {
+            step();
+        }
+        rollbacks++;
+        resimulatedFrames += count;
+        maxRollback = Math.max(maxRollback, count);
+    }
+
+    /**
+     * Saves the state before the current frame, then simulates it.
+     *
+     * @return Events of the frame.
+     */
+    private GameEvents step() {
+        int slot = (int) frame & (STATE_SLOTS - 1);
+        int size = GameStateCodec.getSize(simulation) + Long.BYTES;
+        if (states[slot].capacity() < size) {
+            states[slot] = ByteBuffer.allocate(2 * size);
+        }
+        ByteBuffer state = states[slot];
+        state.clear();
+        state.putLong(simulation.getRandomState());
+        GameStateCodec.write(simulation, state);
+
+        for (int p = 0; p < playerCount; p++) {
+            int i = getSlot(p + 1, frame);
+            if (frame >= received[p]) {
+                // Not received yet: the snake keeps doing what it did in the last input received
+                inputs[i] = received[p] > 0 ? inputs[getSlot(p + 1, received[p] - 1)] : Direction.NONE;
+            }
+            stepInputs[p] = inputs[i];
+        }
+        frame++;
+        return simulation.step(stepInputs);
+    }
+
+    /**
+     * Adds the input of a remote player for a frame. Inputs must be added in frame order; an
+     * input already received is ignored. If the frame was simulated with another input, the
+     * next call to {@link #advance(int)} or {@link #resimulate()} corrects it.
+     *
+     * @param player    Player id of the remote player.
+     * @param frame     Frame of the input, at most {@link #getReceived(int)}.
+     * @param direction Direction requested by the player, or {@link Direction#NONE}.
+     * @return True if the input was added, false if it was already received.
+     * @throws IllegalArgumentException If inputs of earlier frames are missing.
+     */
+    public boolean addRemoteInput(int player, long frame, int direction) {
+        long next = received[player - 1];
+        if (frame < next) {
+            return false;
+        }
+        if (frame > next) {
+            throw new IllegalArgumentException("Input of frame " + frame + " received before frame " + next);
+        }
+        int i = getSlot(player, frame);
+        if (frame < this.frame && inputs[i] != direction) {
+            rollbackFrame = Math.min(rollbackFrame, frame);
+        }
+        inputs[i] = direction;
+        received[player - 1] = frame + 1;
+        return true;
+    }
+
+    /**
+     * Notes the local inputs a remote player has received, which no longer need to be kept.
+     *
+     * @param player Player id of the remote player.
+     * @param frame  First frame whose local input the player has not received.
+     */
+    public void acknowledge(int player, long frame) {
+        acknowledged[player - 1] = Math.max(acknowledged[player - 1], frame);
+    }
+
+    /**
+     * Gets the index of the input of a player at a frame in the input ring.
+     *
+     * @param player Player id.
+     * @param frame  Frame of the input.
+     * @return Index in {@link #inputs}.
+     */
+    private int getSlot(int player, long frame) {
+        return ((int) frame & (INPUT_SLOTS - 1)) * playerCount + player - 1;
+    }
+
+    /**
+     * Gets the input of the local player at a frame, to send to the remote players.
+     *
+     * @param frame Frame of the input, one of the last {@link #INPUT_SLOTS} simulated.
+     * @return Direction requested, or {@link Direction#NONE}.
+     */
+    public int getLocalInput(long frame) {
+        return inputs[getSlot(localPlayer, frame)];
+    }
+
+    /**
+     * Gets the first frame whose input from a player is not known yet.
+     *
+     * @param player Player id.
+     * @return Frame number; every earlier input of the player is confirmed.
+     */
+    public long getReceived(int player) {
+        return received[player - 1];
+    }
+
+    /**
+     * Gets the first frame of local input a remote player has not acknowledged.
+     *
+     * @param player Player id of the remote player.
+     * @return Frame number.
+     */
+    public long getAcknowledged(int player) {
+        return acknowledged[player - 1];
+    }
+
+    /**
+     * Gets the number of frames simulated, which is the next frame to simulate.
+     *
+     * @return Frame number.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Gets the simulation, in the state after the last frame, predicted or confirmed.
+     *
+     * @return Simulation.
+     */
+    public GameSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Gets the player on this machine.
+     *
+     * @return Player id.
+     */
+    public int getLocalPlayer() {
+        return localPlayer;
+    }
+
+    /**
+     * Gets the number of times the simulation was rolled back.
+     *
+     * @return Number of rollbacks.
+     */
+    public long getRollbackCount() {
+        return rollbacks;
+    }
+
+    /**
+     * Gets the number of frames simulated again by the rollbacks.
+     *
+     * @return Number of frames.
+     */
+    public long getResimulatedFrames() {
+        return resimulatedFrames;
+    }
+
+    /**
+     * Gets the most frames simulated again by one rollback.
+     *
+     * @return Number of frames.
+     */
+    public int getMaxRollback() {
+        return maxRollback;
+    }
+}
@@ -0,0 +1,140 @@
+package com.mygdx.snakegame;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of the last samples of a non-negative quantity, such as frame times in nanoseconds.
+ * Samples go into log-linear buckets, eight per power of two, so percentiles are accurate to
+ * about 6% whatever the magnitude. A ring of the bucket of each sample lets the oldest sample
+ * leave the window when a new one arrives, so recording costs O(1) and never allocates, and
+ * a percentile costs one pass over the buckets.
+ */
+public class RollingHistogram {
+    private static final int SUB_BITS = 3; // log2 of the number of buckets per power of two
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final int[] buckets = new int[BUCKET_COUNT]; // Number of samples of the window in each bucket
+    private final long[] samples; // Samples of the window, oldest first from the head
+    private int head; // Index of the next sample to overwrite
+    private int count; // Number of samples in the window
+    private long sum; // Sum of the samples in the window
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param window Number of most recent samples kept.
+     */
+    public RollingHistogram(int window) {
+        samples = new long[window];
+    }
+
+    /**
+     * Adds a sample, dropping the oldest one once the window is full.
+     *
+     * @param value Sample, negative values count as 0.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        if (count == samples.length) {
+            long oldest = samples[head];
+            buckets[bucketOf(oldest)]--;
+            sum -= oldest;
+        } else {
+            count++;
+        }
+        samples[head] = value;
+        buckets[bucketOf(value)]++;
+        sum += value;
+        head = head + 1 == samples.length ? 0 : head + 1;
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        Arrays.fill(buckets, 0);
+        head = 0;
+        count = 0;
+        sum = 0;
+    }
+
+    /**
+     * Gets a percentile of the samples in the window.
+     *
+     * @param percentile Percentile between 0 and 100.
+     * @return Middle of the bucket holding the percentile, or 0 if the window is empty.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                return middleOf(bucket);
+            }
+        }
+        return middleOf(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Gets the number of samples in the window.
+     *
+     * @return Sample count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the samples in the window.
+     *
+     * @return Exact sum.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Gets the mean of the samples in the window.
+     *
+     * @return Exact mean, or 0 if the window is empty.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Gets the bucket of a value. Values below {@code SUB_COUNT} have a bucket each; above,
+     * each power of two is split into {@code SUB_COUNT} buckets of equal width.
+     *
+     * @param value Non-negative value.
+     * @return Bucket index.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) ((value >>> shift) & (SUB_COUNT - 1));
+    }
+
+    /**
+     * Gets the value in the middle of a bucket.
+     *
+     * @param bucket Bucket index.
+     * @return Middle value, rounded down.
+     */
+    static long middleOf(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long low = (long) (SUB_COUNT + bucket % SUB_COUNT) << shift;
+        return low + ((1L << shift) >> 1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mygdx.snakegame;
+
+import java.util.Random;
+
+/**
+ * Random number generator whose state can be saved and restored.
+ * Uses the same linear congruential generator as {@link Random}, so a given seed produces
+ * the same numbers, but keeps the state in a plain field that snapshots can copy.
+ * Not thread-safe, like the simulation that owns it.
+ */
+public class SimulationRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state; // 48-bit generator state
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed Initial seed, scrambled like {@link Random#setSeed(long)}.
+     */
+    public SimulationRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Sets the seed, scrambled like {@link Random#setSeed(long)}.
+     * Called by the {@link Random} constructor.
+     *
+     * @param seed New seed.
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Generates the next random bits.
+     *
+     * @param bits Number of bits, at most 32.
+     * @return Random bits in the low bits of the result.
+     */
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Gets the internal state, which is not the seed.
+     *
+     * @return 48-bit state.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a state returned by {@link #getState()}.
+     *
+     * @param state 48-bit state.
+     */
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
@@ -0,0 +1,408 @@
+package com.mygdx.snakegame;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Represents the snake in the game.
+ */
+public class Snake {
+    /** The size of each cell in pixels. */
+    public static final int CELL_SIZE = 20;
+    /** Ticks between two moves at the initial speed, 0.2 seconds at 60 ticks per second. */
+    public static final int BASE_STEP_TICKS = 12;
+
+    private final SnakeBody body; // The body segments of the snake
+    private final List<int[]> bodyList; // Read-only list view of the body
+    private final OccupancyGrid grid; // Grid shared by all snakes
+    private final int id; // Owner id of this snake in the grid
+    private int direction; // Current direction of the snake
+    private int speedLevel; // Number of speed increases
+    private int speedIncrease = 10; // Speed added by each increase, in percent of the initial speed
+    private int stepTicks; // Ticks between two moves at the current speed
+    private int ticksSinceMove; // Ticks elapsed since the last move
+    private int prevTailX; // X coordinate the tail segment moved from in the last move
+    private int prevTailY; // Y coordinate the tail segment moved from in the last move
+    private boolean growing; // Indicates whether the snake should grow
+
+    /**
+     * Constructs a new Snake instance.
+     *
+     * @param grid             Occupancy grid shared by all snakes.
+     * @param id               Owner id of the snake in the grid, greater than zero.
+     * @param startX           Initial X position of the snake.
+     * @param startY           Initial Y position of the snake.
+     * @param initialDirection Initial direction of the snake, one of the {@link Direction} constants.
+     */
+    public Snake(OccupancyGrid grid, int id, int startX, int startY, int initialDirection) {
+        this.grid = grid;
+        this.id = id;
+        body = new SnakeBody();
+        bodyList = new BodyList();
+        body.addHead(startX, startY);
+        grid.add(startX, startY, id);
+        direction = initialDirection;
+        speedLevel = 0;
+        stepTicks = BASE_STEP_TICKS;
+        ticksSinceMove = 0;
+        prevTailX = startX;
+        prevTailY = startY;
+        growing = false;
+    }
+
+    /**
+     * Advances the snake by one simulation tick. The snake moves once every
+     * {@link #getStepTicks()} ticks.
+     *
+     * @param direction Direction in which the snake should move, one of the {@link Direction} constants.
+     * @return True if the snake moved, false otherwise.
+     */
+    public boolean update(int direction) {
+        // Once enough ticks have passed, update the snake's position
+        if (++ticksSinceMove >= stepTicks) {
+            this.direction = direction;
+            // Update the new head position based on the direction
+            int headX = body.getHeadX() + Direction.dx(direction);
+            int headY = body.getHeadY() + Direction.dy(direction);
+            // Add the new head to the beginning of the body
+            body.addHead(headX, headY);
+            grid.add(headX, headY, id);
+
+            // If not growing, remove the last segment of the body
+            if (!growing) {
+                prevTailX = body.getTailX();
+                prevTailY = body.getTailY();
+                grid.remove(prevTailX, prevTailY, id);
+                body.removeTail();
+            } else {
+                // The new tail segment did not move
+                prevTailX = body.getTailX();
+                prevTailY = body.getTailY();
+                growing = false;
+            }
+            ticksSinceMove = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the snake has collided with a certain position.
+     *
+     * @param position The position to check.
+     * @return True if there was a collision, false otherwise.
+     */
+    public boolean checkCollision(int[] position) {
+        return checkCollision(position[0], position[1]);
+    }
+
+    /**
+     * Checks if the snake has collided with a certain position.
+     *
+     * @param x X coordinate of the position to check.
+     * @param y Y coordinate of the position to check.
+     * @return True if there was a collision, false otherwise.
+     */
+    public boolean checkCollision(int x, int y) {
+        int count = grid.getCount(x, y);
+        if (count == 0) {
+            return false;
+        }
+        int owner = grid.getOwner(x, y);
+        if (owner == id) {
+            return true;
+        }
+        if (count == 1 && owner != OccupancyGrid.UNKNOWN_OWNER) {
+            return false;
+        }
+        // Shared cell whose owners are not tracked, fall back to scanning the body
+        return body.contains(x, y, 0);
+    }
+
+    /**
+     * Checks if any segment of this snake overlaps a segment of another snake.
+     *
+     * @param other The other snake.
+     * @return True if the snakes overlap, false otherwise.
+     */
+    public boolean collidesWith(Snake other) {
+        // Snakes can only overlap on cells covered by more than one segment
+        if (!grid.hasSharedCells()) {
+            return false;
+        }
+        for (int i = 0; i < body.size(); i++) {
+            int x = body.getX(i);
+            int y = body.getY(i);
+            if (grid.getCount(x, y) > 1 && other.checkCollision(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Grows the snake by adding a new segment to its body.
+     */
+    public void grow() {
+        growing = true;
+    }
+
+    /**
+     * Increases the snake's speed by a share of the initial speed, 10% unless set otherwise,
+     * rounding the interval between moves to whole ticks.
+     */
+    public void increaseSpeed() {
+        speedLevel++;
+        stepTicks = computeStepTicks(speedLevel);
+    }
+
+    /**
+     * Sets the speed added by each increase. Used by {@link GameRules} to tune the speed curve.
+     *
+     * @param percent Speed added by each increase, in percent of the initial speed.
+     */
+    void setSpeedIncrease(int percent) {
+        speedIncrease = percent;
+        stepTicks = computeStepTicks(speedLevel);
+    }
+
+    /**
+     * Computes the interval between moves for a speed level.
+     *
+     * @param speedLevel Number of speed increases.
+     * @return Step interval in ticks, at least 1.
+     */
+    private int computeStepTicks(int speedLevel) {
+        int speedPercent = 100 + speedLevel * speedIncrease;
+        return Math.max(1, (BASE_STEP_TICKS * 100 + speedPercent / 2) / speedPercent);
+    }
+
+    /**
+     * Checks if the snake has hit the wall.
+     *
+     * @return True if there was a collision with the wall, false otherwise.
+     */
+    public boolean hasHitWall() {
+        return !grid.isInside(body.getHeadX(), body.getHeadY());
+    }
+
+    /**
+     * Checks if the snake has hit itself.
+     *
+     * @return True if there was a collision with itself, false otherwise.
+     */
+    public boolean hasHitItself() {
+        int headX = body.getHeadX();
+        int headY = body.getHeadY();
+        // The head can only overlap the body if its cell holds another segment
+        if (grid.getCount(headX, headY) < 2) {
+            return false;
+        }
+        return body.contains(headX, headY, 1);
+    }
+
+    /**
+     * Resets the snake to its initial position.
+     *
+     * @param startX           Initial X position of the snake.
+     * @param startY           Initial Y position of the snake.
+     * @param initialDirection Initial direction of the snake, one of the {@link Direction} constants.
+     */
+    public void reset(int startX, int startY, int initialDirection) {
+        clear();
+        body.addHead(startX, startY);
+        grid.add(startX, startY, id);
+        direction = initialDirection;
+        speedLevel = 0;
+        stepTicks = BASE_STEP_TICKS;
+        ticksSinceMove = 0;
+        prevTailX = startX;
+        prevTailY = startY;
+        growing = false;
+    }
+
+    /**
+     * Removes every segment of the snake from the grid, leaving it with an empty body.
+     * Used when the snake is eliminated from the match.
+     */
+    public void clear() {
+        for (int i = 0; i < body.size(); i++) {
+            grid.remove(body.getX(i), body.getY(i), id);
+        }
+        body.clear();
+    }
+
+    /**
+     * Appends a segment behind the tail, registering it in the grid.
+     * Used with {@link #clear()} to rebuild the body from a snapshot, head first.
+     *
+     * @param x X coordinate of the segment.
+     * @param y Y coordinate of the segment.
+     */
+    void appendSegment(int x, int y) {
+        body.addTail(x, y);
+        grid.add(x, y, id);
+    }
+
+    /**
+     * Adds a head segment in front of the current head, registering it in the grid.
+     * Used to apply a snapshot delta.
+     *
+     * @param x X coordinate of the segment.
+     * @param y Y coordinate of the segment.
+     */
+    void prependSegment(int x, int y) {
+        body.addHead(x, y);
+        grid.add(x, y, id);
+    }
+
+    /**
+     * Removes the tail segment, unregistering it from the grid.
+     * Used to apply a snapshot delta.
+     */
+    void removeTailSegment() {
+        grid.remove(body.getTailX(), body.getTailY(), id);
+        body.removeTail();
+    }
+
+    /**
+     * Restores the movement state of the snake from a snapshot.
+     *
+     * @param direction      Direction of the last move.
+     * @param speedLevel     Number of speed increases.
+     * @param ticksSinceMove Ticks elapsed since the last move.
+     * @param growing        Indicates whether the snake grows on its next move.
+     * @param prevTailX      X coordinate the tail moved from in the last move.
+     * @param prevTailY      Y coordinate the tail moved from in the last move.
+     */
+    void restoreMotion(int direction, int speedLevel, int ticksSinceMove, boolean growing, int prevTailX, int prevTailY) {
+        this.direction = direction;
+        this.speedLevel = speedLevel;
+        this.stepTicks = computeStepTicks(speedLevel);
+        this.ticksSinceMove = ticksSinceMove;
+        this.growing = growing;
+        this.prevTailX = prevTailX;
+        this.prevTailY = prevTailY;
+    }
+
+    /**
+     * Gets the number of ticks elapsed since the last move.
+     *
+     * @return Ticks since the last move.
+     */
+    int getTicksSinceMove() {
+        return ticksSinceMove;
+    }
+
+    /**
+     * Checks if the snake grows on its next move.
+     *
+     * @return True if a segment will be added on the next move.
+     */
+    boolean isGrowing() {
+        return growing;
+    }
+
+    /**
+     * Gets how far the snake is between its last move and the next one.
+     *
+     * @param alpha Fraction of the current tick that has elapsed, between 0 and 1.
+     * @return Progress between 0 (just moved) and 1 (about to move).
+     */
+    public float getMoveProgress(float alpha) {
+        return Math.min(1f, (ticksSinceMove + alpha) / stepTicks);
+    }
+
+    /**
+     * Gets the X coordinate the tail segment occupied before the last move.
+     * Every other segment moved from the position of the segment behind it.
+     *
+     * @return Previous X coordinate of the tail.
+     */
+    public int getPrevTailX() {
+        return prevTailX;
+    }
+
+    /**
+     * Gets the Y coordinate the tail segment occupied before the last move.
+     *
+     * @return Previous Y coordinate of the tail.
+     */
+    public int getPrevTailY() {
+        return prevTailY;
+    }
+
+    /**
+     * Gets the number of ticks between two moves at the current speed.
+     *
+     * @return Step interval in ticks.
+     */
+    public int getStepTicks() {
+        return stepTicks;
+    }
+
+    /**
+     * Gets the number of times the snake's speed was increased.
+     *
+     * @return Speed level, 0 at the initial speed.
+     */
+    public int getSpeedLevel() {
+        return speedLevel;
+    }
+
+    /**
+     * Gets the direction of the snake's last move.
+     *
+     * @return One of the {@link Direction} constants.
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the owner id of the snake in the occupancy grid.
+     *
+     * @return Id of the snake.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the read-only segments of the snake's body, 0 being the head.
+     *
+     * @return Body of the snake.
+     */
+    public SnakeBody getSegments() {
+        return body;
+    }
+
+    /**
+     * Gets the snake's body as a list of segments.
+     * Kept for compatibility: the list is read-only and allocates a new array for every
+     * segment read, so hot paths should use {@link #getSegments()} instead.
+     *
+     * @return List of segments comprising the snake's body.
+     */
+    public List<int[]> getBody() {
+        return bodyList;
+    }
+
+    /**
+     * Read-only list adapter over the body ring buffer.
+     */
+    private class BodyList extends AbstractList<int[]> {
+        @Override
+        public int[] get(int index) {
+            if (index < 0 || index >= body.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + body.size());
+            }
+            return new int[] { body.getX(index), body.getY(index) };
+        }
+
+        @Override
+        public int size() {
+            return body.size();
+        }
+    }
+}
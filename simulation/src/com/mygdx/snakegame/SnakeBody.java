@@ -0,0 +1,213 @@
+package com.mygdx.snakegame;
+
+/**
+ * Stores the body segments of a snake in a growable ring buffer of primitive coordinates.
+ * Segment 0 is the head. Adding a head and removing the tail cost O(1) and do not allocate
+ * unless the buffer has to grow.
+ * Only the owning snake can modify the body, other classes get a read-only view.
+ */
+public class SnakeBody {
+    private static final int INITIAL_CAPACITY = 16; // Must be a power of two
+
+    private int[] xs; // X coordinates of the segments
+    private int[] ys; // Y coordinates of the segments
+    private int mask; // Capacity minus one, used to wrap indices
+    private int head; // Slot holding the head segment
+    private int size; // Number of segments
+    private long headsAdded; // Number of heads added since the body was created
+    private long tailsRemoved; // Number of tails removed since the body was created
+    private int clearCount; // Number of times the body was cleared
+
+    /**
+     * Creates an empty body.
+     */
+    SnakeBody() {
+        xs = new int[INITIAL_CAPACITY];
+        ys = new int[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Adds a new head segment in front of the current head.
+     *
+     * @param x X coordinate of the new head.
+     * @param y Y coordinate of the new head.
+     */
+    void addHead(int x, int y) {
+        if (size == xs.length) {
+            grow();
+        }
+        head = (head - 1) & mask;
+        xs[head] = x;
+        ys[head] = y;
+        size++;
+        headsAdded++;
+    }
+
+    /**
+     * Adds a new tail segment behind the current tail.
+     * Used to rebuild a body from a snapshot, head first.
+     *
+     * @param x X coordinate of the new tail.
+     * @param y Y coordinate of the new tail.
+     */
+    void addTail(int x, int y) {
+        if (size == xs.length) {
+            grow();
+        }
+        int slot = (head + size) & mask;
+        xs[slot] = x;
+        ys[slot] = y;
+        size++;
+    }
+
+    /**
+     * Removes the tail segment. Does nothing if the body is empty.
+     */
+    void removeTail() {
+        if (size > 0) {
+            size--;
+            tailsRemoved++;
+        }
+    }
+
+    /**
+     * Removes every segment.
+     */
+    void clear() {
+        head = 0;
+        size = 0;
+        clearCount++;
+    }
+
+    /**
+     * Doubles the capacity, unwrapping the segments so the head is at slot 0.
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+        int[] newXs = new int[capacity];
+        int[] newYs = new int[capacity];
+        int firstPart = Math.min(size, xs.length - head);
+        System.arraycopy(xs, head, newXs, 0, firstPart);
+        System.arraycopy(ys, head, newYs, 0, firstPart);
+        System.arraycopy(xs, 0, newXs, firstPart, size - firstPart);
+        System.arraycopy(ys, 0, newYs, firstPart, size - firstPart);
+        xs = newXs;
+        ys = newYs;
+        mask = capacity - 1;
+        head = 0;
+    }
+
+    /**
+     * Gets the number of heads added since the body was created.
+     * With {@link #getTailsRemoved()} and {@link #getClearCount()} it tells how the body
+     * changed between two observations without comparing segments.
+     *
+     * @return Number of heads added.
+     */
+    long getHeadsAdded() {
+        return headsAdded;
+    }
+
+    /**
+     * Gets the number of tails removed since the body was created.
+     *
+     * @return Number of tails removed.
+     */
+    long getTailsRemoved() {
+        return tailsRemoved;
+    }
+
+    /**
+     * Gets the number of times the body was cleared. Segments added with
+     * {@link #addTail(int, int)} are only tracked by the clear that precedes them.
+     *
+     * @return Number of clears.
+     */
+    int getClearCount() {
+        return clearCount;
+    }
+
+    /**
+     * Gets the number of segments.
+     *
+     * @return Length of the body.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the X coordinate of a segment.
+     *
+     * @param index Index of the segment, 0 being the head.
+     * @return X coordinate of the segment.
+     */
+    public int getX(int index) {
+        return xs[(head + index) & mask];
+    }
+
+    /**
+     * Gets the Y coordinate of a segment.
+     *
+     * @param index Index of the segment, 0 being the head.
+     * @return Y coordinate of the segment.
+     */
+    public int getY(int index) {
+        return ys[(head + index) & mask];
+    }
+
+    /**
+     * Gets the X coordinate of the head.
+     *
+     * @return X coordinate of the head.
+     */
+    public int getHeadX() {
+        return xs[head];
+    }
+
+    /**
+     * Gets the Y coordinate of the head.
+     *
+     * @return Y coordinate of the head.
+     */
+    public int getHeadY() {
+        return ys[head];
+    }
+
+    /**
+     * Gets the X coordinate of the tail.
+     *
+     * @return X coordinate of the tail.
+     */
+    public int getTailX() {
+        return xs[(head + size - 1) & mask];
+    }
+
+    /**
+     * Gets the Y coordinate of the tail.
+     *
+     * @return Y coordinate of the tail.
+     */
+    public int getTailY() {
+        return ys[(head + size - 1) & mask];
+    }
+
+    /**
+     * Checks if any segment from the given index on lies on a position.
+     *
+     * @param x    X coordinate.
+     * @param y    Y coordinate.
+     * @param from Index of the first segment to check, 0 being the head.
+     * @return True if one of the checked segments is at the position.
+     */
+    public boolean contains(int x, int y, int from) {
+        for (int i = from; i < size; i++) {
+            int slot = (head + i) & mask;
+            if (xs[slot] == x && ys[slot] == y) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,256 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Applies snapshots written by a {@link SnapshotEncoder} to a {@link GameSimulation}.
+ * A keyframe replaces the whole state; a delta is applied on top of the state left by the
+ * previous snapshot, so deltas must be read in order after a keyframe.
+ * As with {@link GameStateCodec}, the random number generator is not part of the state.
+ */
+public class SnapshotDecoder {
+    private boolean hasBaseline; // Indicates whether a keyframe was read
+    private int sequence; // Sequence number of the last snapshot read
+
+    private int packedSteps; // Byte of steps being read
+    private int packedCount; // Number of steps left in packedSteps
+
+    // Items of the last item list that disappear after a while
+    private int timedCount;
+    private int[] timedXs = new int[4];
+    private int[] timedYs = new int[4];
+    private long[] timedExpiries = new long[4]; // Tick at which each item disappears
+
+    /**
+     * Reads a snapshot into a simulation with the same grid size and player count as the encoded one.
+     *
+     * @param buffer     Source buffer, positioned at the start of the snapshot.
+     * @param simulation Simulation to update. For a delta, it must hold the state of the previous snapshot.
+     * @throws IllegalStateException    If a delta does not follow the last snapshot read.
+     * @throws IllegalArgumentException If the player count does not match.
+     */
+    public void read(ByteBuffer buffer, GameSimulation simulation) {
+        boolean full = buffer.get() == SnapshotEncoder.KEYFRAME;
+        int snapshotSequence = getVarint(buffer);
+        if (full) {
+            int playerCount = buffer.get();
+            if (playerCount != simulation.getPlayerCount()) {
+                throw new IllegalArgumentException("Expected " + simulation.getPlayerCount() + " players, got " + playerCount);
+            }
+        } else if (!hasBaseline || snapshotSequence != sequence + 1) {
+            throw new IllegalStateException("Delta " + snapshotSequence + " does not follow snapshot " + sequence);
+        }
+        long tick = getVarLong(buffer);
+        readGlobals(buffer, simulation, tick);
+        for (int player = 1; player <= simulation.getPlayerCount(); player++) {
+            readPlayer(buffer, simulation, player);
+        }
+        sequence = snapshotSequence;
+        hasBaseline = true;
+    }
+
+    /**
+     * Forgets the last snapshot read, so the next snapshot must be a keyframe.
+     */
+    public void reset() {
+        hasBaseline = false;
+    }
+
+    /**
+     * Reads the changed bonus timer and items, and sets the lifetimes of the items that expire.
+     *
+     * @param buffer     Source buffer.
+     * @param simulation Simulation to update.
+     * @param tick       Tick of the snapshot.
+     */
+    private void readGlobals(ByteBuffer buffer, GameSimulation simulation, long tick) {
+        int mask = buffer.get();
+        int bonusSpawnTimer = (mask & SnapshotEncoder.BONUS_SPAWN_TIMER) != 0 ? getSignedVarint(buffer) : simulation.getBonusSpawnTimer();
+        simulation.restoreTimers(tick, bonusSpawnTimer);
+        if ((mask & SnapshotEncoder.ITEMS) != 0) {
+            simulation.clearItems();
+            timedCount = 0;
+            int count = getVarint(buffer);
+            for (int i = 0; i < count; i++) {
+                int kind = buffer.get();
+                int x = getSignedVarint(buffer);
+                int y = getSignedVarint(buffer);
+                long expiry = getVarLong(buffer);
+                simulation.placeItem(kind, x, y, 0);
+                if (expiry != 0) {
+                    addTimedItem(x, y, expiry);
+                }
+            }
+        }
+        // A delta leaves out the expiry ticks, which do not change, but the lifetimes left do
+        ItemIndex index = simulation.getItemIndex();
+        for (int i = 0; i < timedCount; i++) {
+            Entity item = index.get(timedXs[i], timedYs[i]);
+            if (item != null) {
+                index.setLifetime(item, Math.max(1, timedExpiries[i] - tick));
+            }
+        }
+    }
+
+    /**
+     * Records an item that disappears at a given tick, growing the arrays if needed.
+     *
+     * @param x      Position of the item on the X-axis.
+     * @param y      Position of the item on the Y-axis.
+     * @param expiry Tick of the match at which the item disappears.
+     */
+    private void addTimedItem(int x, int y, long expiry) {
+        if (timedCount == timedXs.length) {
+            timedXs = Arrays.copyOf(timedXs, 2 * timedCount);
+            timedYs = Arrays.copyOf(timedYs, 2 * timedCount);
+            timedExpiries = Arrays.copyOf(timedExpiries, 2 * timedCount);
+        }
+        timedXs[timedCount] = x;
+        timedYs[timedCount] = y;
+        timedExpiries[timedCount] = expiry;
+        timedCount++;
+    }
+
+    /**
+     * Reads the changed fields of a player.
+     *
+     * @param buffer     Source buffer.
+     * @param simulation Simulation to update.
+     * @param player     Player id.
+     */
+    private void readPlayer(ByteBuffer buffer, GameSimulation simulation, int player) {
+        Snake snake = simulation.getSnake(player);
+        int mask = getVarint(buffer);
+        int direction = (mask & SnapshotEncoder.DIRECTION) != 0 ? buffer.get() : simulation.getDirection(player);
+        int moveDirection = (mask & SnapshotEncoder.MOVE_DIRECTION) != 0 ? buffer.get() : snake.getDirection();
+        int flags;
+        if ((mask & SnapshotEncoder.FLAGS) != 0) {
+            flags = buffer.get();
+        } else {
+            flags = (simulation.isAlive(player) ? SnapshotEncoder.FLAG_ALIVE : 0) | (snake.isGrowing() ? SnapshotEncoder.FLAG_GROWING : 0);
+        }
+        int score = (mask & SnapshotEncoder.SCORE) != 0 ? getSignedVarint(buffer) : simulation.getScore(player);
+        int invulnerableTicks = (mask & SnapshotEncoder.INVULNERABLE) != 0 ? getSignedVarint(buffer) : simulation.getInvulnerableTicks(player);
+        int speedLevel = (mask & SnapshotEncoder.SPEED) != 0 ? getSignedVarint(buffer) : snake.getSpeedLevel();
+        int ticksSinceMove = (mask & SnapshotEncoder.TICKS_SINCE_MOVE) != 0 ? getSignedVarint(buffer) : snake.getTicksSinceMove();
+        int prevTailX = snake.getPrevTailX();
+        int prevTailY = snake.getPrevTailY();
+        if ((mask & SnapshotEncoder.PREV_TAIL) != 0) {
+            prevTailX = getSignedVarint(buffer);
+            prevTailY = getSignedVarint(buffer);
+        }
+        if ((mask & SnapshotEncoder.BODY) != 0) {
+            readBody(buffer, snake);
+        }
+        simulation.restorePlayer(player, direction, score, invulnerableTicks, (flags & SnapshotEncoder.FLAG_ALIVE) != 0);
+        snake.restoreMotion(moveDirection, speedLevel, ticksSinceMove, (flags & SnapshotEncoder.FLAG_GROWING) != 0, prevTailX, prevTailY);
+    }
+
+    /**
+     * Reads a body delta or a whole body.
+     *
+     * @param buffer Source buffer.
+     * @param snake  Snake to update.
+     */
+    private void readBody(ByteBuffer buffer, Snake snake) {
+        byte mode = buffer.get();
+        if (mode == SnapshotEncoder.BODY_DELTA) {
+            int removed = getVarint(buffer);
+            int added = getVarint(buffer);
+            for (int i = 0; i < removed; i++) {
+                snake.removeTailSegment();
+            }
+            SnakeBody body = snake.getSegments();
+            for (int i = 0; i < added; i++) {
+                int step = getStep(buffer);
+                snake.prependSegment(body.getHeadX() + Direction.dx(step), body.getHeadY() + Direction.dy(step));
+            }
+        } else {
+            snake.clear();
+            int size = getVarint(buffer);
+            if (mode == SnapshotEncoder.BODY_PACKED) {
+                int x = getSignedVarint(buffer);
+                int y = getSignedVarint(buffer);
+                snake.appendSegment(x, y);
+                for (int i = 1; i < size; i++) {
+                    int step = getStep(buffer);
+                    x += Direction.dx(step);
+                    y += Direction.dy(step);
+                    snake.appendSegment(x, y);
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    snake.appendSegment(getSignedVarint(buffer), getSignedVarint(buffer));
+                }
+            }
+        }
+        packedCount = 0; // Steps of the next run start on a new byte
+    }
+
+    /**
+     * Reads the next 2-bit step, reading a new byte every four steps.
+     *
+     * @param buffer Source buffer.
+     * @return Direction of the step.
+     */
+    private int getStep(ByteBuffer buffer) {
+        if (packedCount == 0) {
+            packedSteps = buffer.get();
+            packedCount = 4;
+        }
+        int direction = packedSteps & 3;
+        packedSteps >>= 2;
+        packedCount--;
+        return direction;
+    }
+
+    /**
+     * Reads an unsigned variable-length integer.
+     *
+     * @param buffer Source buffer.
+     * @return Value read.
+     */
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Reads a zigzag encoded signed variable-length integer.
+     *
+     * @param buffer Source buffer.
+     * @return Value read.
+     */
+    static int getSignedVarint(ByteBuffer buffer) {
+        int value = getVarint(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads an unsigned variable-length long.
+     *
+     * @param buffer Source buffer.
+     * @return Value read.
+     */
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
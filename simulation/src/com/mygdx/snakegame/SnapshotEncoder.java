@@ -0,0 +1,488 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.utils.ImmutableArray;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes the state of one {@link GameSimulation} as compact snapshots for a {@link SnapshotDecoder}.
+ * A keyframe holds the whole state; a delta only holds what changed since the previous snapshot,
+ * which is usually a few timers and, for a snake that moved, one head added and one tail removed.
+ * Bodies are direction encoded: a start cell followed by one 2-bit step per segment.
+ * Numbers are written as variable-length integers so small values take one byte.
+ * The encoder keeps its baseline in primitive arrays and writes into the caller's buffer,
+ * so encoding does not allocate.
+ * <p>
+ * Layout: type (byte), sequence number (varint), then for keyframes the player count (byte),
+ * then tick (varint), a global change mask (byte) and the changed globals, then for each player
+ * a change mask (varint) and the changed fields. Items are written as a list, in the order of the
+ * engine, whenever one spawns or goes: kind (byte), cell (signed varints) and the tick at which
+ * the item disappears (varlong, 0 if it stays until picked up), which does not change from one
+ * tick to the next, so a delta holds nothing for items that stay put whatever their number.
+ */
+public class SnapshotEncoder {
+    static final byte KEYFRAME = 0; // Snapshot holding the whole state
+    static final byte DELTA = 1; // Snapshot holding the changes since the previous one
+
+    static final int BONUS_SPAWN_TIMER = 1; // Global mask bit: time until the next bonus
+    static final int ITEMS = 2; // Global mask bit: kind, cell and expiry tick of every item
+
+    static final int DIRECTION = 1; // Player mask bit: steering direction
+    static final int MOVE_DIRECTION = 2; // Player mask bit: direction of the last move
+    static final int FLAGS = 4; // Player mask bit: alive and growing flags
+    static final int SCORE = 8; // Player mask bit: score
+    static final int INVULNERABLE = 16; // Player mask bit: remaining invulnerability
+    static final int SPEED = 32; // Player mask bit: speed level
+    static final int TICKS_SINCE_MOVE = 64; // Player mask bit: ticks since the last move
+    static final int PREV_TAIL = 128; // Player mask bit: cell the tail moved from
+    static final int BODY = 256; // Player mask bit: body segments
+
+    static final int FLAG_ALIVE = 1; // The snake is still in the match
+    static final int FLAG_GROWING = 2; // The snake grows on its next move
+
+    static final byte BODY_DELTA = 0; // Tails removed and heads added since the previous snapshot
+    static final byte BODY_PACKED = 1; // Whole body as a start cell and 2-bit steps
+    static final byte BODY_RAW = 2; // Whole body as coordinates, for bodies with gaps
+
+    private static final int MAX_HEADER_SIZE = 64; // Upper bound of the encoded header and globals
+    private static final int MAX_PLAYER_SIZE = 64; // Upper bound of the encoded fields of a player, body excluded
+    private static final int MAX_SEGMENT_SIZE = 10; // Upper bound of an encoded segment, two varint coordinates
+    private static final int MAX_ITEM_SIZE = 21; // Upper bound of an encoded item: kind, cell and varlong expiry
+
+    private final int playerCount;
+    private boolean hasBaseline; // Indicates whether a snapshot was written
+    private int sequence; // Sequence number of the last snapshot
+
+    // Baseline: the state written by the last snapshot
+    private int baseBonusSpawnTimer;
+    private int baseItemCount;
+    private int[] baseItemKinds = new int[4];
+    private int[] baseItemXs = new int[4];
+    private int[] baseItemYs = new int[4];
+    private long[] baseItemExpiries = new long[4]; // Tick at which each item disappears, 0 if it stays
+    private final int[] baseDirections;
+    private final int[] baseMoveDirections;
+    private final int[] baseFlags;
+    private final int[] baseScores;
+    private final int[] baseInvulnerableTicks;
+    private final int[] baseSpeedLevels;
+    private final int[] baseTicksSinceMove;
+    private final int[] basePrevTailXs;
+    private final int[] basePrevTailYs;
+    private final int[] baseLengths;
+    private final long[] baseHeadsAdded;
+    private final long[] baseTailsRemoved;
+    private final int[] baseClearCounts;
+
+    private int packedSteps; // Steps waiting to be written as a byte
+    private int packedCount; // Number of steps in packedSteps
+
+    /**
+     * Creates an encoder for simulations with a given number of players.
+     *
+     * @param playerCount Number of players.
+     */
+    public SnapshotEncoder(int playerCount) {
+        this.playerCount = playerCount;
+        baseDirections = new int[playerCount];
+        baseMoveDirections = new int[playerCount];
+        baseFlags = new int[playerCount];
+        baseScores = new int[playerCount];
+        baseInvulnerableTicks = new int[playerCount];
+        baseSpeedLevels = new int[playerCount];
+        baseTicksSinceMove = new int[playerCount];
+        basePrevTailXs = new int[playerCount];
+        basePrevTailYs = new int[playerCount];
+        baseLengths = new int[playerCount];
+        baseHeadsAdded = new long[playerCount];
+        baseTailsRemoved = new long[playerCount];
+        baseClearCounts = new int[playerCount];
+    }
+
+    /**
+     * Gets an upper bound of the size of the next snapshot of a simulation, keyframe or delta.
+     * Snapshots grow with the snakes and items, not with the grid.
+     *
+     * @param simulation Simulation to encode.
+     * @return Size in bytes.
+     */
+    static int getMaxSize(GameSimulation simulation) {
+        int maxSize = MAX_HEADER_SIZE + MAX_ITEM_SIZE * simulation.getItemIndex().getItems().size();
+        for (int player = 1; player <= simulation.getPlayerCount(); player++) {
+            maxSize += MAX_PLAYER_SIZE + MAX_SEGMENT_SIZE * simulation.getSnake(player).getSegments().size();
+        }
+        return maxSize;
+    }
+
+    /**
+     * Gets an upper bound of the size of any snapshot of a grid, reached when snakes and items cover it.
+     *
+     * @param gridWidth   Size of the grid on the X-axis.
+     * @param gridHeight  Size of the grid on the Y-axis.
+     * @param playerCount Number of players.
+     * @return Size in bytes.
+     */
+    static int getMaxSize(int gridWidth, int gridHeight, int playerCount) {
+        return MAX_HEADER_SIZE + playerCount * MAX_PLAYER_SIZE + gridWidth * gridHeight * Math.max(MAX_SEGMENT_SIZE, MAX_ITEM_SIZE);
+    }
+
+    /**
+     * Writes the whole state of a simulation and makes it the baseline of the next delta.
+     *
+     * @param simulation Simulation to encode.
+     * @param buffer     Destination buffer.
+     * @throws java.nio.BufferOverflowException If the snapshot does not fit in the buffer.
+     */
+    public void writeKeyframe(GameSimulation simulation, ByteBuffer buffer) {
+        write(simulation, buffer, true);
+    }
+
+    /**
+     * Writes the changes of a simulation since the previous snapshot, or a keyframe if
+     * there is no previous snapshot. The simulation must be the one encoded by the previous
+     * snapshot, and the decoder must have read every snapshot since the last keyframe.
+     *
+     * @param simulation Simulation to encode.
+     * @param buffer     Destination buffer.
+     * @throws java.nio.BufferOverflowException If the snapshot does not fit in the buffer.
+     */
+    public void writeDelta(GameSimulation simulation, ByteBuffer buffer) {
+        write(simulation, buffer, !hasBaseline);
+    }
+
+    /**
+     * Writes a snapshot and updates the baseline.
+     *
+     * @param simulation Simulation to encode.
+     * @param buffer     Destination buffer.
+     * @param full       Indicates whether to write a keyframe.
+     */
+    private void write(GameSimulation simulation, ByteBuffer buffer, boolean full) {
+        if (simulation.getPlayerCount() != playerCount) {
+            throw new IllegalArgumentException("Expected " + playerCount + " players, got " + simulation.getPlayerCount());
+        }
+        sequence++;
+        buffer.put(full ? KEYFRAME : DELTA);
+        putVarint(buffer, sequence);
+        if (full) {
+            buffer.put((byte) playerCount);
+        }
+        putVarLong(buffer, simulation.getTick());
+        writeGlobals(simulation, buffer, full);
+        for (int player = 1; player <= playerCount; player++) {
+            writePlayer(simulation, buffer, player, full);
+        }
+        hasBaseline = true;
+    }
+
+    /**
+     * Writes the changed bonus timer and items, and records them as the baseline.
+     *
+     * @param simulation Simulation to encode.
+     * @param buffer     Destination buffer.
+     * @param full       Indicates whether to write every field.
+     */
+    private void writeGlobals(GameSimulation simulation, ByteBuffer buffer, boolean full) {
+        int bonusSpawnTimer = simulation.getBonusSpawnTimer();
+        ItemIndex index = simulation.getItemIndex();
+        ImmutableArray<Entity> items = index.getItems();
+
+        int mask = 0;
+        if (full || bonusSpawnTimer != baseBonusSpawnTimer) mask |= BONUS_SPAWN_TIMER;
+        if (full || !isItemBaseline(simulation, index, items)) mask |= ITEMS;
+
+        buffer.put((byte) mask);
+        if ((mask & BONUS_SPAWN_TIMER) != 0) putSignedVarint(buffer, bonusSpawnTimer);
+        if ((mask & ITEMS) != 0) {
+            setItemBaseline(simulation, index, items);
+            putVarint(buffer, baseItemCount);
+            for (int i = 0; i < baseItemCount; i++) {
+                buffer.put((byte) baseItemKinds[i]);
+                putSignedVarint(buffer, baseItemXs[i]);
+                putSignedVarint(buffer, baseItemYs[i]);
+                putVarLong(buffer, baseItemExpiries[i]);
+            }
+        }
+        baseBonusSpawnTimer = bonusSpawnTimer;
+    }
+
+    /**
+     * Checks whether the items on the grid are the ones of the baseline, in the same order.
+     *
+     * @param simulation Simulation to encode.
+     * @param index      Item index of the simulation.
+     * @param items      Items on the grid.
+     * @return True if no item spawned, went or moved since the last snapshot.
+     */
+    private boolean isItemBaseline(GameSimulation simulation, ItemIndex index, ImmutableArray<Entity> items) {
+        if (items.size() != baseItemCount) {
+            return false;
+        }
+        for (int i = 0; i < baseItemCount; i++) {
+            Entity item = items.get(i);
+            CellComponent cell = Mappers.CELL.get(item);
+            if (Mappers.ITEM.get(item).kind != baseItemKinds[i] || cell.x != baseItemXs[i] || cell.y != baseItemYs[i]
+                    || getExpiry(simulation, index, item) != baseItemExpiries[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the items on the grid as the baseline, growing the arrays if needed.
+     *
+     * @param simulation Simulation to encode.
+     * @param index      Item index of the simulation.
+     * @param items      Items on the grid.
+     */
+    private void setItemBaseline(GameSimulation simulation, ItemIndex index, ImmutableArray<Entity> items) {
+        baseItemCount = items.size();
+        if (baseItemKinds.length < baseItemCount) {
+            int capacity = Math.max(baseItemCount, 2 * baseItemKinds.length);
+            baseItemKinds = Arrays.copyOf(baseItemKinds, capacity);
+            baseItemXs = Arrays.copyOf(baseItemXs, capacity);
+            baseItemYs = Arrays.copyOf(baseItemYs, capacity);
+            baseItemExpiries = Arrays.copyOf(baseItemExpiries, capacity);
+        }
+        for (int i = 0; i < baseItemCount; i++) {
+            Entity item = items.get(i);
+            CellComponent cell = Mappers.CELL.get(item);
+            baseItemKinds[i] = Mappers.ITEM.get(item).kind;
+            baseItemXs[i] = cell.x;
+            baseItemYs[i] = cell.y;
+            baseItemExpiries[i] = getExpiry(simulation, index, item);
+        }
+    }
+
+    /**
+     * Gets the tick of the match at which an item disappears.
+     *
+     * @param simulation Simulation holding the item.
+     * @param index      Item index of the simulation.
+     * @param item       Item entity.
+     * @return Tick of the match, 0 if the item stays until it is picked up.
+     */
+    private static long getExpiry(GameSimulation simulation, ItemIndex index, Entity item) {
+        long lifetime = index.getLifetime(item);
+        return lifetime > 0 ? simulation.getTick() + lifetime : 0;
+    }
+
+    /**
+     * Writes the changed fields of a player, and records them as the baseline.
+     *
+     * @param simulation Simulation to encode.
+     * @param buffer     Destination buffer.
+     * @param player     Player id.
+     * @param full       Indicates whether to write every field.
+     */
+    private void writePlayer(GameSimulation simulation, ByteBuffer buffer, int player, boolean full) {
+        int p = player - 1;
+        Snake snake = simulation.getSnake(player);
+        SnakeBody body = snake.getSegments();
+        int direction = simulation.getDirection(player);
+        int moveDirection = snake.getDirection();
+        int flags = (simulation.isAlive(player) ? FLAG_ALIVE : 0) | (snake.isGrowing() ? FLAG_GROWING : 0);
+        int score = simulation.getScore(player);
+        int invulnerableTicks = simulation.getInvulnerableTicks(player);
+        int speedLevel = snake.getSpeedLevel();
+        int ticksSinceMove = snake.getTicksSinceMove();
+        int prevTailX = snake.getPrevTailX();
+        int prevTailY = snake.getPrevTailY();
+        long headsAdded = body.getHeadsAdded();
+        long tailsRemoved = body.getTailsRemoved();
+        int clearCount = body.getClearCount();
+
+        int mask = 0;
+        if (full || direction != baseDirections[p]) mask |= DIRECTION;
+        if (full || moveDirection != baseMoveDirections[p]) mask |= MOVE_DIRECTION;
+        if (full || flags != baseFlags[p]) mask |= FLAGS;
+        if (full || score != baseScores[p]) mask |= SCORE;
+        if (full || invulnerableTicks != baseInvulnerableTicks[p]) mask |= INVULNERABLE;
+        if (full || speedLevel != baseSpeedLevels[p]) mask |= SPEED;
+        if (full || ticksSinceMove != baseTicksSinceMove[p]) mask |= TICKS_SINCE_MOVE;
+        if (full || prevTailX != basePrevTailXs[p] || prevTailY != basePrevTailYs[p]) mask |= PREV_TAIL;
+        if (full || headsAdded != baseHeadsAdded[p] || tailsRemoved != baseTailsRemoved[p] || clearCount != baseClearCounts[p]) mask |= BODY;
+
+        putVarint(buffer, mask);
+        if ((mask & DIRECTION) != 0) buffer.put((byte) direction);
+        if ((mask & MOVE_DIRECTION) != 0) buffer.put((byte) moveDirection);
+        if ((mask & FLAGS) != 0) buffer.put((byte) flags);
+        if ((mask & SCORE) != 0) putSignedVarint(buffer, score);
+        if ((mask & INVULNERABLE) != 0) putSignedVarint(buffer, invulnerableTicks);
+        if ((mask & SPEED) != 0) putSignedVarint(buffer, speedLevel);
+        if ((mask & TICKS_SINCE_MOVE) != 0) putSignedVarint(buffer, ticksSinceMove);
+        if ((mask & PREV_TAIL) != 0) {
+            putSignedVarint(buffer, prevTailX);
+            putSignedVarint(buffer, prevTailY);
+        }
+        if ((mask & BODY) != 0) {
+            int added = (int) (headsAdded - baseHeadsAdded[p]);
+            int removed = (int) (tailsRemoved - baseTailsRemoved[p]);
+            if (full || clearCount != baseClearCounts[p] || removed >= baseLengths[p] || !writeBodyDelta(buffer, body, added, removed)) {
+                writeBody(buffer, body);
+            }
+        }
+
+        baseDirections[p] = direction;
+        baseMoveDirections[p] = moveDirection;
+        baseFlags[p] = flags;
+        baseScores[p] = score;
+        baseInvulnerableTicks[p] = invulnerableTicks;
+        baseSpeedLevels[p] = speedLevel;
+        baseTicksSinceMove[p] = ticksSinceMove;
+        basePrevTailXs[p] = prevTailX;
+        basePrevTailYs[p] = prevTailY;
+        baseLengths[p] = body.size();
+        baseHeadsAdded[p] = headsAdded;
+        baseTailsRemoved[p] = tailsRemoved;
+        baseClearCounts[p] = clearCount;
+    }
+
+    /**
+     * Writes the tails removed and the heads added since the baseline, as steps from the old head.
+     *
+     * @param buffer  Destination buffer.
+     * @param body    Body to encode.
+     * @param added   Number of heads added since the baseline.
+     * @param removed Number of tails removed since the baseline, less than the baseline length.
+     * @return False without writing anything if a new head is not one step from the previous one.
+     */
+    private boolean writeBodyDelta(ByteBuffer buffer, SnakeBody body, int added, int removed) {
+        for (int i = added - 1; i >= 0; i--) {
+            if (step(body, i + 1, i) == Direction.NONE) {
+                return false;
+            }
+        }
+        buffer.put(BODY_DELTA);
+        putVarint(buffer, removed);
+        putVarint(buffer, added);
+        for (int i = added - 1; i >= 0; i--) {
+            putStep(buffer, step(body, i + 1, i));
+        }
+        flushSteps(buffer);
+        return true;
+    }
+
+    /**
+     * Writes a whole body, direction encoded from the head if every segment is one step from
+     * the previous one, or as raw coordinates otherwise. The packed form is written in a single
+     * pass and rolled back if a gap is found.
+     *
+     * @param buffer Destination buffer.
+     * @param body   Body to encode.
+     */
+    private void writeBody(ByteBuffer buffer, SnakeBody body) {
+        int size = body.size();
+        int start = buffer.position();
+        if (size > 0) {
+            buffer.put(BODY_PACKED);
+            putVarint(buffer, size);
+            int x = body.getHeadX();
+            int y = body.getHeadY();
+            putSignedVarint(buffer, x);
+            putSignedVarint(buffer, y);
+            int i = 1;
+            for (; i < size; i++) {
+                int nextX = body.getX(i);
+                int nextY = body.getY(i);
+                int direction = Direction.of(nextX - x, nextY - y);
+                if (direction == Direction.NONE) {
+                    break;
+                }
+                putStep(buffer, direction);
+                x = nextX;
+                y = nextY;
+            }
+            flushSteps(buffer);
+            if (i == size) {
+                return;
+            }
+            buffer.position(start);
+        }
+        buffer.put(BODY_RAW);
+        putVarint(buffer, size);
+        for (int i = 0; i < size; i++) {
+            putSignedVarint(buffer, body.getX(i));
+            putSignedVarint(buffer, body.getY(i));
+        }
+    }
+
+    /**
+     * Gets the direction of the step between two segments.
+     *
+     * @param body Body holding the segments.
+     * @param from Index of the segment the step starts from.
+     * @param to   Index of the segment the step ends on.
+     * @return Direction of the step, or {@link Direction#NONE} if the segments are not adjacent.
+     */
+    private static int step(SnakeBody body, int from, int to) {
+        return Direction.of(body.getX(to) - body.getX(from), body.getY(to) - body.getY(from));
+    }
+
+    /**
+     * Queues a 2-bit step, writing a byte every four steps.
+     *
+     * @param buffer    Destination buffer.
+     * @param direction Direction of the step.
+     */
+    private void putStep(ByteBuffer buffer, int direction) {
+        packedSteps |= direction << (packedCount * 2);
+        if (++packedCount == 4) {
+            flushSteps(buffer);
+        }
+    }
+
+    /**
+     * Writes the queued steps, if any.
+     *
+     * @param buffer Destination buffer.
+     */
+    private void flushSteps(ByteBuffer buffer) {
+        if (packedCount > 0) {
+            buffer.put((byte) packedSteps);
+            packedSteps = 0;
+            packedCount = 0;
+        }
+    }
+
+    /**
+     * Writes an unsigned variable-length integer, 7 bits per byte.
+     *
+     * @param buffer Destination buffer.
+     * @param value  Value to write, treated as unsigned.
+     */
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a signed variable-length integer, zigzag encoded so small negative values stay short.
+     *
+     * @param buffer Destination buffer.
+     * @param value  Value to write.
+     */
+    static void putSignedVarint(ByteBuffer buffer, int value) {
+        putVarint(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes an unsigned variable-length long, 7 bits per byte.
+     *
+     * @param buffer Destination buffer.
+     * @param value  Value to write, treated as unsigned.
+     */
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -0,0 +1,95 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.EntitySystem;
+
+/**
+ * Puts items on the grid: the food whenever some was eaten, and a bonus item at fixed intervals
+ * while fewer than the most allowed are on the grid. The match ends when the food finds no free
+ * cell, as the board is full. The next bonus item is due at a tick of the match, so waiting for
+ * it is a single comparison per tick.
+ */
+public class SpawnSystem extends EntitySystem {
+    private final GameSimulation simulation;
+    private final int bonusSpawnInterval; // Ticks between two bonus items
+    private final int foodCount; // Food items kept on the grid
+    private final int maxBonusItems; // Most bonus items on the grid at once
+    private long bonusSpawnTick; // Tick of the match from which the next bonus item spawns
+
+    /**
+     * Creates the system.
+     *
+     * @param simulation Simulation the items belong to.
+     * @param rules      Rules giving the number of items and the interval between two bonus items.
+     */
+    public SpawnSystem(GameSimulation simulation, GameRules rules) {
+        super(GameSimulation.SPAWN_PRIORITY);
+        this.simulation = simulation;
+        this.bonusSpawnInterval = rules.getBonusSpawnInterval();
+        this.foodCount = rules.getFoodCount();
+        this.maxBonusItems = rules.getMaxBonusItems();
+    }
+
+    /**
+     * Spawns the items due this tick.
+     *
+     * @param deltaTime Ticks to process, always 1.
+     */
+    @Override
+    public void update(float deltaTime) {
+        ItemIndex items = simulation.getItemIndex();
+        // Replace the food, unless the board is full
+        while (items.getCount(ItemComponent.FOOD) < foodCount) {
+            if (items.spawnRandom(ItemComponent.FOOD, simulation.getRandom()) == null) {
+                simulation.getEvents().add(GameEvents.BOARD_FULL, 0);
+                simulation.endMatch(simulation.winnerByScore());
+                return;
+            }
+        }
+
+        // Spawn a bonus item once due, as soon as there is room for it
+        if (simulation.getTick() >= bonusSpawnTick && items.getCount(ItemComponent.BONUS) < maxBonusItems) {
+            items.spawnRandom(ItemComponent.BONUS, simulation.getRandom());
+            bonusSpawnTick = simulation.getTick() + bonusSpawnInterval;
+        }
+    }
+
+    /**
+     * Skips the tick once the match is over.
+     *
+     * @return True while the match goes on.
+     */
+    @Override
+    public boolean checkProcessing() {
+        return !simulation.isMatchOver();
+    }
+
+    /**
+     * Starts a new match, from tick 0: places the food and restarts the bonus timer.
+     */
+    void reset() {
+        ItemIndex items = simulation.getItemIndex();
+        for (int i = 0; i < foodCount; i++) {
+            items.spawnRandom(ItemComponent.FOOD, simulation.getRandom());
+        }
+        bonusSpawnTick = bonusSpawnInterval;
+    }
+
+    /**
+     * Gets the ticks left before the next bonus item spawns, between two ticks.
+     *
+     * @return Bonus spawn timer in ticks, 0 or less while the bonus item waits for room.
+     */
+    int getBonusSpawnTimer() {
+        return (int) (bonusSpawnTick - simulation.getTick());
+    }
+
+    /**
+     * Sets the ticks left before the next bonus item spawns, used to restore a snapshot once
+     * the tick of the match is restored.
+     *
+     * @param bonusSpawnTimer Bonus spawn timer in ticks.
+     */
+    void setBonusSpawnTimer(int bonusSpawnTimer) {
+        bonusSpawnTick = simulation.getTick() + bonusSpawnTimer;
+    }
+}
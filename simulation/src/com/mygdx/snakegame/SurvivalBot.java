@@ -0,0 +1,80 @@
+package com.mygdx.snakegame;
+
+/**
+ * Bot that stays alive as long as it can: before each move it turns towards the neighbouring
+ * cell with the most free cells reachable from it, keeping its direction on ties.
+ * A snake only turns when it moves, so the bot plans on the tick of each move and requests
+ * nothing on the others; each plan visits at most a fixed number of cells per search.
+ */
+public class SurvivalBot implements BotController {
+    /** Cells a single search visits at most by default, enough to cover a 64x64 grid. */
+    public static final int DEFAULT_BUDGET = 4096;
+
+    protected final GridSearch search;
+    protected final int budget; // Maximum number of cells visited by one search
+
+    /**
+     * Creates a bot with the default search budget.
+     *
+     * @param search Search arrays, which may be shared by the bots of one thread.
+     */
+    public SurvivalBot(GridSearch search) {
+        this(search, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Creates a bot.
+     *
+     * @param search Search arrays, which may be shared by the bots of one thread.
+     * @param budget Maximum number of cells visited by one search.
+     */
+    public SurvivalBot(GridSearch search, int budget) {
+        this.search = search;
+        this.budget = budget;
+    }
+
+    /**
+     * Plans a direction on the ticks where the snake moves.
+     *
+     * @param simulation Simulation the player is in, before the tick.
+     * @param player     Id of the steered player.
+     * @return Chosen direction, or {@link Direction#NONE} on the ticks without a move.
+     */
+    @Override
+    public int nextDirection(GameSimulation simulation, int player) {
+        Snake snake = simulation.getSnake(player);
+        if (!simulation.isAlive(player) || snake.getSegments().size() == 0
+                || snake.getTicksSinceMove() + 1 < snake.getStepTicks()) {
+            return Direction.NONE;
+        }
+        return plan(simulation, snake);
+    }
+
+    /**
+     * Chooses the direction of the next move of a snake.
+     *
+     * @param simulation Simulation the snake is in.
+     * @param snake      Steered snake, with at least one segment.
+     * @return Chosen direction.
+     */
+    int plan(GameSimulation simulation, Snake snake) {
+        OccupancyGrid grid = simulation.getGrid();
+        SnakeBody body = snake.getSegments();
+        int current = snake.getDirection();
+        int best = current;
+        int bestSpace = -1;
+        for (int i = 0; i < 4; i++) {
+            // Try the current direction first so it wins ties
+            int direction = (current + i) & 3;
+            if (direction == Direction.opposite(current)) {
+                continue;
+            }
+            int space = search.countReachable(grid, body.getHeadX() + Direction.dx(direction), body.getHeadY() + Direction.dy(direction), budget);
+            if (space > bestSpace) {
+                best = direction;
+                bestSpace = space;
+            }
+        }
+        return best;
+    }
+}
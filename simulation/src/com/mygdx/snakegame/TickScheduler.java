@@ -0,0 +1,72 @@
+package com.mygdx.snakegame;
+
+/**
+ * Turns variable frame times into a whole number of fixed-length simulation ticks.
+ * Elapsed time is collected in an accumulator and consumed one tick at a time,
+ * so the simulation runs at the same rate whatever the display refresh rate.
+ * After a stall at most {@code maxTicksPerFrame} ticks are run and the rest of the
+ * backlog is dropped, which bounds the work done in a single frame.
+ */
+public class TickScheduler {
+    private final double tickSeconds; // Duration of one tick in seconds
+    private final int maxTicksPerFrame; // Catch-up cap for a single frame
+    private double accumulator; // Elapsed time not yet consumed by ticks
+    private long tick; // Number of ticks run since the last reset
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param ticksPerSecond   Simulation rate.
+     * @param maxTicksPerFrame Maximum number of ticks returned by a single call to {@link #advance(float)}.
+     */
+    public TickScheduler(int ticksPerSecond, int maxTicksPerFrame) {
+        this.tickSeconds = 1.0 / ticksPerSecond;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Adds the elapsed frame time and gets the number of ticks to run this frame.
+     *
+     * @param delta Time elapsed since the last frame, in seconds.
+     * @return Number of ticks to run, at most {@code maxTicksPerFrame}.
+     */
+    public int advance(float delta) {
+        accumulator += delta;
+        int ticks = (int) (accumulator / tickSeconds);
+        if (ticks > maxTicksPerFrame) {
+            ticks = maxTicksPerFrame;
+            // Drop the backlog but keep the fraction of the next tick
+            accumulator %= tickSeconds;
+        } else {
+            accumulator -= ticks * tickSeconds;
+        }
+        tick += ticks;
+        return ticks;
+    }
+
+    /**
+     * Gets how far the current frame is between the last tick and the next one.
+     *
+     * @return Interpolation factor between 0 and 1.
+     */
+    public float getAlpha() {
+        return (float) (accumulator / tickSeconds);
+    }
+
+    /**
+     * Gets the number of ticks run since the last reset.
+     *
+     * @return Tick counter.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Discards the accumulated time and the tick counter.
+     */
+    public void reset() {
+        accumulator = 0;
+        tick = 0;
+    }
+}
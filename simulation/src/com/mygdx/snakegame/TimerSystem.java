@@ -0,0 +1,65 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+
+/**
+ * Last system of a tick: advances the {@link TimerWheel} of the simulation, removing the timed
+ * effects on the snakes and the items whose time ran out. Only the timers firing this tick are
+ * looked at, so a tick costs the same with hundreds of timed items on the grid as with none.
+ */
+public class TimerSystem extends EntitySystem implements TimerWheel.Handler {
+    // Types of the timers
+    static final int INVULNERABILITY = 0; // Removes the invulnerability of a snake
+    static final int LIFETIME = 1; // Removes an item from the grid
+
+    private final GameSimulation simulation;
+
+    /**
+     * Creates the system.
+     *
+     * @param simulation Simulation the snakes and items belong to.
+     */
+    public TimerSystem(GameSimulation simulation) {
+        super(GameSimulation.TIMER_PRIORITY);
+        this.simulation = simulation;
+    }
+
+    /**
+     * Fires the timers due this tick. Effects and items are only removed from the families once
+     * this system is done.
+     *
+     * @param deltaTime Ticks to process, always 1.
+     */
+    @Override
+    public void update(float deltaTime) {
+        simulation.getTimers().advance(this);
+    }
+
+    /**
+     * Removes the effect or item of a timer that fired.
+     *
+     * @param type   {@link #INVULNERABILITY} or {@link #LIFETIME}.
+     * @param target Snake or item entity.
+     */
+    @Override
+    public void onTimer(int type, Entity target) {
+        if (type == INVULNERABILITY) {
+            Mappers.INVULNERABLE.get(target).timer = TimerWheel.NO_TIMER;
+            target.remove(InvulnerableComponent.class);
+        } else {
+            Mappers.LIFETIME.get(target).timer = TimerWheel.NO_TIMER;
+            simulation.getItemIndex().remove(target);
+        }
+    }
+
+    /**
+     * Skips the tick once the match is over.
+     *
+     * @return True while the match goes on.
+     */
+    @Override
+    public boolean checkProcessing() {
+        return !simulation.isMatchOver();
+    }
+}
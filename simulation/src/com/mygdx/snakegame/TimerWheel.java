@@ -0,0 +1,225 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+
+import java.util.Arrays;
+
+/**
+ * Hashed timer wheel counting simulation ticks, which fires timed actions on entities, such as
+ * an item running out or an effect wearing off. Scheduling and cancelling a timer are O(1), and
+ * a tick only looks at the timers of one slot: with more slots than ticks in the longest timer,
+ * which the default rules guarantee, those are exactly the timers firing that tick, however many
+ * are waiting. A longer timer is passed over once per turn of the wheel.
+ * <p>
+ * Timers live in preallocated parallel arrays, chained into one doubly-linked list per slot in
+ * the order they were scheduled, and freed timers are reused, so timers come and go without
+ * allocating once the arrays have grown to the largest number of timers waiting at once.
+ * A timer is identified by its index in the arrays, valid until it fires or is cancelled.
+ * <p>
+ * The clock of the wheel only moves with {@link #advance(Handler)} and never goes back, so
+ * timers keep their remaining ticks when the simulation restarts a match or restores a snapshot.
+ */
+public class TimerWheel {
+    /** Identifier of no timer. */
+    public static final int NO_TIMER = -1;
+    private static final int INITIAL_CAPACITY = 16; // Timers allocated before the first growth
+
+    private final int mask; // Slot count - 1, the slot count being a power of two
+    private final int[] heads; // First timer of each slot, NO_TIMER if empty
+    private final int[] tails; // Last timer of each slot, NO_TIMER if empty
+    private long[] deadlines; // Tick each timer fires at
+    private int[] types; // Type of each timer, given back when it fires
+    private Entity[] targets; // Entity of each timer
+    private int[] next; // Next timer in the same slot, or next free timer
+    private int[] previous; // Previous timer in the same slot
+    private int free = NO_TIMER; // First free timer
+    private int allocated; // Timers ever used; the ones above are free and unchained
+    private int size; // Timers waiting
+    private long now; // Ticks advanced so far
+    private int cursor = NO_TIMER; // Next timer advance() looks at, moved on if a handler cancels it
+
+    /**
+     * Handles the timers as they fire.
+     */
+    public interface Handler {
+        /**
+         * Handles a timer that fired. The timer is already freed; the handler may schedule new
+         * timers and cancel any waiting timer, including one due on the same tick, which then
+         * does not fire.
+         *
+         * @param type   Type given when the timer was scheduled.
+         * @param target Entity given when the timer was scheduled.
+         */
+        void onTimer(int type, Entity target);
+    }
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param slots Number of slots, rounded up to a power of two; timers longer than this are
+     *              looked at once per turn before they fire.
+     */
+    public TimerWheel(int slots) {
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        mask = size - 1;
+        heads = new int[size];
+        tails = new int[size];
+        Arrays.fill(heads, NO_TIMER);
+        Arrays.fill(tails, NO_TIMER);
+        deadlines = new long[INITIAL_CAPACITY];
+        types = new int[INITIAL_CAPACITY];
+        targets = new Entity[INITIAL_CAPACITY];
+        next = new int[INITIAL_CAPACITY];
+        previous = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Schedules a timer.
+     *
+     * @param type   Type handed back when it fires.
+     * @param target Entity handed back when it fires.
+     * @param ticks  Number of calls to {@link #advance(Handler)} before it fires, at least 1;
+     *               it fires during the last of them.
+     * @return Identifier of the timer.
+     */
+    public int schedule(int type, Entity target, long ticks) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("A timer fires at least one tick from now, not " + ticks);
+        }
+        int timer;
+        if (free != NO_TIMER) {
+            timer = free;
+            free = next[timer];
+        } else {
+            if (allocated == deadlines.length) {
+                grow();
+            }
+            timer = allocated++;
+        }
+        deadlines[timer] = now + ticks;
+        types[timer] = type;
+        targets[timer] = target;
+
+        int slot = (int) deadlines[timer] & mask;
+        next[timer] = NO_TIMER;
+        previous[timer] = tails[slot];
+        if (tails[slot] != NO_TIMER) {
+            next[tails[slot]] = timer;
+        } else {
+            heads[slot] = timer;
+        }
+        tails[slot] = timer;
+        size++;
+        return timer;
+    }
+
+    /**
+     * Doubles the capacity of the timer arrays.
+     */
+    private void grow() {
+        int capacity = deadlines.length * 2;
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        types = Arrays.copyOf(types, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+    }
+
+    /**
+     * Cancels a waiting timer.
+     *
+     * @param timer Identifier returned by {@link #schedule(int, Entity, long)}, not fired yet.
+     */
+    public void cancel(int timer) {
+        unlink(timer);
+        release(timer);
+    }
+
+    /**
+     * Takes a timer out of the list of its slot.
+     *
+     * @param timer Waiting timer.
+     */
+    private void unlink(int timer) {
+        if (timer == cursor) {
+            cursor = next[timer]; // Cancelled by a handler before advance() reached it
+        }
+        int slot = (int) deadlines[timer] & mask;
+        if (previous[timer] != NO_TIMER) {
+            next[previous[timer]] = next[timer];
+        } else {
+            heads[slot] = next[timer];
+        }
+        if (next[timer] != NO_TIMER) {
+            previous[next[timer]] = previous[timer];
+        } else {
+            tails[slot] = previous[timer];
+        }
+    }
+
+    /**
+     * Frees a timer unlinked from its slot.
+     *
+     * @param timer Timer to free.
+     */
+    private void release(int timer) {
+        targets[timer] = null; // Lets the entity go back to its pool
+        next[timer] = free;
+        free = timer;
+        size--;
+    }
+
+    /**
+     * Moves the clock one tick forward and fires the timers due, in the order they were scheduled.
+     *
+     * @param handler Handler of the timers that fire.
+     * @return Number of timers fired.
+     */
+    public int advance(Handler handler) {
+        now++;
+        int fired = 0;
+        // The cursor, not a local, holds the next timer, so a handler cancelling it moves it on
+        cursor = heads[(int) now & mask];
+        while (cursor != NO_TIMER) {
+            int timer = cursor;
+            cursor = next[timer];
+            if (deadlines[timer] == now) {
+                int type = types[timer];
+                Entity target = targets[timer];
+                unlink(timer);
+                release(timer);
+                handler.onTimer(type, target);
+                fired++;
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Gets the ticks a waiting timer has left.
+     *
+     * @param timer Identifier of the timer.
+     * @return Number of calls to {@link #advance(Handler)} before it fires, the one firing it included.
+     */
+    public long getRemaining(int timer) {
+        return deadlines[timer] - now;
+    }
+
+    /**
+     * Gets the number of waiting timers.
+     *
+     * @return Number of timers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of ticks the wheel has advanced.
+     *
+     * @return Clock of the wheel.
+     */
+    public long getTick() {
+        return now;
+    }
+}
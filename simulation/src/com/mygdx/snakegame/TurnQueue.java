@@ -0,0 +1,106 @@
+package com.mygdx.snakegame;
+
+/**
+ * Turns requested by each player and not applied yet, released one per move of the snake.
+ * A snake only moves every few ticks, so two turns requested between moves would otherwise
+ * collapse into the last one, or reverse the snake into itself. Each player has a small ring
+ * of pending turns; a turn is released as the player's input once the previous one has been
+ * applied by a move, and checked against the direction the snake will have at that move.
+ * Nothing is allocated after construction.
+ */
+public class TurnQueue {
+    /** Turns a player can queue ahead of the snake. */
+    public static final int MAX_PENDING = 3;
+
+    private final int[] pending; // Ring of the pending turns of each player, MAX_PENDING slots per player
+    private final int[] heads; // Slot of the oldest pending turn of each player
+    private final int[] counts; // Number of pending turns of each player
+    private final int[] released; // Turn given as input and not applied by a move yet, NONE if none
+
+    /**
+     * Creates empty queues.
+     *
+     * @param playerCount Number of players.
+     */
+    public TurnQueue(int playerCount) {
+        pending = new int[playerCount * MAX_PENDING];
+        heads = new int[playerCount];
+        counts = new int[playerCount];
+        released = new int[playerCount];
+        clear();
+    }
+
+    /**
+     * Queues a turn requested by a player. The turn is dropped if it does not change the
+     * direction the snake will have when it applies, would reverse it, or the queue is full.
+     *
+     * @param simulation Simulation the player is in.
+     * @param player     Player id.
+     * @param direction  Requested direction.
+     * @return True if the turn was queued.
+     */
+    public boolean offer(GameSimulation simulation, int player, int direction) {
+        int p = player - 1;
+        if (counts[p] == MAX_PENDING) {
+            return false;
+        }
+        int current;
+        if (counts[p] > 0) {
+            current = pending[p * MAX_PENDING + (heads[p] + counts[p] - 1) % MAX_PENDING];
+        } else if (released[p] != Direction.NONE) {
+            current = released[p];
+        } else {
+            current = simulation.getDirection(player);
+        }
+        if (direction == Direction.NONE || direction == current || direction == Direction.opposite(current)) {
+            return false;
+        }
+        pending[p * MAX_PENDING + (heads[p] + counts[p]) % MAX_PENDING] = direction;
+        counts[p]++;
+        return true;
+    }
+
+    /**
+     * Gets the input of a player for the next tick: the released turn until the snake has moved
+     * with it, then the next pending turn.
+     *
+     * @param simulation Simulation the player is in.
+     * @param player     Player id.
+     * @return Direction to request, or {@link Direction#NONE} if no turn is pending.
+     */
+    public int next(GameSimulation simulation, int player) {
+        int p = player - 1;
+        if (released[p] != Direction.NONE && simulation.getSnake(player).getDirection() != released[p]) {
+            return released[p]; // The snake has not moved since the turn was released
+        }
+        if (counts[p] == 0) {
+            released[p] = Direction.NONE;
+        } else {
+            released[p] = pending[p * MAX_PENDING + heads[p]];
+            heads[p] = (heads[p] + 1) % MAX_PENDING;
+            counts[p]--;
+        }
+        return released[p];
+    }
+
+    /**
+     * Gets the number of turns a player has queued and not released yet.
+     *
+     * @param player Player id.
+     * @return Number of pending turns.
+     */
+    public int getPendingCount(int player) {
+        return counts[player - 1];
+    }
+
+    /**
+     * Drops every pending and released turn, such as when the match restarts.
+     */
+    public void clear() {
+        for (int p = 0; p < counts.length; p++) {
+            heads[p] = 0;
+            counts[p] = 0;
+            released[p] = Direction.NONE;
+        }
+    }
+}
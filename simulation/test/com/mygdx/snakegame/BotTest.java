@@ -0,0 +1,161 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the searches of the bots against a plain breadth-first search, and that the bots
+ * survive and go for the food in a match.
+ */
+public class BotTest {
+    private static final int WIDTH = 17;
+    private static final int HEIGHT = 13;
+    private static final int UNREACHED = -1;
+
+    /**
+     * Checks on random grids that a path found goes one step closer to the target, that none is
+     * found only for targets out of reach, and that the forbidden first step is never taken.
+     */
+    @Test
+    public void findsShortestPaths() {
+        Random random = new Random(16);
+        GridSearch search = new GridSearch();
+        for (int round = 0; round < 300; round++) {
+            OccupancyGrid grid = randomGrid(random);
+            int startX = random.nextInt(WIDTH);
+            int startY = random.nextInt(HEIGHT);
+            int targetX = random.nextInt(WIDTH);
+            int targetY = random.nextInt(HEIGHT);
+            if (grid.getCount(targetX, targetY) > 0 || (startX == targetX && startY == targetY)) {
+                continue;
+            }
+            int forbidden = random.nextInt(5) - 1;
+            if (grid.getCount(startX, startY) == 0) {
+                grid.add(startX, startY, 2); // Like the head of a snake, paths do not come back through it
+            }
+            int[] distances = distances(grid, targetX, targetY);
+            int best = UNREACHED; // Shortest distance to the target over the allowed first steps
+            for (int direction = Direction.UP; direction <= Direction.LEFT; direction++) {
+                int d = direction == forbidden ? UNREACHED : distanceAt(distances, startX + Direction.dx(direction), startY + Direction.dy(direction));
+                if (d != UNREACHED && (best == UNREACHED || d < best)) {
+                    best = d;
+                }
+            }
+            int step = search.findPath(grid, startX, startY, forbidden, targetX, targetY, WIDTH * HEIGHT);
+            if (best == UNREACHED) {
+                assertEquals("round " + round, Direction.NONE, step);
+            } else {
+                assertTrue("round " + round, step != Direction.NONE && step != forbidden);
+                assertEquals("round " + round, best, distanceAt(distances, startX + Direction.dx(step), startY + Direction.dy(step)));
+            }
+        }
+    }
+
+    /**
+     * Checks on random grids that the reachable cells counted match a flood fill, up to the limit.
+     */
+    @Test
+    public void countsReachableCells() {
+        Random random = new Random(17);
+        GridSearch search = new GridSearch();
+        for (int round = 0; round < 300; round++) {
+            OccupancyGrid grid = randomGrid(random);
+            int x = random.nextInt(WIDTH);
+            int y = random.nextInt(HEIGHT);
+            int reachable = 0;
+            if (grid.getCount(x, y) == 0) {
+                for (int d : distances(grid, x, y)) {
+                    reachable += d == UNREACHED ? 0 : 1;
+                }
+            }
+            int limit = random.nextInt(WIDTH * HEIGHT + 1);
+            assertEquals("round " + round, Math.min(reachable, limit), search.countReachable(grid, x, y, limit));
+        }
+    }
+
+    /**
+     * Plays a bot going for the food against a bot that only avoids dying, and checks that both
+     * survive and that the first one eats.
+     */
+    @Test
+    public void botsSurviveAndEat() {
+        GameSimulation simulation = new GameSimulation(30, 20, 2, 4L);
+        GridSearch search = new GridSearch(); // Shared, both bots plan on this thread
+        BotController[] bots = { new FoodSeekerBot(search), new SurvivalBot(search) };
+        int[] inputs = new int[2];
+        for (int tick = 0; tick < 6000; tick++) {
+            for (int p = 0; p < bots.length; p++) {
+                inputs[p] = bots[p].nextDirection(simulation, p + 1);
+            }
+            simulation.step(inputs);
+        }
+        assertTrue(simulation.isAlive(1));
+        assertTrue(simulation.isAlive(2));
+        assertTrue("Food seeker scored " + simulation.getScore(1), simulation.getScore(1) > simulation.getScore(2));
+    }
+
+    /**
+     * Creates a grid where about a third of the cells are covered.
+     *
+     * @param random Random number generator placing the covered cells.
+     * @return Grid.
+     */
+    private static OccupancyGrid randomGrid(Random random) {
+        OccupancyGrid grid = new OccupancyGrid(WIDTH, HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (random.nextInt(3) == 0) {
+                    grid.add(x, y, 1);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Computes the distance of every free cell to a free cell, over free cells.
+     *
+     * @param grid Grid to search.
+     * @param x    X coordinate of the cell.
+     * @param y    Y coordinate of the cell.
+     * @return Distance of each cell, row by row, or {@link #UNREACHED}.
+     */
+    private static int[] distances(OccupancyGrid grid, int x, int y) {
+        int[] distances = new int[WIDTH * HEIGHT];
+        Arrays.fill(distances, UNREACHED);
+        int[] queue = new int[WIDTH * HEIGHT];
+        int read = 0;
+        int write = 0;
+        distances[y * WIDTH + x] = 0;
+        queue[write++] = y * WIDTH + x;
+        while (read < write) {
+            int cell = queue[read++];
+            for (int direction = Direction.UP; direction <= Direction.LEFT; direction++) {
+                int nx = cell % WIDTH + Direction.dx(direction);
+                int ny = cell / WIDTH + Direction.dy(direction);
+                if (grid.isInside(nx, ny) && grid.getCount(nx, ny) == 0 && distances[ny * WIDTH + nx] == UNREACHED) {
+                    distances[ny * WIDTH + nx] = distances[cell] + 1;
+                    queue[write++] = ny * WIDTH + nx;
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Gets the distance of a cell, if it is inside the grid.
+     *
+     * @param distances Distances from {@link #distances(OccupancyGrid, int, int)}.
+     * @param x         X coordinate of the cell.
+     * @param y         Y coordinate of the cell.
+     * @return Distance, or {@link #UNREACHED}.
+     */
+    private static int distanceAt(int[] distances, int x, int y) {
+        return x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT ? UNREACHED : distances[y * WIDTH + x];
+    }
+}
@@ -0,0 +1,50 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Applies random operations to a {@link CellMap} and a {@link HashMap} and checks that they
+ * always agree, through growth and removals in the middle of probe runs.
+ */
+public class CellMapTest {
+    /**
+     * Checks random puts, removals and lookups over a few key ranges, from crowded to sparse.
+     */
+    @Test
+    public void matchesHashMap() {
+        Random random = new Random(18);
+        for (int range : new int[] { 16, 1000, 1 << 24 }) {
+            CellMap<Integer> cells = new CellMap<>();
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (int i = 0; i < 100000; i++) {
+                int cell = random.nextInt(range);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        cells.put(cell, i);
+                        expected.put(cell, i);
+                        break;
+                    case 1:
+                        assertEquals("range " + range + ", remove " + cell, expected.remove(cell), cells.remove(cell));
+                        break;
+                    default:
+                        assertEquals("range " + range + ", get " + cell, expected.get(cell), cells.get(cell));
+                        break;
+                }
+                assertEquals(expected.size(), cells.size());
+            }
+            for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), cells.get(entry.getKey()));
+            }
+            cells.clear();
+            assertEquals(0, cells.size());
+            assertNull(cells.get(expected.isEmpty() ? 0 : expected.keySet().iterator().next()));
+        }
+    }
+}
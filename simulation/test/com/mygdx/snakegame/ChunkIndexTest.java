@@ -0,0 +1,144 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Moves long snakes winding across the chunks of a grid and checks that the {@link ChunkIndex}
+ * counts and the chunk groups of the {@link RenderState} match the cells of the grid and the
+ * segments of the snakes.
+ */
+public class ChunkIndexTest {
+    private static final int TICKS = 2000; // Ticks played by each match
+    private static final int CHECK_INTERVAL = 5; // Ticks between two checks
+    private static final int ROWS = 8; // Rows of the grid covered by each snake at the start
+
+    /**
+     * Checks a grid whose size is not a multiple of the chunk size, so the last chunks are partial.
+     */
+    @Test
+    public void partialChunks() {
+        play(new GameSimulation(70, 45, 4, 5L));
+    }
+
+    /**
+     * Checks a grid that fits in a single chunk.
+     */
+    @Test
+    public void singleChunk() {
+        play(new GameSimulation(20, 20, 2, 6L));
+    }
+
+    /**
+     * Lays out long snakes and lets bots move them, checking the chunks now and then, until
+     * the match ends or the ticks run out.
+     *
+     * @param simulation Simulation to play.
+     */
+    private static void play(GameSimulation simulation) {
+        int players = simulation.getPlayerCount();
+        BotController[] bots = new BotController[players];
+        for (int p = 0; p < players; p++) {
+            layOut(simulation, p + 1);
+            bots[p] = new SurvivalBot(new GridSearch());
+        }
+        int[] inputs = new int[players];
+        RenderState state = new RenderState();
+        for (int tick = 0; tick < TICKS && simulation.getAliveCount() > 0; tick++) {
+            if (tick % CHECK_INTERVAL == 0) {
+                checkCounts(simulation.getGrid());
+                state.update(simulation, true, 0);
+                checkGroups(simulation, state);
+            }
+            for (int p = 0; p < players; p++) {
+                inputs[p] = bots[p].nextDirection(simulation, p + 1);
+            }
+            simulation.step(inputs);
+        }
+    }
+
+    /**
+     * Winds a snake over the rows of its band of the grid, across the chunk borders, with its
+     * head halfway along the last row and free rows above it.
+     *
+     * @param simulation Simulation holding the snake.
+     * @param player     Id of the snake.
+     */
+    private static void layOut(GameSimulation simulation, int player) {
+        int width = simulation.getGrid().getWidth();
+        int top = (player - 1) * (simulation.getGrid().getHeight() / simulation.getPlayerCount());
+        int length = (ROWS - 1) * width + width / 2;
+        Snake snake = simulation.getSnake(player);
+        snake.clear();
+        int x = 0;
+        int y = 0;
+        for (int i = length - 1; i >= 0; i--) { // Head first
+            int row = i / width;
+            int column = i % width;
+            x = row % 2 == 0 ? column : width - 1 - column;
+            y = top + row;
+            snake.appendSegment(x, y);
+        }
+        int direction = (ROWS - 1) % 2 == 0 ? Direction.RIGHT : Direction.LEFT;
+        snake.restoreMotion(direction, 0, 0, false, x, y);
+    }
+
+    /**
+     * Compares the count of each chunk with the covered cells of the grid inside it.
+     *
+     * @param grid Grid to check.
+     */
+    private static void checkCounts(OccupancyGrid grid) {
+        ChunkIndex chunks = grid.getChunks();
+        int[] covered = new int[chunks.getColumns() * chunks.getRows()];
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getCount(x, y) > 0) {
+                    covered[ChunkIndex.chunkOf(y) * chunks.getColumns() + ChunkIndex.chunkOf(x)]++;
+                }
+            }
+        }
+        for (int row = 0; row < chunks.getRows(); row++) {
+            for (int column = 0; column < chunks.getColumns(); column++) {
+                assertEquals("chunk " + column + "," + row, covered[row * chunks.getColumns() + column], chunks.getCount(column, row));
+            }
+        }
+    }
+
+    /**
+     * Checks that every segment behind the heads is in the group of its chunk, with its owner,
+     * and that the groups hold nothing else.
+     *
+     * @param simulation Simulation copied into the state.
+     * @param state      State to check.
+     */
+    private static void checkGroups(GameSimulation simulation, RenderState state) {
+        ChunkIndex chunks = simulation.getGrid().getChunks();
+        int players = simulation.getPlayerCount();
+        int width = simulation.getGrid().getWidth();
+        int[][] segments = new int[players][width * simulation.getGrid().getHeight()];
+        int[] totals = new int[players];
+        for (int row = 0; row < chunks.getRows(); row++) {
+            for (int column = 0; column < chunks.getColumns(); column++) {
+                for (int i = state.getChunkStart(column, row); i < state.getChunkEnd(column, row); i++) {
+                    int x = state.getCellX(i);
+                    int y = state.getCellY(i);
+                    assertEquals(column, ChunkIndex.chunkOf(x));
+                    assertEquals(row, ChunkIndex.chunkOf(y));
+                    segments[state.getCellOwner(i) - 1][y * width + x]++;
+                    totals[state.getCellOwner(i) - 1]++;
+                }
+            }
+        }
+        for (int player = 1; player <= players; player++) {
+            SnakeBody body = simulation.getSnake(player).getSegments();
+            assertEquals("player " + player, Math.max(0, body.size() - 1), totals[player - 1]);
+            for (int i = 1; i < body.size(); i++) {
+                int cell = body.getY(i) * width + body.getX(i);
+                assertTrue("player " + player + ", segment " + i, segments[player - 1][cell]-- > 0);
+            }
+        }
+    }
+}
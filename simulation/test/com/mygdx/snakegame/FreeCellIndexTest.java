@@ -0,0 +1,162 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Claims and releases cells of a {@link FreeCellIndex} at random and checks every answer against
+ * a brute-force set of free cells, up to a full grid, then fills the board of a match with items.
+ */
+public class FreeCellIndexTest {
+    private static final int OPERATIONS = 20000; // Claims and releases of each random run
+
+    /**
+     * Checks random claims and releases on sizes that are and are not powers of two.
+     */
+    @Test
+    public void randomClaimAndRelease() {
+        Random random = new Random(13);
+        for (int cellCount : new int[] { 1, 37, 64, 100 }) {
+            FreeCellIndex index = new FreeCellIndex(cellCount);
+            boolean[] model = new boolean[cellCount];
+            Arrays.fill(model, true);
+            check(index, model);
+            for (int i = 0; i < OPERATIONS; i++) {
+                int cell = random.nextInt(cellCount);
+                // Claims more than it releases at first, then the other way round
+                if (random.nextInt(OPERATIONS) > i) {
+                    index.remove(cell);
+                    model[cell] = false;
+                } else {
+                    index.add(cell);
+                    model[cell] = true;
+                }
+                if (i % 13 == 0) {
+                    check(index, model);
+                }
+            }
+            check(index, model);
+        }
+    }
+
+    /**
+     * Checks that a full index reports no free cell, and that releasing one makes it the only pick.
+     */
+    @Test
+    public void fullIndex() {
+        FreeCellIndex index = new FreeCellIndex(50);
+        boolean[] model = new boolean[50];
+        Random random = new Random(14);
+        for (int cell = 49; cell >= 0; cell--) {
+            index.remove(cell);
+        }
+        index.remove(7); // Already taken
+        check(index, model);
+        assertEquals(-1, index.random(random));
+
+        index.add(23);
+        index.add(23); // Already free
+        model[23] = true;
+        check(index, model);
+        assertEquals(23, index.random(random));
+
+        index.reset();
+        Arrays.fill(model, true);
+        check(index, model);
+    }
+
+    /**
+     * Fills the board of a match with items and checks that no item spawns on a snake or on
+     * another item, and that the full board is reported.
+     */
+    @Test
+    public void spawnsAvoidSnakesAndItems() {
+        GameSimulation simulation = new GameSimulation(12, 10, 4, 15L);
+        Random random = new Random(15);
+        int[] inputs = new int[4];
+        for (int tick = 0; tick < 200; tick++) {
+            TestMatches.randomInputs(random, inputs);
+            simulation.step(inputs);
+        }
+        OccupancyGrid grid = simulation.getGrid();
+        ItemIndex items = simulation.getItemIndex();
+        int free = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getCount(x, y) == 0 && items.get(x, y) == null) {
+                    free++;
+                }
+            }
+        }
+        assertEquals(free, grid.getFreeCellCount());
+
+        for (int i = 0; i < free; i++) {
+            int cell = grid.randomFreeCell(new Random(i));
+            int x = cell % grid.getWidth();
+            int y = cell / grid.getWidth();
+            assertEquals("snake on spawn cell", 0, grid.getCount(x, y));
+            assertNull("item on spawn cell", items.get(x, y));
+            Entity item = items.spawnRandom(ItemComponent.FOOD, new Random(i));
+            CellComponent spawned = Mappers.CELL.get(item);
+            assertEquals(x, spawned.x);
+            assertEquals(y, spawned.y);
+            assertEquals(free - i - 1, grid.getFreeCellCount());
+        }
+        assertEquals(-1, grid.randomFreeCell(random));
+        assertNull(items.spawnRandom(ItemComponent.BONUS, random));
+    }
+
+    /**
+     * Checks the size, the membership of every cell and the cell picked for every rank.
+     *
+     * @param index Index under test.
+     * @param model Free cells expected.
+     */
+    private static void check(FreeCellIndex index, boolean[] model) {
+        int size = 0;
+        for (int cell = 0; cell < model.length; cell++) {
+            assertEquals("cell " + cell, model[cell], index.contains(cell));
+            if (model[cell]) {
+                // The k-th free cell in cell order is picked when the generator draws k
+                assertEquals("rank " + size, cell, index.random(new FixedRandom(size)));
+                size++;
+            }
+        }
+        assertEquals(size, index.size());
+        if (size > 0) {
+            assertTrue(index.contains(index.random(new Random(size))));
+        } else {
+            assertFalse(index.random(new Random(size)) >= 0);
+        }
+    }
+
+    /**
+     * Generator that always draws the same number, to pick a free cell by its rank.
+     */
+    private static class FixedRandom extends Random {
+        private static final long serialVersionUID = 1L;
+        private final int value; // Number always drawn
+
+        /**
+         * Creates a generator.
+         *
+         * @param value Number drawn by {@link #nextInt(int)}.
+         */
+        FixedRandom(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Publishes events to a bus and checks that every subscription drains them in order, that a
+ * full ring drops new events instead of overwriting unread ones, and that a consumer on another
+ * thread receives every event of a long stream.
+ */
+public class GameEventBusTest {
+    private static final int EVENTS = 200000; // Events published to the consumer thread
+
+    /**
+     * Checks that each subscription receives the events published after it subscribed, in
+     * order, with their player and tick, however it batches its drains.
+     */
+    @Test
+    public void subscriptionsDrainInOrder() {
+        GameEventBus bus = new GameEventBus(16);
+        GameEventBus.Subscription early = bus.subscribe();
+        GameEvents events = new GameEvents(4);
+        events.add(GameEvents.FOOD_EATEN, 1);
+        events.add(GameEvents.WALL_HIT, 2);
+        bus.publish(events, 7);
+        List<String> received = new ArrayList<>();
+        assertEquals(2, early.drain((type, player, tick) -> received.add(type + "/" + player + "/" + tick)));
+
+        GameEventBus.Subscription late = bus.subscribe();
+        events.clear();
+        events.add(GameEvents.GAME_OVER, 1);
+        bus.publish(events, 8);
+        assertEquals(1, early.drain((type, player, tick) -> received.add(type + "/" + player + "/" + tick)));
+        assertEquals(0, early.drain((type, player, tick) -> received.add("none")));
+        assertEquals(Arrays.asList(GameEvents.FOOD_EATEN + "/1/7", GameEvents.WALL_HIT + "/2/7", GameEvents.GAME_OVER + "/1/8"), received);
+
+        received.clear();
+        assertEquals(1, late.drain((type, player, tick) -> received.add(type + "/" + player + "/" + tick)));
+        assertEquals(Arrays.asList(GameEvents.GAME_OVER + "/1/8"), received);
+        assertEquals(0, bus.getDropped());
+    }
+
+    /**
+     * Checks that events published while the slowest subscription is a whole ring behind are
+     * dropped and counted, and that the events it had not read are kept.
+     */
+    @Test
+    public void fullRingDropsNewEvents() {
+        GameEventBus bus = new GameEventBus(8);
+        GameEventBus.Subscription slow = bus.subscribe();
+        GameEvents events = new GameEvents(1);
+        for (int tick = 0; tick < 10; tick++) {
+            events.clear();
+            events.add(GameEvents.FOOD_EATEN, 1);
+            bus.publish(events, tick);
+        }
+        assertEquals(2, bus.getDropped());
+        long[] next = { 0 };
+        assertEquals(8, slow.drain((type, player, tick) -> assertEquals(next[0]++, tick)));
+
+        bus.publish(events, 10); // Room again once drained
+        assertEquals(1, slow.drain((type, player, tick) -> assertEquals(10, tick)));
+        assertEquals(2, bus.getDropped());
+    }
+
+    /**
+     * Streams events to a consumer draining from another thread, with a ring much smaller than
+     * the stream, and checks that it receives every event exactly once and in order, apart from
+     * the ones counted as dropped.
+     *
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void consumerThreadReceivesEveryEvent() throws InterruptedException {
+        GameEventBus bus = new GameEventBus(64);
+        GameEventBus.Subscription subscription = bus.subscribe();
+        long[] received = new long[2]; // Count of events and tick of the last one
+        received[1] = -1;
+        Thread consumer = new Thread(() -> {
+            while (received[0] + bus.getDropped() < EVENTS) {
+                subscription.drain((type, player, tick) -> {
+                    if (tick <= received[1] || player != (int) (tick % 4) + 1) {
+                        throw new AssertionError("Event of tick " + tick + " after tick " + received[1] + ", player " + player);
+                    }
+                    received[0]++;
+                    received[1] = tick;
+                });
+                Thread.yield();
+            }
+        }, "consumer");
+        consumer.start();
+        GameEvents events = new GameEvents(1);
+        for (int tick = 0; tick < EVENTS; tick++) {
+            events.clear();
+            events.add(GameEvents.FOOD_EATEN, tick % 4 + 1);
+            bus.publish(events, tick);
+        }
+        consumer.join(10000);
+        assertEquals(EVENTS, received[0] + bus.getDropped());
+    }
+}
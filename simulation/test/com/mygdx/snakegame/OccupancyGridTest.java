@@ -0,0 +1,167 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.utils.ImmutableArray;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Plays random matches and checks, after every tick, that each query answered by the
+ * {@link OccupancyGrid} gives the same result as scanning the bodies of the snakes.
+ */
+public class OccupancyGridTest {
+    private static final int TICKS = 4000; // Ticks played by each match
+    // Frequent bonus items with long invulnerability, so snakes often overlap and share cells
+    private static final GameRules OVERLAPPING_RULES = new GameRules(60, 300, 600, 10, 8, 4);
+
+    /**
+     * Checks a two-player match with the default rules.
+     */
+    @Test
+    public void twoPlayers() {
+        play(new GameSimulation(12, 10, 2, 1L), new Random(1));
+    }
+
+    /**
+     * Checks a four-player match where invulnerable snakes cross each other.
+     */
+    @Test
+    public void overlappingSnakes() {
+        play(new GameSimulation(16, 12, 4, 2L, OVERLAPPING_RULES), new Random(2));
+    }
+
+    /**
+     * Checks a single snake on a small grid, which it fills quickly.
+     */
+    @Test
+    public void singleSnake() {
+        play(new GameSimulation(8, 6, 1, 3L, OVERLAPPING_RULES), new Random(3));
+    }
+
+    /**
+     * Steps a simulation with random inputs, checking the grid after each tick.
+     *
+     * @param simulation Simulation to play.
+     * @param random     Random number generator picking the inputs.
+     */
+    private static void play(GameSimulation simulation, Random random) {
+        int[] inputs = new int[simulation.getPlayerCount()];
+        check(simulation);
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (int p = 0; p < inputs.length; p++) {
+                inputs[p] = random.nextInt(8) == 0 ? random.nextInt(4) : Direction.NONE;
+            }
+            simulation.step(inputs);
+            check(simulation);
+        }
+    }
+
+    /**
+     * Compares every grid query with a scan of the snake bodies and the items.
+     *
+     * @param simulation Simulation to check.
+     */
+    private static void check(GameSimulation simulation) {
+        OccupancyGrid grid = simulation.getGrid();
+        int players = simulation.getPlayerCount();
+        String at = "tick " + simulation.getTick();
+        boolean shared = false;
+        int free = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                int count = 0;
+                int owner = OccupancyGrid.NO_OWNER;
+                for (int player = 1; player <= players; player++) {
+                    Snake snake = simulation.getSnake(player);
+                    int segments = countSegments(snake.getSegments(), x, y);
+                    if (segments > 0) {
+                        count += segments;
+                        owner = snake.getId();
+                    }
+                    assertEquals(at + ", snake " + player + " at " + x + "," + y,
+                            segments > 0, snake.checkCollision(x, y));
+                }
+                assertEquals(at + ", count at " + x + "," + y, count, grid.getCount(x, y));
+                assertEquals(at + ", free at " + x + "," + y, count == 0, grid.isFree(x, y));
+                if (count == 0 || count == 1 && grid.getOwner(x, y) != OccupancyGrid.UNKNOWN_OWNER) {
+                    assertEquals(at + ", owner at " + x + "," + y, owner, grid.getOwner(x, y));
+                }
+                shared |= count > 1;
+                if (count == 0 && simulation.getItemIndex().get(x, y) == null) {
+                    free++;
+                }
+            }
+        }
+        assertEquals(at + ", shared cells", shared, grid.hasSharedCells());
+        assertEquals(at + ", free cells", free, grid.getFreeCellCount());
+        assertEquals(at + ", outside", 0, grid.getCount(-1, 0) + grid.getCount(grid.getWidth(), 0));
+        checkItems(simulation);
+
+        for (int player = 1; player <= players; player++) {
+            Snake snake = simulation.getSnake(player);
+            SnakeBody body = snake.getSegments();
+            if (body.size() > 0) {
+                assertEquals(at + ", snake " + player + " hit itself",
+                        body.contains(body.getHeadX(), body.getHeadY(), 1), snake.hasHitItself());
+            }
+            for (int other = 1; other <= players; other++) {
+                if (other != player) {
+                    assertEquals(at + ", snake " + player + " against " + other,
+                            overlaps(body, simulation.getSnake(other).getSegments()),
+                            snake.collidesWith(simulation.getSnake(other)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that every item lies on a cell of the grid known to hold it.
+     *
+     * @param simulation Simulation to check.
+     */
+    private static void checkItems(GameSimulation simulation) {
+        ImmutableArray<Entity> items = simulation.getItemIndex().getItems();
+        assertEquals("tick " + simulation.getTick() + ", items", items.size(), simulation.getItemCount());
+        for (int i = 0; i < items.size(); i++) {
+            CellComponent cell = Mappers.CELL.get(items.get(i));
+            assertEquals(items.get(i), simulation.getItemIndex().get(cell.x, cell.y));
+        }
+    }
+
+    /**
+     * Counts the segments of a body lying on a cell.
+     *
+     * @param body Body to scan.
+     * @param x    X coordinate of the cell.
+     * @param y    Y coordinate of the cell.
+     * @return Number of segments on the cell.
+     */
+    private static int countSegments(SnakeBody body, int x, int y) {
+        int count = 0;
+        for (int i = 0; i < body.size(); i++) {
+            if (body.getX(i) == x && body.getY(i) == y) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if any segment of a body lies on a segment of another.
+     *
+     * @param body  First body.
+     * @param other Second body.
+     * @return True if the bodies overlap.
+     */
+    private static boolean overlaps(SnakeBody body, SnakeBody other) {
+        for (int i = 0; i < body.size(); i++) {
+            if (countSegments(other, body.getX(i), body.getY(i)) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
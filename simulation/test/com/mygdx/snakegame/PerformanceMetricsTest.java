@@ -0,0 +1,149 @@
+package com.mygdx.snakegame;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records frames with known phases, ticks and allocations, and checks the statistics and the
+ * lines of the CSV and JSON dumps.
+ */
+public class PerformanceMetricsTest {
+    private static final int FRAMES = 20;
+    private static final long SLEEP_MILLIS = 2; // Duration of the first phase of each frame
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static volatile byte[] garbage; // Keeps the allocations of the frames from being optimized away
+
+    /**
+     * Checks the durations of the phases, the ticks, the entities and the allocations of the frames.
+     *
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void recordsFrames() throws InterruptedException {
+        PerformanceMetrics metrics = new PerformanceMetrics("sleep", "allocate");
+        for (int frame = 0; frame < FRAMES; frame++) {
+            recordFrame(metrics, frame);
+        }
+        assertEquals(FRAMES, metrics.getFrames().getCount());
+        long sleep = metrics.getPhase(0).getPercentile(50);
+        assertTrue(sleep + " ns asleep", sleep >= SLEEP_MILLIS * 1000000 * 15 / 16);
+        assertTrue(metrics.getFrames().getSum() >= metrics.getPhase(0).getSum() + metrics.getPhase(1).getSum());
+        assertEquals(FRAMES - 1, metrics.getTicks().getPercentile(100));
+        assertEquals(FRAMES - 1, metrics.getEntityCount());
+        assertTrue(metrics.getFramesPerSecond() > 0);
+        if (metrics.isAllocationSupported()) {
+            long allocated = metrics.getAllocations().getPercentile(50);
+            assertTrue(allocated + " bytes allocated", allocated >= 1000000 * 15 / 16);
+        }
+        StringBuilder summary = new StringBuilder();
+        metrics.appendSummary(summary);
+        assertTrue(summary.toString(), summary.indexOf("sleep") >= 0 && summary.indexOf("allocate") >= 0);
+    }
+
+    /**
+     * Checks that a CSV dump written every frame has a header and rows of the same width.
+     *
+     * @throws IOException          If the dump cannot be written or read.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void dumpsCsv() throws IOException, InterruptedException {
+        List<String> lines = dump("metrics.csv");
+        assertEquals(FRAMES + 1, lines.size());
+        String[] header = lines.get(0).split(",");
+        assertEquals("time_ms", header[0]);
+        assertTrue(lines.get(0).contains(",sleep_p50_ms,sleep_p99_ms,allocate_p50_ms,"));
+        for (String line : lines.subList(1, lines.size())) {
+            assertEquals(line, header.length, line.split(",").length);
+        }
+    }
+
+    /**
+     * Checks that a JSON dump written every frame has one object per line, with the same keys
+     * as the CSV columns.
+     *
+     * @throws IOException          If the dump cannot be written or read.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void dumpsJson() throws IOException, InterruptedException {
+        List<String> lines = dump("metrics.json");
+        assertEquals(FRAMES, lines.size());
+        for (String line : lines) {
+            assertTrue(line, line.startsWith("{\"time_ms\":") && line.endsWith("}"));
+            assertTrue(line, line.contains(",\"sleep_p99_ms\":") && line.contains(",\"gc_ms\":"));
+        }
+    }
+
+    /**
+     * Checks that a dump the disk refuses stops without printing anything, and that the error
+     * is left in the summary for the owner of the metrics to report.
+     *
+     * @throws IOException          If the device cannot be opened.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void reportsFailedDump() throws IOException, InterruptedException {
+        Path full = Paths.get("/dev/full"); // Every write fails for lack of space
+        Assume.assumeTrue(Files.isWritable(full));
+        PerformanceMetrics metrics = new PerformanceMetrics("sleep", "allocate");
+        metrics.startDump(full, 0);
+        recordFrame(metrics, 0);
+        assertNotNull(metrics.getDumpError());
+        StringBuilder summary = new StringBuilder();
+        metrics.appendSummary(summary);
+        assertTrue(summary.toString(), summary.toString().contains("dump stopped: "));
+        metrics.stopDump();
+    }
+
+    /**
+     * Records frames while dumping a line after each one.
+     *
+     * @param name Name of the dump file.
+     * @return Lines of the dump.
+     * @throws IOException          If the dump cannot be written or read.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    private List<String> dump(String name) throws IOException, InterruptedException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        PerformanceMetrics metrics = new PerformanceMetrics("sleep", "allocate");
+        metrics.startDump(file, 0);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            recordFrame(metrics, frame);
+        }
+        metrics.stopDump();
+        return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Records a frame that sleeps, then allocates a megabyte.
+     *
+     * @param metrics Metrics to record into.
+     * @param frame   Number of the frame, used as its tick and entity counts.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    private static void recordFrame(PerformanceMetrics metrics, int frame) throws InterruptedException {
+        metrics.beginFrame();
+        Thread.sleep(SLEEP_MILLIS);
+        metrics.endPhase(0);
+        garbage = new byte[1000000];
+        metrics.endPhase(1);
+        metrics.endFrame(frame, frame);
+    }
+}
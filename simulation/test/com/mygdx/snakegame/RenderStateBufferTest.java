@@ -0,0 +1,134 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Publishes the states of a match from one thread while another thread acquires them, and
+ * checks that every state acquired is whole, that states never go back in time, and that the
+ * last one published is the one the consumer ends with.
+ */
+public class RenderStateBufferTest {
+    private static final int TICKS = 20000;
+    private static final long SEED = 19;
+
+    /**
+     * Receives the simulation after each tick.
+     */
+    private interface TickListener {
+        /**
+         * Called after a tick.
+         *
+         * @param simulation Simulation after the tick.
+         * @param tick       Ticks played since the start, across matches.
+         */
+        void onTick(GameSimulation simulation, int tick);
+    }
+
+    /**
+     * Runs the producer and the consumer on two threads.
+     *
+     * @throws Throwable If a thread failed.
+     */
+    @Test
+    public void statesAreNeverTornNorLost() throws Throwable {
+        long[] expected = new long[TICKS + 1]; // Fingerprint of the state of each tick
+        RenderState reference = new RenderState();
+        play((simulation, tick) -> {
+            reference.update(simulation, true, tick);
+            expected[tick] = fingerprint(reference);
+        });
+
+        RenderStateBuffer buffer = new RenderStateBuffer();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            try {
+                play((simulation, tick) -> {
+                    buffer.getBack().update(simulation, true, tick); // The tick time numbers the states
+                    buffer.publish();
+                });
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "Producer");
+        producer.start();
+
+        long last = -1; // Tick of the last state acquired
+        int acquired = 0; // Distinct states acquired
+        while (producer.isAlive() || last < TICKS) {
+            RenderState state = buffer.acquire();
+            if (state.getGridWidth() == 0) {
+                continue; // Nothing published yet
+            }
+            long tick = state.getTickTime();
+            assertTrue("Tick " + tick + " after " + last, tick >= last);
+            assertEquals("Torn state at tick " + tick, expected[(int) tick], fingerprint(state));
+            assertEquals("State changed while read", tick, state.getTickTime());
+            acquired += tick > last ? 1 : 0;
+            last = tick;
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+        producer.join();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        assertEquals("Last state lost", TICKS, buffer.acquire().getTickTime());
+        assertTrue("Only " + acquired + " states acquired", acquired > 1);
+    }
+
+    /**
+     * Plays seeded matches, handing the simulation to a listener at the start and after every tick.
+     *
+     * @param listener Receives the simulation.
+     */
+    private static void play(TickListener listener) {
+        GameSimulation simulation = new GameSimulation(20, 15, 2, SEED);
+        Random random = new Random(SEED);
+        int[] inputs = new int[2];
+        listener.onTick(simulation, 0);
+        for (int tick = 1; tick <= TICKS; tick++) {
+            TestMatches.randomInputs(random, inputs);
+            simulation.step(inputs);
+            listener.onTick(simulation, tick);
+        }
+    }
+
+    /**
+     * Hashes everything a renderer reads from a state.
+     *
+     * @param state State to hash.
+     * @return Fingerprint of the state.
+     */
+    private static long fingerprint(RenderState state) {
+        long hash = state.getTick();
+        hash = hash * 31 + state.getTickTime();
+        hash = hash * 31 + state.getGridWidth() * 1000 + state.getGridHeight();
+        for (int p = 1; p <= state.getPlayerCount(); p++) {
+            hash = hash * 31 + state.getScore(p);
+            hash = hash * 31 + (state.isAlive(p) ? 1 : 0) + (state.isInvulnerable(p) ? 2 : 0);
+            hash = hash * 31 + state.getSize(p);
+            hash = hash * 31 + state.getHeadX(p) * 1000 + state.getHeadY(p);
+            hash = hash * 31 + state.getTailX(p) * 1000 + state.getTailY(p);
+        }
+        int columns = ChunkIndex.chunkOf(state.getGridWidth() - 1) + 1;
+        int rows = ChunkIndex.chunkOf(state.getGridHeight() - 1) + 1;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                for (int i = state.getChunkStart(column, row); i < state.getChunkEnd(column, row); i++) {
+                    hash = hash * 31 + (state.getCellOwner(i) * 1000 + state.getCellX(i)) * 1000 + state.getCellY(i);
+                }
+            }
+        }
+        for (int i = 0; i < state.getItemCount(); i++) {
+            hash = hash * 31 + (state.getItemKind(i) * 1000 + state.getItemX(i)) * 1000 + state.getItemY(i);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,118 @@
+package com.mygdx.snakegame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Records a random match and checks that playing or seeking the replay reaches the recorded states.
+ */
+public class ReplayTest {
+    private static final int TICKS = 3000; // Ticks recorded
+    private static final int KEYFRAME_INTERVAL = 120; // Ticks between two keyframes
+
+    private byte[] file; // Complete replay file
+    private byte[][] states; // State before the inputs of each tick, and after the last one
+    private long[] randomStates; // Generator state before the inputs of each tick, and after the last one
+
+    /**
+     * Records the match in memory, keeping the state of every tick.
+     *
+     * @throws IOException Never, the channel is in memory.
+     */
+    @Before
+    public void record() throws IOException {
+        GameSimulation simulation = new GameSimulation(16, 12, 2, 11L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(Channels.newChannel(out), simulation, KEYFRAME_INTERVAL);
+        Random random = new Random(11);
+        int[] inputs = new int[2];
+        states = new byte[TICKS + 1][];
+        randomStates = new long[TICKS + 1];
+        for (int tick = 0; tick < TICKS; tick++) {
+            states[tick] = TestMatches.state(simulation);
+            randomStates[tick] = simulation.getRandomState();
+            TestMatches.randomInputs(random, inputs);
+            recorder.record(inputs);
+            simulation.step(inputs);
+        }
+        states[TICKS] = TestMatches.state(simulation);
+        randomStates[TICKS] = simulation.getRandomState();
+        recorder.close();
+        file = out.toByteArray();
+    }
+
+    /**
+     * Checks that playing the replay from the start goes through every recorded state.
+     *
+     * @throws IOException If the replay cannot be read.
+     */
+    @Test
+    public void playsEveryTick() throws IOException {
+        ReplayPlayer player = new ReplayPlayer(ByteBuffer.wrap(file));
+        assertEquals(TICKS, player.getLength());
+        for (int tick = 0; tick < TICKS; tick++) {
+            assertState(player, tick);
+            assertNotNull(player.step());
+        }
+        assertState(player, TICKS);
+        assertNull(player.step());
+    }
+
+    /**
+     * Checks that seeking back and forth to random ticks, keyframes or not, reaches the recorded states.
+     *
+     * @throws IOException If the replay cannot be read.
+     */
+    @Test
+    public void seeksAnyTick() throws IOException {
+        ReplayPlayer player = new ReplayPlayer(ByteBuffer.wrap(file));
+        Random random = new Random(12);
+        for (int i = 0; i < 200; i++) {
+            long target = i % 4 == 0 ? random.nextInt(TICKS / KEYFRAME_INTERVAL) * KEYFRAME_INTERVAL : random.nextInt(TICKS + 1);
+            player.seek(target);
+            assertState(player, target);
+        }
+        player.seek(-5);
+        assertState(player, 0);
+        player.seek(TICKS + 5);
+        assertState(player, TICKS);
+    }
+
+    /**
+     * Checks that a recording that was never closed is refused.
+     */
+    @Test
+    public void refusesIncompleteFile() {
+        try {
+            new ReplayPlayer(ByteBuffer.wrap(Arrays.copyOf(file, file.length - 1)));
+            fail("Incomplete replay opened");
+        } catch (IOException expected) {
+            // The index is written when closing
+        }
+    }
+
+    /**
+     * Checks the state of the replay simulation against the recording.
+     *
+     * @param player Replay player.
+     * @param tick   Tick the player should be at.
+     */
+    private void assertState(ReplayPlayer player, long tick) {
+        assertEquals(tick, player.getTick());
+        assertArrayEquals("tick " + tick, states[(int) tick], TestMatches.state(player.getSimulation()));
+        assertEquals("tick " + tick, randomStates[(int) tick], player.getSimulation().getRandomState());
+    }
+}
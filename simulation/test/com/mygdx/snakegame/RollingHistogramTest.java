@@ -0,0 +1,81 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the percentiles of a {@link RollingHistogram} against the sorted samples of its window.
+ */
+public class RollingHistogramTest {
+    private static final int WINDOW = 500;
+    private static final double[] PERCENTILES = { 0, 1, 50, 90, 99, 99.9, 100 };
+
+    /**
+     * Checks that the middle of every bucket falls back into it, and that buckets grow with the values.
+     */
+    @Test
+    public void bucketsCoverValues() {
+        for (int bucket = 0; RollingHistogram.middleOf(bucket) < Long.MAX_VALUE / 2; bucket++) {
+            assertEquals(bucket, RollingHistogram.bucketOf(RollingHistogram.middleOf(bucket)));
+        }
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextLong() >>> random.nextInt(64);
+            assertTrue(value + " before " + (value + 1), RollingHistogram.bucketOf(value) <= RollingHistogram.bucketOf(value + 1));
+        }
+    }
+
+    /**
+     * Records samples spanning many magnitudes and compares the percentiles, sum and mean with
+     * the exact ones of the last samples, while the window fills and then slides.
+     */
+    @Test
+    public void percentilesFollowWindow() {
+        RollingHistogram histogram = new RollingHistogram(WINDOW);
+        Random random = new Random(15);
+        long[] recorded = new long[5 * WINDOW];
+        for (int i = 0; i < recorded.length; i++) {
+            recorded[i] = (long) Math.exp(random.nextDouble() * 30); // From 1 to about 10^13
+            histogram.record(recorded[i]);
+            if (i % 37 == 0) {
+                check(histogram, Arrays.copyOfRange(recorded, Math.max(0, i + 1 - WINDOW), i + 1));
+            }
+        }
+        histogram.clear();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        histogram.record(-3);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    /**
+     * Compares a histogram with the samples of its window.
+     *
+     * @param histogram Histogram to check.
+     * @param window    Samples the window should hold.
+     */
+    private static void check(RollingHistogram histogram, long[] window) {
+        assertEquals(window.length, histogram.getCount());
+        long sum = 0;
+        for (long sample : window) {
+            sum += sample;
+        }
+        assertEquals(sum, histogram.getSum());
+        assertEquals((double) sum / window.length, histogram.getMean(), 1e-6);
+        long[] sorted = window.clone();
+        Arrays.sort(sorted);
+        for (double percentile : PERCENTILES) {
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * sorted.length));
+            long exact = sorted[(int) rank - 1];
+            long estimate = histogram.getPercentile(percentile);
+            // Eight buckets per power of two: the middle of a bucket is within 1/16 of its values
+            assertEquals("p" + percentile, exact, estimate, exact / 16.0 + 1);
+        }
+    }
+}
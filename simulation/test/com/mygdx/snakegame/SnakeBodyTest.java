@@ -0,0 +1,187 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the ring buffer of a {@link SnakeBody} with heads added and tails removed, and checks
+ * every segment against a {@link LinkedList} holding the same moves.
+ */
+public class SnakeBodyTest {
+    private static final int MOVES = 100000; // Head and tail moves of the long runs
+    private static final int SIDE = 64; // Size of the grid the coordinates stay in
+
+    /**
+     * Checks that growing keeps the segments in order when they wrap around the end of the buffer.
+     */
+    @Test
+    public void growsWhileWrapped() {
+        SnakeBody body = new SnakeBody();
+        LinkedList<int[]> model = new LinkedList<>();
+        for (int i = 0; i < 10; i++) {
+            addHead(body, model, i, 0);
+        }
+        for (int i = 0; i < 8; i++) {
+            removeTail(body, model);
+        }
+        // The head walks backwards from slot 0, so the next heads wrap to the end of the buffer
+        for (int i = 0; i < 40; i++) {
+            addHead(body, model, i, 1);
+            check(body, model);
+        }
+        assertEquals(42, body.size());
+    }
+
+    /**
+     * Checks that a cleared body is empty, counts the clear, and rebuilds from its tail.
+     */
+    @Test
+    public void clearEmptiesBody() {
+        SnakeBody body = new SnakeBody();
+        LinkedList<int[]> model = new LinkedList<>();
+        for (int i = 0; i < 20; i++) {
+            addHead(body, model, i, i);
+        }
+        removeTail(body, model);
+        body.clear();
+        model.clear();
+        assertEquals(0, body.size());
+        assertEquals(1, body.getClearCount());
+        assertFalse(body.contains(5, 5, 0));
+
+        for (int i = 0; i < 30; i++) {
+            body.addTail(i, 2);
+            model.addLast(new int[] { i, 2 });
+        }
+        check(body, model);
+        assertEquals(20, body.getHeadsAdded());
+        assertEquals(1, body.getTailsRemoved());
+    }
+
+    /**
+     * Checks indexed access after many moves, which carry the head around the buffer many times,
+     * with the body growing and shrinking now and then.
+     */
+    @Test
+    public void indexedAccessAfterManyMoves() {
+        SnakeBody body = new SnakeBody();
+        LinkedList<int[]> model = new LinkedList<>();
+        Random random = new Random(11);
+        addHead(body, model, 0, 0);
+        for (int move = 0; move < MOVES; move++) {
+            addHead(body, model, random.nextInt(SIDE), random.nextInt(SIDE));
+            int roll = random.nextInt(16);
+            if (roll == 0 && body.size() > 2) {
+                removeTail(body, model); // Shrinks
+                removeTail(body, model);
+            } else if (roll > 1) {
+                removeTail(body, model); // Moves; grows otherwise
+            }
+            if (move % 97 == 0) {
+                check(body, model);
+            }
+        }
+        check(body, model);
+        assertEquals(MOVES + 1, body.getHeadsAdded());
+        assertEquals(MOVES + 1 - body.size(), body.getTailsRemoved());
+    }
+
+    /**
+     * Checks the read-only list of {@link Snake#getBody()} against the model as the snake moves.
+     */
+    @Test
+    public void bodyListMatchesModel() {
+        OccupancyGrid grid = new OccupancyGrid(SIDE, SIDE);
+        Snake snake = new Snake(grid, 1, 3, 4, Direction.RIGHT);
+        LinkedList<int[]> model = new LinkedList<>();
+        model.add(new int[] { 3, 4 });
+        List<int[]> list = snake.getBody();
+        Random random = new Random(12);
+        for (int move = 0; move < 2000; move++) {
+            int x = random.nextInt(SIDE);
+            int y = random.nextInt(SIDE);
+            snake.prependSegment(x, y);
+            model.addFirst(new int[] { x, y });
+            if (random.nextInt(4) != 0) {
+                snake.removeTailSegment();
+                model.removeLast();
+            }
+            assertEquals(model.size(), list.size());
+            Iterator<int[]> expected = model.iterator();
+            for (int[] segment : list) {
+                assertArrayEquals(expected.next(), segment);
+            }
+        }
+
+        try {
+            list.get(list.size());
+            throw new AssertionError("Segment read past the tail");
+        } catch (IndexOutOfBoundsException expected) {
+            // Bounds are checked
+        }
+        try {
+            list.add(new int[] { 0, 0 });
+            throw new AssertionError("Segment added through the read-only list");
+        } catch (UnsupportedOperationException expected) {
+            // Only the snake changes its body
+        }
+        snake.clear();
+        assertTrue(list.isEmpty());
+    }
+
+    /**
+     * Adds a head to the body and the model.
+     *
+     * @param body  Body under test.
+     * @param model Segments expected, head first.
+     * @param x     X coordinate of the head.
+     * @param y     Y coordinate of the head.
+     */
+    private static void addHead(SnakeBody body, LinkedList<int[]> model, int x, int y) {
+        body.addHead(x, y);
+        model.addFirst(new int[] { x, y });
+    }
+
+    /**
+     * Removes the tail from the body and the model.
+     *
+     * @param body  Body under test.
+     * @param model Segments expected, head first.
+     */
+    private static void removeTail(SnakeBody body, LinkedList<int[]> model) {
+        body.removeTail();
+        model.removeLast();
+    }
+
+    /**
+     * Checks every segment, the head, the tail and the lookups of the body against the model.
+     *
+     * @param body  Body under test.
+     * @param model Segments expected, head first.
+     */
+    private static void check(SnakeBody body, LinkedList<int[]> model) {
+        assertEquals(model.size(), body.size());
+        int index = 0;
+        for (int[] segment : model) {
+            assertEquals("x of segment " + index, segment[0], body.getX(index));
+            assertEquals("y of segment " + index, segment[1], body.getY(index));
+            index++;
+        }
+        assertEquals(model.getFirst()[0], body.getHeadX());
+        assertEquals(model.getFirst()[1], body.getHeadY());
+        assertEquals(model.getLast()[0], body.getTailX());
+        assertEquals(model.getLast()[1], body.getTailY());
+        int[] tail = model.getLast();
+        assertTrue(body.contains(tail[0], tail[1], model.size() - 1));
+        assertFalse(body.contains(-1, -1, 0));
+    }
+}
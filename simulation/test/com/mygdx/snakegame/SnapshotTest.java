@@ -0,0 +1,162 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Encodes random matches as snapshots and checks that decoding them rebuilds the same state.
+ */
+public class SnapshotTest {
+    private static final int TICKS = 5000; // Ticks played by each match
+    private static final int KEYFRAME_INTERVAL = 60; // Ticks between two keyframes
+    // Frequent bonus items with long invulnerability
+    private static final GameRules BONUS_RULES = new GameRules(60, 300, 600, 10);
+    // The same with eight food items and up to four bonus items on the grid
+    private static final GameRules ITEM_RULES = new GameRules(60, 300, 600, 10, 8, 4);
+
+    /**
+     * Checks that a state written by the {@link GameStateCodec} reads back into a fresh simulation
+     * that then plays on exactly like the original.
+     */
+    @Test
+    public void codecRoundTrip() {
+        GameSimulation simulation = new GameSimulation(20, 16, 4, 5L, BONUS_RULES);
+        GameSimulation copy = new GameSimulation(20, 16, 4, 99L, BONUS_RULES);
+        Random random = new Random(5);
+        int[] inputs = new int[4];
+        for (int tick = 0; tick < 1000; tick++) {
+            TestMatches.randomInputs(random, inputs);
+            simulation.step(inputs);
+        }
+        GameStateCodec.read(ByteBuffer.wrap(TestMatches.state(simulation)), copy);
+        copy.setRandomState(simulation.getRandomState());
+        for (int tick = 0; tick < TICKS; tick++) {
+            TestMatches.randomInputs(random, inputs);
+            simulation.step(inputs);
+            copy.step(inputs);
+            assertArrayEquals("tick " + tick, TestMatches.state(simulation), TestMatches.state(copy));
+        }
+    }
+
+    /**
+     * Checks that keyframes and deltas decode to the state they encode, tick after tick.
+     */
+    @Test
+    public void deltasRebuildState() {
+        GameSimulation simulation = new GameSimulation(24, 18, 3, 6L, BONUS_RULES);
+        GameSimulation decoded = new GameSimulation(24, 18, 3, 0L, BONUS_RULES);
+        SnapshotEncoder encoder = new SnapshotEncoder(3);
+        SnapshotDecoder decoder = new SnapshotDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(SnapshotEncoder.getMaxSize(24, 18, 3));
+        Random random = new Random(6);
+        int[] inputs = new int[3];
+        long keyframeBytes = 0;
+        long deltaBytes = 0;
+        for (int tick = 0; tick < TICKS; tick++) {
+            TestMatches.randomInputs(random, inputs);
+            simulation.step(inputs);
+            buffer.clear();
+            if (tick % KEYFRAME_INTERVAL == 0) {
+                encoder.writeKeyframe(simulation, buffer);
+                keyframeBytes += buffer.position();
+            } else {
+                encoder.writeDelta(simulation, buffer);
+                deltaBytes += buffer.position();
+            }
+            buffer.flip();
+            decoder.read(buffer, decoded);
+            assertFalse(buffer.hasRemaining());
+            assertArrayEquals("tick " + tick, TestMatches.state(simulation), TestMatches.state(decoded));
+        }
+        int keyframes = (TICKS + KEYFRAME_INTERVAL - 1) / KEYFRAME_INTERVAL;
+        assertTrue("Deltas are not smaller than keyframes",
+                deltaBytes / (TICKS - keyframes) < keyframeBytes / keyframes);
+    }
+
+    /**
+     * Checks that a delta skipping a snapshot is refused, and that a keyframe recovers.
+     */
+    @Test
+    public void lostDeltaIsRefused() {
+        GameSimulation simulation = new GameSimulation(16, 12, 2, 7L);
+        GameSimulation decoded = new GameSimulation(16, 12, 2, 0L);
+        SnapshotEncoder encoder = new SnapshotEncoder(2);
+        SnapshotDecoder decoder = new SnapshotDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(SnapshotEncoder.getMaxSize(16, 12, 2));
+        int[] inputs = { Direction.NONE, Direction.NONE };
+
+        encoder.writeKeyframe(simulation, buffer);
+        buffer.flip();
+        decoder.read(buffer, decoded);
+        simulation.step(inputs);
+        buffer.clear();
+        encoder.writeDelta(simulation, buffer); // Lost
+        simulation.step(inputs);
+        buffer.clear();
+        encoder.writeDelta(simulation, buffer);
+        buffer.flip();
+        try {
+            decoder.read(buffer, decoded);
+            throw new AssertionError("Delta read after a lost one");
+        } catch (IllegalStateException expected) {
+            // The client waits for the next keyframe
+        }
+
+        buffer.clear();
+        encoder.writeKeyframe(simulation, buffer);
+        buffer.flip();
+        decoder.read(buffer, decoded);
+        assertArrayEquals(TestMatches.state(simulation), TestMatches.state(decoded));
+    }
+
+    /**
+     * Checks that both encodings carry grids holding several items of each kind: a state read
+     * back plays on like the original, and deltas rebuild the state as items spawn, expire and
+     * are eaten.
+     */
+    @Test
+    public void severalItemsOfAKindRoundTrip() {
+        GameSimulation simulation = new GameSimulation(24, 18, 3, 8L, ITEM_RULES);
+        GameSimulation decoded = new GameSimulation(24, 18, 3, 0L, ITEM_RULES);
+        SnapshotEncoder encoder = new SnapshotEncoder(3);
+        SnapshotDecoder decoder = new SnapshotDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(SnapshotEncoder.getMaxSize(24, 18, 3));
+        Random random = new Random(8);
+        int[] inputs = new int[3];
+        int mostBonusItems = 0;
+        for (int tick = 0; tick < TICKS; tick++) {
+            TestMatches.randomInputs(random, inputs);
+            simulation.step(inputs);
+            buffer.clear();
+            if (tick % KEYFRAME_INTERVAL == 0) {
+                encoder.writeKeyframe(simulation, buffer);
+            } else {
+                encoder.writeDelta(simulation, buffer);
+            }
+            buffer.flip();
+            decoder.read(buffer, decoded);
+            assertFalse(buffer.hasRemaining());
+            assertArrayEquals("tick " + tick, TestMatches.state(simulation), TestMatches.state(decoded));
+            mostBonusItems = Math.max(mostBonusItems, simulation.getItemIndex().getCount(ItemComponent.BONUS));
+        }
+        assertEquals(8, simulation.getItemIndex().getCount(ItemComponent.FOOD));
+        assertTrue("Never more than one bonus item", mostBonusItems > 1);
+
+        GameSimulation copy = new GameSimulation(24, 18, 3, 99L, ITEM_RULES);
+        GameStateCodec.read(ByteBuffer.wrap(TestMatches.state(simulation)), copy);
+        copy.setRandomState(simulation.getRandomState());
+        for (int tick = 0; tick < 1000; tick++) {
+            TestMatches.randomInputs(random, inputs);
+            simulation.step(inputs);
+            copy.step(inputs);
+            assertArrayEquals("tick " + tick, TestMatches.state(simulation), TestMatches.state(copy));
+        }
+    }
+}
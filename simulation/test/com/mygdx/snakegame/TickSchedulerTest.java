@@ -0,0 +1,126 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives a {@link TickScheduler} with synthetic frame times and checks the ticks it hands out,
+ * the catch-up cap after stalls, the moves of snakes at each speed and the interpolation factor.
+ */
+public class TickSchedulerTest {
+    private static final int RATE = GameSimulation.TICKS_PER_SECOND;
+    private static final int MAX_TICKS = 5; // Catch-up cap of the schedulers under test
+
+    /**
+     * Checks that frames shorter and longer than a tick add up to one tick per tick of time,
+     * whatever the refresh rate.
+     */
+    @Test
+    public void accumulatesFrameTimes() {
+        for (int refreshRate : new int[] { 30, 60, 75, 144, 240 }) {
+            TickScheduler scheduler = new TickScheduler(RATE, MAX_TICKS);
+            int ticks = 0;
+            for (int frame = 0; frame < 10 * refreshRate; frame++) {
+                int frameTicks = scheduler.advance(1f / refreshRate);
+                assertTrue(frameTicks <= (RATE + refreshRate - 1) / refreshRate + 1);
+                ticks += frameTicks;
+                checkAlpha(scheduler);
+            }
+            // Ten seconds, give or take the tick rounding of the float frame times
+            assertTrue(refreshRate + " Hz: " + ticks, Math.abs(ticks - 10 * RATE) <= 1);
+            assertEquals(ticks, scheduler.getTick());
+        }
+    }
+
+    /**
+     * Checks that a stall runs at most the capped ticks, drops the rest of the backlog but keeps
+     * the fraction of the next tick, including after a hitch of several seconds.
+     */
+    @Test
+    public void capsCatchUpAfterStall() {
+        TickScheduler scheduler = new TickScheduler(RATE, MAX_TICKS);
+        assertEquals(0, scheduler.advance(0.4f / RATE));
+        assertEquals(MAX_TICKS, scheduler.advance(2f * MAX_TICKS / RATE));
+        assertEquals(0.4f, scheduler.getAlpha(), 1e-3f);
+        assertEquals(0, scheduler.advance(0)); // The backlog is gone
+
+        assertEquals(MAX_TICKS, scheduler.advance(3.5f)); // Multi-second hitch
+        checkAlpha(scheduler);
+        assertEquals(1, scheduler.advance(1f / RATE));
+        assertEquals(2 * MAX_TICKS + 1, scheduler.getTick());
+
+        scheduler.reset();
+        assertEquals(0, scheduler.getTick());
+        assertEquals(0f, scheduler.getAlpha(), 0f);
+    }
+
+    /**
+     * Checks that a snake fed the ticks of the scheduler moves once every step interval of its
+     * speed level, and that its move progress stays within a step.
+     */
+    @Test
+    public void snakesMoveOnTheirDivisors() {
+        for (int speedLevel = 0; speedLevel < 12; speedLevel++) {
+            TickScheduler scheduler = new TickScheduler(RATE, MAX_TICKS);
+            Snake snake = new Snake(new OccupancyGrid(4, 4), 1, 0, 0, Direction.RIGHT);
+            for (int i = 0; i < speedLevel; i++) {
+                snake.increaseSpeed();
+            }
+            int stepTicks = snake.getStepTicks();
+            assertTrue(stepTicks >= 1 && stepTicks <= Snake.BASE_STEP_TICKS);
+            int moves = 0;
+            for (int frame = 0; frame < 20 * 144; frame++) {
+                for (int ticks = scheduler.advance(1f / 144); ticks > 0; ticks--) {
+                    // Off the grid after a few moves, which only the simulation cares about
+                    if (snake.update(Direction.RIGHT)) {
+                        moves++;
+                    }
+                }
+                float progress = snake.getMoveProgress(scheduler.getAlpha());
+                assertTrue(progress >= 0 && progress <= 1);
+            }
+            assertEquals("speed level " + speedLevel, scheduler.getTick() / stepTicks, moves);
+        }
+    }
+
+    /**
+     * Checks that the interpolation factor stays in [0, 1) under random frame times, stalls
+     * included.
+     */
+    @Test
+    public void alphaStaysWithinTick() {
+        Random random = new Random(16);
+        TickScheduler scheduler = new TickScheduler(RATE, MAX_TICKS);
+        for (int frame = 0; frame < 200000; frame++) {
+            float delta;
+            switch (random.nextInt(4)) {
+                case 0:
+                    delta = random.nextInt(8) / (float) RATE; // Whole ticks
+                    break;
+                case 1:
+                    delta = random.nextFloat() * 3f; // Stall
+                    break;
+                default:
+                    delta = random.nextFloat() / 100f;
+                    break;
+            }
+            int ticks = scheduler.advance(delta);
+            assertTrue(ticks >= 0 && ticks <= MAX_TICKS);
+            checkAlpha(scheduler);
+        }
+    }
+
+    /**
+     * Checks that the interpolation factor is in [0, 1).
+     *
+     * @param scheduler Scheduler under test.
+     */
+    private static void checkAlpha(TickScheduler scheduler) {
+        float alpha = scheduler.getAlpha();
+        assertTrue("alpha " + alpha, alpha >= 0f && alpha < 1f);
+    }
+}
@@ -0,0 +1,177 @@
+package com.mygdx.snakegame;
+
+import com.badlogic.ashley.core.Entity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Schedules and cancels timers, also from the handler while a tick fires them, and checks that
+ * each timer fires once, at its deadline and in scheduling order, unless it was cancelled.
+ */
+public class TimerWheelTest {
+    private static final int SLOTS = 16;
+    private static final int TICKS = 20000; // Ticks of the random schedule
+
+    private final Entity target = new Entity();
+
+    /**
+     * Checks that timers fire on their deadline in the order they were scheduled, the ones
+     * longer than a turn of the wheel included.
+     */
+    @Test
+    public void firesOnDeadlineInOrder() {
+        TimerWheel wheel = new TimerWheel(SLOTS);
+        wheel.schedule(1, target, 3);
+        wheel.schedule(2, target, 3 + SLOTS); // Same slot, one turn later
+        wheel.schedule(3, target, 3);
+        wheel.schedule(4, target, 1);
+        List<Integer> fired = new ArrayList<>();
+        TimerWheel.Handler handler = (type, entity) -> fired.add(type);
+
+        assertEquals(1, wheel.advance(handler));
+        assertEquals(0, wheel.advance(handler));
+        assertEquals(2, wheel.advance(handler));
+        assertEquals(Arrays.asList(4, 1, 3), fired);
+        for (int tick = 4; tick < 3 + SLOTS; tick++) {
+            assertEquals(0, wheel.advance(handler));
+        }
+        assertEquals(1, wheel.advance(handler));
+        assertEquals(Arrays.asList(4, 1, 3, 2), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Checks that a handler cancelling the next timer due on the same tick keeps it from
+     * firing, and leaves the freed timers fit for reuse.
+     */
+    @Test
+    public void handlerCancelsTimerDueSameTick() {
+        TimerWheel wheel = new TimerWheel(SLOTS);
+        wheel.schedule(1, target, 2);
+        int second = wheel.schedule(2, target, 2);
+        wheel.schedule(3, target, 2);
+        List<Integer> fired = new ArrayList<>();
+        wheel.advance((type, entity) -> fired.add(type));
+        assertEquals(2, wheel.advance((type, entity) -> {
+            fired.add(type);
+            if (type == 1) {
+                wheel.cancel(second);
+            }
+        }));
+        assertEquals(Arrays.asList(1, 3), fired);
+        assertEquals(0, wheel.size());
+
+        // Each freed timer is reused once
+        int first = wheel.schedule(4, target, 1);
+        int other = wheel.schedule(5, target, 1);
+        int third = wheel.schedule(6, target, 1);
+        assertEquals(3, wheel.size());
+        assertTrue(first != other && other != third && first != third);
+        fired.clear();
+        assertEquals(3, wheel.advance((type, entity) -> fired.add(type)));
+        assertEquals(Arrays.asList(4, 5, 6), fired);
+    }
+
+    /**
+     * Runs a random schedule where handlers schedule new timers and cancel waiting ones, the
+     * ones due on the same tick included, and checks every firing against the schedule.
+     */
+    @Test
+    public void randomScheduleFiresEachTimerOnce() {
+        RandomSchedule schedule = new RandomSchedule(new TimerWheel(SLOTS), new Random(23));
+        int fired = 0;
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (int i = schedule.random.nextInt(3); i > 0; i--) {
+                schedule.schedule();
+            }
+            if (schedule.random.nextInt(4) == 0) {
+                schedule.cancelAny();
+            }
+            schedule.lastFired = -1;
+            fired += schedule.wheel.advance(schedule);
+            assertEquals(schedule.timers.size(), schedule.wheel.size());
+            for (long deadline : schedule.deadlines.values()) {
+                assertTrue("A timer due at " + deadline + " did not fire", deadline > schedule.wheel.getTick());
+            }
+        }
+        assertTrue("Only " + fired + " timers fired", fired > TICKS / 2);
+    }
+
+    /**
+     * Schedules and cancels timers at random, also while they fire, and keeps what is waiting
+     * to check the firings. Types are given in scheduling order, so they number the timers.
+     */
+    private class RandomSchedule implements TimerWheel.Handler {
+        final TimerWheel wheel;
+        final Random random;
+        final Map<Integer, Integer> timers = new HashMap<>(); // Timer of each waiting type
+        final Map<Integer, Long> deadlines = new HashMap<>(); // Deadline of each waiting type
+        final List<Integer> types = new ArrayList<>(); // Waiting types
+        int nextType; // Type of the next timer scheduled
+        int lastFired; // Type of the last timer fired this tick, -1 if none
+
+        /**
+         * Creates a schedule of a wheel.
+         *
+         * @param wheel  Empty wheel.
+         * @param random Random number generator picking the timers.
+         */
+        RandomSchedule(TimerWheel wheel, Random random) {
+            this.wheel = wheel;
+            this.random = random;
+        }
+
+        /**
+         * Schedules a timer with a new type, sometimes longer than a turn of the wheel.
+         */
+        void schedule() {
+            int type = nextType++;
+            long ticks = 1 + random.nextInt(random.nextInt(8) == 0 ? 3 * SLOTS : SLOTS);
+            timers.put(type, wheel.schedule(type, target, ticks));
+            deadlines.put(type, wheel.getTick() + ticks);
+            types.add(type);
+        }
+
+        /**
+         * Cancels a waiting timer picked at random, if any.
+         */
+        void cancelAny() {
+            if (!types.isEmpty()) {
+                Integer type = types.remove(random.nextInt(types.size()));
+                wheel.cancel(timers.remove(type));
+                deadlines.remove(type);
+            }
+        }
+
+        /**
+         * Checks that the timer was waiting, is due and comes after the previous one of the
+         * tick, then cancels and schedules timers now and then.
+         *
+         * @param type   Type of the timer.
+         * @param entity Entity of the timer.
+         */
+        @Override
+        public void onTimer(int type, Entity entity) {
+            assertTrue("Timer " + type + " fired twice or after being cancelled", timers.remove(type) != null);
+            assertEquals("Timer " + type, (long) deadlines.remove(type), wheel.getTick());
+            assertTrue("Timer " + type + " fired out of order", type > lastFired);
+            lastFired = type;
+            types.remove((Integer) type);
+            if (random.nextInt(3) == 0) {
+                cancelAny();
+            }
+            if (random.nextBoolean()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that turns queued between two moves of a snake are applied one per move, and that
+ * turns that would do nothing or reverse the snake are refused.
+ */
+public class TurnQueueTest {
+    /**
+     * Queues two quick turns ending opposite to the start direction, and checks that the snake
+     * takes both, one per move, instead of only the last one or reversing into itself.
+     */
+    @Test
+    public void appliesOneTurnPerMove() {
+        GameSimulation simulation = new GameSimulation(20, 20, 1, 1L);
+        TurnQueue turns = new TurnQueue(1);
+        int start = simulation.getDirection(1);
+        int first = (start + 1) % 4; // A quarter turn
+        int second = Direction.opposite(start);
+        assertTrue(turns.offer(simulation, 1, first));
+        assertTrue(turns.offer(simulation, 1, second));
+        assertEquals(2, turns.getPendingCount(1));
+
+        Snake snake = simulation.getSnake(1);
+        int x = snake.getSegments().getHeadX();
+        int y = snake.getSegments().getHeadY();
+        int[] inputs = new int[1];
+        int[] expected = { first, second, second };
+        for (int move = 0; move < expected.length; move++) {
+            int tick = 0;
+            while (snake.getSegments().getHeadX() == x && snake.getSegments().getHeadY() == y) {
+                assertTrue("Snake stopped", tick++ < 10 * snake.getStepTicks());
+                inputs[0] = turns.next(simulation, 1);
+                simulation.step(inputs);
+            }
+            assertTrue(simulation.isAlive(1));
+            assertEquals("move " + move, x + Direction.dx(expected[move]), snake.getSegments().getHeadX());
+            assertEquals("move " + move, y + Direction.dy(expected[move]), snake.getSegments().getHeadY());
+            x = snake.getSegments().getHeadX();
+            y = snake.getSegments().getHeadY();
+        }
+        assertEquals(0, turns.getPendingCount(1));
+        assertEquals(Direction.NONE, turns.next(simulation, 1));
+    }
+
+    /**
+     * Checks the turns refused against the direction the snake will have once the previous
+     * turns are applied, and against a full queue.
+     */
+    @Test
+    public void refusesUselessTurns() {
+        GameSimulation simulation = new GameSimulation(20, 20, 2, 1L);
+        TurnQueue turns = new TurnQueue(2);
+        int start = simulation.getDirection(2);
+        assertFalse("Same direction", turns.offer(simulation, 2, start));
+        assertFalse("Reversal", turns.offer(simulation, 2, Direction.opposite(start)));
+        assertFalse(turns.offer(simulation, 2, Direction.NONE));
+
+        int turn = (start + 1) % 4;
+        assertTrue(turns.offer(simulation, 2, turn));
+        assertFalse("Same as the queued turn", turns.offer(simulation, 2, turn));
+        assertFalse("Reverses the queued turn", turns.offer(simulation, 2, Direction.opposite(turn)));
+        for (int i = 1; i < TurnQueue.MAX_PENDING; i++) {
+            turn = (turn + 1) % 4;
+            assertTrue(turns.offer(simulation, 2, turn));
+        }
+        assertFalse("Full", turns.offer(simulation, 2, (turn + 1) % 4));
+        assertEquals(TurnQueue.MAX_PENDING, turns.getPendingCount(2));
+        assertEquals("Other player", 0, turns.getPendingCount(1));
+
+        turns.clear();
+        assertEquals(0, turns.getPendingCount(2));
+        assertEquals(Direction.NONE, turns.next(simulation, 2));
+    }
+}
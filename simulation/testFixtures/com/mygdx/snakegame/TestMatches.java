@@ -0,0 +1,37 @@
+package com.mygdx.snakegame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Helpers shared by the tests that play matches and compare their states.
+ */
+final class TestMatches {
+    private TestMatches() {
+    }
+
+    /**
+     * Fills the inputs of a tick, turning now and then like a player would.
+     *
+     * @param random Random number generator picking the inputs.
+     * @param inputs Input of each player, overwritten.
+     */
+    static void randomInputs(Random random, int[] inputs) {
+        for (int p = 0; p < inputs.length; p++) {
+            inputs[p] = random.nextInt(8) == 0 ? random.nextInt(4) : Direction.NONE;
+        }
+    }
+
+    /**
+     * Encodes the state of a simulation with the {@link GameStateCodec}, for comparisons.
+     *
+     * @param simulation Simulation to encode.
+     * @return Encoded state, without the random number generator.
+     */
+    static byte[] state(GameSimulation simulation) {
+        ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.getSize(simulation));
+        GameStateCodec.write(simulation, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+}
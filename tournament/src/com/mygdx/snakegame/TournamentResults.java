@@ -0,0 +1,173 @@
+package com.mygdx.snakegame;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Results of every match of a tournament, in primitive arrays indexed by match so threads can
+ * fill them in any order, and their summary: win rates, match lengths, scores and causes of death.
+ */
+public class TournamentResults {
+    /** Cause of the end of a snake: still alive when the match ended. */
+    public static final int SURVIVED = 0;
+    /** Cause of the end of a snake: hit a wall. */
+    public static final int WALL = 1;
+    /** Cause of the end of a snake: hit its own body. */
+    public static final int SELF = 2;
+    /** Cause of the end of a snake: hit another snake. */
+    public static final int SNAKE = 3;
+    private static final String[] CAUSE_NAMES = {"survived", "wall", "self", "snake"};
+
+    /** Ending of a match: at most one snake left. */
+    public static final int ELIMINATION = 0;
+    /** Ending of a match: no free cell left for the food. */
+    public static final int BOARD_FULL = 1;
+    /** Ending of a match: longest match allowed reached, the highest score wins. */
+    public static final int TIMEOUT = 2;
+    private static final String[] ENDING_NAMES = {"elimination", "board full", "timeout"};
+
+    private final int matchCount;
+    private final int playerCount;
+    private final int[] winners; // Winner of each match, 0 for a draw
+    private final int[] lengths; // Ticks played in each match
+    private final byte[] endings; // Ending of each match
+    private final int[] scores; // Final score of each player of each match, by match then player
+    private final byte[] causes; // Cause of the end of each player of each match, by match then player
+
+    /**
+     * Creates empty results.
+     *
+     * @param matchCount  Number of matches.
+     * @param playerCount Number of players per match.
+     */
+    public TournamentResults(int matchCount, int playerCount) {
+        this.matchCount = matchCount;
+        this.playerCount = playerCount;
+        winners = new int[matchCount];
+        lengths = new int[matchCount];
+        endings = new byte[matchCount];
+        scores = new int[matchCount * playerCount];
+        causes = new byte[matchCount * playerCount];
+    }
+
+    /**
+     * Stores the outcome of a match.
+     *
+     * @param match  Match index.
+     * @param winner Id of the winner, or 0 for a draw.
+     * @param length Ticks played.
+     * @param ending One of {@link #ELIMINATION}, {@link #BOARD_FULL} and {@link #TIMEOUT}.
+     */
+    void setMatch(int match, int winner, int length, int ending) {
+        winners[match] = winner;
+        lengths[match] = length;
+        endings[match] = (byte) ending;
+    }
+
+    /**
+     * Stores the result of a player in a match.
+     *
+     * @param match  Match index.
+     * @param player Player id.
+     * @param score  Final score.
+     * @param cause  One of {@link #SURVIVED}, {@link #WALL}, {@link #SELF} and {@link #SNAKE}.
+     */
+    void setPlayer(int match, int player, int score, int cause) {
+        scores[match * playerCount + player - 1] = score;
+        causes[match * playerCount + player - 1] = (byte) cause;
+    }
+
+    /**
+     * Gets the number of matches.
+     *
+     * @return Match count.
+     */
+    public int getMatchCount() {
+        return matchCount;
+    }
+
+    /**
+     * Gets the winner of a match.
+     *
+     * @param match Match index.
+     * @return Id of the winner, or 0 for a draw.
+     */
+    public int getWinner(int match) {
+        return winners[match];
+    }
+
+    /**
+     * Gets the number of ticks played in a match.
+     *
+     * @param match Match index.
+     * @return Match length in ticks.
+     */
+    public int getLength(int match) {
+        return lengths[match];
+    }
+
+    /**
+     * Appends the summary of every match: endings, lengths, then the wins, scores and causes of
+     * death of each player. Sums run in match order, so the text only depends on the results.
+     *
+     * @param out      Destination of the text.
+     * @param botNames Bot of each player.
+     */
+    public void appendSummary(StringBuilder out, String[] botNames) {
+        int[] endingCounts = new int[ENDING_NAMES.length];
+        int draws = 0;
+        long totalLength = 0;
+        for (int match = 0; match < matchCount; match++) {
+            endingCounts[endings[match]]++;
+            totalLength += lengths[match];
+            if (winners[match] == 0) {
+                draws++;
+            }
+        }
+        out.append("Endings:");
+        for (int ending = 0; ending < ENDING_NAMES.length; ending++) {
+            out.append(ending == 0 ? " " : ", ").append(ENDING_NAMES[ending]).append(' ').append(endingCounts[ending]);
+        }
+        out.append('\n');
+
+        int[] sorted = Arrays.copyOf(lengths, matchCount);
+        Arrays.sort(sorted);
+        out.append(String.format(Locale.ROOT, "Length (ticks): mean %.1f, p50 %d, p99 %d, min %d, max %d\n",
+                (double) totalLength / matchCount, percentile(sorted, 50), percentile(sorted, 99), sorted[0], sorted[matchCount - 1]));
+        out.append(String.format(Locale.ROOT, "Draws: %.2f%%\n", 100.0 * draws / matchCount));
+
+        for (int p = 0; p < playerCount; p++) {
+            int wins = 0;
+            long totalScore = 0;
+            int maxScore = 0;
+            int[] causeCounts = new int[CAUSE_NAMES.length];
+            for (int match = 0; match < matchCount; match++) {
+                if (winners[match] == p + 1) {
+                    wins++;
+                }
+                int score = scores[match * playerCount + p];
+                totalScore += score;
+                maxScore = Math.max(maxScore, score);
+                causeCounts[causes[match * playerCount + p]]++;
+            }
+            out.append(String.format(Locale.ROOT, "Player %d (%s): wins %.2f%%, score mean %.2f, max %d, ends:",
+                    p + 1, botNames[p], 100.0 * wins / matchCount, (double) totalScore / matchCount, maxScore));
+            for (int cause = 0; cause < CAUSE_NAMES.length; cause++) {
+                out.append(cause == 0 ? " " : ", ").append(CAUSE_NAMES[cause]).append(' ').append(causeCounts[cause]);
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Gets a percentile of sorted values by the nearest-rank method.
+     *
+     * @param sorted     Values in ascending order, at least one.
+     * @param percentile Percentile between 0 and 100.
+     * @return Value at that rank.
+     */
+    private static int percentile(int[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
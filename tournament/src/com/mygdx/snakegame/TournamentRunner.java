@@ -0,0 +1,277 @@
+package com.mygdx.snakegame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays seeded bot-against-bot matches without a window, as fast as the cores allow, and writes
+ * a summary of the results. Used to tune the {@link GameRules}.
+ * <p>
+ * Match {@code i} is played with seed {@code seed + i} in a simulation reset with that seed, and
+ * the bots keep no state between moves, so each result only depends on its seed. Results are
+ * stored by match index and summed once every match is over, so the summary is the same whatever
+ * the number of threads. Matches are split over a work-stealing {@link ForkJoinPool}; each thread
+ * reuses one simulation, one set of bots and one {@link GridSearch} for all its matches.
+ * <p>
+ * Options, all optional: {@code --matches N}, {@code --seed S}, {@code --threads T},
+ * {@code --grid WIDTH HEIGHT}, {@code --bots food,survival,...} (one bot per player),
+ * {@code --max-ticks N} (longer matches end by score), {@code --bonus-interval TICKS},
+ * {@code --bonus-duration TICKS}, {@code --invulnerability TICKS}, {@code --speed-increase PERCENT},
+ * {@code --food N}, {@code --bonus-items N} and {@code --out FILE}.
+ */
+public class TournamentRunner {
+    private static final int LEAF_MATCHES = 8; // Matches below which a range is played without splitting
+
+    private final TournamentResults results;
+    private final int gridWidth;
+    private final int gridHeight;
+    private final String[] botNames; // Bot of each player
+    private final GameRules rules;
+    private final long seed; // Seed of the first match
+    private final int maxTicks; // Ticks after which a match ends by score
+    private final ThreadLocal<Worker> workers = new ThreadLocal<>(); // State reused by the matches of each thread
+
+    /**
+     * Creates a tournament.
+     *
+     * @param matches    Number of matches.
+     * @param seed       Seed of the first match; match {@code i} uses {@code seed + i}.
+     * @param gridWidth  Size of the grid on the X-axis.
+     * @param gridHeight Size of the grid on the Y-axis.
+     * @param botNames   Bot of each player, "food" or "survival".
+     * @param rules      Rules of every match.
+     * @param maxTicks   Ticks after which a match ends by score.
+     */
+    public TournamentRunner(int matches, long seed, int gridWidth, int gridHeight, String[] botNames, GameRules rules, int maxTicks) {
+        for (String name : botNames) {
+            createBot(name, null); // Fails now rather than in a worker
+        }
+        this.results = new TournamentResults(matches, botNames.length);
+        this.seed = seed;
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.botNames = botNames.clone();
+        this.rules = rules;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Creates a bot from its name.
+     *
+     * @param name   "food" for a {@link FoodSeekerBot}, "survival" for a {@link SurvivalBot}.
+     * @param search Search arrays of the thread.
+     * @return New bot.
+     */
+    private static BotController createBot(String name, GridSearch search) {
+        switch (name) {
+            case "food":
+                return new FoodSeekerBot(search);
+            case "survival":
+                return new SurvivalBot(search);
+            default:
+                throw new IllegalArgumentException("Unknown bot " + name + ", expected food or survival");
+        }
+    }
+
+    /**
+     * Plays every match.
+     *
+     * @param threads Number of threads.
+     * @return Results of the matches.
+     */
+    public TournamentResults run(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new MatchRange(0, results.getMatchCount()));
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    /**
+     * Matches to play, split in halves until small enough so idle threads can steal work.
+     */
+    private class MatchRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from; // First match, inclusive
+        private final int to; // Last match, exclusive
+
+        /**
+         * Creates a range of matches.
+         *
+         * @param from First match, inclusive.
+         * @param to   Last match, exclusive.
+         */
+        MatchRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plays the range, or splits it.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_MATCHES) {
+                Worker worker = workers.get();
+                if (worker == null) {
+                    worker = new Worker();
+                    workers.set(worker);
+                }
+                for (int match = from; match < to; match++) {
+                    worker.play(match);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MatchRange(from, middle), new MatchRange(middle, to));
+            }
+        }
+    }
+
+    /**
+     * Simulation and bots of one thread, reused by all its matches.
+     */
+    private class Worker {
+        private final GameSimulation simulation = new GameSimulation(gridWidth, gridHeight, botNames.length, 0, rules);
+        private final BotController[] bots = new BotController[botNames.length];
+        private final int[] inputs = new int[botNames.length];
+        private final int[] causes = new int[botNames.length]; // Cause of the end of each snake in the current match
+
+        /**
+         * Creates the bots of the thread, sharing one search.
+         */
+        Worker() {
+            GridSearch search = new GridSearch();
+            for (int p = 0; p < bots.length; p++) {
+                bots[p] = createBot(botNames[p], search);
+            }
+        }
+
+        /**
+         * Plays one match and stores its result.
+         *
+         * @param match Match index.
+         */
+        void play(int match) {
+            simulation.reset(seed + match);
+            for (int p = 0; p < causes.length; p++) {
+                causes[p] = TournamentResults.SURVIVED;
+            }
+            for (int tick = 1; tick <= maxTicks; tick++) {
+                for (int p = 0; p < bots.length; p++) {
+                    inputs[p] = bots[p].nextDirection(simulation, p + 1);
+                }
+                GameEvents events = simulation.step(inputs);
+                int ending = TournamentResults.ELIMINATION;
+                for (int i = 0; i < events.size(); i++) {
+                    int player = events.getPlayer(i);
+                    switch (events.getType(i)) {
+                        case GameEvents.WALL_HIT:
+                            causes[player - 1] = TournamentResults.WALL;
+                            break;
+                        case GameEvents.SELF_HIT:
+                            causes[player - 1] = TournamentResults.SELF;
+                            break;
+                        case GameEvents.SNAKES_COLLIDED:
+                            causes[player - 1] = TournamentResults.SNAKE;
+                            break;
+                        case GameEvents.BOARD_FULL:
+                            ending = TournamentResults.BOARD_FULL;
+                            break;
+                        case GameEvents.GAME_OVER:
+                            for (int p = 0; p < causes.length; p++) {
+                                results.setPlayer(match, p + 1, simulation.getFinalScore(p + 1), causes[p]);
+                            }
+                            results.setMatch(match, player, tick, ending);
+                            return;
+                    }
+                }
+            }
+            // Too long, the highest score wins
+            int winner = 0;
+            int best = -1;
+            for (int p = 0; p < causes.length; p++) {
+                int score = simulation.getScore(p + 1);
+                results.setPlayer(match, p + 1, score, causes[p]);
+                if (score > best) {
+                    best = score;
+                    winner = p + 1;
+                } else if (score == best) {
+                    winner = 0;
+                }
+            }
+            results.setMatch(match, winner, maxTicks, TournamentResults.TIMEOUT);
+        }
+    }
+
+    /**
+     * Parses the options, plays the tournament and writes the summary.
+     *
+     * @param arg Command line options.
+     * @throws IOException If the summary cannot be written.
+     */
+    public static void main(String[] arg) throws IOException {
+        int matches = 1000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int gridWidth = 32;
+        int gridHeight = 24;
+        String[] bots = {"food", "survival"};
+        int maxTicks = 10 * 60 * GameSimulation.TICKS_PER_SECOND;
+        GameRules defaults = GameRules.DEFAULT;
+        int bonusInterval = defaults.getBonusSpawnInterval();
+        int bonusDuration = defaults.getBonusDuration();
+        int invulnerability = defaults.getInvulnerabilityDuration();
+        int speedIncrease = defaults.getSpeedIncrease();
+        int foodCount = defaults.getFoodCount();
+        int maxBonusItems = defaults.getMaxBonusItems();
+        Path out = Paths.get("tournament-summary.txt");
+
+        for (int i = 0; i < arg.length; i++) {
+            switch (arg[i]) {
+                case "--matches": matches = Integer.parseInt(arg[++i]); break;
+                case "--seed": seed = Long.parseLong(arg[++i]); break;
+                case "--threads": threads = Integer.parseInt(arg[++i]); break;
+                case "--grid":
+                    gridWidth = Integer.parseInt(arg[++i]);
+                    gridHeight = Integer.parseInt(arg[++i]);
+                    break;
+                case "--bots": bots = arg[++i].split(","); break;
+                case "--max-ticks": maxTicks = Integer.parseInt(arg[++i]); break;
+                case "--bonus-interval": bonusInterval = Integer.parseInt(arg[++i]); break;
+                case "--bonus-duration": bonusDuration = Integer.parseInt(arg[++i]); break;
+                case "--invulnerability": invulnerability = Integer.parseInt(arg[++i]); break;
+                case "--speed-increase": speedIncrease = Integer.parseInt(arg[++i]); break;
+                case "--food": foodCount = Integer.parseInt(arg[++i]); break;
+                case "--bonus-items": maxBonusItems = Integer.parseInt(arg[++i]); break;
+                case "--out": out = Paths.get(arg[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + arg[i]);
+            }
+        }
+
+        GameRules rules = new GameRules(bonusInterval, bonusDuration, invulnerability, speedIncrease,
+                foodCount, maxBonusItems);
+        TournamentRunner runner = new TournamentRunner(matches, seed, gridWidth, gridHeight, bots, rules, maxTicks);
+        long start = System.nanoTime();
+        TournamentResults results = runner.run(threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        StringBuilder summary = new StringBuilder();
+        summary.append("Tournament: ").append(matches).append(" matches on a ").append(gridWidth).append('x').append(gridHeight)
+                .append(" grid, seeds ").append(seed).append(" to ").append(seed + matches - 1)
+                .append(", at most ").append(maxTicks).append(" ticks\n");
+        summary.append("Rules: ").append(rules).append('\n');
+        results.appendSummary(summary, bots);
+        Files.write(out, summary.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.print(summary);
+        System.out.printf("%d matches in %.1f s on %d threads, %.0f matches/s, summary written to %s%n",
+                matches, seconds, threads, matches / seconds, out);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mygdx.snakegame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the results of a tournament only depend on its seeds, not on the number of
+ * threads playing it.
+ */
+public class TournamentRunnerTest {
+    private static final int MATCHES = 64;
+    private static final String[] BOTS = { "food", "survival", "food" };
+    private static final int MAX_TICKS = 3000; // Short enough that some matches end by score
+
+    /**
+     * Plays the same tournament on one, two and four threads and compares every match and the summaries.
+     */
+    @Test
+    public void threadsDoNotChangeResults() {
+        TournamentResults single = play(1);
+        String summary = summary(single);
+        boolean ended = false;
+        for (int threads : new int[] { 2, 4 }) {
+            TournamentResults results = play(threads);
+            for (int match = 0; match < MATCHES; match++) {
+                assertEquals(threads + " threads, match " + match, single.getWinner(match), results.getWinner(match));
+                assertEquals(threads + " threads, match " + match, single.getLength(match), results.getLength(match));
+                ended |= single.getLength(match) < MAX_TICKS;
+            }
+            assertEquals(threads + " threads", summary, summary(results));
+        }
+        assertTrue("No match ended before the tick limit", ended);
+    }
+
+    /**
+     * Checks that an unknown bot is refused before any match is played.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesUnknownBot() {
+        new TournamentRunner(1, 1, 16, 12, new String[] { "food", "random" }, GameRules.DEFAULT, MAX_TICKS);
+    }
+
+    /**
+     * Plays the tournament.
+     *
+     * @param threads Number of threads.
+     * @return Results of the matches.
+     */
+    private static TournamentResults play(int threads) {
+        TournamentRunner runner = new TournamentRunner(MATCHES, 7, 16, 12, BOTS, GameRules.DEFAULT, MAX_TICKS);
+        return runner.run(threads);
+    }
+
+    /**
+     * Writes the summary of a tournament.
+     *
+     * @param results Results of the matches.
+     * @return Summary text.
+     */
+    private static String summary(TournamentResults results) {
+        StringBuilder out = new StringBuilder();
+        results.appendSummary(out, BOTS);
+        return out.toString();
+    }
+}